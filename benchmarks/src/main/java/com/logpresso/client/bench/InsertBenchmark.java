@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logpresso.client.ColumnBatch;
+import com.logpresso.client.Logpresso;
+import com.logpresso.client.Tuple;
+
+/**
+ * 인프로세스 메시지버스 서버를 대상으로 insert()부터 insertBatch 응답 수신까지의 입력 처리량을 측정합니다. 결과는 초당 입력 행
+ * 갯수입니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+	private static final int ROWS_PER_OP = 10000;
+
+	@Param({ "1000", "5000" })
+	public int batchSize;
+
+	@Param({ "5", "20" })
+	public int width;
+
+	@Param({ "1", "4" })
+	public int insertWindowSize;
+
+	@Param({ "1", "4" })
+	public int tables;
+
+	@Param({ "false", "true" })
+	public boolean encodeOnEnqueue;
+
+	private StandInServer server;
+	private Logpresso client;
+	private List<List<Tuple>> batches;
+	private List<ColumnBatch> columnBatches;
+
+	@Setup
+	public void setup() throws Exception {
+		server = new StandInServer(new ArrayList<Object>());
+		client = new Logpresso();
+		client.setInserFetchSize(batchSize);
+		client.setInsertWindowSize(insertWindowSize);
+		client.setInsertEncodeOnEnqueue(encodeOnEnqueue);
+		client.connect("127.0.0.1", server.getPort(), "bench", "bench");
+
+		batches = new ArrayList<List<Tuple>>();
+		for (int i = 0; i < ROWS_PER_OP / batchSize; i++)
+			batches.add(RowShapes.tuples(batchSize, width));
+
+		columnBatches = new ArrayList<ColumnBatch>();
+		for (int i = 0; i < ROWS_PER_OP / batchSize; i++)
+			columnBatches.add(RowShapes.columns(batchSize, width));
+	}
+
+	@TearDown
+	public void teardown() throws Exception {
+		client.close();
+		server.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS_PER_OP)
+	public void insert() throws Exception {
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		int i = 0;
+		for (List<Tuple> batch : batches)
+			futures.add(client.insert("bench" + (i++ % tables), batch));
+
+		for (Future<Integer> f : futures)
+			f.get();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS_PER_OP)
+	public void insertColumns() throws Exception {
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		int i = 0;
+		for (ColumnBatch batch : columnBatches)
+			futures.add(client.insertColumns("bench" + (i++ % tables), batch));
+
+		for (Future<Integer> f : futures)
+			f.get();
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logpresso.client.Message;
+import com.logpresso.client.http.impl.MessageCodec;
+
+/**
+ * 메시지버스 JSON 전문 인코딩/디코딩 성능을 측정합니다. 결과 행 목록을 매개변수로 포함한 getResult 응답 형태의 전문을 사용하며,
+ * org.json 기반 코덱과 스트리밍 코덱을 비교합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageCodecBenchmark {
+	@Param({ "10", "1000" })
+	public int rows;
+
+	@Param({ "5", "20" })
+	public int width;
+
+	@Param({ "dom", "streaming" })
+	public String codec;
+
+	private Message msg;
+	private String json;
+
+	@Setup
+	public void setup() {
+		MessageCodec.setStreaming(codec.equals("streaming"));
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("result", RowShapes.maps(rows, width));
+		params.put("count", rows);
+
+		msg = new Message();
+		msg.setType(Message.Type.Response);
+		msg.setMethod("org.araqne.logdb.msgbus.LogQueryPlugin.getResult");
+		msg.setParameters(params);
+		json = MessageCodec.encode(msg);
+	}
+
+	@Benchmark
+	public String encode() {
+		return MessageCodec.encode(msg);
+	}
+
+	@Benchmark
+	public Message decode() {
+		return MessageCodec.decode(json);
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logpresso.client.Cursor;
+import com.logpresso.client.Logpresso;
+import com.logpresso.client.ResultRangeSink;
+import com.logpresso.client.Tuple;
+
+/**
+ * 인프로세스 메시지버스 서버를 대상으로 쿼리 실행부터 전체 결과 순회까지의 소요 시간을 측정합니다. 서버는 쿼리 시작 즉시 완료를
+ * 통지하므로, 결과 페이지 조회와 디코딩 비용만 측정됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryFetchBenchmark {
+	@Param({ "100000" })
+	public int rows;
+
+	@Param({ "5", "20" })
+	public int width;
+
+	@Param({ "1000", "10000" })
+	public int fetchSize;
+
+	@Param({ "0", "2", "4" })
+	public int prefetchDepth;
+
+	private StandInServer server;
+	private Logpresso client;
+
+	@Setup
+	public void setup() throws Exception {
+		server = new StandInServer(RowShapes.maps(rows, width));
+		client = new Logpresso();
+		client.setFetchSize(fetchSize);
+		client.setPrefetchDepth(prefetchDepth);
+		client.setExportConcurrency(Math.max(1, prefetchDepth));
+		client.connect("127.0.0.1", server.getPort(), "bench", "bench");
+	}
+
+	@TearDown
+	public void teardown() throws Exception {
+		client.close();
+		server.close();
+	}
+
+	@Benchmark
+	public long query() throws Exception {
+		long count = 0;
+		Cursor cursor = client.query("table bench");
+		try {
+			while (cursor.hasNext()) {
+				cursor.next();
+				count++;
+			}
+		} finally {
+			cursor.close();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public long export() throws Exception {
+		final AtomicLong count = new AtomicLong();
+		int id = client.createQuery("table bench");
+		try {
+			client.startQuery(id);
+			client.waitUntil(id, null);
+			client.exportResult(id, new ResultRangeSink() {
+				@Override
+				public void onRows(long offset, List<Tuple> rows) {
+					count.addAndGet(rows.size());
+				}
+			});
+		} finally {
+			client.removeQuery(id);
+		}
+		return count.get();
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.bench;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.logpresso.client.ColumnBatch;
+import com.logpresso.client.Tuple;
+
+/**
+ * 벤치마크에 사용할 로그 행을 생성합니다. 방화벽이나 웹 로그와 유사하게 _time, 원본 로그 문자열, 정수, 실수, IP 주소 문자열
+ * 필드를 섞어서 지정된 갯수의 필드를 가진 행을 만듭니다. 같은 시드를 사용하므로 실행마다 동일한 데이터가 생성됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class RowShapes {
+	private RowShapes() {
+	}
+
+	public static List<Object> maps(int count, int width) {
+		Random r = new Random(42);
+		long base = 1420070400000L;
+
+		List<Object> rows = new ArrayList<Object>(count);
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("_time", new Date(base + i * 10L));
+			m.put("_id", (long) i);
+			m.put("line", line(r, i));
+
+			for (int f = 3; f < width; f++) {
+				String name = "f" + f;
+				switch (f % 4) {
+				case 0:
+					m.put(name, r.nextInt(65536));
+					break;
+				case 1:
+					m.put(name, r.nextLong());
+					break;
+				case 2:
+					m.put(name, r.nextDouble() * 1000);
+					break;
+				default:
+					m.put(name, ip(r));
+				}
+			}
+
+			rows.add(m);
+		}
+
+		return rows;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static List<Tuple> tuples(int count, int width) {
+		List<Tuple> tuples = new ArrayList<Tuple>(count);
+		for (Object o : maps(count, width)) {
+			Map<String, Object> m = (Map<String, Object>) o;
+			m.remove("_id");
+			tuples.add(new Tuple(m));
+		}
+		return tuples;
+	}
+
+	/**
+	 * tuples()와 같은 필드 구성을 기본 타입 컬럼 배열로 생성합니다.
+	 */
+	public static ColumnBatch columns(int count, int width) {
+		Random r = new Random(42);
+		long base = 1420070400000L;
+
+		ColumnBatch batch = new ColumnBatch(count);
+		long[] times = new long[count];
+		String[] lines = new String[count];
+		for (int i = 0; i < count; i++) {
+			times[i] = base + i * 10L;
+			lines[i] = line(r, i);
+		}
+		batch.putTimes("_time", times);
+		batch.put("line", lines);
+
+		for (int f = 3; f < width; f++) {
+			String name = "f" + f;
+			switch (f % 4) {
+			case 0: {
+				int[] values = new int[count];
+				for (int i = 0; i < count; i++)
+					values[i] = r.nextInt(65536);
+				batch.putInts(name, values);
+				break;
+			}
+			case 1: {
+				long[] values = new long[count];
+				for (int i = 0; i < count; i++)
+					values[i] = r.nextLong();
+				batch.putLongs(name, values);
+				break;
+			}
+			case 2: {
+				double[] values = new double[count];
+				for (int i = 0; i < count; i++)
+					values[i] = r.nextDouble() * 1000;
+				batch.putDoubles(name, values);
+				break;
+			}
+			default: {
+				String[] values = new String[count];
+				for (int i = 0; i < count; i++)
+					values[i] = ip(r);
+				batch.put(name, values);
+			}
+			}
+		}
+
+		return batch;
+	}
+
+	private static String line(Random r, int i) {
+		return "2015-01-01 00:00:00 deny src=" + ip(r) + " sport=" + r.nextInt(65536) + " dst=" + ip(r) + " dport="
+				+ r.nextInt(1024) + " proto=tcp seq=" + i + " msg=\"connection denied by policy\"";
+	}
+
+	private static String ip(Random r) {
+		return "10." + r.nextInt(256) + "." + r.nextInt(256) + "." + r.nextInt(256);
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.logpresso.client.ColumnBatch;
+import com.logpresso.client.Tuple;
+import com.logpresso.client.http.impl.StreamingResultDecoder;
+import com.logpresso.client.http.impl.StreamingResultEncoder;
+
+/**
+ * 입력 데이터 인코딩과 스트리밍 쿼리 결과 디코딩 성능을 측정합니다. 행 갯수와 필드 갯수를 조합합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingResultCodecBenchmark {
+	@Param({ "1000", "10000" })
+	public int rows;
+
+	@Param({ "5", "20" })
+	public int width;
+
+	private List<Object> data;
+	private List<Map<String, Object>> chunks;
+	private StreamingResultEncoder encoder;
+	private StreamingResultDecoder decoder;
+
+	@Setup
+	public void setup() throws Exception {
+		int poolSize = Math.min(8, Runtime.getRuntime().availableProcessors());
+		encoder = new StreamingResultEncoder("Benchmark Encoder", poolSize);
+		decoder = new StreamingResultDecoder("Benchmark Decoder", poolSize);
+		data = RowShapes.maps(rows, width);
+
+		chunks = encoder.encode(data, false);
+	}
+
+	@TearDown
+	public void teardown() {
+		encoder.close();
+		decoder.close();
+	}
+
+	@Benchmark
+	public int encode() throws Exception {
+		return encoder.encode(data, false).size();
+	}
+
+	@Benchmark
+	public List<Object> decode() throws Exception {
+		return decoder.decode(chunks);
+	}
+
+	@Benchmark
+	public List<Tuple> decodeTuples() throws Exception {
+		return decoder.decodeTuples(chunks);
+	}
+
+	@Benchmark
+	public List<ColumnBatch> decodeColumns() throws Exception {
+		return decoder.decodeColumns(chunks);
+	}
+}
@@ -30,7 +30,7 @@ import com.logpresso.client.http.impl.TrapListener;
  * @author xeraph@eediom.com
  * 
  */
-public abstract class AbstractSession implements Session {
+public abstract class AbstractSession implements AsyncSession {
 	protected boolean isClosed;
 	protected boolean isLogin = false;
 	protected CopyOnWriteArraySet<TrapListener> listeners = new CopyOnWriteArraySet<TrapListener>();
@@ -40,6 +40,11 @@ public abstract class AbstractSession implements Session {
 		return isClosed;
 	}
 
+	@Override
+	public TrapDispatchStats getTrapDispatchStats() {
+		return new TrapDispatchStats();
+	}
+
 	@Override
 	public void login(String loginName, String password) throws IOException {
 		login(loginName, password, false);
@@ -123,18 +128,77 @@ public abstract class AbstractSession implements Session {
 		return rpc(req, timeout);
 	}
 
+	/**
+	 * 비동기 전송을 지원하지 않는 세션을 위해 동기 호출 후 콜백을 호출합니다.
+	 */
+	@Override
+	public void rpc(Message req, RpcCallback callback) throws IOException {
+		Message resp = null;
+		try {
+			resp = rpc(req, 0);
+		} catch (IOException e) {
+			throw e;
+		} catch (Throwable t) {
+			callback.onFailure(t);
+			return;
+		}
+
+		callback.onResponse(resp);
+	}
+
+	@Override
+	public RpcFuture<Message> rpcAsync(Message req) {
+		final RpcFuture<Message> future = new RpcFuture<Message>();
+		try {
+			rpc(req, new RpcCallback() {
+				@Override
+				public void onResponse(Message resp) {
+					future.complete(resp);
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					future.fail(t);
+				}
+			});
+		} catch (Throwable t) {
+			future.fail(t);
+		}
+		return future;
+	}
+
 	public void registerTrap(String callbackName) throws IOException {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("callback", callbackName);
 		rpc("org.araqne.msgbus.PushPlugin.subscribe", params);
 	}
 
+	public RpcFuture<Message> registerTrapAsync(String callbackName) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("callback", callbackName);
+
+		Message req = new Message();
+		req.setMethod("org.araqne.msgbus.PushPlugin.subscribe");
+		req.setParameters(params);
+		return rpcAsync(req);
+	}
+
 	public void unregisterTrap(String callbackName) throws IOException {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("callback", callbackName);
 		rpc("org.araqne.msgbus.PushPlugin.unsubscribe", params);
 	}
 
+	public RpcFuture<Message> unregisterTrapAsync(String callbackName) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("callback", callbackName);
+
+		Message req = new Message();
+		req.setMethod("org.araqne.msgbus.PushPlugin.unsubscribe");
+		req.setParameters(params);
+		return rpcAsync(req);
+	}
+
 	public void addListener(TrapListener listener) {
 		listeners.add(listener);
 	}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.io.IOException;
+
+/**
+ * 비동기 RPC 호출과 트랩 구독을 지원하는 세션의 명세를 제공합니다. Session 인터페이스를 직접 구현한 세션은 이 인터페이스를
+ * 구현하지 않아도 되며, 이 경우 비동기 호출은 호출한 스레드에서 동기 호출로 처리됩니다. AbstractSession은 동기 호출을 이용한
+ * 기본 구현을 제공합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface AsyncSession extends Session {
+	/**
+	 * 로그프레소 RPC 메소드를 비동기로 호출합니다. 요청을 전송한 후 즉시 반환하며, 응답을 수신하면 주어진 콜백이 호출됩니다.
+	 * 
+	 * @param req
+	 *            메시지버스 요청 전문 개체
+	 * @param callback
+	 *            응답 혹은 실패를 전달받을 콜백
+	 * @throws IOException
+	 *             요청 전송에 실패한 경우
+	 * @since 1.2.0
+	 */
+	void rpc(Message req, RpcCallback callback) throws IOException;
+
+	/**
+	 * 로그프레소 RPC 메소드를 비동기로 호출합니다. 호출한 스레드를 차단하지 않으며, 반환된 퓨처는 응답을 수신한 스레드에서 즉시
+	 * 완료됩니다. 요청 전송에 실패한 경우에도 예외를 발생시키지 않고 실패한 퓨처를 반환합니다.
+	 * 
+	 * @param req
+	 *            메시지버스 요청 전문 개체
+	 * @return 응답 메시지로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	RpcFuture<Message> rpcAsync(Message req);
+
+	/**
+	 * 트랩 디스패처의 작업 스레드와 대기열 통계를 조회합니다.
+	 * 
+	 * @return 트랩 디스패처를 사용하지 않으면 모든 값이 0인 통계
+	 * @since 1.2.0
+	 */
+	TrapDispatchStats getTrapDispatchStats();
+
+	/**
+	 * 로그프레소 서버에서 트랩 수신을 비동기로 시작합니다.
+	 * 
+	 * @param callbackName
+	 *            트랩을 수신할 콜백 이름
+	 * @return 구독 요청의 응답으로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	RpcFuture<Message> registerTrapAsync(String callbackName);
+
+	/**
+	 * 로그프레소 서버에서 트랩 수신을 비동기로 중지합니다.
+	 * 
+	 * @param callbackName
+	 *            트랩 수신을 중지할 콜백 이름
+	 * @return 구독 해제 요청의 응답으로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	RpcFuture<Message> unregisterTrapAsync(String callbackName);
+}
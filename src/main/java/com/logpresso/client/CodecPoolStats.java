@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 입력 데이터 인코딩과 쿼리 결과 디코딩에 재사용되는 버퍼 풀과 압축기 풀의 통계를 표현합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class CodecPoolStats {
+	private long bufferAcquireCount;
+	private long bufferHitCount;
+	private long bufferReleaseCount;
+	private long bufferDiscardCount;
+	private long pooledBufferBytes;
+	private long compressorAcquireCount;
+	private long compressorCreateCount;
+	private int pooledCompressorCount;
+
+	/**
+	 * 버퍼 요청 횟수를 반환합니다.
+	 */
+	public long getBufferAcquireCount() {
+		return bufferAcquireCount;
+	}
+
+	public void setBufferAcquireCount(long bufferAcquireCount) {
+		this.bufferAcquireCount = bufferAcquireCount;
+	}
+
+	/**
+	 * 풀에 보관된 버퍼를 재사용한 횟수를 반환합니다.
+	 */
+	public long getBufferHitCount() {
+		return bufferHitCount;
+	}
+
+	public void setBufferHitCount(long bufferHitCount) {
+		this.bufferHitCount = bufferHitCount;
+	}
+
+	/**
+	 * 버퍼 반납 횟수를 반환합니다.
+	 */
+	public long getBufferReleaseCount() {
+		return bufferReleaseCount;
+	}
+
+	public void setBufferReleaseCount(long bufferReleaseCount) {
+		this.bufferReleaseCount = bufferReleaseCount;
+	}
+
+	/**
+	 * 풀에 보관하지 않고 버린 반납 버퍼 갯수를 반환합니다.
+	 */
+	public long getBufferDiscardCount() {
+		return bufferDiscardCount;
+	}
+
+	public void setBufferDiscardCount(long bufferDiscardCount) {
+		this.bufferDiscardCount = bufferDiscardCount;
+	}
+
+	/**
+	 * 현재 풀에 보관 중인 버퍼의 총 바이트 크기를 반환합니다.
+	 */
+	public long getPooledBufferBytes() {
+		return pooledBufferBytes;
+	}
+
+	public void setPooledBufferBytes(long pooledBufferBytes) {
+		this.pooledBufferBytes = pooledBufferBytes;
+	}
+
+	/**
+	 * Deflater, Inflater 요청 횟수를 반환합니다.
+	 */
+	public long getCompressorAcquireCount() {
+		return compressorAcquireCount;
+	}
+
+	public void setCompressorAcquireCount(long compressorAcquireCount) {
+		this.compressorAcquireCount = compressorAcquireCount;
+	}
+
+	/**
+	 * 새로 생성한 Deflater, Inflater 갯수를 반환합니다.
+	 */
+	public long getCompressorCreateCount() {
+		return compressorCreateCount;
+	}
+
+	public void setCompressorCreateCount(long compressorCreateCount) {
+		this.compressorCreateCount = compressorCreateCount;
+	}
+
+	/**
+	 * 현재 풀에 보관 중인 Deflater, Inflater 갯수를 반환합니다.
+	 */
+	public int getPooledCompressorCount() {
+		return pooledCompressorCount;
+	}
+
+	public void setPooledCompressorCount(int pooledCompressorCount) {
+		this.pooledCompressorCount = pooledCompressorCount;
+	}
+
+	@Override
+	public String toString() {
+		return "buffer acquire=" + bufferAcquireCount + ", hit=" + bufferHitCount + ", release=" + bufferReleaseCount
+				+ ", discard=" + bufferDiscardCount + ", pooled bytes=" + pooledBufferBytes + ", compressor acquire="
+				+ compressorAcquireCount + ", create=" + compressorCreateCount + ", pooled=" + pooledCompressorCount;
+	}
+}
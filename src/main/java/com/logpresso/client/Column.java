@@ -0,0 +1,283 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * 컬럼 배열에 대한 타입별 조회 기능을 제공합니다. 숫자와 날짜 값을 기본 타입으로 조회하므로 행마다 개체를 새로 생성하지 않습니다. 컬럼은
+ * 개체 배열 혹은 long, double, int, boolean 기본 타입 배열로 저장되며, 기본 타입 배열 컬럼에는 값이 없는 행이 없습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class Column {
+	private final String name;
+
+	// null if backed by primitive array
+	private final Object[] values;
+
+	// Object[], long[], double[], int[] or boolean[]
+	private final Object array;
+	private final int length;
+
+	// long array of epoch millis
+	private final boolean time;
+
+	public Column(String name, Object[] values) {
+		this(name, values, values.length, false);
+	}
+
+	/**
+	 * long 배열 컬럼을 생성합니다.
+	 * 
+	 * @param time
+	 *            값이 epoch 밀리초이며 날짜 타입으로 입력되어야 하는 경우 true
+	 * @since 1.2.0
+	 */
+	public Column(String name, long[] values, boolean time) {
+		this(name, values, values.length, time);
+	}
+
+	/**
+	 * double 배열 컬럼을 생성합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public Column(String name, double[] values) {
+		this(name, values, values.length, false);
+	}
+
+	/**
+	 * int 배열 컬럼을 생성합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public Column(String name, int[] values) {
+		this(name, values, values.length, false);
+	}
+
+	/**
+	 * boolean 배열 컬럼을 생성합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public Column(String name, boolean[] values) {
+		this(name, values, values.length, false);
+	}
+
+	private Column(String name, Object array, int length, boolean time) {
+		this.name = name;
+		this.array = array;
+		this.values = array instanceof Object[] ? (Object[]) array : null;
+		this.length = length;
+		this.time = time;
+	}
+
+	/**
+	 * 컬럼 이름을 반환합니다.
+	 * 
+	 * @return 컬럼 이름
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 행 갯수를 반환합니다.
+	 * 
+	 * @return 행 갯수
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * 지정한 행에 값이 없는지 확인합니다.
+	 * 
+	 * @param row
+	 *            행 번호
+	 * @return 값이 없으면 true
+	 */
+	public boolean isNull(int row) {
+		return values != null && values[row] == null;
+	}
+
+	/**
+	 * 지정한 행의 값을 반환합니다.
+	 * 
+	 * @param row
+	 *            행 번호
+	 * @return 행 값
+	 */
+	public Object get(int row) {
+		if (values != null)
+			return values[row];
+		if (array instanceof long[])
+			return time ? new Date(((long[]) array)[row]) : (Object) ((long[]) array)[row];
+		if (array instanceof double[])
+			return ((double[]) array)[row];
+		if (array instanceof int[])
+			return ((int[]) array)[row];
+		return ((boolean[]) array)[row];
+	}
+
+	/**
+	 * 지정한 행의 값을 long 타입으로 반환합니다. 날짜 타입은 epoch 밀리초로 변환됩니다.
+	 * 
+	 * @param row
+	 *            행 번호
+	 * @return long 값
+	 * @throws NullPointerException
+	 *             값이 없는 경우
+	 * @throws ClassCastException
+	 *             숫자나 날짜 타입이 아닌 경우
+	 */
+	public long getLong(int row) {
+		if (array instanceof long[])
+			return ((long[]) array)[row];
+		if (array instanceof int[])
+			return ((int[]) array)[row];
+
+		Object o = get(row);
+		if (o instanceof Date)
+			return ((Date) o).getTime();
+		return ((Number) o).longValue();
+	}
+
+	/**
+	 * 지정한 행의 값을 double 타입으로 반환합니다.
+	 * 
+	 * @param row
+	 *            행 번호
+	 * @return double 값
+	 * @throws NullPointerException
+	 *             값이 없는 경우
+	 * @throws ClassCastException
+	 *             숫자 타입이 아닌 경우
+	 */
+	public double getDouble(int row) {
+		if (array instanceof double[])
+			return ((double[]) array)[row];
+		return ((Number) get(row)).doubleValue();
+	}
+
+	/**
+	 * 지정한 행의 날짜 값을 epoch 밀리초로 반환합니다.
+	 * 
+	 * @param row
+	 *            행 번호
+	 * @return epoch 밀리초
+	 * @throws NullPointerException
+	 *             값이 없는 경우
+	 * @throws ClassCastException
+	 *             날짜 타입이 아닌 경우
+	 */
+	public long getTime(int row) {
+		if (time)
+			return ((long[]) array)[row];
+		return ((Date) values[row]).getTime();
+	}
+
+	/**
+	 * 컬럼 값 배열을 반환합니다. 개체 배열 컬럼은 복사본이 아니므로 수정하지 않아야 하며, 기본 타입 배열 컬럼은 값을 변환한 새 배열을
+	 * 반환합니다.
+	 * 
+	 * @return 행 순서대로 저장된 값 배열
+	 */
+	public Object[] getValues() {
+		if (values != null)
+			return values;
+
+		Object[] boxed = new Object[length];
+		for (int i = 0; i < length; i++)
+			boxed[i] = get(i);
+		return boxed;
+	}
+
+	/**
+	 * 컬럼의 원본 배열을 반환합니다. Object[], long[], double[], int[], boolean[] 중 하나이며, 복사본이 아니므로
+	 * 수정하지 않아야 합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public Object getArray() {
+		return array;
+	}
+
+	/**
+	 * epoch 밀리초 long 배열로 저장된 날짜 컬럼인지 확인합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public boolean isTime() {
+		return time;
+	}
+
+	// copy of row range
+	Column slice(int from, int to) {
+		if (values != null)
+			return new Column(name, Arrays.copyOfRange(values, from, to));
+		if (array instanceof long[])
+			return new Column(name, Arrays.copyOfRange((long[]) array, from, to), time);
+		if (array instanceof double[])
+			return new Column(name, Arrays.copyOfRange((double[]) array, from, to));
+		if (array instanceof int[])
+			return new Column(name, Arrays.copyOfRange((int[]) array, from, to));
+		return new Column(name, Arrays.copyOfRange((boolean[]) array, from, to));
+	}
+
+	/**
+	 * 숫자 혹은 날짜 컬럼을 long 배열로 변환합니다. 값이 없는 행은 주어진 기본값으로 채워집니다.
+	 * 
+	 * @param defaultValue
+	 *            값이 없는 행에 사용할 기본값
+	 * @return long 배열
+	 */
+	public long[] toLongArray(long defaultValue) {
+		if (array instanceof long[])
+			return ((long[]) array).clone();
+
+		long[] l = new long[length];
+		for (int i = 0; i < length; i++)
+			l[i] = isNull(i) ? defaultValue : getLong(i);
+		return l;
+	}
+
+	/**
+	 * 숫자 컬럼을 double 배열로 변환합니다. 값이 없는 행은 주어진 기본값으로 채워집니다.
+	 * 
+	 * @param defaultValue
+	 *            값이 없는 행에 사용할 기본값
+	 * @return double 배열
+	 */
+	public double[] toDoubleArray(double defaultValue) {
+		if (array instanceof double[])
+			return ((double[]) array).clone();
+
+		double[] l = new double[length];
+		for (int i = 0; i < length; i++)
+			l[i] = isNull(i) ? defaultValue : getDouble(i);
+		return l;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + length + " rows)";
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 같은 갯수의 행을 가진 컬럼 배열들의 묶음을 표현합니다. 각 컬럼은 행 순서대로 값이 저장된 배열이며, 값이 없는 행은 null로
+ * 표현됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class ColumnBatch {
+	private final int rowCount;
+	private final Map<String, Column> columns = new LinkedHashMap<String, Column>();
+
+	public ColumnBatch(int rowCount) {
+		if (rowCount < 0)
+			throw new IllegalArgumentException("row count should not be negative");
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * 행 갯수를 반환합니다.
+	 * 
+	 * @return 행 갯수
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * 컬럼 이름 목록을 반환합니다.
+	 * 
+	 * @return 컬럼 이름 목록
+	 */
+	public Set<String> getColumnNames() {
+		return Collections.unmodifiableSet(columns.keySet());
+	}
+
+	/**
+	 * 지정한 컬럼을 반환합니다.
+	 * 
+	 * @param name
+	 *            컬럼 이름
+	 * @return 컬럼, 해당 이름의 컬럼이 없으면 null
+	 */
+	public Column getColumn(String name) {
+		return columns.get(name);
+	}
+
+	/**
+	 * 컬럼을 추가합니다.
+	 * 
+	 * @param name
+	 *            컬럼 이름
+	 * @param values
+	 *            행 순서대로 저장된 값 배열
+	 */
+	public void put(String name, Object[] values) {
+		checkLength(name, values.length);
+		columns.put(name, new Column(name, values));
+	}
+
+	/**
+	 * long 컬럼을 추가합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void putLongs(String name, long[] values) {
+		checkLength(name, values.length);
+		columns.put(name, new Column(name, values, false));
+	}
+
+	/**
+	 * epoch 밀리초 배열을 날짜 컬럼으로 추가합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void putTimes(String name, long[] values) {
+		checkLength(name, values.length);
+		columns.put(name, new Column(name, values, true));
+	}
+
+	/**
+	 * double 컬럼을 추가합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void putDoubles(String name, double[] values) {
+		checkLength(name, values.length);
+		columns.put(name, new Column(name, values));
+	}
+
+	/**
+	 * int 컬럼을 추가합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void putInts(String name, int[] values) {
+		checkLength(name, values.length);
+		columns.put(name, new Column(name, values));
+	}
+
+	/**
+	 * boolean 컬럼을 추가합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void putBooleans(String name, boolean[] values) {
+		checkLength(name, values.length);
+		columns.put(name, new Column(name, values));
+	}
+
+	/**
+	 * 지정한 행 범위의 값을 복사한 새 컬럼 묶음을 반환합니다.
+	 * 
+	 * @param from
+	 *            시작 행 번호 (포함)
+	 * @param to
+	 *            끝 행 번호 (제외)
+	 * @since 1.2.0
+	 */
+	public ColumnBatch slice(int from, int to) {
+		if (from < 0 || to > rowCount || from > to)
+			throw new IndexOutOfBoundsException("invalid row range [" + from + ", " + to + ") of " + rowCount + " rows");
+
+		ColumnBatch batch = new ColumnBatch(to - from);
+		for (Column c : columns.values())
+			batch.columns.put(c.getName(), c.slice(from, to));
+		return batch;
+	}
+
+	private void checkLength(String name, int length) {
+		if (length != rowCount)
+			throw new IllegalArgumentException("column [" + name + "] length " + length + " does not match row count "
+					+ rowCount);
+	}
+
+	@Override
+	public String toString() {
+		return "rows=" + rowCount + ", columns=" + columns.keySet();
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 이 인터페이스는 쿼리 결과를 행 단위로 변환하지 않고 컬럼 배열 그대로 스트리밍하는데 필요한 명세를 제공합니다. 행마다 Map과
+ * Tuple 개체를 생성하지 않으므로 대량의 쿼리 결과를 분석하는 경우 GC 부하를 크게 줄일 수 있습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface ColumnarResultSet {
+	/**
+	 * 
+	 * @param query
+	 *            연관된 쿼리 개체
+	 * @param batch
+	 *            부분적인 쿼리 결과 컬럼 묶음
+	 * @param last
+	 *            마지막 콜백 호출 여부
+	 */
+	void onColumns(Query query, ColumnBatch batch, boolean last);
+}
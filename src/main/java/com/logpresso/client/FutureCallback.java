@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 비동기 호출 결과를 전달받는 콜백 인터페이스입니다. 콜백은 응답을 수신한 스레드에서 호출되므로, 구현체는 스레드를 차단하는 작업을
+ * 수행하지 않아야 합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface FutureCallback<T> {
+	/**
+	 * 비동기 호출이 성공한 경우 호출됩니다.
+	 * 
+	 * @param value
+	 *            호출 결과
+	 */
+	void onSuccess(T value);
+
+	/**
+	 * 비동기 호출이 실패한 경우 호출됩니다.
+	 * 
+	 * @param t
+	 *            실패 원인
+	 */
+	void onFailure(Throwable t);
+}
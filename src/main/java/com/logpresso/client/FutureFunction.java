@@ -0,0 +1,35 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 비동기 호출 결과를 다른 값이나 후속 비동기 호출로 변환하는 함수 인터페이스입니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface FutureFunction<T, R> {
+	/**
+	 * 
+	 * @param value
+	 *            선행 비동기 호출 결과
+	 * @return 변환된 결과
+	 * @throws Exception
+	 *             변환에 실패한 경우, 후속 퓨처가 이 예외로 실패합니다.
+	 */
+	R apply(T value) throws Exception;
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.io.File;
+
+/**
+ * 입력 대기열이 가득 찼을 때 행을 디스크로 넘기는 스필 로그 설정을 표현합니다. 스필 로그는 메모리 매핑된 세그먼트 파일들로 구성되며,
+ * 서버 연결이 가능해지면 기록된 순서대로 다시 입력됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class InsertSpillConfig {
+	/**
+	 * 스필 로그를 디스크에 강제로 기록하는 시점을 표현합니다. 메모리 매핑된 세그먼트에 기록된 데이터는 프로세스가 비정상 종료되더라도
+	 * 보존되며, 이 정책은 운영체제나 전원 장애에 대비한 동기화 시점만 결정합니다.
+	 */
+	public enum FsyncPolicy {
+		/**
+		 * 운영체제의 페이지 캐시 반영 주기에 맡깁니다.
+		 */
+		NONE,
+
+		/**
+		 * 세그먼트가 가득 차서 닫힐 때와 스필 로그를 닫을 때 동기화합니다.
+		 */
+		SEGMENT,
+
+		/**
+		 * 매 기록마다 동기화합니다.
+		 */
+		EVERY_RECORD
+	}
+
+	private File dir;
+
+	// 1GB
+	private long maxBytes = 1024L * 1024 * 1024;
+
+	// 64MB
+	private int segmentSize = 64 * 1024 * 1024;
+
+	private FsyncPolicy fsyncPolicy = FsyncPolicy.SEGMENT;
+
+	public InsertSpillConfig() {
+	}
+
+	public InsertSpillConfig(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * 세그먼트 파일들이 저장되는 디렉터리를 반환합니다.
+	 */
+	public File getDir() {
+		return dir;
+	}
+
+	public void setDir(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * 세그먼트 파일들이 사용할 수 있는 최대 디스크 용량을 반환합니다. 용량을 초과하면 insert()는 기존과 같이 대기열에 여유가 생길
+	 * 때까지 대기합니다.
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	public void setMaxBytes(long maxBytes) {
+		if (maxBytes <= 0)
+			throw new IllegalArgumentException("max bytes should be positive");
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * 세그먼트 파일 하나의 크기를 반환합니다.
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	public void setSegmentSize(int segmentSize) {
+		if (segmentSize < 4096)
+			throw new IllegalArgumentException("segment size should be at least 4096");
+		this.segmentSize = segmentSize;
+	}
+
+	public FsyncPolicy getFsyncPolicy() {
+		return fsyncPolicy;
+	}
+
+	public void setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+		if (fsyncPolicy == null)
+			throw new IllegalArgumentException("fsync policy should be not null");
+		this.fsyncPolicy = fsyncPolicy;
+	}
+
+	@Override
+	public String toString() {
+		return "dir=" + dir + ", max bytes=" + maxBytes + ", segment size=" + segmentSize + ", fsync=" + fsyncPolicy;
+	}
+}
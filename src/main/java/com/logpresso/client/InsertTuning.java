@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 테이블 입력 배치 크기와 전송 대기 시간을 결정하는 방식을 표현합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public enum InsertTuning {
+	/**
+	 * 설정된 입력 배치 크기와 인덱스 플러시 주기를 그대로 사용합니다.
+	 */
+	STATIC,
+
+	/**
+	 * 배치 전송 대기 시간과 insertBatch 응답 시간의 합이 목표 지연 시간을 넘지 않도록 테이블 단위로 배치 크기와 대기 시간을
+	 * 조정합니다.
+	 */
+	LATENCY,
+
+	/**
+	 * 행 당 인코딩 및 응답 시간이 최소가 되는 배치 크기를 테이블 단위로 탐색하고, 배치가 찰 때까지 인덱스 플러시 주기 이내에서
+	 * 대기합니다.
+	 */
+	THROUGHPUT
+}
@@ -16,6 +16,7 @@
 package com.logpresso.client;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.text.ParseException;
@@ -24,26 +25,47 @@ import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
 import org.araqne.api.PrimitiveConverter;
 import org.araqne.codec.EncodingRule;
 import org.araqne.codec.FastEncodingRule;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import com.logpresso.client.http.WebSocketTransport;
+import com.logpresso.client.http.impl.ByteBufferPool;
+import com.logpresso.client.http.impl.ByteThrottle;
+import com.logpresso.client.http.impl.CompressorPool;
+import com.logpresso.client.http.impl.InsertBatchController;
+import com.logpresso.client.http.impl.InsertColumnBuilder;
+import com.logpresso.client.http.impl.InsertSpillLog;
+import com.logpresso.client.http.impl.MetadataCache;
 import com.logpresso.client.http.impl.StreamingResultDecoder;
 import com.logpresso.client.http.impl.StreamingResultEncoder;
+import com.logpresso.client.http.impl.StreamingResultQueue;
+import com.logpresso.client.http.impl.TimeOrder;
 import com.logpresso.client.http.impl.TrapListener;
 
 import org.araqne.websocket.Base64;
@@ -84,31 +106,85 @@ import org.araqne.websocket.Base64;
  * 
  */
 public class Logpresso implements TrapListener, Closeable {
-	private static final int MAX_THROTTLE_PERMIT = 100000;
 	private static final AtomicLong instanceCnt = new AtomicLong(0);
 	private org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Logpresso.class);
 	private Transport transport;
 	private Session session;
 	private int fetchSize = 10000;
+
+	// number of result pages fetched ahead by cursor, 0 for synchronous fetch
+	private int prefetchDepth = 2;
+
+	// max bytes of prefetched but not consumed pages
+	private long prefetchMemoryLimit = 64 * 1024 * 1024;
+
+	// number of result ranges fetched concurrently by exportResult()
+	private int exportConcurrency = 4;
 	private ConcurrentMap<Integer, Query> queries = new ConcurrentHashMap<Integer, Query>();
 	private ConcurrentMap<Integer, StreamingResultSet> streamCallbacks = new ConcurrentHashMap<Integer, StreamingResultSet>();
+	private ConcurrentMap<Integer, ColumnarResultSet> columnarCallbacks = new ConcurrentHashMap<Integer, ColumnarResultSet>();
+
+	// bounded buffering of streaming result traps, 0 means synchronous delivery
+	private volatile long streamingResultMemoryLimit;
+	private volatile File streamingResultSpillDir;
+	private ConcurrentMap<Integer, ResultDelivery> resultDeliveries = new ConcurrentHashMap<Integer, ResultDelivery>();
+
+	// drains result queues of all streaming queries, one thread per query at a time
+	private ThreadPoolExecutor resultDeliveryExecutor;
 	private Locale locale = Locale.getDefault();
 	private StreamingResultDecoder streamingDecoder;
 
-	private AtomicReference<Flusher> flusher = new AtomicReference<Flusher>(null);
+	private AtomicReference<Flusher[]> flushers = new AtomicReference<Flusher[]>(null);
+
+	// tables are striped to flushers by name
+	private int insertFlusherCount = Math.min(4, Runtime.getRuntime().availableProcessors());
 
 	private StreamingResultEncoder streamingEncoder;
-	private Semaphore inputThrottler = new Semaphore(MAX_THROTTLE_PERMIT);
-	// private int counter = 0;
+
+	// scratch buffers and zlib states shared by encoder, decoder and getResult
+	private ByteBufferPool bufferPool;
+	private CompressorPool compressorPool;
+	// estimated encoded bytes of queued rows, per client and per table
+	private ByteThrottle inputThrottler = new ByteThrottle(256 * 1024 * 1024);
+	private long insertTableMemoryLimit = 64 * 1024 * 1024;
 
 	private int insertBatchSize = 3500;
 
+	// max estimated encoded bytes of one insertBatch call
+	private int insertBatchBytes = 4 * 1024 * 1024;
+
+	// per table batch size and linger tuning
+	private volatile InsertTuning insertTuning = InsertTuning.STATIC;
+	private volatile int insertLatencyTarget = 200;
+
+	// pivot and encode rows in producer threads
+	private volatile boolean insertEncodeOnEnqueue;
+
+	// sort each insert batch by _time before encoding
+	private volatile boolean insertTimeSorted;
+
 	// milliseconds
 	private int indexFlushInterval = 1000;
 
-	// table name to row list mappings
-	private Map<String, List<QueuedRows>> flushBuffers = new HashMap<String, List<QueuedRows>>();
+	// cached responses of table, parser, logger and index lookups, null if
+	// disabled
+	private volatile MetadataCache metadataCache;
+
+	// max in-flight insertBatch calls, 1 means synchronous insert
+	private int insertWindowSize = 1;
+	private volatile Semaphore insertWindow = new Semaphore(1);
+	private boolean insertOrdered = false;
+
+	// acknowledges and fails pipelined insert batches off the socket reader
+	// thread, in response order
+	private ThreadPoolExecutor insertCompletionExecutor;
+
 	private CopyOnWriteArraySet<FailureListener> failureListeners = new CopyOnWriteArraySet<FailureListener>();
+
+	// overflow of insert queue, null if disabled
+	private volatile InsertSpillLog spillLog;
+	private InsertSpillConfig spillConfig;
+	private volatile SpillReplayer spillReplayer;
 	private long instanceId;
 
 	public Logpresso() {
@@ -119,8 +195,244 @@ public class Logpresso implements TrapListener, Closeable {
 		this.instanceId = instanceCnt.getAndIncrement();
 		this.transport = transport;
 		int poolSize = Math.min(8, Runtime.getRuntime().availableProcessors());
-		this.streamingDecoder = new StreamingResultDecoder("Streaming Result Decoder for Client #" + instanceId, poolSize);
-		this.streamingEncoder = new StreamingResultEncoder("Streaming Result Encoder for Client #" + instanceId, poolSize);
+		this.bufferPool = new ByteBufferPool(poolSize * 4);
+		this.compressorPool = new CompressorPool(poolSize * 4);
+		this.streamingDecoder = new StreamingResultDecoder("Streaming Result Decoder for Client #" + instanceId, poolSize,
+				bufferPool, compressorPool);
+		this.streamingEncoder = new StreamingResultEncoder("Streaming Result Encoder for Client #" + instanceId, poolSize,
+				bufferPool, compressorPool);
+
+		final String deliveryName = "Streaming Result Delivery for Client #" + instanceId;
+		int deliveryThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+		this.resultDeliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 10, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, deliveryName);
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		resultDeliveryExecutor.allowCoreThreadTimeOut(true);
+
+		final String completionName = "Insert Completion for Client #" + instanceId;
+		this.insertCompletionExecutor = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, completionName);
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		insertCompletionExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * 입력 데이터 인코딩과 쿼리 결과 디코딩에 재사용되는 버퍼 풀과 압축기 풀의 통계를 조회합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public CodecPoolStats getCodecPoolStats() {
+		CodecPoolStats stats = new CodecPoolStats();
+		stats.setBufferAcquireCount(bufferPool.getAcquireCount());
+		stats.setBufferHitCount(bufferPool.getHitCount());
+		stats.setBufferReleaseCount(bufferPool.getReleaseCount());
+		stats.setBufferDiscardCount(bufferPool.getDiscardCount());
+		stats.setPooledBufferBytes(bufferPool.getPooledBytes());
+		stats.setCompressorAcquireCount(compressorPool.getAcquireCount());
+		stats.setCompressorCreateCount(compressorPool.getCreateCount());
+		stats.setPooledCompressorCount(compressorPool.getPooledCount());
+		return stats;
+	}
+
+	/**
+	 * 메타데이터 캐시의 최대 항목 수를 조회합니다. 캐시를 사용하지 않으면 0을 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getMetadataCacheSize() {
+		MetadataCache cache = metadataCache;
+		return cache != null ? cache.getMaxEntries() : 0;
+	}
+
+	/**
+	 * 메타데이터 캐시 항목의 만료 시간을 밀리초 단위로 조회합니다. 캐시를 사용하지 않으면 0을 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public long getMetadataCacheTtl() {
+		MetadataCache cache = metadataCache;
+		return cache != null ? cache.getTtlMillis() : 0;
+	}
+
+	/**
+	 * 메타데이터 캐시를 설정합니다. 캐시를 사용하면 listTables(), getTableSchema(), listIndexes(), getParser(),
+	 * getLogger() 응답을 만료 시간 동안 재사용하여 RPC 왕복을 줄입니다. 이 클라이언트로 테이블, 인덱스, 파서, 로그 수집기를
+	 * 변경하면 관련 항목이 즉시 무효화되고, 연결이 끊어지면 전체 캐시가 비워집니다. 다른 클라이언트가 변경한 내용은 만료 시간이
+	 * 지나거나 invalidateMetadataCache()를 호출한 후에 반영되며, 로그 수집기의 수집 상태와 통계도 만료 시간만큼 지연될 수
+	 * 있습니다. 수집 상태를 포함하는 getLogger() 호출은 캐시하지 않습니다. 설정을 바꾸면 기존 캐시는 비워집니다.
+	 * 
+	 * @param maxEntries
+	 *            최대 항목 수, 초과 시 가장 오래 사용되지 않은 항목부터 제거합니다. 0이면 캐시를 사용하지 않습니다.
+	 * @param ttlMillis
+	 *            항목 만료 시간 (밀리초), 0이면 캐시를 사용하지 않습니다.
+	 * @since 1.2.0
+	 */
+	public void setMetadataCache(int maxEntries, long ttlMillis) {
+		if (maxEntries < 0)
+			throw new IllegalArgumentException("metadata cache size should not be negative");
+		if (ttlMillis < 0)
+			throw new IllegalArgumentException("metadata cache ttl should not be negative");
+
+		if (maxEntries == 0 || ttlMillis == 0)
+			this.metadataCache = null;
+		else
+			this.metadataCache = new MetadataCache(maxEntries, ttlMillis);
+	}
+
+	/**
+	 * 메타데이터 캐시의 적중, 실패, 제거, 무효화 통계를 조회합니다. 캐시를 사용하지 않으면 모든 값이 0인 통계를 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public MetadataCacheStats getMetadataCacheStats() {
+		MetadataCacheStats stats = new MetadataCacheStats();
+		MetadataCache cache = metadataCache;
+		if (cache == null)
+			return stats;
+
+		stats.setSize(cache.size());
+		stats.setHitCount(cache.getHitCount());
+		stats.setMissCount(cache.getMissCount());
+		stats.setEvictionCount(cache.getEvictionCount());
+		stats.setInvalidationCount(cache.getInvalidationCount());
+		return stats;
+	}
+
+	/**
+	 * 메타데이터 캐시의 모든 항목을 무효화합니다. 다른 클라이언트나 서버 콘솔에서 메타데이터가 변경된 것을 알게 된 경우 호출합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void invalidateMetadataCache() {
+		MetadataCache cache = metadataCache;
+		if (cache != null)
+			cache.clear();
+	}
+
+	// returns cached response parameters, or calls rpc and caches the response
+	private Map<String, Object> cachedRpc(String key, String method, Map<String, Object> params) throws IOException {
+		MetadataCache cache = metadataCache;
+		if (cache == null)
+			return rpc(method, params).getParameters();
+
+		Map<String, Object> m = cache.get(key);
+		if (m != null)
+			return m;
+
+		long generation = cache.getGeneration();
+		m = rpc(method, params).getParameters();
+		cache.put(key, m, generation);
+		return m;
+	}
+
+	private void invalidateMetadata(String key) {
+		MetadataCache cache = metadataCache;
+		if (cache != null)
+			cache.invalidate(key);
+	}
+
+	private void invalidateMetadataPrefix(String prefix) {
+		MetadataCache cache = metadataCache;
+		if (cache != null)
+			cache.invalidatePrefix(prefix);
+	}
+
+	private void invalidateTableMetadata(String tableName) {
+		invalidateMetadata("tables");
+		invalidateMetadata("table:" + tableName);
+	}
+
+	/**
+	 * 현재 세션의 트랩 디스패처 통계를 조회합니다. 트랩 디스패처는 WebSocketTransport.setTrapDispatchThreads()로
+	 * 설정합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public TrapDispatchStats getTrapDispatchStats() {
+		Session s = session;
+		return s instanceof AsyncSession ? ((AsyncSession) s).getTrapDispatchStats() : new TrapDispatchStats();
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 버퍼의 메모리 한도를 조회합니다. 버퍼를 사용하지 않으면 0을 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public long getStreamingResultMemoryLimit() {
+		return streamingResultMemoryLimit;
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 버퍼의 스필 디렉터리를 조회합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public File getStreamingResultSpillDir() {
+		return streamingResultSpillDir;
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 버퍼를 설정합니다. 기본적으로 StreamingResultSet 콜백은 결과 트랩을 수신한 스레드에서 바로 호출되므로
+	 * 콜백이 느리면 서버가 전송한 결과가 소켓 수신 경로에 쌓입니다. 버퍼를 설정하면 결과 트랩은 압축된 상태로 쿼리별 대기열에 보관되고,
+	 * 공유된 전달 스레드가 쿼리별로 순서대로 디코딩하여 StreamingResultSet 또는 ColumnarResultSet 콜백을 호출합니다. 대기열의 추정 크기가 메모리 한도를 넘으면 이후 트랩은 스필
+	 * 디렉터리의 임시 파일에 기록되며, 스필 디렉터리가 없으면 대기열에 빈 자리가 생길 때까지 트랩 수신 스레드가 대기하여 서버 전송을
+	 * 늦춥니다. 이후 시작되는 스트리밍 쿼리부터 적용됩니다.
+	 * 
+	 * @param memoryLimit
+	 *            쿼리 당 결과 버퍼의 메모리 한도 (바이트), 0이면 버퍼를 사용하지 않습니다.
+	 * @param spillDir
+	 *            메모리 한도를 넘은 결과를 기록할 디렉터리 (NULL 허용)
+	 * @since 1.2.0
+	 */
+	public void setStreamingResultBuffer(long memoryLimit, File spillDir) {
+		if (memoryLimit < 0)
+			throw new IllegalArgumentException("streaming result memory limit should not be negative");
+
+		this.streamingResultMemoryLimit = memoryLimit;
+		this.streamingResultSpillDir = spillDir;
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 버퍼를 소비하는 전달 스레드 갯수를 조회합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getStreamingResultThreads() {
+		return resultDeliveryExecutor.getMaximumPoolSize();
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 버퍼를 소비하는 전달 스레드 갯수를 설정합니다. 모든 스트리밍 쿼리가 전달 스레드를 공유하며, 한 쿼리의 결과는
+	 * 한 번에 하나의 스레드에서만 순서대로 전달됩니다. 기본값은 프로세서 갯수와 4 중 작은 값입니다.
+	 * 
+	 * @param threads
+	 *            전달 스레드 갯수
+	 * @since 1.2.0
+	 */
+	public void setStreamingResultThreads(int threads) {
+		if (threads < 1)
+			throw new IllegalArgumentException("streaming result threads should be positive");
+
+		// keep core size not greater than max size while resizing
+		if (threads > resultDeliveryExecutor.getMaximumPoolSize()) {
+			resultDeliveryExecutor.setMaximumPoolSize(threads);
+			resultDeliveryExecutor.setCorePoolSize(threads);
+		} else {
+			resultDeliveryExecutor.setCorePoolSize(threads);
+			resultDeliveryExecutor.setMaximumPoolSize(threads);
+		}
 	}
 
 	public Locale getLocale() {
@@ -164,6 +476,76 @@ public class Logpresso implements TrapListener, Closeable {
 		this.fetchSize = fetchSize;
 	}
 
+	/**
+	 * 커서가 미리 요청해두는 쿼리 결과 페이지 갯수를 조회합니다. 기본값은 2입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getPrefetchDepth() {
+		return prefetchDepth;
+	}
+
+	/**
+	 * 커서가 미리 요청해두는 쿼리 결과 페이지 갯수를 설정합니다. 커서는 현재 페이지를 순회하는 동안 다음 페이지들을 비동기로 요청하고
+	 * 백그라운드 스레드에서 디코딩하므로, 네트워크 대기와 디코딩 시간이 쿼리 결과 처리 시간과 겹쳐집니다. 0으로 설정하면 페이지를
+	 * 모두 소비한 시점에 다음 페이지를 동기적으로 조회합니다.
+	 * 
+	 * @param depth
+	 *            미리 요청할 페이지 갯수
+	 * @since 1.2.0
+	 */
+	public void setPrefetchDepth(int depth) {
+		if (depth < 0)
+			throw new IllegalArgumentException("prefetch depth should not be negative");
+		this.prefetchDepth = depth;
+	}
+
+	/**
+	 * 커서가 미리 가져온 후 아직 소비하지 않은 쿼리 결과의 메모리 한도를 조회합니다. 기본값은 64MB입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public long getPrefetchMemoryLimit() {
+		return prefetchMemoryLimit;
+	}
+
+	/**
+	 * 커서가 미리 가져온 후 아직 소비하지 않은 쿼리 결과의 메모리 한도를 설정합니다. 한도를 초과하면 페이지를 소비할 때까지 다음
+	 * 페이지를 요청하지 않습니다. 메모리 사용량은 서버가 전송한 인코딩 크기를 기준으로 추정합니다.
+	 * 
+	 * @param bytes
+	 *            바이트 단위 메모리 한도
+	 * @since 1.2.0
+	 */
+	public void setPrefetchMemoryLimit(long bytes) {
+		if (bytes <= 0)
+			throw new IllegalArgumentException("prefetch memory limit should be positive");
+		this.prefetchMemoryLimit = bytes;
+	}
+
+	/**
+	 * exportResult() 호출 시 동시에 조회하는 쿼리 결과 구간의 최대 갯수를 조회합니다. 기본값은 4입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getExportConcurrency() {
+		return exportConcurrency;
+	}
+
+	/**
+	 * exportResult() 호출 시 동시에 조회하는 쿼리 결과 구간의 최대 갯수를 설정합니다. 각 구간의 크기는 fetchSize를
+	 * 따릅니다.
+	 * 
+	 * @param concurrency
+	 *            동시에 조회할 구간 갯수
+	 * @since 1.2.0
+	 */
+	public void setExportConcurrency(int concurrency) {
+		if (concurrency < 1)
+			throw new IllegalArgumentException("export concurrency should be positive");
+		this.exportConcurrency = concurrency;
+	}
+
 	public int getInsertFetchSize() {
 		return insertBatchSize;
 	}
@@ -174,6 +556,174 @@ public class Logpresso implements TrapListener, Closeable {
 		this.insertBatchSize = insertFetchSize;
 	}
 
+	/**
+	 * insertBatch 요청 하나에 담을 수 있는 행들의 최대 추정 인코딩 크기를 조회합니다. 기본값은 4MB입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getInsertBatchBytes() {
+		return insertBatchBytes;
+	}
+
+	/**
+	 * insertBatch 요청 하나에 담을 수 있는 행들의 최대 추정 인코딩 크기를 설정합니다. 배치는 행 갯수나 추정 크기 중 하나라도
+	 * 한도에 도달하면 나뉘며, 한 번의 insert() 호출로 전달된 행 목록도 이 한도에 맞게 여러 배치로 나뉩니다.
+	 * 
+	 * @param bytes
+	 *            배치 당 최대 추정 인코딩 크기
+	 * @since 1.2.0
+	 */
+	public void setInsertBatchBytes(int bytes) {
+		if (bytes <= 0)
+			throw new IllegalArgumentException("insert batch bytes should be positive");
+		this.insertBatchBytes = bytes;
+	}
+
+	/**
+	 * 전송 대기 중인 입력 행들이 차지할 수 있는 최대 추정 인코딩 크기를 조회합니다. 기본값은 256MB입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public long getInsertMemoryLimit() {
+		return inputThrottler.getLimit();
+	}
+
+	/**
+	 * 전송 대기 중인 입력 행들이 차지할 수 있는 최대 추정 인코딩 크기를 설정합니다. 한도에 도달하면 insert()는 대기열에 여유가 생길
+	 * 때까지 대기하거나, 스필 로그가 활성화된 경우 스필 로그에 기록합니다.
+	 * 
+	 * @param bytes
+	 *            클라이언트 전체의 입력 대기열 크기 한도
+	 * @since 1.2.0
+	 */
+	public void setInsertMemoryLimit(long bytes) {
+		inputThrottler.setLimit(bytes);
+	}
+
+	/**
+	 * 테이블 하나의 전송 대기 중인 입력 행들이 차지할 수 있는 최대 추정 인코딩 크기를 조회합니다. 기본값은 64MB입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public long getInsertTableMemoryLimit() {
+		return insertTableMemoryLimit;
+	}
+
+	/**
+	 * 테이블 하나의 전송 대기 중인 입력 행들이 차지할 수 있는 최대 추정 인코딩 크기를 설정합니다. 특정 테이블의 입력이 밀리더라도 다른
+	 * 테이블의 입력 대기열을 모두 차지하지 않도록 제한합니다.
+	 * 
+	 * @param bytes
+	 *            테이블 단위 입력 대기열 크기 한도
+	 * @since 1.2.0
+	 */
+	public void setInsertTableMemoryLimit(long bytes) {
+		if (bytes <= 0)
+			throw new IllegalArgumentException("insert table memory limit should be positive");
+
+		this.insertTableMemoryLimit = bytes;
+
+		Flusher[] l = flushers.get();
+		if (l != null) {
+			for (Flusher f : l)
+				for (TableBuffer buf : f.tables.values())
+					buf.memory.setLimit(bytes);
+		}
+	}
+
+	/**
+	 * 테이블 입력 배치 크기와 전송 대기 시간의 조정 방식을 조회합니다. 기본값은 STATIC입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public InsertTuning getInsertTuning() {
+		return insertTuning;
+	}
+
+	/**
+	 * 테이블 입력 배치 크기와 전송 대기 시간의 조정 방식을 설정합니다. LATENCY나 THROUGHPUT으로 설정하면 플러셔가 테이블마다
+	 * insertBatch 응답 시간, 인코딩 시간, 대기열 길이를 관찰하여 입력 배치 크기 이내에서 배치 크기를 조정하고, 인덱스 플러시 주기
+	 * 이내에서 배치가 찰 때까지 대기하는 시간을 조정합니다.
+	 * 
+	 * @param tuning
+	 *            조정 방식
+	 * @since 1.2.0
+	 */
+	public void setInsertTuning(InsertTuning tuning) {
+		checkNotNull("tuning", tuning);
+		this.insertTuning = tuning;
+		signalFlushers();
+	}
+
+	/**
+	 * LATENCY 조정 방식의 목표 지연 시간을 밀리초 단위로 조회합니다. 기본값은 200ms입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getInsertLatencyTarget() {
+		return insertLatencyTarget;
+	}
+
+	/**
+	 * LATENCY 조정 방식의 목표 지연 시간을 설정합니다. 행이 대기열에 들어간 후 insertBatch 응답을 받을 때까지의 시간이 이 값을
+	 * 넘지 않도록 조정합니다.
+	 * 
+	 * @param millis
+	 *            목표 지연 시간 (밀리초)
+	 * @since 1.2.0
+	 */
+	public void setInsertLatencyTarget(int millis) {
+		if (millis <= 0)
+			throw new IllegalArgumentException("insert latency target should be positive");
+		this.insertLatencyTarget = millis;
+	}
+
+	/**
+	 * 입력 시점 인코딩 사용 여부를 조회합니다. 기본값은 false입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public boolean isInsertEncodeOnEnqueue() {
+		return insertEncodeOnEnqueue;
+	}
+
+	/**
+	 * 입력 시점 인코딩 사용 여부를 설정합니다. 활성화하면 insert()를 호출한 스레드가 행을 테이블별 컬럼 빌더에 바로 추가하고, 배치
+	 * 크기에 도달한 컬럼 묶음을 직접 인코딩합니다. 플러셔는 남은 컬럼 빌더를 마무리하고 이미 인코딩된 버퍼를 압축하여 전송하므로, 많은
+	 * 스레드가 동시에 입력하는 경우 배치 구성 비용이 플러셔 하나에 몰리지 않습니다. 입력된 튜플은 insert() 호출 시점의 값으로
+	 * 복사됩니다.
+	 * 
+	 * @param enabled
+	 *            입력 시점 인코딩을 사용하려면 true
+	 * @since 1.2.0
+	 */
+	public void setInsertEncodeOnEnqueue(boolean enabled) {
+		this.insertEncodeOnEnqueue = enabled;
+	}
+
+	/**
+	 * 입력 배치의 _time 정렬 여부를 조회합니다. 기본값은 false입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public boolean isInsertTimeSorted() {
+		return insertTimeSorted;
+	}
+
+	/**
+	 * 입력 배치의 _time 정렬 여부를 설정합니다. 활성화하면 각 insertBatch 요청의 행을 _time 순서로 안정 정렬하여 인코딩합니다.
+	 * 인접한 행의 시각이 단조 증가하면 인코딩된 시각 값의 차이가 하위 바이트에 몰리므로 압축률이 높아지고, 서버는 시간 순서로 정렬된
+	 * 배치를 받아 더 적은 수의 저장 파티션에 기록합니다. 서버의 insertBatch 프로토콜에 기본 타입 날짜 배열이 없으므로 _time 값은
+	 * 날짜 타입으로 전송됩니다. 테이블 단위 입력 순서는 배치 안에서만 바뀌며, 배치 사이의 순서는 유지됩니다.
+	 * 
+	 * @param sorted
+	 *            _time 순서로 정렬하려면 true
+	 * @since 1.2.0
+	 */
+	public void setInsertTimeSorted(boolean sorted) {
+		this.insertTimeSorted = sorted;
+	}
+
 	// index flush interval (ms)
 	public int getIndexFlushInterval() {
 		return indexFlushInterval;
@@ -183,8 +733,132 @@ public class Logpresso implements TrapListener, Closeable {
 		if (millisec < 0)
 			throw new IllegalArgumentException("Index flush interval should be greater than 0");
 		this.indexFlushInterval = millisec;
-		if (flusher.get() != null)
-			flusher.get().signal();
+		signalFlushers();
+	}
+
+	/**
+	 * 응답을 기다리지 않고 동시에 전송할 수 있는 insertBatch 요청의 최대 갯수를 조회합니다. 기본값은 1이며, 이 경우 매
+	 * 배치마다 응답을 받은 후에 다음 배치를 전송합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getInsertWindowSize() {
+		return insertWindowSize;
+	}
+
+	/**
+	 * 응답을 기다리지 않고 동시에 전송할 수 있는 insertBatch 요청의 최대 갯수를 설정합니다. 네트워크 지연이 큰 환경에서는 이
+	 * 값을 늘리면 응답 대기 시간 동안 다음 배치를 인코딩하여 전송하므로 입력 처리량이 증가합니다. 각 insert() 결과의 Future는
+	 * 해당 배치의 응답이 수신될 때 완료됩니다.
+	 * 
+	 * @param size
+	 *            동시에 응답을 기다리는 insertBatch 요청의 최대 갯수
+	 * @since 1.2.0
+	 */
+	public void setInsertWindowSize(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("insert window size should be positive");
+
+		this.insertWindowSize = size;
+		this.insertWindow = new Semaphore(size);
+	}
+
+	/**
+	 * 테이블 단위 입력 순서 보장 여부를 조회합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public boolean isInsertOrdered() {
+		return insertOrdered;
+	}
+
+	/**
+	 * 테이블 단위 입력 순서 보장 여부를 설정합니다. true로 설정하면 insertBatch 요청을 동시에 여러 개 전송하는 경우에도 같은
+	 * 테이블에 대해서는 이전 배치의 응답을 받은 후에 다음 배치를 전송합니다. 서로 다른 테이블의 배치는 계속 동시에 전송됩니다.
+	 * 
+	 * @param ordered
+	 *            테이블 단위 입력 순서를 보장하려면 true
+	 * @since 1.2.0
+	 */
+	public void setInsertOrdered(boolean ordered) {
+		this.insertOrdered = ordered;
+	}
+
+	/**
+	 * 테이블 입력을 처리하는 플러셔 스레드 갯수를 조회합니다. 기본값은 4와 프로세서 갯수 중 작은 값입니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getInsertFlusherCount() {
+		return insertFlusherCount;
+	}
+
+	/**
+	 * 테이블 입력을 처리하는 플러셔 스레드 갯수를 설정합니다. 각 테이블은 이름에 따라 하나의 플러셔에 할당되므로 테이블 단위의 입력
+	 * 순서는 유지되고, 서로 다른 테이블은 병렬로 기록됩니다. 첫 insert() 호출 전에만 설정할 수 있습니다.
+	 * 
+	 * @param count
+	 *            플러셔 스레드 갯수
+	 * @since 1.2.0
+	 */
+	public void setInsertFlusherCount(int count) {
+		if (count < 1)
+			throw new IllegalArgumentException("insert flusher count should be positive");
+		if (flushers.get() != null)
+			throw new IllegalStateException("insert flushers are already started");
+		this.insertFlusherCount = count;
+	}
+
+	/**
+	 * 입력 스필 로그 설정을 조회합니다.
+	 * 
+	 * @return 스필 로그를 사용하지 않는 경우 null
+	 * @since 1.2.0
+	 */
+	public InsertSpillConfig getInsertSpill() {
+		return spillConfig;
+	}
+
+	/**
+	 * 입력 스필 로그를 활성화합니다. 입력 대기열이 가득 차면 insert()는 대기하지 않고 행을 스필 로그에 기록하며, 연결 장애로 전송에
+	 * 실패한 행도 실패 콜백을 호출하는 대신 스필 로그에 기록합니다. 스필 로그의 행은 서버에 연결되어 있는 동안 기록된 순서대로 다시
+	 * 입력되며, 이전 프로세스가 남긴 기록도 같은 디렉터리로 스필 로그를 활성화하면 다시 입력됩니다. 스필 로그에 기록된 행의 insert()
+	 * 결과 Future는 기록 즉시 완료됩니다. 첫 insert() 호출 전에만 설정할 수 있습니다.
+	 * 
+	 * @param config
+	 *            스필 로그 디렉터리, 디스크 용량 한도, 동기화 정책
+	 * @since 1.2.0
+	 */
+	public synchronized void setInsertSpill(InsertSpillConfig config) throws IOException {
+		checkNotNull("config", config);
+		if (spillLog != null)
+			throw new IllegalStateException("insert spill is already enabled");
+		if (flushers.get() != null)
+			throw new IllegalStateException("insert flushers are already started");
+
+		this.spillLog = new InsertSpillLog(config);
+		this.spillConfig = config;
+
+		if (!isClosed())
+			startSpillReplayer();
+	}
+
+	/**
+	 * 스필 로그에 기록된 후 아직 서버 입력이 확인되지 않은 기록 갯수를 조회합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public long getInsertSpillPendingCount() {
+		InsertSpillLog spill = spillLog;
+		return spill != null ? spill.getPendingCount() : 0;
+	}
+
+	private synchronized void startSpillReplayer() {
+		if (spillLog == null || spillReplayer != null)
+			return;
+
+		spillReplayer = new SpillReplayer(spillLog);
+		spillReplayer.start();
 	}
 
 	/**
@@ -237,24 +911,63 @@ public class Logpresso implements TrapListener, Closeable {
 
 		try {
 			Message resp = rpc("org.araqne.logdb.msgbus.LogQueryPlugin.queryStatus", params);
+			applyQueryStatus(resp.getParameters());
+		} catch (MessageException t) {
+			if (!t.getMessage().startsWith("msgbus-handler-not-found"))
+				throw t;
+		}
 
-			Map<String, Object> q = resp.getParameters();
-			int queryId = (Integer) q.get("id");
-			Query query = queries.get(queryId);
-			if (query == null) {
-				query = new Query(this, queryId, (String) q.get("query_string"));
-				Query old = queries.putIfAbsent(queryId, query);
-				if (old != null)
-					query = old;
+		return queries.get(id);
+	}
+
+	/**
+	 * 쿼리 상태를 비동기로 조회합니다. 호출한 스레드를 차단하지 않으며, 응답을 수신한 스레드에서 쿼리 상태를 갱신한 후 퓨처가
+	 * 완료됩니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 * @return 쿼리 상태 개체로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	public RpcFuture<Query> getQueryAsync(final int id) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+
+		final RpcFuture<Query> future = new RpcFuture<Query>();
+		rpcAsync("org.araqne.logdb.msgbus.LogQueryPlugin.queryStatus", params).addCallback(new FutureCallback<Message>() {
+			@Override
+			public void onSuccess(Message resp) {
+				try {
+					applyQueryStatus(resp.getParameters());
+				} catch (Throwable t) {
+					future.fail(t);
+					return;
+				}
+				future.complete(queries.get(id));
 			}
 
-			parseQueryStatus(q, query);
-		} catch (MessageException t) {
-			if (!t.getMessage().startsWith("msgbus-handler-not-found"))
-				throw t;
+			@Override
+			public void onFailure(Throwable t) {
+				if (t instanceof MessageException && t.getMessage().startsWith("msgbus-handler-not-found"))
+					future.complete(queries.get(id));
+				else
+					future.fail(t);
+			}
+		});
+		return future;
+	}
+
+	private void applyQueryStatus(Map<String, Object> q) {
+		int queryId = (Integer) q.get("id");
+		Query query = queries.get(queryId);
+		if (query == null) {
+			query = new Query(this, queryId, (String) q.get("query_string"));
+			Query old = queries.putIfAbsent(queryId, query);
+			if (old != null)
+				query = old;
 		}
 
-		return queries.get(id);
+		parseQueryStatus(q, query);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -400,6 +1113,7 @@ public class Logpresso implements TrapListener, Closeable {
 		try {
 			this.session.login(loginName, password, true, readTimeout);
 			this.session.addListener(this);
+			startSpillReplayer();
 		} catch (IOException e) {
 			this.session.close();
 			this.session = null;
@@ -805,10 +1519,11 @@ public class Logpresso implements TrapListener, Closeable {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("table", tableName);
 
-		Message resp = rpc("com.logpresso.index.msgbus.ManagementPlugin.listIndexes", params);
+		Map<String, Object> resp = cachedRpc("indexes:" + tableName, "com.logpresso.index.msgbus.ManagementPlugin.listIndexes",
+				params);
 		List<Index> indexes = new ArrayList<Index>();
 
-		List<Object> l = (List<Object>) resp.getParameters().get("indexes");
+		List<Object> l = (List<Object>) resp.get("indexes");
 		for (Object o : l) {
 			Map<String, Object> m = (Map<String, Object>) o;
 			Index indexInfo = getIndexInfo(m);
@@ -914,6 +1629,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("build_past_index", info.isBuildPastIndex());
 
 		rpc("com.logpresso.index.msgbus.ManagementPlugin.createIndex", params);
+		invalidateMetadataPrefix("indexes:");
 	}
 
 	/**
@@ -931,6 +1647,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("index", indexName);
 
 		rpc("com.logpresso.index.msgbus.ManagementPlugin.dropIndex", params);
+		invalidateMetadataPrefix("indexes:");
 	}
 
 	/**
@@ -940,7 +1657,8 @@ public class Logpresso implements TrapListener, Closeable {
 	 */
 	@SuppressWarnings("unchecked")
 	public List<TableSchema> listTables() throws IOException {
-		Message resp = rpc("org.araqne.logdb.msgbus.ManagementPlugin.listTables");
+		Map<String, Object> resp = cachedRpc("tables", "org.araqne.logdb.msgbus.ManagementPlugin.listTables",
+				new HashMap<String, Object>());
 		List<TableSchema> tables = new ArrayList<TableSchema>();
 
 		Map<String, Object> schemaMap = (Map<String, Object>) resp.get("schemas");
@@ -1039,7 +1757,8 @@ public class Logpresso implements TrapListener, Closeable {
 	public TableSchema getTableSchema(String tableName) throws IOException {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("table", tableName);
-		Message resp = rpc("org.araqne.logdb.msgbus.ManagementPlugin.getTableInfo", params);
+		Map<String, Object> resp = cachedRpc("table:" + tableName, "org.araqne.logdb.msgbus.ManagementPlugin.getTableInfo",
+				params);
 
 		Map<String, Object> schema = (Map<String, Object>) resp.get("schema");
 		if (schema != null) {
@@ -1107,6 +1826,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("fields", l);
 
 		rpc("org.araqne.logdb.msgbus.ManagementPlugin.setTableFields", params);
+		invalidateTableMetadata(tableName);
 	}
 
 	/**
@@ -1127,6 +1847,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("metadata", config);
 
 		rpc("org.araqne.logdb.msgbus.ManagementPlugin.setTableMetadata", params);
+		invalidateTableMetadata(tableName);
 	}
 
 	/**
@@ -1143,6 +1864,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("keys", keySet);
 
 		rpc("org.araqne.logdb.msgbus.ManagementPlugin.unsetTableMetadata", params);
+		invalidateTableMetadata(tableName);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -1206,6 +1928,8 @@ public class Logpresso implements TrapListener, Closeable {
 			} else
 				throw e;
 		}
+
+		invalidateTableMetadata(tableName);
 	}
 
 	/**
@@ -1233,6 +1957,8 @@ public class Logpresso implements TrapListener, Closeable {
 			} else
 				throw e;
 		}
+
+		invalidateTableMetadata(tableName);
 	}
 
 	/**
@@ -1256,6 +1982,7 @@ public class Logpresso implements TrapListener, Closeable {
 	 */
 	public void createTable(TableSchema schema) throws IOException {
 		rpc("org.araqne.logdb.msgbus.ManagementPlugin.createTable", schema.toMap());
+		invalidateTableMetadata(schema.getName());
 	}
 
 	/**
@@ -1268,6 +1995,8 @@ public class Logpresso implements TrapListener, Closeable {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("table", tableName);
 		rpc("org.araqne.logdb.msgbus.ManagementPlugin.dropTable", params);
+		invalidateTableMetadata(tableName);
+		invalidateMetadataPrefix("indexes:");
 	}
 
 	/**
@@ -1448,7 +2177,7 @@ public class Logpresso implements TrapListener, Closeable {
 	public Parser getParser(String name) throws IOException {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("name", name);
-		Message resp = rpc("com.logpresso.core.msgbus.ParserPlugin.getParser", params);
+		Map<String, Object> resp = cachedRpc("parser:" + name, "com.logpresso.core.msgbus.ParserPlugin.getParser", params);
 
 		@SuppressWarnings("unchecked")
 		Map<String, Object> m = (Map<String, Object>) resp.get("parser");
@@ -1488,6 +2217,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("configs", parser.getConfigs());
 
 		rpc("com.logpresso.core.msgbus.ParserPlugin.createParser", params);
+		invalidateMetadata("parser:" + parser.getName());
 	}
 
 	/**
@@ -1500,6 +2230,7 @@ public class Logpresso implements TrapListener, Closeable {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("name", name);
 		rpc("com.logpresso.core.msgbus.ParserPlugin.removeParser", params);
+		invalidateMetadata("parser:" + name);
 	}
 
 	/**
@@ -1724,7 +2455,13 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("include_configs", true);
 		params.put("include_states", includeStates);
 
-		Message resp = rpc("org.araqne.log.api.msgbus.LoggerPlugin.getLogger", params);
+		// logger states are not cached
+		Map<String, Object> resp = null;
+		if (includeStates)
+			resp = rpc("org.araqne.log.api.msgbus.LoggerPlugin.getLogger", params).getParameters();
+		else
+			resp = cachedRpc("logger:" + loggerName, "org.araqne.log.api.msgbus.LoggerPlugin.getLogger", params);
+
 		Map<String, Object> m = (Map<String, Object>) resp.get("logger");
 		if (m == null)
 			return null;
@@ -1795,6 +2532,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("options", logger.getConfigs());
 
 		rpc("org.araqne.log.api.msgbus.LoggerPlugin.createLogger", params);
+		invalidateMetadataPrefix("logger:");
 	}
 
 	/**
@@ -1807,6 +2545,7 @@ public class Logpresso implements TrapListener, Closeable {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("logger", fullName);
 		rpc("org.araqne.log.api.msgbus.LoggerPlugin.removeLogger", params);
+		invalidateMetadataPrefix("logger:");
 	}
 
 	/**
@@ -1822,6 +2561,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("logger", fullName);
 		params.put("interval", interval);
 		rpc("org.araqne.log.api.msgbus.LoggerPlugin.startLogger", params);
+		invalidateMetadataPrefix("logger:");
 	}
 
 	/**
@@ -1837,6 +2577,7 @@ public class Logpresso implements TrapListener, Closeable {
 		params.put("logger", fullName);
 		params.put("wait_time", waitTime);
 		rpc("org.araqne.log.api.msgbus.LoggerPlugin.stopLogger", params);
+		invalidateMetadataPrefix("logger:");
 	}
 
 	/**
@@ -1917,930 +2658,3617 @@ public class Logpresso implements TrapListener, Closeable {
 	 * @return 쿼리 결과를 조회할 수 있는 커서가 반환됩니다.
 	 */
 	public Cursor query(String queryString) throws IOException {
+		Query q = runQuery(queryString);
+		long total = q.getLoadedCount();
+
+		return newCursor(q.getId(), 0L, total, true);
+	}
+
+	/**
+	 * 쿼리 실행이 종료될 때까지 대기한 후, 전체 결과를 오프셋 구간 단위로 분할할 수 있는 커서를 반환합니다. 커서는 종료된 쿼리의 적재
+	 * 건수를 알고 있으므로 trySplit()으로 남은 구간을 반복하여 나눌 수 있으며, 분할된 커서들은 각자 독립적으로 getResult()
+	 * 페이지를 요청합니다. 분할된 커서를 여러 스레드에서 동시에 순회하면 결과 조회와 디코딩이 병렬로 수행됩니다. 세션 풀을 사용하는
+	 * 경우에도 한 쿼리의 페이지 요청은 쿼리를 생성한 연결로 전송됩니다. 분할된 커서를 포함한 모든 커서가 닫히면 쿼리가 삭제됩니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @return 오프셋 구간 단위로 분할할 수 있는 커서
+	 * @since 1.2.0
+	 */
+	public SplittableCursor querySplittable(String queryString) throws IOException {
+		Query q = runQuery(queryString);
+		long total = q.getLoadedCount();
+
+		return new SplittableCursorImpl(q.getId(), 0L, total, new SplitRef(q.getId(), true));
+	}
+
+	private Query runQuery(String queryString) throws IOException {
 		int id = createQuery(queryString);
 		startQuery(id);
 		Query q = queries.get(id);
 		q.waitUntil(null);
-		if (q.getStatus().equals("Cancelled")) {
-			String errorMsg = "";
-			if (q.getErrorCode() != null)
-				errorMsg = String.format(", error LOGPRESSO-%05d [%s]", q.getErrorCode(), q.getErrorDetail());
+		if (q.getStatus().equals("Cancelled"))
+			throw queryCancelled(q);
 
-			throw new IllegalStateException(
-					"query cancelled, id [" + q.getId() + "] query string [" + queryString + "]" + errorMsg);
-		}
+		return q;
+	}
 
-		long total = q.getLoadedCount();
+	// cancelled query is an error even without error code
+	private static IllegalStateException queryCancelled(Query q) {
+		String errorMsg = "";
+		if (q.getErrorCode() != null)
+			errorMsg = String.format(", error LOGPRESSO-%05d [%s]", q.getErrorCode(), q.getErrorDetail());
 
-		return new LogCursorImpl(id, 0L, total, true, fetchSize);
+		return new IllegalStateException("query cancelled, id [" + q.getId() + "] query string [" + q.getQueryString() + "]"
+				+ errorMsg);
 	}
 
-	private class LogCursorImpl implements Cursor {
+	/**
+	 * 쿼리 실행 결과를 커서 개체로 반환합니다. pipelined가 false이면 query(String)과 동일하게 동작합니다. pipelined가
+	 * true이면 쿼리 종료를 기다리지 않고 즉시 커서를 반환하며, 커서는 page_loaded 및 타임라인 트랩으로 통지된 적재 건수만큼
+	 * 쿼리 결과를 가져옵니다. 커서가 서버에 적재된 결과를 모두 소비한 경우에만 다음 페이지가 적재될 때까지 스레드가 차단됩니다. 쿼리가
+	 * 취소되면 그 시점까지 적재된 결과를 순회한 후 hasNext()와 next()에서 query(String)과 동일한 IllegalStateException이
+	 * 발생하므로, 결과가 잘린 것을 정상 종료로 오인하지 않습니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @param pipelined
+	 *            쿼리 종료 전에 결과를 소비하려면 true
+	 * @return 쿼리 결과를 조회할 수 있는 커서가 반환됩니다.
+	 * @since 1.2.0
+	 */
+	public Cursor query(String queryString, boolean pipelined) throws IOException {
+		if (!pipelined)
+			return query(queryString);
 
-		private int id;
-		private long offset;
-		private long limit;
-		private boolean removeOnClose;
+		int id = createQuery(queryString);
+		startQuery(id);
+		Query q = queries.get(id);
 
-		private long p;
-		private Map<String, Object> cached;
-		private Long currentCacheOffset;
-		private Long nextCacheOffset;
-		private int fetchUnit;
-		private Map<String, Object> prefetch;
+		int depth = Math.max(1, prefetchDepth);
+		return new PrefetchCursorImpl(id, 0L, Long.MAX_VALUE, true, fetchSize, depth, prefetchMemoryLimit, q);
+	}
 
-		public LogCursorImpl(int id, long offset, long limit, boolean removeOnClose, int fetchUnit) {
-			this.id = id;
-			this.offset = offset;
-			this.limit = limit;
-			this.removeOnClose = removeOnClose;
+	/**
+	 * 쿼리 결과를 리액티브 스트림 발행자로 반환합니다. 구독할 때마다 새로운 쿼리가 실행되며, 쿼리는 구독자가 처음 결과를 요청할 때
+	 * 생성되고 시작됩니다. 구독자가 요청한 건수는 fetchSize 이하의 getResult() 페이지 요청으로 변환되며, 한 번에 하나의 페이지만
+	 * 요청하므로 요청하지 않은 결과를 미리 가져와 쌓아두지 않습니다. 쿼리 종료를 기다리지 않고 적재된 결과부터 전달하며, 쿼리가 오류로
+	 * 취소되면 onError가 호출됩니다. 구독을 취소하면 쿼리를 정지하고 삭제합니다. 별도의 스레드를 사용하지 않으며, 구독자의
+	 * 신호는 RPC 응답을 디코딩하는 스트리밍 디코더 스레드나 트랩 수신 스레드, 또는 request()를 호출한 스레드에서 호출되므로 구독자
+	 * 콜백은 차단되어서는 안 됩니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @return 쿼리 결과 행을 하나씩 발행하는 발행자
+	 * @since 1.2.0
+	 */
+	public Publisher<Tuple> publish(String queryString) {
+		checkNotNull("queryString", queryString);
+		return new QueryPublisher<Tuple>(queryString, false);
+	}
 
-			this.p = offset;
-			this.nextCacheOffset = offset;
+	/**
+	 * 쿼리 결과를 페이지 단위로 발행하는 리액티브 스트림 발행자를 반환합니다. 구독자가 요청한 건수는 페이지 갯수로 해석되며, 각
+	 * 페이지는 최대 fetchSize 갯수의 행으로 구성됩니다. 나머지 동작은 publish(String)과 동일합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @return 쿼리 결과 페이지를 발행하는 발행자
+	 * @since 1.2.0
+	 */
+	public Publisher<List<Tuple>> publishBatches(String queryString) {
+		checkNotNull("queryString", queryString);
+		return new QueryPublisher<List<Tuple>>(queryString, true);
+	}
+
+	private class QueryPublisher<T> implements Publisher<T> {
+		private final String queryString;
+		private final boolean batch;
+
+		public QueryPublisher(String queryString, boolean batch) {
+			this.queryString = queryString;
+			this.batch = batch;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super T> subscriber) {
+			if (subscriber == null)
+				throw new NullPointerException("subscriber should not be null");
+
+			QuerySubscription<T> subscription = new QuerySubscription<T>(subscriber, queryString, batch, fetchSize);
+			subscriber.onSubscribe(subscription);
+		}
+	}
+
+	/**
+	 * 구독자의 요청 건수만큼 쿼리 결과 페이지를 요청합니다. 모든 신호는 drain()을 통해 한 번에 하나의 스레드에서만 처리됩니다.
+	 */
+	private class QuerySubscription<T> implements Subscription, Runnable {
+		private final Subscriber<? super T> subscriber;
+		private final String queryString;
+		private final boolean batch;
+		private final int fetchUnit;
+
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private final AtomicBoolean started = new AtomicBoolean();
+		private final AtomicBoolean released = new AtomicBoolean();
+		private volatile boolean cancelled;
+		private volatile Throwable failure;
+
+		// set once query is created and started
+		private volatile Query query;
+
+		// completed page waiting for emission
+		private volatile List<Tuple> page;
+
+		// accessed only in drain loop
+		private boolean fetching;
+		private boolean done;
+		private long offset;
+		private int pagePos;
+
+		public QuerySubscription(Subscriber<? super T> subscriber, String queryString, boolean batch, int fetchUnit) {
+			this.subscriber = subscriber;
+			this.queryString = queryString;
+			this.batch = batch;
 			this.fetchUnit = fetchUnit;
 		}
 
-		@SuppressWarnings("unchecked")
 		@Override
-		public boolean hasNext() {
-			if (prefetch != null)
-				return true;
+		public void request(long n) {
+			if (n <= 0) {
+				failure = new IllegalArgumentException("requested count should be positive: " + n);
+				drain();
+				return;
+			}
 
-			if (p < offset || p >= offset + limit)
-				return false;
+			if (cancelled || failure != null)
+				return;
 
-			try {
-				if (cached == null || p >= currentCacheOffset + fetchUnit) {
-					cached = getResult(id, nextCacheOffset, fetchUnit);
-					currentCacheOffset = nextCacheOffset;
-					nextCacheOffset += fetchUnit;
+			long current;
+			do {
+				current = requested.get();
+				if (current == Long.MAX_VALUE)
+					break;
+			} while (!requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+
+			if (started.compareAndSet(false, true))
+				start();
+			else
+				drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		// progress listener, called when loaded count or status is changed
+		@Override
+		public void run() {
+			drain();
+		}
+
+		private void start() {
+			createQueryAsync(queryString).addCallback(new FutureCallback<Integer>() {
+				@Override
+				public void onSuccess(Integer id) {
+					Query q = queries.get(id);
+					q.addProgressListener(QuerySubscription.this);
+					query = q;
+
+					// cancelled while creating query
+					if (cancelled) {
+						release();
+						return;
+					}
+
+					startQueryAsync(id).addCallback(new FutureCallback<Message>() {
+						@Override
+						public void onSuccess(Message value) {
+							drain();
+						}
+
+						@Override
+						public void onFailure(Throwable t) {
+							failure = t;
+							drain();
+						}
+					});
 				}
 
-				int relative = (int) (p - currentCacheOffset);
-				List<Object> l = (List<Object>) cached.get("result");
-				if (relative >= l.size())
+				@Override
+				public void onFailure(Throwable t) {
+					failure = t;
+					drain();
+				}
+			});
+		}
+
+		private void drain() {
+			if (wip.getAndIncrement() != 0)
+				return;
+
+			int missed = 1;
+			do {
+				try {
+					step();
+				} catch (Throwable t) {
+					logger.error("logpresso: subscriber should not throw any exception", t);
+					cancelled = true;
+					release();
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void step() {
+			if (done)
+				return;
+
+			if (cancelled) {
+				done = true;
+				release();
+				return;
+			}
+
+			if (failure != null) {
+				done = true;
+				release();
+				subscriber.onError(failure);
+				return;
+			}
+
+			Query q = query;
+			if (q == null)
+				return;
+
+			List<Tuple> tuples = page;
+			if (tuples != null) {
+				if (!emit(tuples))
+					return;
+
+				page = null;
+				fetching = false;
+
+				// short page means end of result
+				if (tuples.isEmpty()) {
+					complete(q);
+					return;
+				}
+			}
+
+			if (fetching || requested.get() == 0)
+				return;
+
+			// loaded count is final once status is changed to terminal
+			String status = q.getStatus();
+			boolean terminal = status.equals("Ended") || status.equals("Cancelled");
+			long loaded = q.getLoadedCount();
+
+			if (offset < loaded) {
+				long count = Math.min(fetchUnit, loaded - offset);
+				if (!batch)
+					count = Math.min(count, requested.get());
+
+				fetching = true;
+				fetch(q.getId(), offset, (int) count);
+			} else if (terminal) {
+				complete(q);
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private boolean emit(List<Tuple> tuples) {
+			if (batch) {
+				if (tuples.isEmpty())
+					return true;
+				if (requested.get() == 0)
 					return false;
 
-				prefetch = (Map<String, Object>) l.get(relative);
-				p++;
+				consume();
+				offset += tuples.size();
+				((Subscriber<Object>) subscriber).onNext(tuples);
 				return true;
-			} catch (IOException e) {
-				logger.error("logpresso: cannot fetch log query result", e);
-				return false;
 			}
+
+			while (pagePos < tuples.size()) {
+				if (cancelled || requested.get() == 0)
+					return false;
+
+				consume();
+				offset++;
+				((Subscriber<Object>) subscriber).onNext(tuples.get(pagePos++));
+			}
+
+			pagePos = 0;
+			return true;
 		}
 
-		@Override
-		public Tuple next() {
-			if (!hasNext())
-				throw new NoSuchElementException("end of log cursor");
+		private void consume() {
+			long current;
+			do {
+				current = requested.get();
+				if (current == Long.MAX_VALUE)
+					return;
+			} while (!requested.compareAndSet(current, current - 1));
+		}
 
-			Map<String, Object> m = prefetch;
-			prefetch = null;
-			return new Tuple(m);
+		private void complete(Query q) {
+			done = true;
+			release();
+
+			// same as runQuery()
+			if (q.getStatus().equals("Cancelled"))
+				subscriber.onError(queryCancelled(q));
+			else
+				subscriber.onComplete();
+		}
+
+		private void fetch(int id, long pageOffset, int count) {
+			fetchResultAsync(id, pageOffset, count, new ResultPageCallback() {
+				@SuppressWarnings("unchecked")
+				@Override
+				public void onPage(Map<String, Object> result, long bytes) {
+					page = toTuples((List<Object>) result.get("result"));
+					drain();
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					failure = t;
+					drain();
+				}
+			});
+		}
+
+		// stop running query and remove it without blocking signal thread. if
+		// query creation is in progress, creation callback will release it.
+		private void release() {
+			Query q = query;
+			if (q == null || !released.compareAndSet(false, true))
+				return;
+
+			q.removeProgressListener(this);
+
+			String status = q.getStatus();
+			final int id = q.getId();
+			if (status.equals("Ended") || status.equals("Cancelled")) {
+				removeQueryAsync(id).addCallback(new ReleaseCallback(id));
+				return;
+			}
+
+			stopQueryAsync(id).addCallback(new FutureCallback<Message>() {
+				@Override
+				public void onSuccess(Message value) {
+					removeQueryAsync(id).addCallback(new ReleaseCallback(id));
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					removeQueryAsync(id).addCallback(new ReleaseCallback(id));
+				}
+			});
+		}
+	}
+
+	private class ReleaseCallback implements FutureCallback<Message> {
+		private final int id;
+
+		public ReleaseCallback(int id) {
+			this.id = id;
 		}
 
 		@Override
-		public void remove() {
-			throw new UnsupportedOperationException();
+		public void onSuccess(Message value) {
 		}
 
 		@Override
-		public void close() throws IOException {
-			if (removeOnClose)
-				removeQuery(id);
+		public void onFailure(Throwable t) {
+			logger.debug("logpresso: cannot remove published query [" + id + "]", t);
 		}
 	}
 
 	/**
-	 * 스트림 쿼리 목록을 조회합니다.
+	 * 완료된 쿼리의 전체 결과를 순서대로 순회하는 커서를 반환합니다. 쿼리 결과를 fetchSize 크기의 구간으로 나누고, 최대
+	 * exportConcurrency 갯수의 구간을 동시에 요청하여 병렬로 디코딩합니다. 쿼리가 아직 실행 중인 경우 호출 시점까지 적재된
+	 * 결과만 순회합니다. 커서를 닫아도 쿼리는 삭제되지 않습니다.
 	 * 
-	 * @since 0.9.5
+	 * @param id
+	 *            쿼리 ID
+	 * @return 쿼리 결과를 조회할 수 있는 커서
+	 * @since 1.2.0
 	 */
-	public List<StreamQueryStatus> listStreamQueries() throws IOException {
-		Message resp = rpc("com.logpresso.query.msgbus.StreamQueryPlugin.getStreamQueries");
-
-		@SuppressWarnings("unchecked")
-		List<Object> l = (List<Object>) resp.get("stream_queries");
-		List<StreamQueryStatus> statuses = new ArrayList<StreamQueryStatus>();
-
-		for (Object o : l) {
-			StreamQueryStatus status = parseStreamQueryStatus(o);
-			statuses.add(status);
-		}
-
-		return statuses;
+	public Cursor exportResult(int id) {
+		verifyQueryId(id);
+		long total = queries.get(id).getLoadedCount();
+		return new PrefetchCursorImpl(id, 0L, total, false, fetchSize, exportConcurrency, prefetchMemoryLimit, null);
 	}
 
 	/**
-	 * @since 0.9.5
+	 * 완료된 쿼리의 전체 결과를 오프셋 구간 단위로 분할할 수 있는 커서를 반환합니다. 쿼리가 아직 실행 중인 경우 호출 시점까지 적재된
+	 * 결과만 순회합니다. 커서를 닫아도 쿼리는 삭제되지 않습니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 * @return 오프셋 구간 단위로 분할할 수 있는 커서
+	 * @since 1.2.0
 	 */
-	@SuppressWarnings("unchecked")
-	public StreamQueryStatus getStreamQuery(String name) throws IOException {
-		checkNotNull("name", name);
+	public SplittableCursor splitResult(int id) {
+		verifyQueryId(id);
+		long total = queries.get(id).getLoadedCount();
+		return new SplittableCursorImpl(id, 0L, total, new SplitRef(id, false));
+	}
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("name", name);
+	/**
+	 * 시간 범위가 지정된 테이블 조회 쿼리를 여러 개의 하위 시간 범위 쿼리로 나누어 실행하고 결과를 합친 커서를 반환합니다. 하위
+	 * 쿼리는 최대 concurrency 갯수까지 동시에 실행되며, 하나가 종료될 때마다 다음 하위 쿼리가 시작됩니다. 하위 쿼리 실행은
+	 * 트랩으로 통지되는 쿼리 상태를 이용하므로 별도의 스레드를 사용하지 않습니다.
+	 * <p>
+	 * 병합 방식이 UNORDERED인 경우 먼저 종료된 하위 쿼리의 결과부터 즉시 순회할 수 있습니다. TIME_DESC나 TIME_ASC인 경우
+	 * 모든 하위 쿼리가 종료될 때까지 대기한 후, 각 하위 쿼리 결과를 페이지 단위로 가져오면서 _time 순서로 k-way 병합합니다.
+	 * AGGREGATE인 경우 종료된 하위 쿼리의 stats 결과부터 페이지 단위로 그룹 별 합산하고 삭제하며, 모든 하위 쿼리가 합산된 후에
+	 * 반환합니다. 하위 쿼리 중 하나라도 취소되면 결과가
+	 * 누락되지 않도록 예외가 발생하며, 커서를 닫아 나머지 하위 쿼리를 삭제해야 합니다. 커서를 닫으면 모든 하위 쿼리가 삭제됩니다.
+	 * </p>
+	 * 
+	 * @param spec
+	 *            시간 범위 분할 쿼리 설정
+	 * @return 하위 쿼리 결과를 합친 커서
+	 * @since 1.2.0
+	 */
+	public Cursor querySplit(SplitQuerySpec spec) throws IOException {
+		checkNotNull("spec", spec);
+		checkNotNull("table names", spec.getTableNames());
+		checkNotNull("from", spec.getFrom());
+		checkNotNull("to", spec.getTo());
 
-		Message resp = rpc("com.logpresso.query.msgbus.StreamQueryPlugin.getStreamQuery", params);
-		Map<String, Object> o = (Map<String, Object>) resp.get("stream_query");
-		if (o == null)
-			return null;
+		SplitQuerySpec.MergeMode mode = spec.getMergeMode();
+		StatsMerger merger = null;
+		if (mode == SplitQuerySpec.MergeMode.AGGREGATE)
+			merger = StatsMerger.parse(spec.getTail());
+		else if (mode != SplitQuerySpec.MergeMode.UNORDERED)
+			StatsMerger.verifyRowLocal(spec.getTail());
 
-		return parseStreamQueryStatus(o);
-	}
+		SplitQueryRunner runner = new SplitQueryRunner(buildSplitQueries(spec), spec.getConcurrency());
+		runner.start();
 
-	@SuppressWarnings("unchecked")
-	private StreamQueryStatus parseStreamQueryStatus(Object o) {
-		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
-		StreamQueryStatus status = new StreamQueryStatus();
+		if (mode == SplitQuerySpec.MergeMode.UNORDERED)
+			return new UnorderedSplitCursor(runner);
 
-		Map<String, Object> m = (Map<String, Object>) o;
-		Map<String, Object> c = (Map<String, Object>) m.get("config");
+		try {
+			if (merger == null)
+				return new MergeSplitCursor(runner, runner.awaitAll(), mode == SplitQuerySpec.MergeMode.TIME_DESC);
+
+			// merge ended sub query page by page while next sub query runs,
+			// only merged groups are kept in memory
+			int id;
+			while ((id = runner.take()) >= 0) {
+				Cursor cursor = newSplitCursor(id);
+				try {
+					while (cursor.hasNext())
+						merger.add(cursor.next());
+				} finally {
+					cursor.close();
+				}
 
-		StreamQuery query = new StreamQuery();
+				try {
+					removeQuery(id);
+				} catch (Throwable t) {
+					logger.debug("logpresso: cannot remove sub query [" + id + "]", t);
+				}
+			}
 
-		query.setName((String) c.get("name"));
-		query.setDescription((String) c.get("description"));
-		query.setInterval((Integer) c.get("interval"));
-		query.setQueryString((String) c.get("query"));
-		query.setOwner((String) c.get("owner"));
-		String sourceType = (String) c.get("source_type");
-		query.setSourceType(sourceType);
-		if (sourceType.equals("table"))
-			query.setSources((List<String>) c.get("table"));
-		else if (sourceType.equals("logger"))
-			query.setSources((List<String>) c.get("logger"));
-		else if (sourceType.equals("stream"))
-			query.setSources((List<String>) c.get("stream"));
-		query.setEnabled((Boolean) c.get("is_enabled"));
-		query.setCreated(df.parse((String) c.get("created"), new ParsePosition(0)));
-		query.setModified(df.parse((String) c.get("modified"), new ParsePosition(0)));
-
-		status.setStreamQuery(query);
-		status.setInputCount(Long.parseLong(m.get("input_count").toString()));
-		status.setLastRefresh(df.parse((String) m.get("last_refresh"), new ParsePosition(0)));
-		status.setRunning((Boolean) m.get("is_running"));
-		return status;
+			runner.close();
+			return new ListCursorImpl(merger.getResult());
+		} catch (IOException e) {
+			runner.close();
+			throw e;
+		} catch (RuntimeException e) {
+			runner.close();
+			throw e;
+		}
 	}
 
-	/**
-	 * 스트림 쿼리를 생성합니다. 스트림 쿼리 이름이 중복되는 경우 예외가 발생합니다. logger, table, stream 이외의
-	 * 데이터 원본 타입이 지정된 경우 예외가 발생합니다. 새로고침 주기가 음수인 경우 예외가 발생합니다.
-	 * 
-	 * @since 0.9.5
-	 */
-	public void createStreamQuery(StreamQuery query) throws IOException {
-		Map<String, Object> params = buildStreamQueryParams(query);
-		rpc("com.logpresso.query.msgbus.StreamQueryPlugin.createStreamQuery", params);
-	}
+	private List<String> buildSplitQueries(SplitQuerySpec spec) {
+		long from = spec.getFrom().getTime() / 1000;
+		long to = spec.getTo().getTime() / 1000;
+		if (to <= from)
+			throw new IllegalArgumentException("to should be later than from at least one second");
+
+		String tail = spec.getTail();
+		String suffix = tail != null && !tail.trim().isEmpty() ? " | " + tail : "";
+
+		// table scan returns rows in descending _time order
+		if (spec.getMergeMode() == SplitQuerySpec.MergeMode.TIME_ASC)
+			suffix += " | sort _time";
+
+		// split at second boundary, server reads from and to in its time zone
+		SimpleDateFormat f = new SimpleDateFormat("yyyyMMddHHmmss");
+		f.setTimeZone(spec.getTimeZone());
+		int n = (int) Math.min(spec.getSplitCount(), to - from);
+		List<String> queryStrings = new ArrayList<String>(n);
+		for (int i = 0; i < n; i++) {
+			long begin = from + (to - from) * i / n;
+			long end = from + (to - from) * (i + 1) / n;
+			queryStrings.add("table from=" + f.format(new Date(begin * 1000)) + " to=" + f.format(new Date(end * 1000)) + " "
+					+ spec.getTableNames() + suffix);
+		}
 
-	/**
-	 * 스트림 쿼리를 수정합니다. 스트림 쿼리가 존재하지 않는 경우 예외가 발생합니다. logger, table, stream 이외의
-	 * 데이터 원본 타입이 지정된 경우 예외가 발생합니다. 새로고침 주기가 음수인 경우 예외가 발생합니다.
-	 * 
-	 * @since 1.0.0
-	 */
-	public void updateStreamQuery(StreamQuery query) throws IOException {
-		Map<String, Object> params = buildStreamQueryParams(query);
-		rpc("com.logpresso.query.msgbus.StreamQueryPlugin.updateStreamQuery", params);
+		return queryStrings;
 	}
 
-	private Map<String, Object> buildStreamQueryParams(StreamQuery query) {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("name", query.getName());
-		params.put("description", query.getDescription());
-		params.put("interval", query.getInterval());
-		params.put("source_type", query.getSourceType());
-		params.put("sources", query.getSources());
-		params.put("query", query.getQueryString());
-		params.put("is_enabled", query.isEnabled());
-		return params;
+	private Cursor newSplitCursor(int id) {
+		long total = queries.get(id).getLoadedCount();
+		int depth = Math.max(1, prefetchDepth);
+		return new PrefetchCursorImpl(id, 0L, total, false, fetchSize, depth, prefetchMemoryLimit, null);
 	}
 
 	/**
-	 * 지정된 이름의 스트림 쿼리를 삭제합니다. 지정된 스트림 쿼리가 존재하지 않거나, 소유자가 아닌 경우 예외가 발생합니다.
+	 * 완료된 쿼리의 전체 결과를 순서와 무관하게 주어진 싱크로 전달합니다. 쿼리 결과를 fetchSize 크기의 구간으로 나누고, 최대
+	 * exportConcurrency 갯수의 구간을 동시에 요청하며, 응답을 받는 대로 디코더 스레드풀에서 디코딩하여 싱크를 호출합니다.
+	 * 모든 구간이 전달될 때까지 스레드가 차단되며, 구간 조회에 실패하면 나머지 구간을 요청하지 않고 예외가 발생합니다.
 	 * 
-	 * @param name
-	 *            스트림 쿼리 이름
-	 * @since 0.9.5
+	 * @param id
+	 *            쿼리 ID
+	 * @param sink
+	 *            구간 단위 쿼리 결과를 전달받을 콜백
+	 * @return 전달된 결과 행 갯수
+	 * @since 1.2.0
 	 */
-	public void removeStreamQuery(String name) throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("name", name);
+	public long exportResult(int id, final ResultRangeSink sink) throws IOException {
+		verifyQueryId(id);
+		checkNotNull("sink", sink);
 
-		rpc("com.logpresso.query.msgbus.StreamQueryPlugin.removeStreamQuery", params);
-	}
+		long total = queries.get(id).getLoadedCount();
+		int concurrency = exportConcurrency;
+		final Semaphore window = new Semaphore(concurrency);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final AtomicLong exported = new AtomicLong();
 
-	/**
-	 * 예약된 쿼리 목록을 조회합니다. 자신이 설정한 예약된 쿼리 목록만 조회됩니다.
-	 * 
-	 * @since 0.9.5
-	 */
-	public List<ScheduledQuery> listScheduledQueries() throws IOException {
-		Message resp = rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.getScheduledQueries");
+		try {
+			for (long offset = 0; offset < total && failure.get() == null; offset += fetchSize) {
+				window.acquire();
+
+				final long rangeOffset = offset;
+				int count = (int) Math.min(fetchSize, total - offset);
+				fetchResultAsync(id, rangeOffset, count, new ResultPageCallback() {
+					@SuppressWarnings("unchecked")
+					@Override
+					public void onPage(Map<String, Object> result, long bytes) {
+						try {
+							List<Object> rows = (List<Object>) result.get("result");
+							sink.onRows(rangeOffset, toTuples(rows));
+							exported.addAndGet(rows.size());
+						} catch (Throwable t) {
+							failure.compareAndSet(null, t);
+						} finally {
+							window.release();
+						}
+					}
 
-		@SuppressWarnings("unchecked")
-		List<Object> l = (List<Object>) resp.get("scheduled_queries");
+					@Override
+					public void onFailure(Throwable t) {
+						failure.compareAndSet(null, t);
+						window.release();
+					}
+				});
+			}
 
-		List<ScheduledQuery> queries = new ArrayList<ScheduledQuery>();
-		for (Object o : l) {
-			queries.add(parseScheduledQuery(o));
+			// wait all in-flight ranges
+			window.acquire(concurrency);
+			window.release(concurrency);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while exporting query result");
 		}
 
-		return queries;
+		Throwable t = failure.get();
+		if (t instanceof IOException)
+			throw (IOException) t;
+		if (t instanceof RuntimeException)
+			throw (RuntimeException) t;
+		if (t != null)
+			throw new IOException(t);
+
+		return exported.get();
 	}
 
-	/**
-	 * 지정된 GUID를 가진 예약된 쿼리 설정을 조회합니다. 예약된 쿼리가 존재하지 않거나 조회 권한이 없는 경우 예외가 발생합니다.
-	 * 
-	 * @since 0.9.5
-	 */
-	public ScheduledQuery getScheduledQuery(String guid) throws IOException {
-		checkNotNull("guid", guid);
+	private List<Tuple> toTuples(List<Object> rows) {
+		List<Tuple> tuples = new ArrayList<Tuple>(rows.size());
+		for (Object o : rows) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> m = (Map<String, Object>) o;
+			tuples.add(new Tuple(m));
+		}
+		return tuples;
+	}
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("guid", guid);
-		Message resp = rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.getScheduledQuery", params);
+	private interface ResultPageCallback {
+		void onPage(Map<String, Object> result, long bytes);
 
-		return parseScheduledQuery(resp.get("scheduled_query"));
+		void onFailure(Throwable t);
 	}
 
-	private ScheduledQuery parseScheduledQuery(Object o) {
-		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
+	/**
+	 * 쿼리 결과 페이지를 비동기 RPC로 요청하고, 응답은 스트리밍 디코더 스레드풀에서 디코딩한 후 콜백을 호출합니다.
+	 */
+	private void fetchResultAsync(int id, long offset, int count, final ResultPageCallback callback) {
+		Message req = new Message();
+		req.setMethod("org.araqne.logdb.msgbus.LogQueryPlugin.getResult");
+		req.setParameters(buildResultParams(id, offset, count));
+
+		rpcAsync(req).addCallback(new FutureCallback<Message>() {
+			@Override
+			public void onSuccess(final Message resp) {
+				StreamingResultDecoder decoder = streamingDecoder;
+				if (decoder == null) {
+					callback.onFailure(new IOException("client closed"));
+					return;
+				}
 
-		@SuppressWarnings("unchecked")
-		Map<String, Object> m = (Map<String, Object>) o;
+				decoder.execute(new Runnable() {
+					@Override
+					public void run() {
+						Map<String, Object> m = null;
+						long bytes = 0;
+						try {
+							m = parseResult(resp);
+
+							// use encoded size as memory estimation if available
+							Object size = resp.getParameters().get("uncompressed_size");
+							bytes = size instanceof Integer ? (Integer) size : ((List<?>) m.get("result")).size() * 64L;
+						} catch (Throwable t) {
+							callback.onFailure(t);
+							return;
+						}
 
-		ScheduledQuery query = new ScheduledQuery();
-		query.setGuid((String) m.get("guid"));
-		query.setTitle((String) m.get("title"));
-		query.setCronSchedule((String) m.get("cron_schedule"));
-		query.setOwner((String) m.get("owner"));
-		query.setQueryString((String) m.get("query"));
-		query.setSaveResult((Boolean) m.get("use_save_result"));
-		query.setUseAlert((Boolean) m.get("use_alert"));
-		query.setAlertQuery((String) m.get("alert_query"));
-		query.setSuppressInterval((Integer) m.get("suppress_interval"));
-		query.setMailProfile((String) m.get("mail_profile"));
-		query.setMailFrom((String) m.get("mail_from"));
-		query.setMailTo((String) m.get("mail_to"));
-		query.setMailSubject((String) m.get("mail_subject"));
-		query.setEnabled((Boolean) m.get("is_enabled"));
-		query.setCreated(df.parse((String) m.get("created_at"), new ParsePosition(0)));
+						callback.onPage(m, bytes);
+					}
+				});
+			}
 
-		return query;
+			@Override
+			public void onFailure(Throwable t) {
+				callback.onFailure(t);
+			}
+		});
 	}
 
-	/**
-	 * 예약된 쿼리를 생성합니다. 예약된 쿼리의 GUID가 중복되는 경우 예외가 발생합니다.
-	 * 
-	 * @since 0.9.5
-	 */
-	public void createScheduledQuery(ScheduledQuery query) throws IOException {
-		Map<String, Object> params = buildScheduledQueryParams(query);
-		rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.createScheduledQuery", params);
+	private Cursor newCursor(int id, long offset, long limit, boolean removeOnClose) {
+		if (prefetchDepth > 0)
+			return new PrefetchCursorImpl(id, offset, limit, removeOnClose, fetchSize, prefetchDepth, prefetchMemoryLimit, null);
+		return new LogCursorImpl(id, offset, limit, removeOnClose, fetchSize);
 	}
 
 	/**
-	 * 예약된 쿼리를 수정합니다. 지정된 GUID의 예약된 쿼리가 존재하지 않으면 예외가 발생합니다.
-	 * 
-	 * @since 0.9.5
+	 * 하위 쿼리들을 최대 동시 실행 갯수만큼 비동기로 생성하고 시작합니다. 하위 쿼리가 종료되면 진행 상태 리스너에서 다음 하위 쿼리를
+	 * 시작합니다.
 	 */
-	public void updateScheduledQuery(ScheduledQuery query) throws IOException {
-		Map<String, Object> params = buildScheduledQueryParams(query);
-		rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.updateScheduledQuery", params);
-	}
+	private class SplitQueryRunner {
+		private final List<String> queryStrings;
+		private final int concurrency;
+
+		// guarded by this
+		private final int[] ids;
+		private final LinkedList<Integer> completed = new LinkedList<Integer>();
+		private int next;
+		private int ended;
+		private int taken;
+		private Throwable failure;
+		private boolean closed;
+
+		public SplitQueryRunner(List<String> queryStrings, int concurrency) {
+			this.queryStrings = queryStrings;
+			this.concurrency = concurrency;
+			this.ids = new int[queryStrings.size()];
+			Arrays.fill(ids, -1);
+		}
 
-	private Map<String, Object> buildScheduledQueryParams(ScheduledQuery query) {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("guid", query.getGuid());
-		params.put("title", query.getTitle());
-		params.put("cron_schedule", query.getCronSchedule());
-		params.put("query", query.getQueryString());
-		params.put("save_result", query.isSaveResult());
-		params.put("use_alert", query.isUseAlert());
-		params.put("alert_query", query.getAlertQuery());
-		params.put("suppress_interval", query.getSuppressInterval());
-		params.put("mail_profile", query.getMailProfile());
-		params.put("mail_from", query.getMailFrom());
-		params.put("mail_to", query.getMailTo());
-		params.put("mail_subject", query.getMailSubject());
-		params.put("is_enabled", query.isEnabled());
-		return params;
-	}
+		public synchronized void start() {
+			while (!closed && failure == null && next < queryStrings.size() && next - ended < concurrency)
+				launch(next++);
+		}
 
-	/**
-	 * 예약된 쿼리를 삭제합니다. 지정된 GUID의 예약된 쿼리가 존재하지 않으면 예외가 발생합니다.
-	 * 
-	 * @since 0.9.5
-	 */
-	public void removeScheduledQuery(String guid) throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("guid", guid);
-		rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.removeScheduledQuery", params);
-	}
+		private void launch(final int index) {
+			createQueryAsync(queryStrings.get(index)).addCallback(new FutureCallback<Integer>() {
+				@Override
+				public void onSuccess(Integer id) {
+					final Query q = queries.get(id);
+					synchronized (SplitQueryRunner.this) {
+						ids[index] = id;
+						if (closed) {
+							removeQueryAsync(id);
+							return;
+						}
+					}
 
-	/**
-	 * 프로시저 목록을 조회합니다.
-	 * 
-	 * @since 1.1.3
-	 */
-	@SuppressWarnings("unchecked")
-	public List<Procedure> listProcedures() throws IOException {
-		Message resp = rpc("com.logpresso.core.msgbus.ProcedurePlugin.getProcedures");
+					q.addProgressListener(new Runnable() {
+						private final AtomicBoolean once = new AtomicBoolean();
 
-		List<Object> l = (List<Object>) resp.get("procedures");
-		List<Procedure> procedures = new ArrayList<Procedure>();
-		for (Object o : l) {
-			procedures.add(parseProcedure((Map<String, Object>) o));
+						@Override
+						public void run() {
+							String status = q.getStatus();
+							if ((status.equals("Ended") || status.equals("Cancelled")) && once.compareAndSet(false, true)) {
+								q.removeProgressListener(this);
+								onEnded(index, q);
+							}
+						}
+					});
+
+					startQueryAsync(id).addCallback(new FutureCallback<Message>() {
+						@Override
+						public void onSuccess(Message value) {
+						}
+
+						@Override
+						public void onFailure(Throwable t) {
+							fail(t);
+						}
+					});
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					fail(t);
+				}
+			});
 		}
 
-		return procedures;
+		private synchronized void onEnded(int index, Query q) {
+			// stopped or disconnected sub query would truncate merged result
+			if (q.getStatus().equals("Cancelled")) {
+				String errorMsg = ", reason [" + q.getCancelReason() + "]";
+				if (q.getErrorCode() != null)
+					errorMsg += String.format(", error LOGPRESSO-%05d [%s]", q.getErrorCode(), q.getErrorDetail());
 
-	}
+				fail(new IllegalStateException("sub query cancelled, id [" + q.getId() + "] query string ["
+						+ queryStrings.get(index) + "]" + errorMsg));
+				return;
+			}
 
-	@SuppressWarnings("unchecked")
-	private Procedure parseProcedure(Map<String, Object> m) {
-		List<ProcedureParameter> parameters = new ArrayList<ProcedureParameter>();
-		for (Map<String, Object> o : (List<Map<String, Object>>) m.get("parameters")) {
-			ProcedureParameter pp = new ProcedureParameter();
+			ended++;
+			completed.add(index);
+			notifyAll();
+			start();
+		}
 
-			pp.setKey((String) o.get("key"));
-			pp.setType((String) o.get("type"));
-			pp.setName((String) o.get("name"));
-			pp.setDescription((String) o.get("description"));
+		private synchronized void fail(Throwable t) {
+			if (failure == null)
+				failure = t;
+			notifyAll();
+		}
 
-			parameters.add(pp);
+		/**
+		 * 다음으로 종료된 하위 쿼리의 ID를 반환합니다. 모든 하위 쿼리를 반환했으면 -1을 반환합니다.
+		 */
+		public synchronized int take() throws IOException {
+			if (taken == queryStrings.size())
+				return -1;
+
+			try {
+				while (completed.isEmpty() && failure == null && !closed)
+					wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting sub query");
+			}
+
+			throwFailure();
+			if (completed.isEmpty())
+				return -1;
+
+			taken++;
+			return ids[completed.poll()];
 		}
 
-		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
-		Procedure p = new Procedure();
-		p.setName((String) m.get("name"));
-		p.setDescription((String) m.get("description"));
-		p.setQueryString((String) m.get("query_string"));
-		p.setParameters(parameters);
-		p.setOwner((String) m.get("owner"));
+		/**
+		 * 모든 하위 쿼리가 종료될 때까지 대기한 후, 시간 범위 순서대로 하위 쿼리 ID 목록을 반환합니다.
+		 */
+		public synchronized List<Integer> awaitAll() throws IOException {
+			try {
+				while (ended < queryStrings.size() && failure == null && !closed)
+					wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting sub queries");
+			}
 
-		// support backward compatibility
-		if (m.get("grants") != null)
-			p.setGrantLogins(new HashSet<String>((List<String>) m.get("grants")));
+			throwFailure();
+			if (closed)
+				throw new IOException("split query is closed");
 
-		if (m.get("grant_groups") != null)
-			p.setGrantGroups(new HashSet<String>((List<String>) m.get("grant_groups")));
+			List<Integer> l = new ArrayList<Integer>(ids.length);
+			for (int id : ids)
+				l.add(id);
+			return l;
+		}
 
-		p.setCreated(df.parse((String) m.get("created"), new ParsePosition(0)));
-		p.setModified(df.parse((String) m.get("modified"), new ParsePosition(0)));
-		return p;
-	}
+		private void throwFailure() throws IOException {
+			Throwable t = failure;
+			if (t instanceof IOException)
+				throw (IOException) t;
+			if (t instanceof RuntimeException)
+				throw (RuntimeException) t;
+			if (t != null)
+				throw new IOException(t);
+		}
 
-	/**
-	 * 프로시저를 생성합니다. 프로시저 이름이 중복되는 경우 예외가 발생합니다.
-	 * 
-	 * @since 1.1.3
-	 */
-	public void createProcedure(Procedure procedure) throws IOException {
-		Map<String, Object> params = buildProcedureRequest(procedure);
-		rpc("com.logpresso.core.msgbus.ProcedurePlugin.createProcedure", params);
+		/**
+		 * 실행 중인 하위 쿼리를 포함하여 생성된 모든 하위 쿼리를 삭제합니다.
+		 */
+		public void close() {
+			int[] created;
+			synchronized (this) {
+				if (closed)
+					return;
+				closed = true;
+				created = ids.clone();
+				notifyAll();
+			}
+
+			for (int id : created) {
+				if (id < 0 || !queries.containsKey(id))
+					continue;
+
+				try {
+					removeQuery(id);
+				} catch (Throwable t) {
+					logger.debug("logpresso: cannot remove sub query [" + id + "]", t);
+				}
+			}
+		}
 	}
 
 	/**
-	 * 프로시저를 수정합니다. 프로시저가 존재하지 않는 경우 예외가 발생합니다. 현재 세션이 관리자나 프로시저 소유자가 아닌 경우 예외가
-	 * 발생합니다.
-	 * 
-	 * @since 1.1.3
+	 * 먼저 종료된 하위 쿼리의 결과부터 순회하며, 다 읽은 하위 쿼리는 즉시 삭제합니다.
 	 */
-	public void updateProcedure(Procedure procedure) throws IOException {
-		Map<String, Object> params = buildProcedureRequest(procedure);
-		rpc("com.logpresso.core.msgbus.ProcedurePlugin.updateProcedure", params);
-	}
+	private class UnorderedSplitCursor implements Cursor {
+		private final SplitQueryRunner runner;
+		private Cursor current;
+		private int currentId = -1;
+		private boolean closed;
+
+		public UnorderedSplitCursor(SplitQueryRunner runner) {
+			this.runner = runner;
+		}
 
-	private Map<String, Object> buildProcedureRequest(Procedure p) {
-		checkNotNull("name", p.getName());
-		checkNotNull("query string", p.getQueryString());
-		checkNotNull("procedure paramter list", p.getParameters());
+		@Override
+		public boolean hasNext() {
+			while (!closed) {
+				if (current != null && current.hasNext())
+					return true;
 
-		List<Object> parameters = new ArrayList<Object>();
-		for (ProcedureParameter pp : p.getParameters()) {
-			checkNotNull("procedure paramter key", pp.getKey());
-			checkNotNull("procedure paramter type", pp.getType());
+				if (current != null)
+					releaseCurrent();
 
-			Map<String, Object> o = new HashMap<String, Object>();
-			o.put("key", pp.getKey());
-			o.put("type", pp.getType());
-			o.put("name", pp.getName());
-			o.put("description", pp.getDescription());
-			parameters.add(o);
+				int id;
+				try {
+					id = runner.take();
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+
+				if (id < 0)
+					return false;
+
+				currentId = id;
+				current = newSplitCursor(id);
+			}
+
+			return false;
 		}
 
-		Map<String, Object> m = new HashMap<String, Object>();
-		m.put("name", p.getName());
-		m.put("description", p.getDescription());
-		m.put("query_string", p.getQueryString());
-		m.put("parameters", parameters);
-		m.put("grants", p.getGrantLogins());
-		m.put("grant_groups", p.getGrantGroups());
-		return m;
-	}
+		private void releaseCurrent() {
+			try {
+				current.close();
+				removeQuery(currentId);
+			} catch (Throwable t) {
+				logger.debug("logpresso: cannot remove sub query [" + currentId + "]", t);
+			}
+			current = null;
+			currentId = -1;
+		}
 
-	/**
-	 * 프로시저를 삭제합니다. 존재하지 않는 프로시저를 삭제하려고 시도하는 경우 예외가 발생합니다. 현재 세션이 관리자나 프로시저 소유자가
-	 * 아닌 경우 예외가 발생합니다.
-	 * 
-	 * @param name
-	 *            프로시저 이름
-	 * @since 1.1.3
-	 */
-	public void removeProcedure(String name) throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("name", name);
+		@Override
+		public Tuple next() {
+			if (!hasNext())
+				throw new NoSuchElementException("end of log cursor");
+			return current.next();
+		}
 
-		rpc("com.logpresso.core.msgbus.ProcedurePlugin.removeProcedure", params);
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+
+			closed = true;
+			if (current != null)
+				current.close();
+			runner.close();
+		}
 	}
 
-	/**
-	 * 주어진 쿼리 문자열을 사용하여 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
-	 * 
-	 * @param queryString
-	 *            쿼리 문자열 (NULL 허용 안 함)
-	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
-	 */
-	public int createQuery(String queryString) throws IOException {
-		return createQuery(queryString, null, null);
+	private static class MergeHead {
+		private final int index;
+		private final Cursor cursor;
+		private Tuple tuple;
+
+		public MergeHead(int index, Cursor cursor) {
+			this.index = index;
+			this.cursor = cursor;
+		}
 	}
 
 	/**
-	 * 주어진 쿼리 문자열을 사용하여 스트리밍 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
-	 * 
-	 * @param queryString
-	 *            쿼리 문자열 (NULL 허용 안 함)
-	 * @param rs
-	 *            쿼리 결과 스트리밍에 사용할 콜백 인스턴스, NULL인 경우 스트리밍 모드로 전환되지 않습니다.
-	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
-	 * @since 0.9.1
+	 * 종료된 하위 쿼리들의 결과를 페이지 단위로 가져오면서 _time 순서로 k-way 병합합니다. _time이 같으면 시간 범위 순서를 따르며,
+	 * _time이 없는 행은 가장 나중에 반환됩니다.
 	 */
-	public int createQuery(String queryString, StreamingResultSet rs) throws IOException {
-		return createQuery(queryString, rs, null);
+	private class MergeSplitCursor implements Cursor {
+		private final SplitQueryRunner runner;
+		private final PriorityQueue<MergeHead> heads;
+		private final List<Cursor> cursors = new ArrayList<Cursor>();
+		private boolean closed;
+
+		public MergeSplitCursor(SplitQueryRunner runner, List<Integer> ids, final boolean descending) {
+			this.runner = runner;
+			this.heads = new PriorityQueue<MergeHead>(Math.max(1, ids.size()), new Comparator<MergeHead>() {
+				@Override
+				public int compare(MergeHead o1, MergeHead o2) {
+					Object t1 = o1.tuple.get("_time");
+					Object t2 = o2.tuple.get("_time");
+					boolean d1 = t1 instanceof Date;
+					boolean d2 = t2 instanceof Date;
+					if (d1 && d2) {
+						int c = ((Date) t1).compareTo((Date) t2);
+						if (c != 0)
+							return descending ? -c : c;
+					} else if (d1 != d2) {
+						// rows without _time go last in either order
+						return d1 ? -1 : 1;
+					}
+
+					return o1.index - o2.index;
+				}
+			});
+
+			for (int i = 0; i < ids.size(); i++) {
+				Cursor cursor = newSplitCursor(ids.get(i));
+				cursors.add(cursor);
+				MergeHead head = new MergeHead(descending ? ids.size() - 1 - i : i, cursor);
+				if (cursor.hasNext()) {
+					head.tuple = cursor.next();
+					heads.add(head);
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !closed && !heads.isEmpty();
+		}
+
+		@Override
+		public Tuple next() {
+			if (!hasNext())
+				throw new NoSuchElementException("end of log cursor");
+
+			MergeHead head = heads.poll();
+			Tuple tuple = head.tuple;
+			if (head.cursor.hasNext()) {
+				head.tuple = head.cursor.next();
+				heads.add(head);
+			}
+			return tuple;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+
+			closed = true;
+			heads.clear();
+			for (Cursor cursor : cursors)
+				cursor.close();
+			runner.close();
+		}
 	}
 
-	/**
-	 * 주어진 쿼리 문자열을 사용하여 스트리밍 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
-	 * 
-	 * @param queryString
-	 *            쿼리 문자열 (NULL 허용 안 함)
-	 * @param rs
-	 *            쿼리 결과 스트리밍에 사용할 콜백 인스턴스, NULL인 경우 스트리밍 모드로 전환되지 않습니다.
-	 * @param queryContext
-	 *            쿼리 컨텍스트, 가령 프로시저에서 메인 쿼리의 쿼리 컨텍스트를 서브 쿼리로 전달하는데 사용됩니다.
-	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
-	 * @since 0.9.1
-	 */
-	public int createQuery(String queryString, StreamingResultSet rs, Map<String, Object> queryContext) throws IOException {
+	private static class ListCursorImpl implements Cursor {
+		private final Iterator<Tuple> it;
 
-		String queryContextEncoded = null;
-		if (queryContext != null) {
-			ByteBuffer bb = new FastEncodingRule().encode(queryContext);
-			queryContextEncoded = new String(Base64.encode(bb.array()));
+		public ListCursorImpl(List<Tuple> tuples) {
+			this.it = tuples.iterator();
 		}
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("query", queryString);
-		params.put("source", "java-client");
-		params.put("context", queryContextEncoded);
+		@Override
+		public boolean hasNext() {
+			return it.hasNext();
+		}
 
-		Message resp = rpc("org.araqne.logdb.msgbus.LogQueryPlugin.createQuery", params);
-		int id = resp.getInt("id");
-		session.registerTrap("logdb-query-" + id);
-		session.registerTrap("logdb-query-timeline-" + id);
+		@Override
+		public Tuple next() {
+			return it.next();
+		}
 
-		if (rs != null) {
-			streamCallbacks.put(id, rs);
-			session.registerTrap("logdb-query-result-" + id);
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
 		}
 
-		queries.putIfAbsent(id, new Query(this, id, queryString));
-		return id;
+		@Override
+		public void close() throws IOException {
+		}
 	}
 
 	/**
-	 * 지정된 쿼리를 시작시킵니다. 주어진 ID에 대응하는 쿼리가 없거나 액세스 권한이 없는 경우 예외가 발생합니다.
-	 * 
-	 * @param id
-	 *            쿼리 ID
+	 * 분할된 커서들이 공유하는 쿼리 참조 카운트입니다. 마지막 커서가 닫힐 때 쿼리를 삭제합니다.
 	 */
-	public void startQuery(int id) throws IOException {
-		verifyQueryId(id);
+	private class SplitRef {
+		private final int id;
+		private final boolean removeOnClose;
+		private final AtomicInteger refs = new AtomicInteger(1);
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("id", id);
-		params.put("streaming", streamCallbacks.containsKey(id));
+		public SplitRef(int id, boolean removeOnClose) {
+			this.id = id;
+			this.removeOnClose = removeOnClose;
+		}
 
-		rpc("org.araqne.logdb.msgbus.LogQueryPlugin.startQuery", params);
+		public void retain() {
+			refs.incrementAndGet();
+		}
+
+		public void release() throws IOException {
+			if (refs.decrementAndGet() == 0 && removeOnClose)
+				removeQuery(id);
+		}
 	}
 
 	/**
-	 * 지정된 쿼리를 정지(취소)시킵니다. 주어진 ID에 대응하는 쿼리가 없거나 액세스 권한이 없는 경우 예외가 발생합니다. 정지되기 직전
-	 * 시점까지의 쿼리 결과는 removeQuery()를 호출하기 전까지 getResult()를 사용하여 조회할 수 있습니다.
-	 * 
-	 * @param id
-	 *            쿼리 ID
+	 * [from, end) 구간의 결과를 순회합니다. 순회를 시작하기 전까지는 구간을 fetchSize 경계로 나누어 앞쪽 절반을 새로운 커서로
+	 * 분리할 수 있습니다.
 	 */
-	public void stopQuery(int id) throws IOException {
-		verifyQueryId(id);
+	private class SplittableCursorImpl implements SplittableCursor {
+		private final int id;
+		private final SplitRef ref;
+		private long from;
+		private final long end;
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("id", id);
+		private PrefetchCursorImpl cursor;
+		private long consumed;
+		private boolean closed;
 
-		rpc("org.araqne.logdb.msgbus.LogQueryPlugin.stopQuery", params);
+		public SplittableCursorImpl(int id, long from, long end, SplitRef ref) {
+			this.id = id;
+			this.from = from;
+			this.end = end;
+			this.ref = ref;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - from - consumed;
+		}
+
+		@Override
+		public SplittableCursor trySplit() {
+			if (cursor != null || closed)
+				return null;
+
+			int unit = fetchSize;
+			long pages = (end - from + unit - 1) / unit;
+			if (pages < 2)
+				return null;
+
+			long mid = from + (pages / 2) * unit;
+			ref.retain();
+			SplittableCursor prefix = new SplittableCursorImpl(id, from, mid, ref);
+			from = mid;
+			return prefix;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (closed)
+				return false;
+
+			if (cursor == null) {
+				int depth = Math.max(1, prefetchDepth);
+				cursor = new PrefetchCursorImpl(id, from, end - from, false, fetchSize, depth, prefetchMemoryLimit, null);
+			}
+
+			return cursor.hasNext();
+		}
+
+		@Override
+		public Tuple next() {
+			if (!hasNext())
+				throw new NoSuchElementException("end of log cursor");
+
+			consumed++;
+			return cursor.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (closed)
+				return;
+
+			closed = true;
+			if (cursor != null)
+				cursor.close();
+
+			ref.release();
+		}
+	}
+
+	private static class ResultPage {
+		private boolean done;
+		private List<Object> rows;
+		private long bytes;
+		private Throwable error;
 	}
 
 	/**
-	 * 지정된 쿼리를 삭제합니다. 서버의 임시 쿼리 결과 파일이 삭제됩니다. 이후에는 getResult()를 사용하여 쿼리 결과를 조회할
-	 * 수 없습니다. 주어진 ID에 대응하는 쿼리가 없거나 액세스 권한이 없는 경우 예외가 발생합니다.
-	 * 
-	 * @param id
-	 *            쿼리 ID
+	 * 다음 페이지들을 비동기 RPC로 미리 요청하고, 응답은 스트리밍 디코더 스레드풀에서 디코딩합니다. 아직 소비되지 않은 페이지가 지정된
+	 * 깊이나 메모리 한도에 도달하면 더 이상 요청하지 않습니다. 실행 중인 쿼리가 주어진 경우, 서버에 적재가 완료된 페이지만 요청하며
+	 * 적재된 결과를 모두 소비하면 쿼리의 적재 건수가 다음 페이지에 도달할 때까지 대기합니다.
 	 */
-	public void removeQuery(int id) throws IOException {
-		verifyQueryId(id);
+	private class PrefetchCursorImpl implements Cursor {
+		private final int id;
+		private final long offset;
+		private final long limit;
+		private final boolean removeOnClose;
+		private final int fetchUnit;
+		private final int depth;
+		private final long memoryLimit;
+
+		// running query for pipelined fetch, null if query is already ended
+		private final Query query;
+
+		// guarded by this
+		private final LinkedList<ResultPage> pages = new LinkedList<ResultPage>();
+		private long nextFetchOffset;
+		private long bufferedBytes;
+		private boolean closed;
+
+		private List<Object> current;
+		private int currentPos;
+		private long p;
+		private Map<String, Object> prefetch;
+
+		public PrefetchCursorImpl(int id, long offset, long limit, boolean removeOnClose, int fetchUnit, int depth,
+				long memoryLimit, Query query) {
+			this.id = id;
+			this.offset = offset;
+			this.limit = limit;
+			this.removeOnClose = removeOnClose;
+			this.fetchUnit = fetchUnit;
+			this.depth = depth;
+			this.memoryLimit = memoryLimit;
+			this.query = query;
+			this.nextFetchOffset = offset;
+			this.p = offset;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean hasNext() {
+			if (prefetch != null)
+				return true;
+
+			while (p < offset + limit) {
+				if (current != null && currentPos < current.size()) {
+					prefetch = (Map<String, Object>) current.get(currentPos++);
+					p++;
+					return true;
+				}
+
+				// short page means end of result
+				if (current != null && current.size() < fetchUnit)
+					return endOfResult();
+
+				// failure should not look like end of result
+				try {
+					current = takePage();
+					currentPos = 0;
+					if (current.isEmpty())
+						return endOfResult();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted while fetching log query result", e);
+				} catch (RuntimeException e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new IllegalStateException("cannot fetch log query result", t);
+				}
+			}
+
+			return false;
+		}
+
+		private List<Object> takePage() throws Throwable {
+			while (true) {
+				long threshold = 0;
+				synchronized (this) {
+					fill();
+
+					ResultPage page = pages.peek();
+					if (page != null) {
+						while (!page.done)
+							wait();
+
+						pages.poll();
+						bufferedBytes -= page.bytes;
+						if (page.error != null)
+							throw page.error;
+
+						fill();
+						return page.rows;
+					}
+
+					if (closed || query == null)
+						break;
+
+					if (isQueryFinished()) {
+						// eof trap may arrive after fill(), fetch trailing short page
+						fill();
+						if (pages.isEmpty())
+							break;
+						continue;
+					}
+
+					threshold = nextFetchOffset + fetchUnit;
+				}
+
+				// reader got ahead of server, wait until next page is loaded
+				query.waitUntil(threshold);
+			}
+
+			return new ArrayList<Object>();
+		}
+
+		// truncated result of cancelled query should not look like normal end
+		private boolean endOfResult() {
+			synchronized (this) {
+				if (closed)
+					return false;
+			}
+
+			if (query != null && query.getStatus().equals("Cancelled"))
+				throw queryCancelled(query);
+			return false;
+		}
+
+		private boolean isQueryFinished() {
+			String status = query.getStatus();
+			return status.equals("Ended") || status.equals("Cancelled");
+		}
+
+		// returns end offset of rows which can be fetched now
+		private long getFetchableEnd() {
+			if (query == null)
+				return offset + limit;
+
+			// loaded count is updated before status at eof
+			boolean finished = isQueryFinished();
+			long loaded = query.getLoadedCount();
+			if (finished)
+				return Math.min(offset + limit, loaded);
+
+			// fetch full pages only while query is running
+			if (loaded < offset)
+				return offset;
+			return loaded - (loaded - offset) % fetchUnit;
+		}
+
+		// should be called in synchronized block
+		private void fill() {
+			long end = getFetchableEnd();
+			while (!closed && pages.size() < depth && nextFetchOffset < end
+					&& (pages.isEmpty() || bufferedBytes < memoryLimit)) {
+				int count = (int) Math.min(fetchUnit, end - nextFetchOffset);
+				ResultPage page = new ResultPage();
+				pages.add(page);
+				requestPage(page, nextFetchOffset, count);
+				nextFetchOffset += count;
+			}
+		}
+
+		private void requestPage(final ResultPage page, long pageOffset, int count) {
+			fetchResultAsync(id, pageOffset, count, new ResultPageCallback() {
+				@SuppressWarnings("unchecked")
+				@Override
+				public void onPage(Map<String, Object> result, long bytes) {
+					complete(page, (List<Object>) result.get("result"), bytes, null);
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					complete(page, null, 0, t);
+				}
+			});
+		}
+
+		private synchronized void complete(ResultPage page, List<Object> rows, long bytes, Throwable error) {
+			page.rows = rows;
+			page.bytes = bytes;
+			page.error = error;
+			bufferedBytes += bytes;
+			page.done = true;
+			notifyAll();
+		}
+
+		@Override
+		public Tuple next() {
+			if (!hasNext())
+				throw new NoSuchElementException("end of log cursor");
+
+			Map<String, Object> m = prefetch;
+			prefetch = null;
+			return new Tuple(m);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			synchronized (this) {
+				closed = true;
+
+				// in-flight pages are still reading server side result
+				try {
+					for (ResultPage page : pages)
+						while (!page.done)
+							wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				pages.clear();
+				bufferedBytes = 0;
+			}
+
+			if (removeOnClose)
+				removeQuery(id);
+		}
+	}
+
+	private class LogCursorImpl implements Cursor {
+
+		private int id;
+		private long offset;
+		private long limit;
+		private boolean removeOnClose;
+
+		private long p;
+		private Map<String, Object> cached;
+		private Long currentCacheOffset;
+		private Long nextCacheOffset;
+		private int fetchUnit;
+		private Map<String, Object> prefetch;
+
+		public LogCursorImpl(int id, long offset, long limit, boolean removeOnClose, int fetchUnit) {
+			this.id = id;
+			this.offset = offset;
+			this.limit = limit;
+			this.removeOnClose = removeOnClose;
+
+			this.p = offset;
+			this.nextCacheOffset = offset;
+			this.fetchUnit = fetchUnit;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean hasNext() {
+			if (prefetch != null)
+				return true;
+
+			if (p < offset || p >= offset + limit)
+				return false;
+
+			try {
+				if (cached == null || p >= currentCacheOffset + fetchUnit) {
+					cached = getResult(id, nextCacheOffset, fetchUnit);
+					currentCacheOffset = nextCacheOffset;
+					nextCacheOffset += fetchUnit;
+				}
+
+				int relative = (int) (p - currentCacheOffset);
+				List<Object> l = (List<Object>) cached.get("result");
+				if (relative >= l.size())
+					return false;
+
+				prefetch = (Map<String, Object>) l.get(relative);
+				p++;
+				return true;
+			} catch (IOException e) {
+				logger.error("logpresso: cannot fetch log query result", e);
+				return false;
+			}
+		}
+
+		@Override
+		public Tuple next() {
+			if (!hasNext())
+				throw new NoSuchElementException("end of log cursor");
+
+			Map<String, Object> m = prefetch;
+			prefetch = null;
+			return new Tuple(m);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (removeOnClose)
+				removeQuery(id);
+		}
+	}
+
+	/**
+	 * 스트림 쿼리 목록을 조회합니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public List<StreamQueryStatus> listStreamQueries() throws IOException {
+		Message resp = rpc("com.logpresso.query.msgbus.StreamQueryPlugin.getStreamQueries");
+
+		@SuppressWarnings("unchecked")
+		List<Object> l = (List<Object>) resp.get("stream_queries");
+		List<StreamQueryStatus> statuses = new ArrayList<StreamQueryStatus>();
+
+		for (Object o : l) {
+			StreamQueryStatus status = parseStreamQueryStatus(o);
+			statuses.add(status);
+		}
+
+		return statuses;
+	}
+
+	/**
+	 * @since 0.9.5
+	 */
+	@SuppressWarnings("unchecked")
+	public StreamQueryStatus getStreamQuery(String name) throws IOException {
+		checkNotNull("name", name);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("name", name);
+
+		Message resp = rpc("com.logpresso.query.msgbus.StreamQueryPlugin.getStreamQuery", params);
+		Map<String, Object> o = (Map<String, Object>) resp.get("stream_query");
+		if (o == null)
+			return null;
+
+		return parseStreamQueryStatus(o);
+	}
+
+	@SuppressWarnings("unchecked")
+	private StreamQueryStatus parseStreamQueryStatus(Object o) {
+		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
+		StreamQueryStatus status = new StreamQueryStatus();
+
+		Map<String, Object> m = (Map<String, Object>) o;
+		Map<String, Object> c = (Map<String, Object>) m.get("config");
+
+		StreamQuery query = new StreamQuery();
+
+		query.setName((String) c.get("name"));
+		query.setDescription((String) c.get("description"));
+		query.setInterval((Integer) c.get("interval"));
+		query.setQueryString((String) c.get("query"));
+		query.setOwner((String) c.get("owner"));
+		String sourceType = (String) c.get("source_type");
+		query.setSourceType(sourceType);
+		if (sourceType.equals("table"))
+			query.setSources((List<String>) c.get("table"));
+		else if (sourceType.equals("logger"))
+			query.setSources((List<String>) c.get("logger"));
+		else if (sourceType.equals("stream"))
+			query.setSources((List<String>) c.get("stream"));
+		query.setEnabled((Boolean) c.get("is_enabled"));
+		query.setCreated(df.parse((String) c.get("created"), new ParsePosition(0)));
+		query.setModified(df.parse((String) c.get("modified"), new ParsePosition(0)));
+
+		status.setStreamQuery(query);
+		status.setInputCount(Long.parseLong(m.get("input_count").toString()));
+		status.setLastRefresh(df.parse((String) m.get("last_refresh"), new ParsePosition(0)));
+		status.setRunning((Boolean) m.get("is_running"));
+		return status;
+	}
+
+	/**
+	 * 스트림 쿼리를 생성합니다. 스트림 쿼리 이름이 중복되는 경우 예외가 발생합니다. logger, table, stream 이외의
+	 * 데이터 원본 타입이 지정된 경우 예외가 발생합니다. 새로고침 주기가 음수인 경우 예외가 발생합니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public void createStreamQuery(StreamQuery query) throws IOException {
+		Map<String, Object> params = buildStreamQueryParams(query);
+		rpc("com.logpresso.query.msgbus.StreamQueryPlugin.createStreamQuery", params);
+	}
+
+	/**
+	 * 스트림 쿼리를 수정합니다. 스트림 쿼리가 존재하지 않는 경우 예외가 발생합니다. logger, table, stream 이외의
+	 * 데이터 원본 타입이 지정된 경우 예외가 발생합니다. 새로고침 주기가 음수인 경우 예외가 발생합니다.
+	 * 
+	 * @since 1.0.0
+	 */
+	public void updateStreamQuery(StreamQuery query) throws IOException {
+		Map<String, Object> params = buildStreamQueryParams(query);
+		rpc("com.logpresso.query.msgbus.StreamQueryPlugin.updateStreamQuery", params);
+	}
+
+	private Map<String, Object> buildStreamQueryParams(StreamQuery query) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("name", query.getName());
+		params.put("description", query.getDescription());
+		params.put("interval", query.getInterval());
+		params.put("source_type", query.getSourceType());
+		params.put("sources", query.getSources());
+		params.put("query", query.getQueryString());
+		params.put("is_enabled", query.isEnabled());
+		return params;
+	}
+
+	/**
+	 * 지정된 이름의 스트림 쿼리를 삭제합니다. 지정된 스트림 쿼리가 존재하지 않거나, 소유자가 아닌 경우 예외가 발생합니다.
+	 * 
+	 * @param name
+	 *            스트림 쿼리 이름
+	 * @since 0.9.5
+	 */
+	public void removeStreamQuery(String name) throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("name", name);
+
+		rpc("com.logpresso.query.msgbus.StreamQueryPlugin.removeStreamQuery", params);
+	}
+
+	/**
+	 * 예약된 쿼리 목록을 조회합니다. 자신이 설정한 예약된 쿼리 목록만 조회됩니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public List<ScheduledQuery> listScheduledQueries() throws IOException {
+		Message resp = rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.getScheduledQueries");
+
+		@SuppressWarnings("unchecked")
+		List<Object> l = (List<Object>) resp.get("scheduled_queries");
+
+		List<ScheduledQuery> queries = new ArrayList<ScheduledQuery>();
+		for (Object o : l) {
+			queries.add(parseScheduledQuery(o));
+		}
+
+		return queries;
+	}
+
+	/**
+	 * 지정된 GUID를 가진 예약된 쿼리 설정을 조회합니다. 예약된 쿼리가 존재하지 않거나 조회 권한이 없는 경우 예외가 발생합니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public ScheduledQuery getScheduledQuery(String guid) throws IOException {
+		checkNotNull("guid", guid);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("guid", guid);
+		Message resp = rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.getScheduledQuery", params);
+
+		return parseScheduledQuery(resp.get("scheduled_query"));
+	}
+
+	private ScheduledQuery parseScheduledQuery(Object o) {
+		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> m = (Map<String, Object>) o;
+
+		ScheduledQuery query = new ScheduledQuery();
+		query.setGuid((String) m.get("guid"));
+		query.setTitle((String) m.get("title"));
+		query.setCronSchedule((String) m.get("cron_schedule"));
+		query.setOwner((String) m.get("owner"));
+		query.setQueryString((String) m.get("query"));
+		query.setSaveResult((Boolean) m.get("use_save_result"));
+		query.setUseAlert((Boolean) m.get("use_alert"));
+		query.setAlertQuery((String) m.get("alert_query"));
+		query.setSuppressInterval((Integer) m.get("suppress_interval"));
+		query.setMailProfile((String) m.get("mail_profile"));
+		query.setMailFrom((String) m.get("mail_from"));
+		query.setMailTo((String) m.get("mail_to"));
+		query.setMailSubject((String) m.get("mail_subject"));
+		query.setEnabled((Boolean) m.get("is_enabled"));
+		query.setCreated(df.parse((String) m.get("created_at"), new ParsePosition(0)));
+
+		return query;
+	}
+
+	/**
+	 * 예약된 쿼리를 생성합니다. 예약된 쿼리의 GUID가 중복되는 경우 예외가 발생합니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public void createScheduledQuery(ScheduledQuery query) throws IOException {
+		Map<String, Object> params = buildScheduledQueryParams(query);
+		rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.createScheduledQuery", params);
+	}
+
+	/**
+	 * 예약된 쿼리를 수정합니다. 지정된 GUID의 예약된 쿼리가 존재하지 않으면 예외가 발생합니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public void updateScheduledQuery(ScheduledQuery query) throws IOException {
+		Map<String, Object> params = buildScheduledQueryParams(query);
+		rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.updateScheduledQuery", params);
+	}
+
+	private Map<String, Object> buildScheduledQueryParams(ScheduledQuery query) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("guid", query.getGuid());
+		params.put("title", query.getTitle());
+		params.put("cron_schedule", query.getCronSchedule());
+		params.put("query", query.getQueryString());
+		params.put("save_result", query.isSaveResult());
+		params.put("use_alert", query.isUseAlert());
+		params.put("alert_query", query.getAlertQuery());
+		params.put("suppress_interval", query.getSuppressInterval());
+		params.put("mail_profile", query.getMailProfile());
+		params.put("mail_from", query.getMailFrom());
+		params.put("mail_to", query.getMailTo());
+		params.put("mail_subject", query.getMailSubject());
+		params.put("is_enabled", query.isEnabled());
+		return params;
+	}
+
+	/**
+	 * 예약된 쿼리를 삭제합니다. 지정된 GUID의 예약된 쿼리가 존재하지 않으면 예외가 발생합니다.
+	 * 
+	 * @since 0.9.5
+	 */
+	public void removeScheduledQuery(String guid) throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("guid", guid);
+		rpc("com.logpresso.core.msgbus.ScheduledQueryPlugin.removeScheduledQuery", params);
+	}
+
+	/**
+	 * 프로시저 목록을 조회합니다.
+	 * 
+	 * @since 1.1.3
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Procedure> listProcedures() throws IOException {
+		Message resp = rpc("com.logpresso.core.msgbus.ProcedurePlugin.getProcedures");
+
+		List<Object> l = (List<Object>) resp.get("procedures");
+		List<Procedure> procedures = new ArrayList<Procedure>();
+		for (Object o : l) {
+			procedures.add(parseProcedure((Map<String, Object>) o));
+		}
+
+		return procedures;
+
+	}
+
+	@SuppressWarnings("unchecked")
+	private Procedure parseProcedure(Map<String, Object> m) {
+		List<ProcedureParameter> parameters = new ArrayList<ProcedureParameter>();
+		for (Map<String, Object> o : (List<Map<String, Object>>) m.get("parameters")) {
+			ProcedureParameter pp = new ProcedureParameter();
+
+			pp.setKey((String) o.get("key"));
+			pp.setType((String) o.get("type"));
+			pp.setName((String) o.get("name"));
+			pp.setDescription((String) o.get("description"));
+
+			parameters.add(pp);
+		}
+
+		SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
+		Procedure p = new Procedure();
+		p.setName((String) m.get("name"));
+		p.setDescription((String) m.get("description"));
+		p.setQueryString((String) m.get("query_string"));
+		p.setParameters(parameters);
+		p.setOwner((String) m.get("owner"));
+
+		// support backward compatibility
+		if (m.get("grants") != null)
+			p.setGrantLogins(new HashSet<String>((List<String>) m.get("grants")));
+
+		if (m.get("grant_groups") != null)
+			p.setGrantGroups(new HashSet<String>((List<String>) m.get("grant_groups")));
+
+		p.setCreated(df.parse((String) m.get("created"), new ParsePosition(0)));
+		p.setModified(df.parse((String) m.get("modified"), new ParsePosition(0)));
+		return p;
+	}
+
+	/**
+	 * 프로시저를 생성합니다. 프로시저 이름이 중복되는 경우 예외가 발생합니다.
+	 * 
+	 * @since 1.1.3
+	 */
+	public void createProcedure(Procedure procedure) throws IOException {
+		Map<String, Object> params = buildProcedureRequest(procedure);
+		rpc("com.logpresso.core.msgbus.ProcedurePlugin.createProcedure", params);
+	}
+
+	/**
+	 * 프로시저를 수정합니다. 프로시저가 존재하지 않는 경우 예외가 발생합니다. 현재 세션이 관리자나 프로시저 소유자가 아닌 경우 예외가
+	 * 발생합니다.
+	 * 
+	 * @since 1.1.3
+	 */
+	public void updateProcedure(Procedure procedure) throws IOException {
+		Map<String, Object> params = buildProcedureRequest(procedure);
+		rpc("com.logpresso.core.msgbus.ProcedurePlugin.updateProcedure", params);
+	}
+
+	private Map<String, Object> buildProcedureRequest(Procedure p) {
+		checkNotNull("name", p.getName());
+		checkNotNull("query string", p.getQueryString());
+		checkNotNull("procedure paramter list", p.getParameters());
+
+		List<Object> parameters = new ArrayList<Object>();
+		for (ProcedureParameter pp : p.getParameters()) {
+			checkNotNull("procedure paramter key", pp.getKey());
+			checkNotNull("procedure paramter type", pp.getType());
+
+			Map<String, Object> o = new HashMap<String, Object>();
+			o.put("key", pp.getKey());
+			o.put("type", pp.getType());
+			o.put("name", pp.getName());
+			o.put("description", pp.getDescription());
+			parameters.add(o);
+		}
+
+		Map<String, Object> m = new HashMap<String, Object>();
+		m.put("name", p.getName());
+		m.put("description", p.getDescription());
+		m.put("query_string", p.getQueryString());
+		m.put("parameters", parameters);
+		m.put("grants", p.getGrantLogins());
+		m.put("grant_groups", p.getGrantGroups());
+		return m;
+	}
+
+	/**
+	 * 프로시저를 삭제합니다. 존재하지 않는 프로시저를 삭제하려고 시도하는 경우 예외가 발생합니다. 현재 세션이 관리자나 프로시저 소유자가
+	 * 아닌 경우 예외가 발생합니다.
+	 * 
+	 * @param name
+	 *            프로시저 이름
+	 * @since 1.1.3
+	 */
+	public void removeProcedure(String name) throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("name", name);
+
+		rpc("com.logpresso.core.msgbus.ProcedurePlugin.removeProcedure", params);
+	}
+
+	/**
+	 * 주어진 쿼리 문자열을 사용하여 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
+	 */
+	public int createQuery(String queryString) throws IOException {
+		return createQuery(queryString, null, null);
+	}
+
+	/**
+	 * 주어진 쿼리 문자열을 사용하여 스트리밍 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @param rs
+	 *            쿼리 결과 스트리밍에 사용할 콜백 인스턴스, NULL인 경우 스트리밍 모드로 전환되지 않습니다.
+	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
+	 * @since 0.9.1
+	 */
+	public int createQuery(String queryString, StreamingResultSet rs) throws IOException {
+		return createQuery(queryString, rs, null);
+	}
+
+	/**
+	 * 주어진 쿼리 문자열을 사용하여 스트리밍 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @param rs
+	 *            쿼리 결과 스트리밍에 사용할 콜백 인스턴스, NULL인 경우 스트리밍 모드로 전환되지 않습니다.
+	 * @param queryContext
+	 *            쿼리 컨텍스트, 가령 프로시저에서 메인 쿼리의 쿼리 컨텍스트를 서브 쿼리로 전달하는데 사용됩니다.
+	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
+	 * @since 0.9.1
+	 */
+	public int createQuery(String queryString, StreamingResultSet rs, Map<String, Object> queryContext) throws IOException {
+		return createQuery(queryString, rs, null, queryContext);
+	}
+
+	/**
+	 * 주어진 쿼리 문자열을 사용하여 컬럼 단위로 결과를 전달하는 스트리밍 쿼리를 생성합니다. 쿼리 결과는 행 단위 Map이나 Tuple로
+	 * 변환되지 않고 디코딩된 컬럼 배열 그대로 콜백에 전달됩니다. 권한이 없거나 문법이 틀린 경우 예외가 발생합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @param rs
+	 *            쿼리 결과 컬럼 묶음을 전달받을 콜백 인스턴스 (NULL 허용 안 함)
+	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
+	 * @since 1.2.0
+	 */
+	public int createColumnarQuery(String queryString, ColumnarResultSet rs) throws IOException {
+		return createColumnarQuery(queryString, rs, null);
+	}
+
+	/**
+	 * 주어진 쿼리 문자열을 사용하여 컬럼 단위로 결과를 전달하는 스트리밍 쿼리를 생성합니다. 권한이 없거나 문법이 틀린 경우 예외가
+	 * 발생합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @param rs
+	 *            쿼리 결과 컬럼 묶음을 전달받을 콜백 인스턴스 (NULL 허용 안 함)
+	 * @param queryContext
+	 *            쿼리 컨텍스트
+	 * @return 새로 생성된 쿼리 ID가 반환됩니다.
+	 * @since 1.2.0
+	 */
+	public int createColumnarQuery(String queryString, ColumnarResultSet rs, Map<String, Object> queryContext)
+			throws IOException {
+		checkNotNull("rs", rs);
+		return createQuery(queryString, null, rs, queryContext);
+	}
+
+	private int createQuery(String queryString, StreamingResultSet rs, ColumnarResultSet crs, Map<String, Object> queryContext)
+			throws IOException {
+
+		Map<String, Object> params = buildCreateQueryParams(queryString, queryContext);
+		Message resp = rpc("org.araqne.logdb.msgbus.LogQueryPlugin.createQuery", params);
+		int id = resp.getInt("id");
+		session.registerTrap("logdb-query-" + id);
+		session.registerTrap("logdb-query-timeline-" + id);
+
+		if (rs != null) {
+			streamCallbacks.put(id, rs);
+			session.registerTrap("logdb-query-result-" + id);
+		} else if (crs != null) {
+			columnarCallbacks.put(id, crs);
+			session.registerTrap("logdb-query-result-" + id);
+		}
+
+		queries.putIfAbsent(id, new Query(this, id, queryString));
+		return id;
+	}
+
+	/**
+	 * 주어진 쿼리 문자열을 사용하여 쿼리를 비동기로 생성합니다. 쿼리 생성과 트랩 구독 요청이 차례로 전송되며, 호출한 스레드는
+	 * 차단되지 않습니다. 권한이 없거나 문법이 틀린 경우 퓨처가 실패합니다. 트랩 구독에 실패하면 생성된 쿼리를 서버에서 삭제하고
+	 * 퓨처가 실패합니다.
+	 * 
+	 * @param queryString
+	 *            쿼리 문자열 (NULL 허용 안 함)
+	 * @return 새로 생성된 쿼리 ID로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	public RpcFuture<Integer> createQueryAsync(final String queryString) {
+		Map<String, Object> params = buildCreateQueryParams(queryString, null);
+		return rpcAsync("org.araqne.logdb.msgbus.LogQueryPlugin.createQuery", params).thenCompose(
+				new FutureFunction<Message, RpcFuture<Integer>>() {
+					@Override
+					public RpcFuture<Integer> apply(Message resp) throws Exception {
+						final int id = resp.getInt("id");
+						final RpcFuture<Integer> created = new RpcFuture<Integer>();
+						registerQueryTrapsAsync(id).addCallback(new FutureCallback<Message>() {
+							@Override
+							public void onSuccess(Message value) {
+								queries.putIfAbsent(id, new Query(Logpresso.this, id, queryString));
+								created.complete(id);
+							}
+
+							@Override
+							public void onFailure(Throwable t) {
+								discardQueryAsync(id);
+								created.fail(t);
+							}
+						});
+						return created;
+					}
+				});
+	}
+
+	// remove server side query and its traps when query cannot be tracked
+	private void discardQueryAsync(final int id) {
+		AsyncSession s = asyncSession();
+		if (s == null)
+			return;
+
+		s.unregisterTrapAsync("logdb-query-" + id);
+		s.unregisterTrapAsync("logdb-query-timeline-" + id);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+		rpcAsync("org.araqne.logdb.msgbus.LogQueryPlugin.removeQuery", params).addCallback(new FutureCallback<Message>() {
+			@Override
+			public void onSuccess(Message value) {
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				logger.warn("logpresso: cannot remove query " + id + " after trap registration failure", t);
+			}
+		});
+	}
+
+	private RpcFuture<Message> registerQueryTrapsAsync(final int id) {
+		final AsyncSession s = asyncSession();
+		return s.registerTrapAsync("logdb-query-" + id).thenCompose(new FutureFunction<Message, RpcFuture<Message>>() {
+			@Override
+			public RpcFuture<Message> apply(Message value) throws Exception {
+				return s.registerTrapAsync("logdb-query-timeline-" + id);
+			}
+		});
+	}
+
+	private Map<String, Object> buildCreateQueryParams(String queryString, Map<String, Object> queryContext) {
+		String queryContextEncoded = null;
+		if (queryContext != null) {
+			ByteBuffer bb = new FastEncodingRule().encode(queryContext);
+			queryContextEncoded = new String(Base64.encode(bb.array()));
+		}
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("query", queryString);
+		params.put("source", "java-client");
+		params.put("context", queryContextEncoded);
+		return params;
+	}
+
+	/**
+	 * 지정된 쿼리를 시작시킵니다. 주어진 ID에 대응하는 쿼리가 없거나 액세스 권한이 없는 경우 예외가 발생합니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 */
+	public void startQuery(int id) throws IOException {
+		verifyQueryId(id);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+		params.put("streaming", streamCallbacks.containsKey(id) || columnarCallbacks.containsKey(id));
+
+		rpc("org.araqne.logdb.msgbus.LogQueryPlugin.startQuery", params);
+	}
+
+	/**
+	 * 지정된 쿼리를 정지(취소)시킵니다. 주어진 ID에 대응하는 쿼리가 없거나 액세스 권한이 없는 경우 예외가 발생합니다. 정지되기 직전
+	 * 시점까지의 쿼리 결과는 removeQuery()를 호출하기 전까지 getResult()를 사용하여 조회할 수 있습니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 */
+	public void stopQuery(int id) throws IOException {
+		verifyQueryId(id);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+
+		rpc("org.araqne.logdb.msgbus.LogQueryPlugin.stopQuery", params);
+	}
+
+	/**
+	 * 지정된 쿼리를 삭제합니다. 서버의 임시 쿼리 결과 파일이 삭제됩니다. 이후에는 getResult()를 사용하여 쿼리 결과를 조회할
+	 * 수 없습니다. 주어진 ID에 대응하는 쿼리가 없거나 액세스 권한이 없는 경우 예외가 발생합니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 */
+	public void removeQuery(int id) throws IOException {
+		verifyQueryId(id);
+
+		StreamingResultSet rs = streamCallbacks.remove(id);
+		ColumnarResultSet crs = columnarCallbacks.remove(id);
+		ResultDelivery d = resultDeliveries.remove(id);
+		if (d != null)
+			d.close();
+		if (rs != null || crs != null)
+			session.unregisterTrap("logdb-query-result-" + id);
+
+		session.unregisterTrap("logdb-query-" + id);
+		session.unregisterTrap("logdb-query-timeline-" + id);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+		rpc("org.araqne.logdb.msgbus.LogQueryPlugin.removeQuery", params);
+
+		queries.remove(id);
+	}
+
+	/**
+	 * 지정된 쿼리를 비동기로 시작시킵니다. 호출한 스레드는 차단되지 않습니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 * @return 쿼리 시작 요청의 응답으로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	public RpcFuture<Message> startQueryAsync(int id) {
+		if (!queries.containsKey(id))
+			return RpcFuture.failed(new MessageException("query-not-found", "query [" + id + "] does not exist", null));
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+		params.put("streaming", streamCallbacks.containsKey(id) || columnarCallbacks.containsKey(id));
+
+		return rpcAsync("org.araqne.logdb.msgbus.LogQueryPlugin.startQuery", params);
+	}
+
+	/**
+	 * 지정된 쿼리를 비동기로 정지(취소)시킵니다. 호출한 스레드는 차단되지 않습니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 * @return 쿼리 정지 요청의 응답으로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	public RpcFuture<Message> stopQueryAsync(int id) {
+		if (!queries.containsKey(id))
+			return RpcFuture.failed(new MessageException("query-not-found", "query [" + id + "] does not exist", null));
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+		return rpcAsync("org.araqne.logdb.msgbus.LogQueryPlugin.stopQuery", params);
+	}
+
+	/**
+	 * 지정된 쿼리를 비동기로 삭제합니다. 트랩 구독 해제와 쿼리 삭제 요청이 차례로 전송되며, 호출한 스레드는 차단되지 않습니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 * @return 쿼리 삭제 요청의 응답으로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	public RpcFuture<Message> removeQueryAsync(final int id) {
+		if (!queries.containsKey(id))
+			return RpcFuture.failed(new MessageException("query-not-found", "query [" + id + "] does not exist", null));
+		if (session == null)
+			return RpcFuture.failed(new IOException("not connected yet, use connect()"));
+
+		StreamingResultSet rs = streamCallbacks.remove(id);
+		ColumnarResultSet crs = columnarCallbacks.remove(id);
+		ResultDelivery d = resultDeliveries.remove(id);
+		if (d != null)
+			d.close();
+		AsyncSession s = asyncSession();
+		if (rs != null || crs != null)
+			s.unregisterTrapAsync("logdb-query-result-" + id);
+
+		s.unregisterTrapAsync("logdb-query-" + id);
+		s.unregisterTrapAsync("logdb-query-timeline-" + id);
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("id", id);
+		return rpcAsync("org.araqne.logdb.msgbus.LogQueryPlugin.removeQuery", params).thenApply(
+				new FutureFunction<Message, Message>() {
+					@Override
+					public Message apply(Message resp) throws Exception {
+						queries.remove(id);
+						return resp;
+					}
+				});
+	}
+
+	@SuppressWarnings("unchecked")
+	public List<Workflow> listWorkflows() throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		Message resp = rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.getWorkflows", params);
+
+		List<Object> l = (List<Object>) resp.get("workflows");
+		List<Workflow> workflows = new ArrayList<Workflow>();
+		for (Object o : l) {
+			workflows.add(Workflow.parse((Map<String, Object>) o));
+		}
+		return workflows;
+	}
+
+	@SuppressWarnings("unchecked")
+	public Workflow getWorkflow(String guid) throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("guid", guid);
+		Message resp = rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.getWorkflow", params);
+		return Workflow.parse((Map<String, Object>) resp.get("workflow"));
+	}
+
+	public void runWorkflow(String workflowGuid, Map<String, String> parameters) throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("guid", workflowGuid);
+		params.put("parameters", parameters);
+		rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.runWorkflow", params);
+	}
+
+	public void runTask(String workflowGuid, String taskGuid, Map<String, String> parameters) throws IOException {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("workflow_guid", workflowGuid);
+		params.put("task_guid", taskGuid);
+		params.put("parameters", parameters);
+		rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.runTask", params);
+	}
+
+	public void addFailureListener(FailureListener listener) {
+		failureListeners.add(listener);
+	}
+
+	public void removeFailureListener(FailureListener listener) {
+		failureListeners.remove(listener);
+	}
+
+	private static class QueuedRows implements Future<Integer> {
+		private List<Tuple> rows;
+
+		// estimated encoded bytes
+		private final long bytes;
+
+		CountDownLatch l = new CountDownLatch(1);
+		private volatile Throwable t;
+		private Flusher flusher;
+
+		// queue memory is released once per item
+		private final AtomicBoolean memoryReleased = new AtomicBoolean();
+
+		public QueuedRows(List<Tuple> rows, long bytes, Flusher flusher) {
+			this.rows = rows;
+			this.bytes = bytes;
+			this.flusher = flusher;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+			return l.getCount() == 0;
+		}
+
+		public void setDone() {
+			l.countDown();
+		}
+
+		public void setDone(Throwable t) {
+			this.t = t;
+			l.countDown();
+		}
+
+		@Override
+		public Integer get() throws InterruptedException, ExecutionException {
+			flusher.await(this);
+			if (t != null)
+				throw new ExecutionException(t);
+			else
+				return size();
+		}
+
+		@Override
+		public Integer get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			if (flusher.await(this, timeout, unit)) {
+				if (t != null)
+					throw new ExecutionException(t);
+				else
+					return size();
+			} else
+				throw new TimeoutException();
+		}
+
+		public List<Tuple> getRows() {
+			return rows;
+		}
+
+		public int size() {
+			return rows.size();
+		}
+
+		// inserts completed by this item
+		public List<QueuedRows> members() {
+			return Collections.singletonList(this);
+		}
+
+		public boolean markMemoryReleased() {
+			return memoryReleased.compareAndSet(false, true);
+		}
+
+	}
+
+	/**
+	 * 컬럼 묶음 단위로 대기 중인 입력을 표현합니다. 실패 콜백이나 스필 로그 기록이 필요한 경우에만 행 목록으로 변환됩니다.
+	 */
+	private static class QueuedColumns extends QueuedRows {
+		private final ColumnBatch batch;
+		private volatile List<Tuple> rows;
+
+		public QueuedColumns(ColumnBatch batch, long bytes, Flusher flusher) {
+			super(null, bytes, flusher);
+			this.batch = batch;
+		}
+
+		@Override
+		public List<Tuple> getRows() {
+			List<Tuple> l = rows;
+			if (l == null) {
+				TupleSchema schema = new TupleSchema(batch.getColumnNames());
+				Column[] columns = new Column[schema.size()];
+				for (int i = 0; i < columns.length; i++)
+					columns[i] = batch.getColumn(schema.getName(i));
+
+				l = new ArrayList<Tuple>(batch.getRowCount());
+				for (int row = 0; row < batch.getRowCount(); row++) {
+					Object[] values = new Object[columns.length];
+					for (int i = 0; i < columns.length; i++)
+						values[i] = columns[i].get(row);
+					l.add(new Tuple(schema, values));
+				}
+				rows = l;
+			}
+			return l;
+		}
+
+		@Override
+		public int size() {
+			return batch.getRowCount();
+		}
+	}
+
+	/**
+	 * 입력 시점에 컬럼 빌더로 변환된 여러 insert() 호출의 행을 하나의 배치로 표현합니다. 컬럼 묶음은 봉인한 생산자 스레드나 먼저
+	 * 도달한 플러셔가 한 번만 인코딩하며, 배치의 완료와 실패는 각 insert() 결과로 전달됩니다.
+	 */
+	private static class PrebuiltBatch extends QueuedRows {
+		private final List<QueuedRows> members;
+		private final int rowCount;
+
+		// guarded by this, columns are released after encoding
+		private Map<String, Object[]> columns;
+		private ByteBuffer encoded;
+
+		public PrebuiltBatch(List<QueuedRows> members, Map<String, Object[]> columns, int rowCount, long bytes, Flusher flusher) {
+			super(null, bytes, flusher);
+			this.members = members;
+			this.columns = columns;
+			this.rowCount = rowCount;
+		}
+
+		public synchronized ByteBuffer encode(boolean timeSorted) {
+			if (encoded == null) {
+				if (timeSorted && columns.get("_time") != null) {
+					int[] order = TimeOrder.sort(columns.get("_time"));
+					if (order != null)
+						for (Entry<String, Object[]> e : columns.entrySet())
+							e.setValue((Object[]) TimeOrder.permute(e.getValue(), order));
+				}
+
+				encoded = new FastEncodingRule().encode(columns);
+				columns = null;
+			}
+			return encoded;
+		}
+
+		@Override
+		public void setDone() {
+			for (QueuedRows m : members)
+				m.setDone();
+			super.setDone();
+		}
+
+		@Override
+		public void setDone(Throwable t) {
+			for (QueuedRows m : members)
+				m.setDone(t);
+			super.setDone(t);
+		}
+
+		@Override
+		public List<Tuple> getRows() {
+			List<Tuple> l = new ArrayList<Tuple>(rowCount);
+			for (QueuedRows m : members)
+				l.addAll(m.getRows());
+			return l;
+		}
+
+		@Override
+		public int size() {
+			return rowCount;
+		}
+
+		@Override
+		public List<QueuedRows> members() {
+			return members;
+		}
+	}
+
+	/**
+	 * 여러 배치로 나누어 입력한 행 목록의 입력 결과를 표현합니다. 하나의 배치라도 실패하면 첫 번째 실패 원인으로 예외가 발생합니다.
+	 */
+	private static class SplitInsertFuture implements Future<Integer> {
+		private final List<QueuedRows> parts;
+
+		public SplitInsertFuture(List<QueuedRows> parts) {
+			this.parts = parts;
+		}
+
+		// parts may be already encoded or sent, insert cannot be cancelled
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return false;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public boolean isDone() {
+			for (QueuedRows part : parts)
+				if (!part.isDone())
+					return false;
+			return true;
+		}
+
+		@Override
+		public Integer get() throws InterruptedException, ExecutionException {
+			int count = 0;
+			for (QueuedRows part : parts)
+				count += part.get();
+			return count;
+		}
+
+		@Override
+		public Integer get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			int count = 0;
+			for (QueuedRows part : parts)
+				count += part.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			return count;
+		}
+	}
+
+	/**
+	 * 지정된 테이블에 행을 입력합니다. 행 목록의 추정 인코딩 크기가 배치 크기 한도를 넘으면 여러 배치로 나누어 입력하며, 반환된
+	 * Future는 모든 배치의 입력이 끝나면 완료됩니다.
+	 * 
+	 * @param tableName
+	 *            테이블 이름
+	 * @param rows
+	 *            행 목록
+	 * @since 0.9.5
+	 */
+	public Future<Integer> insert(String tableName, List<Tuple> rows) {
+		// rows of one call share insert time
+		Date now = null;
+		for (Tuple row : rows) {
+			if (row.get("_time") == null || !(row.get("_time") instanceof Date)) {
+				if (now == null)
+					now = new Date();
+				row.put("_time", now);
+			}
+		}
+
+		long[] sizes = new long[rows.size()];
+		long bytes = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			sizes[i] = estimateSize(rows.get(i));
+			bytes += sizes[i];
+		}
+
+		// buffering
+		Flusher f = getFlusher(tableName);
+		TableBuffer buf = f.getTableBuffer(tableName);
+
+		QueuedRows spilled = spill(buf, rows, bytes, f);
+		if (spilled != null)
+			return spilled;
+
+		List<QueuedRows> parts = split(rows, sizes, f);
+		boolean eager = insertEncodeOnEnqueue;
+		for (QueuedRows qr : parts) {
+			acquireMemory(buf, qr.bytes);
+			if (eager)
+				f.append(buf, qr);
+			else
+				f.enqueue(buf, qr);
+		}
+
+		// count over -> flush
+		if (inputThrottler.getUsed() >= inputThrottler.getLimit() * 0.8) {
+			f.signal();
+		}
+
+		if (parts.size() == 1)
+			return parts.get(0);
+		return new SplitInsertFuture(parts);
+	}
+
+	/**
+	 * 지정된 테이블에 행을 입력합니다.
+	 * 
+	 * @param tableName
+	 *            테이블 이름
+	 * @param row
+	 *            입력할 행
+	 * @since 0.9.5
+	 */
+	public Future<Integer> insert(String tableName, Tuple row) {
+		if (row.get("_time") == null || !(row.get("_time") instanceof Date))
+			row.put("_time", new Date());
+
+		List<Tuple> rows = Arrays.asList(row);
+		long bytes = estimateSize(row);
+
+		// buffering
+		Flusher f = getFlusher(tableName);
+		TableBuffer buf = f.getTableBuffer(tableName);
+
+		QueuedRows spilled = spill(buf, rows, bytes, f);
+		if (spilled != null)
+			return spilled;
+
+		acquireMemory(buf, bytes);
+
+		QueuedRows qr = new QueuedRows(rows, bytes, f);
+		if (insertEncodeOnEnqueue)
+			f.append(buf, qr);
+		else
+			f.enqueue(buf, qr);
+
+		// count over -> flush
+		f.signal();
+
+		return qr;
+	}
+
+	/**
+	 * 지정된 테이블에 컬럼 묶음을 입력합니다. 행마다 튜플을 생성하지 않고, long, double, int, boolean 기본 타입 배열 컬럼을 변환
+	 * 없이 인코딩하므로 이미 컬럼 단위로 데이터를 가진 경우 입력 비용이 감소합니다. _time 컬럼이 없으면 현재 시각으로 채운 날짜 컬럼을
+	 * 추가합니다. 행 갯수나 추정 인코딩 크기가 배치 한도를 넘으면 여러 배치로 나누어 입력합니다.
+	 * 
+	 * @param tableName
+	 *            테이블 이름
+	 * @param batch
+	 *            같은 행 갯수를 가진 컬럼 배열 묶음
+	 * @return 입력된 행 갯수를 반환하는 Future
+	 * @since 1.2.0
+	 */
+	public Future<Integer> insertColumns(String tableName, ColumnBatch batch) {
+		checkNotNull("tableName", tableName);
+		checkNotNull("batch", batch);
+
+		int total = batch.getRowCount();
+		if (batch.getColumn("_time") == null) {
+			long[] times = new long[total];
+			Arrays.fill(times, System.currentTimeMillis());
+			batch.putTimes("_time", times);
+		}
+
+		long bytes = estimateSize(batch);
+
+		// buffering
+		Flusher f = getFlusher(tableName);
+		TableBuffer buf = f.getTableBuffer(tableName);
+
+		InsertSpillLog spill = spillLog;
+		if (spill != null && (!spill.isEmpty() || !buf.memory.hasRoom(bytes) || !inputThrottler.hasRoom(bytes))) {
+			QueuedRows spilled = spill(buf, new QueuedColumns(batch, bytes, f).getRows(), bytes, f);
+			if (spilled != null)
+				return spilled;
+		}
+
+		// cut by batch row count and average row bytes
+		int rowsPerPart = insertBatchSize;
+		if (total > 0 && bytes > insertBatchBytes)
+			rowsPerPart = (int) Math.max(1, Math.min(rowsPerPart, (long) insertBatchBytes * total / bytes));
+
+		List<QueuedRows> parts = new ArrayList<QueuedRows>();
+		if (total <= rowsPerPart) {
+			parts.add(new QueuedColumns(batch, bytes, f));
+		} else {
+			for (int from = 0; from < total; from += rowsPerPart) {
+				int to = Math.min(total, from + rowsPerPart);
+				parts.add(new QueuedColumns(batch.slice(from, to), bytes * (to - from) / total, f));
+			}
+		}
+
+		for (QueuedRows qr : parts) {
+			acquireMemory(buf, qr.bytes);
+			f.enqueue(buf, qr);
+		}
+
+		f.signal();
+
+		if (parts.size() == 1)
+			return parts.get(0);
+		return new SplitInsertFuture(parts);
+	}
+
+	private static long estimateSize(ColumnBatch batch) {
+		long size = 5;
+		int rows = batch.getRowCount();
+		for (String name : batch.getColumnNames()) {
+			Object array = batch.getColumn(name).getArray();
+			size += name.length() + 10;
+			if (array instanceof Object[])
+				size += estimateSize(array) - 5;
+			else if (array instanceof int[])
+				size += 5L * rows;
+			else if (array instanceof boolean[])
+				size += 2L * rows;
+			else
+				size += 9L * rows;
+		}
+		return size;
+	}
+
+	// cut rows by batch row count and estimated batch bytes
+	private List<QueuedRows> split(List<Tuple> rows, long[] sizes, Flusher f) {
+		List<QueuedRows> parts = new ArrayList<QueuedRows>(1);
+		int from = 0;
+		long bytes = 0;
+		for (int i = 0; i < sizes.length; i++) {
+			if (i > from && (i - from >= insertBatchSize || bytes + sizes[i] > insertBatchBytes)) {
+				parts.add(new QueuedRows(rows.subList(from, i), bytes, f));
+				from = i;
+				bytes = 0;
+			}
+
+			bytes += sizes[i];
+		}
+
+		if (from == 0)
+			parts.add(new QueuedRows(rows, bytes, f));
+		else
+			parts.add(new QueuedRows(rows.subList(from, rows.size()), bytes, f));
+
+		return parts;
+	}
+
+	// block producer until both client and table memory are available
+	private void acquireMemory(TableBuffer buf, long bytes) {
+		while (true) {
+			try {
+				acquireMemoryInterruptibly(buf, bytes);
+				return;
+			} catch (InterruptedException e) {
+				if (isClosed())
+					return;
+			}
+		}
+	}
+
+	private void acquireMemoryInterruptibly(TableBuffer buf, long bytes) throws InterruptedException {
+		if (!buf.memory.tryAcquire(bytes)) {
+			signalFlushers();
+			buf.memory.acquire(bytes);
+		}
+
+		if (!inputThrottler.tryAcquire(bytes)) {
+			signalFlushers();
+			try {
+				inputThrottler.acquire(bytes);
+			} catch (InterruptedException e) {
+				buf.memory.release(bytes);
+				throw e;
+			}
+		}
+	}
+
+	private void releaseMemory(TableBuffer buf, long bytes) {
+		buf.memory.release(bytes);
+		inputThrottler.release(bytes);
+	}
+
+	// release queue memory of items which are acknowledged or failed
+	private void releaseMemory(TableBuffer buf, List<QueuedRows> items) {
+		long bytes = 0;
+		for (QueuedRows rows : items)
+			if (rows.markMemoryReleased())
+				bytes += rows.bytes;
+
+		if (bytes > 0)
+			releaseMemory(buf, bytes);
+	}
+
+	// rough size in araqne encoding, avoids encoding twice
+	private static long estimateSize(Tuple row) {
+		TupleSchema schema = row.getSchema();
+		if (schema == null)
+			return estimateSize(row.toMap());
+
+		long size = 5;
+		for (int i = 0; i < schema.size(); i++) {
+			Object value = row.getValue(i);
+			if (value != null)
+				size += schema.getName(i).length() + 5 + estimateSize(value);
+		}
+		return size;
+	}
+
+	private static long estimateSize(Object value) {
+		if (value == null)
+			return 1;
+		if (value instanceof String)
+			return ((String) value).length() + 5;
+		if (value instanceof Number || value instanceof Date)
+			return 9;
+		if (value instanceof Boolean)
+			return 2;
+		if (value instanceof byte[])
+			return ((byte[]) value).length + 5;
+		if (value instanceof ByteBuffer)
+			return ((ByteBuffer) value).remaining() + 5;
+
+		if (value instanceof Map) {
+			long size = 5;
+			for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet())
+				size += String.valueOf(e.getKey()).length() + 5 + estimateSize(e.getValue());
+			return size;
+		}
+
+		if (value instanceof Collection) {
+			long size = 5;
+			for (Object o : (Collection<?>) value)
+				size += estimateSize(o);
+			return size;
+		}
+
+		if (value instanceof Object[]) {
+			long size = 5;
+			for (Object o : (Object[]) value)
+				size += estimateSize(o);
+			return size;
+		}
+
+		return 16;
+	}
+
+	// spill instead of blocking producer, and keep rows behind already spilled rows
+	private QueuedRows spill(TableBuffer buf, List<Tuple> rows, long bytes, Flusher f) {
+		InsertSpillLog spill = spillLog;
+		if (spill == null)
+			return null;
+
+		if (spill.isEmpty() && buf.memory.hasRoom(bytes) && inputThrottler.hasRoom(bytes))
+			return null;
+
+		// disk budget exceeded, block as usual
+		if (!appendSpill(spill, buf.tableName, rows))
+			return null;
+
+		QueuedRows qr = new QueuedRows(rows, bytes, f);
+		qr.setDone();
+
+		SpillReplayer replayer = spillReplayer;
+		if (replayer != null)
+			replayer.signal();
+
+		return qr;
+	}
+
+	private boolean appendSpill(InsertSpillLog spill, String tableName, List<Tuple> rows) {
+		List<Map<String, Object>> l = new ArrayList<Map<String, Object>>(rows.size());
+		for (Tuple row : rows)
+			l.add(row.toMap());
+
+		try {
+			return spill.append(tableName, l);
+		} catch (Throwable t) {
+			logger.error("logpresso: cannot write insert spill log", t);
+			return false;
+		}
+	}
+
+	private Flusher getFlusher(String tableName) {
+		Flusher[] l = flushers.get();
+		if (l == null) {
+			l = new Flusher[insertFlusherCount];
+			for (int i = 0; i < l.length; i++)
+				l[i] = new Flusher(i);
+
+			if (flushers.compareAndSet(null, l)) {
+				for (Flusher f : l)
+					f.start();
+			} else {
+				l = flushers.get();
+			}
+		}
+
+		// same table always goes to same flusher to keep insert order
+		return l[(tableName.hashCode() & 0x7fffffff) % l.length];
+	}
+
+	private void signalFlushers() {
+		Flusher[] l = flushers.get();
+		if (l == null)
+			return;
+
+		for (Flusher f : l)
+			f.flushNow();
+	}
+
+	private static class TableBuffer {
+		private final String tableName;
+		private final ConcurrentLinkedQueue<QueuedRows> queue = new ConcurrentLinkedQueue<QueuedRows>();
+
+		// allows only one in-flight batch per table in ordered insert mode
+		private final Semaphore inflight = new Semaphore(1);
+
+		// drained rows waiting for in-flight batch in ordered insert mode,
+		// guarded by this
+		private List<QueuedRows> deferred;
+
+		// estimated encoded bytes of queued rows
+		private final ByteThrottle memory;
+
+		// queued rows and enqueue time of oldest queued rows, for adaptive tuning
+		private final AtomicInteger queuedRows = new AtomicInteger();
+		private volatile long firstEnqueued;
+		private final InsertBatchController controller = new InsertBatchController();
+
+		// rows appended in producer threads but not sealed yet, guarded by this
+		private InsertColumnBuilder builder;
+		private List<QueuedRows> builderRows;
+		private long builderBytes;
+		private volatile boolean building;
+
+		public TableBuffer(String tableName, long memoryLimit) {
+			this.tableName = tableName;
+			this.memory = new ByteThrottle(memoryLimit);
+		}
+
+		public List<QueuedRows> drain() {
+			List<QueuedRows> l = new ArrayList<QueuedRows>();
+			synchronized (this) {
+				if (deferred != null) {
+					l.addAll(deferred);
+					deferred = null;
+				}
+			}
+
+			QueuedRows rows = null;
+			while ((rows = queue.poll()) != null)
+				l.add(rows);
+			return l;
+		}
+
+		// put back unsent rows ahead of queued rows
+		public synchronized void defer(List<QueuedRows> rows) {
+			deferred = rows;
+		}
+
+		// should be called in synchronized block
+		private PrebuiltBatch seal(Flusher f) {
+			if (builder == null)
+				return null;
+
+			PrebuiltBatch batch = new PrebuiltBatch(builderRows, builder.finish(), builder.size(), builderBytes, f);
+			builder = null;
+			builderRows = null;
+			builderBytes = 0;
+			building = false;
+			queue.offer(batch);
+			return batch;
+		}
+	}
+
+	/**
+	 * 테이블 이름으로 분배된 입력 버퍼를 비우고 로그프레소 테이블에 기록합니다. 하나의 테이블은 항상 같은 플러셔에 할당되므로 테이블
+	 * 단위의 입력 순서가 유지되며, 서로 다른 플러셔에 할당된 테이블들은 병렬로 기록됩니다.
+	 */
+	public class Flusher implements Runnable {
+		private final int index;
+		private volatile Thread th;
+
+		// table name to queued rows mappings, only for tables assigned to
+		// this flusher
+		private ConcurrentMap<String, TableBuffer> tables = new ConcurrentHashMap<String, TableBuffer>();
+		private AtomicInteger pendingRows = new AtomicInteger();
+
+		// pending rows of ordered tables waiting for in-flight batch, flusher
+		// thread only
+		private int deferredRows;
+
+		ConcurrentHashMap<QueuedRows, QueuedRows> wCalls = new ConcurrentHashMap<QueuedRows, QueuedRows>();
+
+		public Flusher(int index) {
+			this.index = index;
+		}
+
+		public void start() {
+			synchronized (this) {
+				if (th == null) {
+					String tname = "Insert Flusher #" + index + " for Client #" + instanceId;
+					th = new Thread(this, tname);
+					th.start();
+				}
+			}
+		}
+
+		TableBuffer getTableBuffer(String tableName) {
+			TableBuffer buf = tables.get(tableName);
+			if (buf == null) {
+				buf = new TableBuffer(tableName, insertTableMemoryLimit);
+				TableBuffer old = tables.putIfAbsent(tableName, buf);
+				if (old != null)
+					buf = old;
+			}
+			return buf;
+		}
+
+		void enqueue(TableBuffer buf, QueuedRows rows) {
+			int count = rows.size();
+			PrebuiltBatch sealed = null;
+			if (buf.building) {
+				// keep insert order with rows in open column builder
+				synchronized (buf) {
+					sealed = buf.seal(this);
+					pendingRows.addAndGet(count);
+					buf.queue.offer(rows);
+				}
+			} else {
+				pendingRows.addAndGet(count);
+				buf.queue.offer(rows);
+			}
+
+			if (sealed != null)
+				sealed.encode(insertTimeSorted);
+
+			int before = buf.queuedRows.getAndAdd(count);
+			if (before == 0)
+				buf.firstEnqueued = System.nanoTime();
+
+			// wake up to reschedule linger deadline or send full batch
+			InsertTuning tuning = insertTuning;
+			if (tuning != InsertTuning.STATIC && (before == 0 || before + count >= buf.controller.getBatchRows(insertBatchSize)))
+				signal();
+		}
+
+		// pivot rows into open column builder of the table, and seal and encode
+		// it in caller thread when batch is full
+		void append(TableBuffer buf, QueuedRows rows) {
+			int count = rows.size();
+			InsertTuning tuning = insertTuning;
+			int batchRows = insertBatchSize;
+			if (tuning != InsertTuning.STATIC)
+				batchRows = buf.controller.getBatchRows(insertBatchSize);
+
+			PrebuiltBatch prev = null;
+			PrebuiltBatch full = null;
+			int before;
+			synchronized (buf) {
+				InsertColumnBuilder builder = buf.builder;
+				if (builder != null
+						&& (builder.size() + count > batchRows || buf.builderBytes + rows.bytes > insertBatchBytes))
+					prev = buf.seal(this);
+
+				if (buf.builder == null) {
+					buf.builder = new InsertColumnBuilder(batchRows);
+					buf.builderRows = new ArrayList<QueuedRows>();
+					buf.building = true;
+				}
+
+				for (Tuple row : rows.getRows())
+					buf.builder.add(row);
+
+				buf.builderRows.add(rows);
+				buf.builderBytes += rows.bytes;
+				pendingRows.addAndGet(count);
+
+				before = buf.queuedRows.getAndAdd(count);
+				if (before == 0)
+					buf.firstEnqueued = System.nanoTime();
+
+				if (buf.builder.size() >= batchRows || buf.builderBytes >= insertBatchBytes)
+					full = buf.seal(this);
+			}
+
+			if (prev != null)
+				prev.encode(insertTimeSorted);
+			if (full != null)
+				full.encode(insertTimeSorted);
+
+			// wake up to send encoded batch or reschedule linger deadline
+			if (prev != null || full != null || (tuning != InsertTuning.STATIC && before == 0))
+				signal();
+		}
+
+		// seal rows in open column builder before draining
+		private void sealBuilder(TableBuffer buf) {
+			if (!buf.building)
+				return;
+
+			synchronized (buf) {
+				buf.seal(this);
+			}
+		}
+
+		public boolean await(QueuedRows r, long timeout, TimeUnit unit) throws InterruptedException {
+			try {
+				wCalls.put(r, r);
+				signal();
+				return r.l.await(timeout, unit);
+			} finally {
+				wCalls.remove(r, r);
+			}
+		}
+
+		public void await(QueuedRows r) throws InterruptedException {
+			try {
+				wCalls.put(r, r);
+				signal();
+				r.l.await();
+			} finally {
+				wCalls.remove(r, r);
+			}
+		}
 
-		StreamingResultSet rs = streamCallbacks.remove(id);
-		if (rs != null)
-			session.unregisterTrap("logdb-query-result-" + id);
+		volatile boolean running = true;
 
-		session.unregisterTrap("logdb-query-" + id);
-		session.unregisterTrap("logdb-query-timeline-" + id);
+		// flush all tables regardless of linger time
+		private volatile boolean force;
 
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("id", id);
-		rpc("org.araqne.logdb.msgbus.LogQueryPlugin.removeQuery", params);
+		@Override
+		public void run() {
+			while (running && !isClosed()) {
+				// waiters on batches already sent only need the response, so
+				// park whenever there is nothing left to drain
+				if (insertTuning != InsertTuning.STATIC) {
+					long nextWaitMillis = flushDueTables();
+					boolean drained = pendingRows.get() <= deferredRows;
+					if (!force && nextWaitMillis > 0 && (drained || wCalls.size() == 0))
+						LockSupport.parkNanos(this, nextWaitMillis * 1000000L);
+					continue;
+				}
 
-		queries.remove(id);
-	}
+				long started = System.nanoTime();
+				flushTables();
+				long nextWaitMillis = indexFlushInterval - (System.nanoTime() - started) / 1000000L;
+				if (pendingRows.get() <= deferredRows && nextWaitMillis > 0)
+					LockSupport.parkNanos(this, nextWaitMillis * 1000000L);
+			}
 
-	@SuppressWarnings("unchecked")
-	public List<Workflow> listWorkflows() throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		Message resp = rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.getWorkflows", params);
+			// give one more chance to flush, ordered tables send one batch
+			// per response
+			flushTables();
+			while (deferredRows > 0 && !isClosed()) {
+				LockSupport.parkNanos(this, 10 * 1000000L);
+				flushTables();
+			}
+		}
 
-		List<Object> l = (List<Object>) resp.get("workflows");
-		List<Workflow> workflows = new ArrayList<Workflow>();
-		for (Object o : l) {
-			workflows.add(Workflow.parse((Map<String, Object>) o));
+		private void flushTables() {
+			force = false;
+			deferredRows = 0;
+			if (pendingRows.get() == 0)
+				return;
+
+			for (TableBuffer buf : tables.values())
+				flushTable(buf);
 		}
-		return workflows;
-	}
 
-	@SuppressWarnings("unchecked")
-	public Workflow getWorkflow(String guid) throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("guid", guid);
-		Message resp = rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.getWorkflow", params);
-		return Workflow.parse((Map<String, Object>) resp.get("workflow"));
-	}
+		// flush tables with full batch, expired linger or memory pressure, and
+		// returns milliseconds until next linger deadline
+		private long flushDueTables() {
+			boolean forced = force || wCalls.size() > 0 || inputThrottler.getUsed() >= inputThrottler.getLimit() * 0.8;
+			force = false;
+			deferredRows = 0;
+
+			InsertTuning tuning = insertTuning;
+			long maxLinger = Math.max(1, indexFlushInterval);
+			long nextWaitMillis = maxLinger;
+			long now = System.nanoTime();
+
+			for (TableBuffer buf : tables.values()) {
+				int queued = buf.queuedRows.get();
+				if (queued == 0)
+					continue;
+
+				long age = (now - buf.firstEnqueued) / 1000000L;
+				long linger = buf.controller.getLingerMillis(tuning, insertLatencyTarget, maxLinger);
+				boolean pressure = buf.memory.getUsed() >= buf.memory.getLimit() * 0.8;
+
+				if (forced || pressure || age >= linger || queued >= buf.controller.getBatchRows(insertBatchSize))
+					flushTable(buf);
+				else
+					nextWaitMillis = Math.min(nextWaitMillis, linger - age);
+			}
 
-	public void runWorkflow(String workflowGuid, Map<String, String> parameters) throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("guid", workflowGuid);
-		params.put("parameters", parameters);
-		rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.runWorkflow", params);
-	}
+			return nextWaitMillis;
+		}
 
-	public void runTask(String workflowGuid, String taskGuid, Map<String, String> parameters) throws IOException {
-		Map<String, Object> params = new HashMap<String, Object>();
-		params.put("workflow_guid", workflowGuid);
-		params.put("task_guid", taskGuid);
-		params.put("parameters", parameters);
-		rpc("com.logpresso.workflow.msgbus.WorkflowPlugin.runTask", params);
-	}
+		private void flushTable(TableBuffer buf) {
+			sealBuilder(buf);
+			List<QueuedRows> items = buf.drain();
+			if (items.isEmpty())
+				return;
+
+			int counter = 0;
+			for (QueuedRows rows : items)
+				counter += rows.size();
+
+			pendingRows.addAndGet(-counter);
+			if (buf.queuedRows.addAndGet(-counter) > 0)
+				buf.firstEnqueued = System.nanoTime();
+
+			// memory is released when each batch is acknowledged or failed
+			int deferred = flushInternal(buf, items);
+			if (deferred > 0) {
+				pendingRows.addAndGet(deferred);
+				buf.queuedRows.addAndGet(deferred);
+				deferredRows += deferred;
+			}
+		}
 
-	public void addFailureListener(FailureListener listener) {
-		failureListeners.add(listener);
-	}
+		void flushNow() {
+			force = true;
+			signal();
+		}
 
-	public void removeFailureListener(FailureListener listener) {
-		failureListeners.remove(listener);
-	}
+		// move queued rows to spill log when connection is lost
+		void spillQueued() {
+			for (TableBuffer buf : tables.values()) {
+				sealBuilder(buf);
+				List<QueuedRows> items = buf.drain();
+				if (items.isEmpty())
+					continue;
 
-	private static class QueuedRows implements Future<Integer> {
-		private List<Tuple> rows;
+				int counter = 0;
+				for (QueuedRows rows : items)
+					counter += rows.size();
 
-		CountDownLatch l = new CountDownLatch(1);
-		private volatile Throwable t;
-		private Flusher flusher;
+				pendingRows.addAndGet(-counter);
+				buf.queuedRows.addAndGet(-counter);
+				releaseMemory(buf, items);
 
-		public QueuedRows(List<Tuple> rows, Flusher flusher) {
-			this.rows = rows;
-			this.flusher = flusher;
+				failInsert(buf.tableName, items, new IOException("connection closed"));
+			}
 		}
 
-		@Override
-		public boolean cancel(boolean mayInterruptIfRunning) {
-			throw new UnsupportedOperationException();
+		void shutdown() {
+			running = false;
+			signal();
 		}
 
-		@Override
-		public boolean isCancelled() {
-			return false;
+		public void signal() {
+			Thread t = th;
+			if (t != null)
+				LockSupport.unpark(t);
 		}
 
-		@Override
-		public boolean isDone() {
-			return l.getCount() == 0;
-		}
+		public void waitForShutdown() {
+			shutdown();
+			Thread t = th;
+			if (t == null)
+				return;
 
-		public void setDone() {
-			l.countDown();
+			while (t.isAlive()) {
+				try {
+					t.join();
+				} catch (InterruptedException e) {
+				}
+			}
 		}
+	}
 
-		public void setDone(Throwable t) {
-			this.t = t;
-			l.countDown();
+	/**
+	 * 스필 로그에서 읽은 행을 표현합니다. 서버 입력이 확인되면 스필 로그의 기록을 완료 처리합니다.
+	 */
+	private class ReplayedRows extends QueuedRows {
+		private final InsertSpillLog.Record record;
+		private final SpillReplayer replayer;
+
+		public ReplayedRows(List<Tuple> rows, long bytes, Flusher flusher, InsertSpillLog.Record record, SpillReplayer replayer) {
+			super(rows, bytes, flusher);
+			this.record = record;
+			this.replayer = replayer;
 		}
 
 		@Override
-		public Integer get() throws InterruptedException, ExecutionException {
-			flusher.await(this);
-			if (t != null)
-				throw new ExecutionException(t);
-			else
-				return rows.size();
+		public void setDone() {
+			replayer.onDone(record, null);
+			super.setDone();
 		}
 
 		@Override
-		public Integer get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-			if (flusher.await(this, timeout, unit)) {
-				if (t != null)
-					throw new ExecutionException(t);
-				else
-					return rows.size();
-			} else
-				throw new TimeoutException();
-		}
-
-		public List<Tuple> getRows() {
-			return rows;
+		public void setDone(Throwable t) {
+			replayer.onDone(record, t);
+			super.setDone(t);
 		}
-
 	}
 
 	/**
-	 * 지정된 테이블에 행을 입력합니다.
-	 * 
-	 * @param tableName
-	 *            테이블 이름
-	 * @param rows
-	 *            행 목록
-	 * @since 0.9.5
+	 * 서버에 연결되어 있는 동안 스필 로그의 기록을 순서대로 읽어 테이블 입력 대기열에 넣습니다. 연결 장애로 다시 입력하지 못한 기록이
+	 * 있으면, 진행 중인 입력이 모두 끝난 후 완료되지 않은 첫 기록부터 다시 읽습니다.
 	 */
-	public Future<Integer> insert(String tableName, List<Tuple> rows) {
-		for (Tuple row : rows) {
-			if (row.get("_time") == null || !(row.get("_time") instanceof Date))
-				row.put("_time", new Date());
+	private class SpillReplayer implements Runnable {
+		private final InsertSpillLog spill;
+		private final AtomicInteger inflight = new AtomicInteger();
+		private volatile boolean failed;
+		private volatile boolean running = true;
+		private volatile Thread th;
+
+		public SpillReplayer(InsertSpillLog spill) {
+			this.spill = spill;
 		}
 
-		QueuedRows ret = null;
-		// buffering
-		if (flusher.get() == null) {
-			if (flusher.compareAndSet(null, new Flusher())) {
-				flusher.get().start();
-			}
+		public void start() {
+			th = new Thread(this, "Insert Spill Replayer for Client #" + instanceId);
+			th.start();
 		}
 
-		boolean acResult = inputThrottler.tryAcquire(rows.size());
-		if (!acResult) {
-			flusher.get().signal();
-			while (true) {
+		@Override
+		public void run() {
+			while (running) {
 				try {
-					inputThrottler.acquire(rows.size());
-					break;
+					if (failed) {
+						if (inflight.get() > 0) {
+							park(100);
+							continue;
+						}
+
+						// back off before reading unacknowledged records again
+						failed = false;
+						spill.rewind();
+						park(1000);
+						continue;
+					}
+
+					InsertSpillLog.Record record = isClosed() ? null : spill.next();
+					if (record == null) {
+						park(Math.max(100, indexFlushInterval));
+						continue;
+					}
+
+					replay(record);
 				} catch (InterruptedException e) {
-					if (isClosed())
-						break;
+				} catch (Throwable t) {
+					logger.error("logpresso: cannot replay insert spill log", t);
+					park(1000);
 				}
 			}
 		}
 
-		synchronized (flushBuffers) {
-			if (!flushBuffers.containsKey(tableName))
-				flushBuffers.put(tableName, new ArrayList<QueuedRows>());
-			QueuedRows qr = new QueuedRows(rows, flusher.get());
-			flushBuffers.get(tableName).add(qr);
-			ret = qr;
-			// counter += rows.size();
+		private void replay(InsertSpillLog.Record record) throws InterruptedException {
+			String tableName = record.getTableName();
+			List<Tuple> rows = new ArrayList<Tuple>(record.getRows().size());
+			for (Map<String, Object> m : record.getRows())
+				rows.add(new Tuple(m));
+
+			long bytes = 0;
+			for (Tuple row : rows)
+				bytes += estimateSize(row);
+
+			Flusher f = getFlusher(tableName);
+			TableBuffer buf = f.getTableBuffer(tableName);
+			acquireMemoryInterruptibly(buf, bytes);
+			inflight.incrementAndGet();
+
+			f.enqueue(buf, new ReplayedRows(rows, bytes, f, record, this));
+			f.signal();
+		}
+
+		public void onDone(InsertSpillLog.Record record, Throwable t) {
+			// rows rejected by server never succeed, failure listeners are notified instead
+			if (t == null || t instanceof MessageException)
+				spill.ack(record);
+			else
+				failed = true;
+
+			inflight.decrementAndGet();
+		}
+
+		private void park(long millis) {
+			LockSupport.parkNanos(this, millis * 1000000L);
 		}
-		// count over -> flush
-		if (inputThrottler.availablePermits() <= MAX_THROTTLE_PERMIT * 0.8) {
-			flusher.get().signal();
+
+		public void signal() {
+			Thread t = th;
+			if (t != null)
+				LockSupport.unpark(t);
+		}
+
+		public void shutdown() {
+			running = false;
+			Thread t = th;
+			if (t != null)
+				t.interrupt();
 		}
-		return ret;
 	}
 
 	/**
-	 * 지정된 테이블에 행을 입력합니다.
+	 * 현재 대기 중인 쓰기 버퍼를 비우고 RPC 통신을 통해 로그프레소 테이블에 기록합니다.
 	 * 
-	 * @param tableName
-	 *            테이블 이름
-	 * @param row
-	 *            입력할 행
 	 * @since 0.9.5
 	 */
-	public Future<Integer> insert(String tableName, Tuple row) {
-		if (row.get("_time") == null || !(row.get("_time") instanceof Date))
-			row.put("_time", new Date());
+	public void flush() {
+		signalFlushers();
+	}
 
-		QueuedRows ret = null;
-		// buffering
-		if (flusher.get() == null) {
-			if (flusher.compareAndSet(null, new Flusher())) {
-				flusher.get().start();
-			}
-		}
+	// returns row count of items deferred until in-flight batch of ordered
+	// table is acknowledged
+	private int flushInternal(TableBuffer buf, List<QueuedRows> items) {
+		String tableName = buf.tableName;
+		boolean pipelined = insertWindowSize > 1;
+		boolean ordered = pipelined && insertOrdered;
+		boolean holding = false;
 
-		boolean acResult = inputThrottler.tryAcquire();
-		if (!acResult) {
-			flusher.get().signal();
-			while (true) {
-				try {
-					inputThrottler.acquire();
-					break;
-				} catch (InterruptedException e) {
-					if (isClosed())
-						break;
+		Iterator<QueuedRows> it = items.iterator();
+		List<QueuedRows> currItems = null;
+		QueuedRows next = null;
+		try {
+			next = it.hasNext() ? it.next() : null;
+			while (next != null) {
+				// never block flusher shared with other tables
+				if (ordered && !buf.inflight.tryAcquire()) {
+					List<QueuedRows> rest = new ArrayList<QueuedRows>();
+					rest.add(next);
+					while (it.hasNext())
+						rest.add(it.next());
+
+					buf.defer(rest);
+
+					int deferred = 0;
+					for (QueuedRows rows : rest)
+						deferred += rows.size();
+					return deferred;
 				}
-			}
-		}
 
-		synchronized (flushBuffers) {
-			if (!flushBuffers.containsKey(tableName))
-				flushBuffers.put(tableName, new ArrayList<QueuedRows>());
+				holding = ordered;
+				currItems = new ArrayList<QueuedRows>();
+				int rowCount = 0;
+				long encodeBegin;
+				List<Map<String, Object>> bins;
+
+				if (next instanceof QueuedColumns) {
+					// columnar insert is always sent alone, already cut by insertColumns()
+					QueuedColumns qc = (QueuedColumns) next;
+					currItems.add(qc);
+					next = it.hasNext() ? it.next() : null;
+
+					rowCount = qc.size();
+					encodeBegin = System.nanoTime();
+					ColumnBatch batch = qc.batch;
+					if (insertTimeSorted)
+						batch = sortByTime(batch);
+					bins = streamingEncoder.encodeColumns(batch);
+				} else if (next instanceof PrebuiltBatch) {
+					// already pivoted, only finish encoding and compress
+					List<ByteBuffer> encoded = new ArrayList<ByteBuffer>();
+					long batchBytes = 0;
+
+					InsertTuning tuning = insertTuning;
+					int batchRows = insertBatchSize;
+					if (tuning != InsertTuning.STATIC)
+						batchRows = buf.controller.getBatchRows(insertBatchSize);
+
+					encodeBegin = System.nanoTime();
+					while (next instanceof PrebuiltBatch) {
+						if (!currItems.isEmpty()
+								&& (rowCount + next.size() > batchRows || batchBytes + next.bytes > insertBatchBytes))
+							break;
 
-			QueuedRows qr = new QueuedRows(Arrays.asList(row), flusher.get());
-			flushBuffers.get(tableName).add(qr);
-			ret = qr;
-		}
+						encoded.add(((PrebuiltBatch) next).encode(insertTimeSorted));
+						currItems.add(next);
+						rowCount += next.size();
+						batchBytes += next.bytes;
+						next = it.hasNext() ? it.next() : null;
+					}
 
-		// count over -> flush
-		if (inputThrottler.availablePermits() != MAX_THROTTLE_PERMIT) {
-			flusher.get().signal();
-		}
+					bins = streamingEncoder.compressEncoded(encoded);
+				} else {
+					List<Object> l = new ArrayList<Object>(items.size());
+					long batchBytes = 0;
 
-		return ret;
-	}
+					InsertTuning tuning = insertTuning;
+					int batchRows = insertBatchSize;
+					if (tuning != InsertTuning.STATIC)
+						batchRows = buf.controller.getBatchRows(insertBatchSize);
 
-	public class Flusher implements Runnable {
-		Thread th;
+					// cut before the batch exceeds row count or byte limit
+					while (next != null && !(next instanceof QueuedColumns) && !(next instanceof PrebuiltBatch)) {
+						if (!l.isEmpty()
+								&& (l.size() + next.size() > batchRows || batchBytes + next.bytes > insertBatchBytes))
+							break;
 
-		ConcurrentHashMap<QueuedRows, QueuedRows> wCalls = new ConcurrentHashMap<QueuedRows, QueuedRows>();
+						l.addAll(next.getRows());
+						currItems.add(next);
+						batchBytes += next.bytes;
+						next = it.hasNext() ? it.next() : null;
+					}
 
-		public void start() {
-			synchronized (this) {
-				if (th == null) {
-					String tname = "Insert Flusher for Client #" + instanceId;
-					th = new Thread(this, tname);
-					th.start();
+					rowCount = l.size();
+					encodeBegin = System.nanoTime();
+					if (insertTimeSorted)
+						sortByTime(l);
+					bins = streamingEncoder.encode(l, false);
 				}
-			}
-		}
 
-		public boolean await(QueuedRows r, long timeout, TimeUnit unit) throws InterruptedException {
-			try {
-				wCalls.put(r, r);
-				signal();
-				return r.l.await(timeout, unit);
-			} finally {
-				wCalls.remove(r, r);
+				long encodeNanos = System.nanoTime() - encodeBegin;
+
+				Map<String, Object> params = new HashMap<String, Object>();
+				params.put("table", tableName);
+				params.put("bins", bins);
+
+				if (pipelined) {
+					// table permit is released by send failure or response
+					holding = false;
+					sendInsertBatch(buf, params, currItems, rowCount, encodeNanos, ordered);
+				} else {
+					long sendBegin = System.nanoTime();
+					rpc("org.araqne.logdb.msgbus.LogQueryPlugin.insertBatch", params);
+					observeBatch(buf, rowCount, encodeNanos, System.nanoTime() - sendBegin);
+					releaseMemory(buf, currItems);
+					for (QueuedRows rows : currItems) {
+						rows.setDone();
+					}
+				}
+				currItems = null;
 			}
+		} catch (Throwable t) {
+			logger.debug("logpresso: cannot insert data", t);
+			if (holding)
+				buf.inflight.release();
+
+			// fail current batch and all remaining batches
+			List<QueuedRows> failed = new ArrayList<QueuedRows>();
+			if (currItems != null)
+				failed.addAll(currItems);
+			if (next != null)
+				failed.add(next);
+			while (it.hasNext())
+				failed.add(it.next());
+
+			releaseMemory(buf, failed);
+			failInsert(tableName, failed, t);
 		}
 
-		public void await(QueuedRows r) throws InterruptedException {
-			try {
-				wCalls.put(r, r);
-				signal();
-				r.l.await();
-			} finally {
-				wCalls.remove(r, r);
-			}
+		return 0;
+	}
+
+	// stable sort rows of a batch by _time
+	private static void sortByTime(List<Object> rows) {
+		Object[] times = new Object[rows.size()];
+		for (int i = 0; i < times.length; i++)
+			times[i] = ((Tuple) rows.get(i)).get("_time");
+
+		int[] order = TimeOrder.sort(times);
+		if (order == null)
+			return;
+
+		Object[] sorted = (Object[]) TimeOrder.permute(rows.toArray(), order);
+		for (int i = 0; i < sorted.length; i++)
+			rows.set(i, sorted[i]);
+	}
+
+	private static ColumnBatch sortByTime(ColumnBatch batch) {
+		Column time = batch.getColumn("_time");
+		if (time == null)
+			return batch;
+
+		int[] order = TimeOrder.sort(time.getArray());
+		if (order == null)
+			return batch;
+
+		ColumnBatch sorted = new ColumnBatch(batch.getRowCount());
+		for (String name : batch.getColumnNames()) {
+			Column c = batch.getColumn(name);
+			Object array = TimeOrder.permute(c.getArray(), order);
+			if (array instanceof long[]) {
+				if (c.isTime())
+					sorted.putTimes(name, (long[]) array);
+				else
+					sorted.putLongs(name, (long[]) array);
+			} else if (array instanceof double[])
+				sorted.putDoubles(name, (double[]) array);
+			else if (array instanceof int[])
+				sorted.putInts(name, (int[]) array);
+			else if (array instanceof boolean[])
+				sorted.putBooleans(name, (boolean[]) array);
+			else
+				sorted.put(name, (Object[]) array);
 		}
+		return sorted;
+	}
 
-		volatile boolean running = true;
+	private void observeBatch(TableBuffer buf, int rows, long encodeNanos, long rttNanos) {
+		InsertTuning tuning = insertTuning;
+		if (tuning != InsertTuning.STATIC)
+			buf.controller.observe(tuning, rows, encodeNanos, rttNanos, buf.queuedRows.get(), insertBatchSize,
+					insertLatencyTarget);
+	}
 
-		@Override
-		public void run() {
-			while (running && !isClosed()) {
-				try {
-					long started = System.nanoTime();
-					flushInternal();
-					long nextWaitMillis = indexFlushInterval - (System.nanoTime() - started) / 1000000L;
-					if (inputThrottler.availablePermits() == MAX_THROTTLE_PERMIT && wCalls.size() == 0 && nextWaitMillis > 0)
-						synchronized (this) {
-							this.wait(nextWaitMillis);
-						}
-				} catch (InterruptedException e) {
-				}
-			}
-			// give one more chance to flush
-			flushInternal();
+	// takes over table permit of ordered insert, acquired by flushInternal()
+	private void sendInsertBatch(final TableBuffer buf, Map<String, Object> params, final List<QueuedRows> batch,
+			final int rowCount, final long encodeNanos, boolean ordered) throws IOException, InterruptedException {
+		final String tableName = buf.tableName;
+		final Semaphore window = insertWindow;
+		final Semaphore tableInflight = ordered ? buf.inflight : null;
+
+		if (session == null) {
+			if (tableInflight != null)
+				tableInflight.release();
+			throw new IOException("not connected yet, use connect()");
 		}
 
-		void shutdown() {
-			running = false;
-			signal();
+		try {
+			window.acquire();
+		} catch (InterruptedException e) {
+			if (tableInflight != null)
+				tableInflight.release();
+			throw e;
 		}
 
-		public void signal() {
-			synchronized (this) {
-				this.notifyAll();
-			}
-		}
+		Message req = new Message();
+		req.setMethod("org.araqne.logdb.msgbus.LogQueryPlugin.insertBatch");
+		req.setParameters(params);
+
+		final long sendBegin = System.nanoTime();
+		try {
+			asyncSession().rpc(req, new RpcCallback() {
+				@Override
+				public void onResponse(Message resp) {
+					final long rttNanos = System.nanoTime() - sendBegin;
+					release();
+					completeInsert(new Runnable() {
+						@Override
+						public void run() {
+							observeBatch(buf, rowCount, encodeNanos, rttNanos);
+							releaseMemory(buf, batch);
+							for (QueuedRows rows : batch)
+								rows.setDone();
+						}
+					});
+				}
+
+				@Override
+				public void onFailure(final Throwable t) {
+					release();
+					completeInsert(new Runnable() {
+						@Override
+						public void run() {
+							releaseMemory(buf, batch);
+							logger.debug("logpresso: cannot insert data", t);
+							failInsert(tableName, batch, t);
+						}
+					});
+				}
 
-		public void waitForShutdown() {
-			shutdown();
-			while (!flushBuffers.isEmpty()) {
-				try {
-					th.join();
-				} catch (InterruptedException e) {
+				// permits are released in receiver thread, next batch of the
+				// table is sent by flusher
+				private void release() {
+					window.release();
+					if (tableInflight != null) {
+						tableInflight.release();
+						getFlusher(tableName).signal();
+					}
 				}
-			}
+			});
+		} catch (IOException e) {
+			if (tableInflight != null)
+				tableInflight.release();
+			window.release();
+			throw e;
 		}
 	}
 
-	/**
-	 * 현재 대기 중인 쓰기 버퍼를 비우고 RPC 통신을 통해 로그프레소 테이블에 기록합니다.
-	 * 
-	 * @since 0.9.5
-	 */
-	public void flush() {
-		Flusher f = flusher.get();
-		if (f == null)
-			return;
-		
-		f.signal();
+	// spill writes and failure listeners should not stall rpc responses and traps
+	private void completeInsert(Runnable task) {
+		try {
+			insertCompletionExecutor.execute(task);
+		} catch (RejectedExecutionException e) {
+			task.run();
+		}
 	}
 
-	private void flushInternal() {
-		if (inputThrottler.availablePermits() == MAX_THROTTLE_PERMIT)
-			return;
-
-		Map<String, List<QueuedRows>> binsMap = null;
-		synchronized (flushBuffers) {
-			binsMap = new HashMap<String, List<QueuedRows>>(flushBuffers);
-			flushBuffers.clear();
-		}
-		int counter = 0;
-		for (Map.Entry<String, List<QueuedRows>> entry : binsMap.entrySet()) {
-			for (QueuedRows rows : entry.getValue()) {
-				counter += rows.getRows().size();
+	// completion tasks run in order, marker task ends after preceding tasks
+	private void awaitInsertCompletions() {
+		FutureTask<Void> marker = new FutureTask<Void>(new Runnable() {
+			@Override
+			public void run() {
 			}
-		}
-		inputThrottler.release(counter);
+		}, null);
 
-		for (Map.Entry<String, List<QueuedRows>> entry : binsMap.entrySet()) {
-			String tableName = entry.getKey();
-			List<QueuedRows> items = entry.getValue();
-			try {
-				Iterator<QueuedRows> it = items.iterator();
-				while (it.hasNext()) {
-					List<Object> l = new ArrayList<Object>(items.size());
-					List<QueuedRows> currItems = new ArrayList<QueuedRows>();
+		try {
+			insertCompletionExecutor.execute(marker);
+			marker.get(30, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			logger.warn("logpresso: timeout while waiting insert batch completions");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable t) {
+			logger.debug("logpresso: cannot wait insert batch completions", t);
+		}
+	}
 
-					while (it.hasNext()) {
-						QueuedRows rows = it.next();
-						for (Tuple row : rows.getRows()) {
-							l.add(row.toMap());
-						}
-						currItems.add(rows);
-						if (l.size() >= insertBatchSize)
-							break;
-					}
+	private void failInsert(String tableName, List<QueuedRows> items, Throwable t) {
+		// connection failures are retried from spill log if enabled
+		InsertSpillLog spill = spillLog;
+		boolean retriable = spill != null && !(t instanceof MessageException);
 
-					List<Map<String, Object>> bins = streamingEncoder.encode(l, false);
-					Map<String, Object> params = new HashMap<String, Object>();
-					params.put("table", entry.getKey());
-					params.put("bins", bins);
-					rpc("org.araqne.logdb.msgbus.LogQueryPlugin.insertBatch", params);
-					for (QueuedRows rows : currItems) {
-						rows.setDone();
-					}
+		for (QueuedRows item : items) {
+			// prebuilt batch is failed per insert() call
+			for (QueuedRows rows : item.members()) {
+				if (retriable && !(rows instanceof ReplayedRows) && appendSpill(spill, tableName, rows.getRows())) {
+					rows.setDone();
+					continue;
 				}
-			} catch (Throwable t) {
-				logger.debug("logpresso: cannot insert data", t);
 
-				for (QueuedRows rows : items) {
-					rows.setDone(t);
-					for (FailureListener c : failureListeners) {
-						try {
-							c.onInsertFailure(tableName, rows.getRows(), t);
-						} catch (Throwable t2) {
-							logger.debug("logpresso: insert failure callback should not throw any exception", t2);
-						}
+				rows.setDone(t);
+				if (retriable && rows instanceof ReplayedRows)
+					continue;
+
+				for (FailureListener c : failureListeners) {
+					try {
+						c.onInsertFailure(tableName, rows.getRows(), t);
+					} catch (Throwable t2) {
+						logger.debug("logpresso: insert failure callback should not throw any exception", t2);
 					}
 				}
-
 			}
 		}
 	}
 
+	// wait until all pipelined insert batches are acknowledged
+	private void awaitInsertWindow() {
+		Semaphore window = insertWindow;
+		int size = insertWindowSize;
+		if (size <= 1)
+			return;
+
+		try {
+			if (window.tryAcquire(size, 30, TimeUnit.SECONDS))
+				window.release(size);
+			else
+				logger.warn("logpresso: timeout while waiting pending insert batches");
+		} catch (InterruptedException e) {
+		}
+	}
+
 	/**
 	 * 특정 쿼리에 대해서 주어진 쿼리 결과 갯수가 조회 가능할 때까지 현재 스레드를 대기(blocking) 합니다. 주어진 쿼리 결과
 	 * 갯수를 채우지 못하더라도 쿼리가 완료 혹은 취소되면 스레드 대기 상태가 풀립니다. 이 메소드를 이용하면 매번 getQuery()를
@@ -2875,13 +6303,57 @@ public class Logpresso implements TrapListener, Closeable {
 	public Map<String, Object> getResult(int id, long offset, int limit) throws IOException {
 		verifyQueryId(id);
 
+		Map<String, Object> params = buildResultParams(id, offset, limit);
+		Message resp = rpc("org.araqne.logdb.msgbus.LogQueryPlugin.getResult", params);
+		return parseResult(resp);
+	}
+
+	/**
+	 * 쿼리 결과를 비동기로 조회합니다. 호출한 스레드를 차단하지 않으며, 응답은 스트리밍 디코더 스레드풀에서 디코딩된 후 퓨처가
+	 * 완료됩니다. 결과 형식은 getResult()와 동일합니다.
+	 * 
+	 * @param id
+	 *            쿼리 ID
+	 * @param offset
+	 *            건너뛸 결과 행 갯수
+	 * @param limit
+	 *            가져올 최대 행 갯수
+	 * @return 쿼리 결과로 완료되는 퓨처
+	 * @since 1.2.0
+	 */
+	public RpcFuture<Map<String, Object>> getResultAsync(int id, long offset, int limit) {
+		final RpcFuture<Map<String, Object>> future = new RpcFuture<Map<String, Object>>();
+		try {
+			verifyQueryId(id);
+		} catch (Throwable t) {
+			future.fail(t);
+			return future;
+		}
+
+		fetchResultAsync(id, offset, limit, new ResultPageCallback() {
+			@Override
+			public void onPage(Map<String, Object> result, long bytes) {
+				future.complete(result);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				future.fail(t);
+			}
+		});
+		return future;
+	}
+
+	private Map<String, Object> buildResultParams(int id, long offset, int limit) {
 		Map<String, Object> params = new HashMap<String, Object>();
 		params.put("id", id);
 		params.put("offset", offset);
 		params.put("limit", limit);
 		params.put("binary_encode", true);
+		return params;
+	}
 
-		Message resp = rpc("org.araqne.logdb.msgbus.LogQueryPlugin.getResult", params);
+	private Map<String, Object> parseResult(Message resp) {
 		if (resp.getParameters().size() == 0)
 			throw new MessageException("query-not-found", "", resp.getParameters());
 
@@ -2896,11 +6368,16 @@ public class Logpresso implements TrapListener, Closeable {
 	}
 
 	private Map<String, Object> decodeBinary(String binary, int uncompressedSize) {
-		byte[] b = Base64.decode(binary);
-		byte[] uncompressed = new byte[uncompressedSize];
-		uncompress(uncompressed, b);
+		ByteBuffer uncompressed = bufferPool.acquire(uncompressedSize);
+		Map<String, Object> m = null;
+		try {
+			byte[] b = Base64.decode(binary);
+			uncompress(uncompressed.array(), uncompressedSize, b, 0, b.length);
 
-		Map<String, Object> m = EncodingRule.decodeMap(ByteBuffer.wrap(uncompressed));
+			m = EncodingRule.decodeMap(ByteBuffer.wrap(uncompressed.array(), 0, uncompressedSize));
+		} finally {
+			bufferPool.release(uncompressed);
+		}
 
 		Object[] resultArray = (Object[]) m.get("result");
 		m.put("result", Arrays.asList(resultArray));
@@ -2908,16 +6385,15 @@ public class Logpresso implements TrapListener, Closeable {
 		return m;
 	}
 
-	private void uncompress(byte[] output, byte[] b) {
-		Inflater inflater = new Inflater();
-		inflater.setInput(b, 0, b.length);
+	private void uncompress(byte[] output, int outputLength, byte[] b, int offset, int length) {
+		Inflater inflater = compressorPool.acquireInflater();
 		try {
-			inflater.inflate(output);
-			inflater.reset();
+			inflater.setInput(b, offset, length);
+			inflater.inflate(output, 0, outputLength);
 		} catch (DataFormatException e) {
 			throw new IllegalStateException(e);
 		} finally {
-			inflater.end();
+			compressorPool.releaseInflater(inflater);
 		}
 	}
 
@@ -2930,16 +6406,35 @@ public class Logpresso implements TrapListener, Closeable {
 	 * 접속을 끊고 할당된 자원을 정리합니다.
 	 */
 	public void close() throws IOException {
+		SpillReplayer replayer = spillReplayer;
+		if (replayer != null)
+			replayer.shutdown();
 
-		if (inputThrottler.availablePermits() != MAX_THROTTLE_PERMIT)
+		if (inputThrottler.getUsed() > 0)
 			flush();
 
-		if (flusher.get() != null)
-			flusher.get().waitForShutdown();
+		Flusher[] l = flushers.get();
+		if (l != null) {
+			for (Flusher f : l)
+				f.shutdown();
+
+			for (Flusher f : l)
+				f.waitForShutdown();
+		}
+
+		awaitInsertWindow();
+		awaitInsertCompletions();
 
 		if (session != null)
 			session.close();
 
+		// failed in-flight batches may be spilled on close
+		awaitInsertCompletions();
+
+		InsertSpillLog spill = spillLog;
+		if (spill != null)
+			spill.close();
+
 		// put most of resource-disposing code in onClose(Throwable t).
 		// this method may not be called when session is closed by exception in
 		// session
@@ -2990,12 +6485,191 @@ public class Logpresso implements TrapListener, Closeable {
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	private void handleStreamingResult(Message msg) {
+		long limit = streamingResultMemoryLimit;
+		if (limit > 0) {
+			int queryId = Integer.valueOf(msg.getMethod().substring("logdb-query-result-".length()));
+			if (streamCallbacks.containsKey(queryId) || columnarCallbacks.containsKey(queryId)) {
+				ResultDelivery d = resultDeliveries.get(queryId);
+				if (d == null) {
+					d = new ResultDelivery(queryId, new StreamingResultQueue(limit, streamingResultSpillDir));
+					ResultDelivery old = resultDeliveries.putIfAbsent(queryId, d);
+					if (old != null)
+						d = old;
+				}
+
+				d.offer(msg.getParameters(), estimateTrapSize(msg), false);
+				return;
+			}
+		}
+
+		deliverStreamingResult(msg);
+	}
+
+	// compressed chunk bytes of result trap
+	@SuppressWarnings("unchecked")
+	private static long estimateTrapSize(Message msg) {
+		List<Map<String, Object>> chunks = (List<Map<String, Object>>) msg.get("bins");
+		if (chunks == null) {
+			List<Object> rows = (List<Object>) msg.get("rows");
+			return 64 + (rows != null ? rows.size() * 128L : 0);
+		}
+
+		long size = 64;
+		for (Map<String, Object> chunk : chunks) {
+			Object bin = chunk.get("bin");
+			if (bin instanceof String)
+				size += ((String) bin).length();
+			size += 32;
+		}
+		return size;
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 트랩을 쿼리별 대기열에서 꺼내 순서대로 결과 콜백에 전달합니다. 대기열에 트랩이 있을 때만 공유된 전달
+	 * 스레드에서 실행되며, 다른 쿼리가 기다리지 않도록 한 번에 일부만 전달한 후 다시 예약됩니다. 트랩을 대기열에 보관할 수 없으면
+	 * 쿼리를 취소 상태로 바꾸고 마지막 결과를 전달하여 결과 콜백을 종료합니다.
+	 */
+	private class ResultDelivery implements Runnable {
+		// max traps delivered per run
+		private static final int DRAIN_BATCH = 16;
+
+		private final int queryId;
+		private final StreamingResultQueue queue;
+
+		// true while submitted or running
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private volatile Throwable failure;
+		private volatile boolean done;
+
+		public ResultDelivery(int queryId, StreamingResultQueue queue) {
+			this.queryId = queryId;
+			this.queue = queue;
+		}
+
+		void offer(Map<String, Object> params, long size, boolean force) {
+			try {
+				queue.offer(params, size, force);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fail(e);
+				return;
+			} catch (IOException e) {
+				logger.error("logpresso: cannot spill streaming result of query " + queryId, e);
+				// keep order without spill
+				try {
+					queue.offer(params, size, true);
+				} catch (Throwable t) {
+					fail(t);
+					return;
+				}
+			}
+
+			schedule();
+		}
+
+		// notify end of result after buffered results
+		void finish() {
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("rows", new ArrayList<Object>());
+			params.put("last", true);
+			offer(params, 64, true);
+		}
+
+		void close() {
+			done = true;
+			queue.close();
+		}
+
+		private void fail(Throwable t) {
+			logger.error("logpresso: cannot buffer streaming result of query " + queryId + ", failing result set", t);
+			if (failure == null)
+				failure = t;
+			queue.close();
+			schedule();
+		}
+
+		private void schedule() {
+			if (!done && scheduled.compareAndSet(false, true))
+				resultDeliveryExecutor.execute(this);
+		}
+
+		@Override
+		public void run() {
+			try {
+				for (int i = 0; i < DRAIN_BATCH && !done; i++) {
+					Map<String, Object> params = queue.poll();
+					if (params == null) {
+						if (failure != null)
+							failResultSet();
+						break;
+					}
+
+					Message msg = new Message();
+					msg.setMethod("logdb-query-result-" + queryId);
+					msg.setParameters(params);
+					deliverStreamingResult(msg);
+
+					if (Boolean.TRUE.equals(params.get("last")))
+						end();
+				}
+			} catch (Throwable t) {
+				logger.error("logpresso: cannot deliver streaming result of query " + queryId, t);
+				if (failure == null)
+					failure = t;
+				queue.close();
+				failResultSet();
+			} finally {
+				scheduled.set(false);
+
+				// offered after last poll, or yielded to other queries
+				if (!done && (failure != null || !queue.isEmpty()))
+					schedule();
+			}
+		}
+
+		private void failResultSet() {
+			Query q = queries.get(queryId);
+			if (q != null) {
+				Throwable t = failure;
+				q.setCancelReason("RESULT_DELIVERY_FAILURE");
+				q.setErrorDetail(t.getMessage() != null ? t.getMessage() : t.getClass().getName());
+				q.updateStatus("Cancelled", Long.MAX_VALUE);
+			}
+
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("rows", new ArrayList<Object>());
+			params.put("last", true);
+
+			Message msg = new Message();
+			msg.setMethod("logdb-query-result-" + queryId);
+			msg.setParameters(params);
+			try {
+				deliverStreamingResult(msg);
+			} finally {
+				end();
+			}
+		}
+
+		private void end() {
+			done = true;
+			resultDeliveries.remove(queryId, this);
+			queue.close();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void deliverStreamingResult(Message msg) {
 		List<Map<String, Object>> chunks = (List<Map<String, Object>>) msg.get("bins");
 		boolean last = msg.getBoolean("last");
 		boolean lastCalled = false;
 		int queryId = Integer.valueOf(msg.getMethod().substring("logdb-query-result-".length()));
+		ColumnarResultSet crs = columnarCallbacks.get(queryId);
+		if (crs != null) {
+			handleColumnarResult(msg, queryId, crs);
+			return;
+		}
+
 		StreamingResultSet rs = null;
 		Query query = null;
 
@@ -3003,17 +6677,16 @@ public class Logpresso implements TrapListener, Closeable {
 			query = queries.get(queryId);
 			rs = streamCallbacks.get(queryId);
 
-			ArrayList<Tuple> rows = null;
-			List<Object> l = null;
-
-			if (chunks != null)
-				l = streamingDecoder.decode(chunks);
-			else
-				l = (List<Object>) msg.get("rows");
+			List<Tuple> rows = null;
 
-			rows = new ArrayList<Tuple>(l.size());
-			for (Object o : l)
-				rows.add(new Tuple((Map<String, Object>) o));
+			if (chunks != null) {
+				rows = streamingDecoder.decodeTuples(chunks);
+			} else {
+				List<Object> l = (List<Object>) msg.get("rows");
+				rows = new ArrayList<Tuple>(l.size());
+				for (Object o : l)
+					rows.add(new Tuple((Map<String, Object>) o));
+			}
 
 			if (query != null && rs != null) {
 				if (msg.containsKey("stamp")) {
@@ -3035,6 +6708,71 @@ public class Logpresso implements TrapListener, Closeable {
 		}
 	}
 
+	@SuppressWarnings("unchecked")
+	private void handleColumnarResult(Message msg, int queryId, ColumnarResultSet rs) {
+		List<Map<String, Object>> chunks = (List<Map<String, Object>>) msg.get("bins");
+		boolean last = msg.getBoolean("last");
+		boolean lastCalled = false;
+		Query query = queries.get(queryId);
+
+		try {
+			List<ColumnBatch> batches = null;
+			if (chunks != null)
+				batches = streamingDecoder.decodeColumns(chunks);
+			else
+				batches = Arrays.asList(toColumnBatch((List<Object>) msg.get("rows")));
+
+			if (query != null) {
+				if (msg.containsKey("stamp")) {
+					long stamp = Long.parseLong(msg.get("stamp").toString());
+					updateQueryStatus(msg, stamp, query);
+				}
+
+				if (batches.isEmpty())
+					batches = Arrays.asList(new ColumnBatch(0));
+
+				int i = 0;
+				for (ColumnBatch batch : batches) {
+					boolean lastBatch = last && ++i == batches.size();
+					rs.onColumns(query, batch, lastBatch);
+					if (lastBatch)
+						lastCalled = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			logger.error("logpresso: cannot decode streaming result", e);
+			if (query != null && last && !lastCalled)
+				rs.onColumns(query, new ColumnBatch(0), true);
+		} catch (Throwable t) {
+			logger.error("logpresso: cannot deliver columnar streaming result of query " + queryId, t);
+			if (query != null && last && !lastCalled)
+				rs.onColumns(query, new ColumnBatch(0), true);
+		}
+	}
+
+	// pivot legacy row-oriented streaming result
+	@SuppressWarnings("unchecked")
+	private ColumnBatch toColumnBatch(List<Object> rows) {
+		int count = rows == null ? 0 : rows.size();
+		Map<String, Object[]> columns = new LinkedHashMap<String, Object[]>();
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> row = (Map<String, Object>) rows.get(i);
+			for (Entry<String, Object> e : row.entrySet()) {
+				Object[] values = columns.get(e.getKey());
+				if (values == null) {
+					values = new Object[count];
+					columns.put(e.getKey(), values);
+				}
+				values[i] = e.getValue();
+			}
+		}
+
+		ColumnBatch batch = new ColumnBatch(count);
+		for (Entry<String, Object[]> e : columns.entrySet())
+			batch.put(e.getKey(), e.getValue());
+		return batch;
+	}
+
 	@Override
 	public void onClose(Throwable t) {
 		try {
@@ -3047,12 +6785,36 @@ public class Logpresso implements TrapListener, Closeable {
 					q.setCancelReason("USER_REQUEST");
 				}
 				StreamingResultSet rs = streamCallbacks.get(q.getId());
-				if (rs != null)
+				ColumnarResultSet crs = columnarCallbacks.get(q.getId());
+				ResultDelivery d = resultDeliveries.get(q.getId());
+				if (d != null) {
+					d.finish();
+				} else if (crs != null) {
+					crs.onColumns(q, new ColumnBatch(0), true);
+				} else if (rs != null) {
 					rs.onRows(q, new ArrayList<Tuple>(), true);
+				}
 			}
 		} finally {
-			if (flusher.get() != null)
-				flusher.get().shutdown();
+			// allow reconnect to start new replayer and flushers
+			synchronized (this) {
+				SpillReplayer replayer = spillReplayer;
+				if (replayer != null)
+					replayer.shutdown();
+				spillReplayer = null;
+			}
+
+			Flusher[] l = flushers.getAndSet(null);
+			if (l != null) {
+				// keep queued rows before flushers give up
+				if (spillLog != null) {
+					for (Flusher f : l)
+						f.spillQueued();
+				}
+
+				for (Flusher f : l)
+					f.shutdown();
+			}
 
 			if (streamingDecoder != null) {
 				streamingDecoder.close();
@@ -3063,6 +6825,11 @@ public class Logpresso implements TrapListener, Closeable {
 				streamingEncoder.close();
 				streamingEncoder = null;
 			}
+
+			compressorPool.close();
+
+			// changes during disconnection are not notified
+			invalidateMetadataCache();
 		}
 	}
 
@@ -3077,6 +6844,106 @@ public class Logpresso implements TrapListener, Closeable {
 		return session.rpc(method, timeout);
 	}
 
+	private RpcFuture<Message> rpcAsync(String method, Map<String, Object> params) {
+		if (session == null)
+			return RpcFuture.failed(new IOException("not connected yet, use connect()"));
+
+		Message req = new Message();
+		req.setMethod(method);
+		req.setParameters(params);
+		return asyncSession().rpcAsync(req);
+	}
+
+	private RpcFuture<Message> rpcAsync(Message req) {
+		if (session == null)
+			return RpcFuture.failed(new IOException("not connected yet, use connect()"));
+		return asyncSession().rpcAsync(req);
+	}
+
+	// session of custom transport may not support asynchronous calls
+	private AsyncSession asyncSession() {
+		Session s = session;
+		if (s == null || s instanceof AsyncSession)
+			return (AsyncSession) s;
+		return new BlockingSession(s);
+	}
+
+	/**
+	 * AsyncSession을 구현하지 않은 세션의 비동기 호출을 호출한 스레드에서 동기 호출로 처리합니다.
+	 */
+	private static class BlockingSession extends AbstractSession {
+		private final Session session;
+
+		public BlockingSession(Session session) {
+			this.session = session;
+		}
+
+		@Override
+		public boolean isClosed() {
+			return session.isClosed();
+		}
+
+		@Override
+		public void login(String loginName, String password, boolean force, int timeout) throws IOException {
+			session.login(loginName, password, force, timeout);
+		}
+
+		@Override
+		public void logout() throws IOException {
+			session.logout();
+		}
+
+		@Override
+		public Message rpc(Message req, int timeout) throws IOException, TimeoutException {
+			return session.rpc(req, timeout);
+		}
+
+		@Override
+		public void registerTrap(String callbackName) throws IOException {
+			session.registerTrap(callbackName);
+		}
+
+		@Override
+		public RpcFuture<Message> registerTrapAsync(String callbackName) {
+			try {
+				session.registerTrap(callbackName);
+				return RpcFuture.completed(null);
+			} catch (Throwable t) {
+				return RpcFuture.failed(t);
+			}
+		}
+
+		@Override
+		public void unregisterTrap(String callbackName) throws IOException {
+			session.unregisterTrap(callbackName);
+		}
+
+		@Override
+		public RpcFuture<Message> unregisterTrapAsync(String callbackName) {
+			try {
+				session.unregisterTrap(callbackName);
+				return RpcFuture.completed(null);
+			} catch (Throwable t) {
+				return RpcFuture.failed(t);
+			}
+		}
+
+		@Override
+		public void addListener(TrapListener listener) {
+			session.addListener(listener);
+		}
+
+		@Override
+		public void removeListener(TrapListener listener) {
+			session.removeListener(listener);
+		}
+
+		@Override
+		public void close() throws IOException {
+			session.close();
+		}
+	}
+
 	private Message rpc(String method) throws IOException {
 		try {
 			return rpc(method, 0);
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 테이블, 파서, 로그 수집기, 인덱스 메타데이터 캐시의 통계를 표현합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class MetadataCacheStats {
+	private int size;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long invalidationCount;
+
+	/**
+	 * 현재 캐시된 항목 갯수를 반환합니다.
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * RPC 호출 없이 캐시된 응답을 반환한 횟수를 반환합니다.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public void setHitCount(long hitCount) {
+		this.hitCount = hitCount;
+	}
+
+	/**
+	 * 캐시된 응답이 없거나 만료되어 RPC를 호출한 횟수를 반환합니다.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public void setMissCount(long missCount) {
+		this.missCount = missCount;
+	}
+
+	/**
+	 * 만료되거나 최대 항목 수를 넘어 제거된 항목 갯수를 반환합니다.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public void setEvictionCount(long evictionCount) {
+		this.evictionCount = evictionCount;
+	}
+
+	/**
+	 * 변경 요청이나 연결 종료로 무효화된 항목 갯수를 반환합니다.
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount;
+	}
+
+	public void setInvalidationCount(long invalidationCount) {
+		this.invalidationCount = invalidationCount;
+	}
+
+	@Override
+	public String toString() {
+		return "size=" + size + ", hit=" + hitCount + ", miss=" + missCount + ", eviction=" + evictionCount
+				+ ", invalidation=" + invalidationCount;
+	}
+}
@@ -28,11 +28,12 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * 
  */
 public class Query {
+	private final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Query.class);
 	private Logpresso client;
 	private int id;
 	private String queryString;
-	private String status;
-	private long loadedCount;
+	private volatile String status;
+	private volatile long loadedCount;
 	private boolean background;
 	private int stamp;
 
@@ -52,6 +53,9 @@ public class Query {
 	private List<QueryCommand> commands = new ArrayList<QueryCommand>();
 	private CopyOnWriteArrayList<WaitingCondition> waitingConditions;
 
+	// @since 1.2.0
+	private CopyOnWriteArrayList<Runnable> progressListeners = new CopyOnWriteArrayList<Runnable>();
+
 	// @since 0.9.1
 	private List<SubQuery> subQueries = new ArrayList<SubQuery>();
 
@@ -184,6 +188,8 @@ public class Query {
 				}
 			}
 		}
+
+		fireProgress();
 	}
 
 	/**
@@ -205,6 +211,37 @@ public class Query {
 				}
 			}
 		}
+
+		fireProgress();
+	}
+
+	/**
+	 * 적재 건수나 동작 상태가 갱신될 때마다 호출될 리스너를 등록합니다. 리스너는 트랩을 수신한 스레드에서 호출되므로 차단되어서는 안
+	 * 됩니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	void addProgressListener(Runnable listener) {
+		progressListeners.add(listener);
+	}
+
+	/**
+	 * 등록된 진행 상태 리스너를 제거합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	void removeProgressListener(Runnable listener) {
+		progressListeners.remove(listener);
+	}
+
+	private void fireProgress() {
+		for (Runnable listener : progressListeners) {
+			try {
+				listener.run();
+			} catch (Throwable t) {
+				logger.error("logpresso: query progress listener should not throw any exception", t);
+			}
+		}
 	}
 
 	/**
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.List;
+
+/**
+ * 이 인터페이스는 완료된 쿼리 결과를 구간 단위로 병렬 조회할 때 순서와 무관하게 결과를 전달받는데 필요한 명세를 제공합니다.
+ * 콜백은 여러 디코더 스레드에서 동시에 호출될 수 있으므로 구현체는 스레드 안전해야 합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface ResultRangeSink {
+	/**
+	 * 
+	 * @param offset
+	 *            전달되는 구간의 시작 위치
+	 * @param rows
+	 *            구간에 포함된 쿼리 결과 행 목록
+	 */
+	void onRows(long offset, List<Tuple> rows);
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 비동기 RPC 호출의 응답을 전달받는 콜백 인터페이스입니다. 콜백은 세션의 수신 스레드에서 호출되므로 오래 걸리는 작업을 수행하면
+ * 안 됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface RpcCallback {
+	/**
+	 * RPC 응답을 수신했을 때 호출됩니다.
+	 * 
+	 * @param resp
+	 *            RPC 응답 전문
+	 */
+	void onResponse(Message resp);
+
+	/**
+	 * RPC 호출이 실패했을 때 호출됩니다. 서버가 오류를 반환한 경우 MessageException이 전달됩니다.
+	 * 
+	 * @param t
+	 *            실패 원인
+	 */
+	void onFailure(Throwable t);
+}
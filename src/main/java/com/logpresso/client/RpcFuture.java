@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 비동기 RPC 호출 결과를 표현합니다. 응답을 수신한 스레드에서 즉시 완료되며, 등록된 콜백도 해당 스레드에서 호출됩니다. 호출마다
+ * 스레드를 차단하지 않고 thenApply(), thenCompose()로 후속 처리를 연결할 수 있으므로, 적은 수의 스레드로 많은 수의
+ * 동시 호출을 처리할 수 있습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class RpcFuture<T> implements Future<T> {
+	private final CountDownLatch done = new CountDownLatch(1);
+
+	// guarded by this, null after completion
+	private List<FutureCallback<? super T>> callbacks = new ArrayList<FutureCallback<? super T>>();
+	private volatile T value;
+	private volatile Throwable cause;
+
+	/**
+	 * 이미 완료된 퓨처를 생성합니다.
+	 */
+	public static <T> RpcFuture<T> completed(T value) {
+		RpcFuture<T> f = new RpcFuture<T>();
+		f.complete(value);
+		return f;
+	}
+
+	/**
+	 * 이미 실패한 퓨처를 생성합니다.
+	 */
+	public static <T> RpcFuture<T> failed(Throwable t) {
+		RpcFuture<T> f = new RpcFuture<T>();
+		f.fail(t);
+		return f;
+	}
+
+	/**
+	 * 주어진 결과로 퓨처를 완료합니다.
+	 * 
+	 * @return 이미 완료된 경우 false
+	 */
+	public boolean complete(T value) {
+		return set(value, null);
+	}
+
+	/**
+	 * 주어진 원인으로 퓨처를 실패 처리합니다.
+	 * 
+	 * @return 이미 완료된 경우 false
+	 */
+	public boolean fail(Throwable t) {
+		if (t == null)
+			throw new IllegalArgumentException("cause should be not null");
+		return set(null, t);
+	}
+
+	private boolean set(T value, Throwable t) {
+		List<FutureCallback<? super T>> l = null;
+		synchronized (this) {
+			if (callbacks == null)
+				return false;
+
+			this.value = value;
+			this.cause = t;
+			l = callbacks;
+			callbacks = null;
+		}
+
+		done.countDown();
+		for (FutureCallback<? super T> callback : l)
+			invoke(callback);
+
+		return true;
+	}
+
+	/**
+	 * 완료 시 호출될 콜백을 등록합니다. 이미 완료된 경우 호출한 스레드에서 즉시 콜백이 호출됩니다.
+	 */
+	public void addCallback(FutureCallback<? super T> callback) {
+		synchronized (this) {
+			if (callbacks != null) {
+				callbacks.add(callback);
+				return;
+			}
+		}
+
+		invoke(callback);
+	}
+
+	private void invoke(FutureCallback<? super T> callback) {
+		try {
+			if (cause != null)
+				callback.onFailure(cause);
+			else
+				callback.onSuccess(value);
+		} catch (Throwable t) {
+			org.slf4j.LoggerFactory.getLogger(RpcFuture.class).error("logpresso: future callback should not throw any exception", t);
+		}
+	}
+
+	/**
+	 * 완료 결과를 주어진 함수로 변환하는 후속 퓨처를 반환합니다. 이 퓨처가 실패하거나 함수가 예외를 발생시키면 후속 퓨처도
+	 * 실패합니다.
+	 */
+	public <R> RpcFuture<R> thenApply(final FutureFunction<? super T, ? extends R> fn) {
+		final RpcFuture<R> next = new RpcFuture<R>();
+		addCallback(new FutureCallback<T>() {
+			@Override
+			public void onSuccess(T value) {
+				R mapped = null;
+				try {
+					mapped = fn.apply(value);
+				} catch (Throwable t) {
+					next.fail(t);
+					return;
+				}
+				next.complete(mapped);
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				next.fail(t);
+			}
+		});
+		return next;
+	}
+
+	/**
+	 * 완료 결과로 후속 비동기 호출을 시작하고, 후속 호출의 결과로 완료되는 퓨처를 반환합니다. 함수가 예외를 발생시키거나 null을
+	 * 반환하면 후속 퓨처는 실패합니다.
+	 */
+	public <R> RpcFuture<R> thenCompose(final FutureFunction<? super T, RpcFuture<R>> fn) {
+		final RpcFuture<R> next = new RpcFuture<R>();
+		addCallback(new FutureCallback<T>() {
+			@Override
+			public void onSuccess(T value) {
+				RpcFuture<R> f = null;
+				try {
+					f = fn.apply(value);
+				} catch (Throwable t) {
+					next.fail(t);
+					return;
+				}
+
+				if (f == null) {
+					next.fail(new NullPointerException("compose function returned null future"));
+					return;
+				}
+
+				f.addCallback(new FutureCallback<R>() {
+					@Override
+					public void onSuccess(R value) {
+						next.complete(value);
+					}
+
+					@Override
+					public void onFailure(Throwable t) {
+						next.fail(t);
+					}
+				});
+			}
+
+			@Override
+			public void onFailure(Throwable t) {
+				next.fail(t);
+			}
+		});
+		return next;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return false;
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return false;
+	}
+
+	@Override
+	public boolean isDone() {
+		return done.getCount() == 0;
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		done.await();
+		return getValue();
+	}
+
+	@Override
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!done.await(timeout, unit))
+			throw new TimeoutException();
+		return getValue();
+	}
+
+	private T getValue() throws ExecutionException {
+		if (cause != null)
+			throw new ExecutionException(cause);
+		return value;
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * 시간 범위가 지정된 테이블 조회 쿼리를 여러 개의 하위 시간 범위 쿼리로 나누어 동시에 실행하기 위한 설정을 표현합니다. 각 하위
+ * 쿼리는 아래와 같은 형태로 생성됩니다.
+ * 
+ * <pre>
+ * table from=yyyyMMddHHmmss to=yyyyMMddHHmmss [테이블 이름] | [후속 쿼리]
+ * </pre>
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class SplitQuerySpec {
+	/**
+	 * 하위 쿼리 결과를 합치는 방식을 표현합니다.
+	 */
+	public enum MergeMode {
+		/**
+		 * _time 필드의 내림차순으로 k-way 병합합니다. 테이블 조회의 기본 순서와 같습니다. 후속 쿼리에 행 순서를 바꾸거나 여러
+		 * 행을 합치는 명령어가 있으면 사용할 수 없습니다.
+		 */
+		TIME_DESC,
+
+		/**
+		 * _time 필드의 오름차순으로 k-way 병합합니다. 각 하위 쿼리 끝에 sort _time 명령어가 추가되어 서버에서 오름차순으로
+		 * 정렬됩니다. 후속 쿼리에 행 순서를 바꾸거나 여러 행을 합치는 명령어가 있으면 사용할 수 없습니다.
+		 */
+		TIME_ASC,
+
+		/**
+		 * 먼저 완료된 하위 쿼리의 결과부터 순서와 무관하게 전달합니다.
+		 */
+		UNORDERED,
+
+		/**
+		 * 후속 쿼리의 마지막 명령어가 stats인 경우 그룹 별로 하위 쿼리의 집계 결과를 합산합니다. count, sum, min, max
+		 * 함수만 지원하며, stats 이전의 명령어는 행 단위로 동작해야 합니다.
+		 */
+		AGGREGATE
+	}
+
+	private String tableNames;
+	private Date from;
+	private Date to;
+	private String tail;
+	private int splitCount = 4;
+	private int concurrency = 4;
+	private MergeMode mergeMode = MergeMode.TIME_DESC;
+	private TimeZone timeZone = TimeZone.getDefault();
+
+	public SplitQuerySpec() {
+	}
+
+	public SplitQuerySpec(String tableNames, Date from, Date to, String tail) {
+		setTableNames(tableNames);
+		setFrom(from);
+		setTo(to);
+		setTail(tail);
+	}
+
+	/**
+	 * 조회할 테이블 이름 목록을 반환합니다. 여러 테이블은 쉼표로 구분합니다.
+	 */
+	public String getTableNames() {
+		return tableNames;
+	}
+
+	public void setTableNames(String tableNames) {
+		if (tableNames == null)
+			throw new IllegalArgumentException("table names should be not null");
+		this.tableNames = tableNames;
+	}
+
+	/**
+	 * 조회 시작 시각을 반환합니다. 초 단위 미만은 무시됩니다.
+	 */
+	public Date getFrom() {
+		return from;
+	}
+
+	public void setFrom(Date from) {
+		if (from == null)
+			throw new IllegalArgumentException("from should be not null");
+		this.from = from;
+	}
+
+	/**
+	 * 조회 종료 시각을 반환합니다. 초 단위 미만은 무시됩니다.
+	 */
+	public Date getTo() {
+		return to;
+	}
+
+	public void setTo(Date to) {
+		if (to == null)
+			throw new IllegalArgumentException("to should be not null");
+		this.to = to;
+	}
+
+	/**
+	 * 테이블 조회 뒤에 파이프로 연결될 후속 쿼리를 반환합니다. null이면 테이블 조회 결과를 그대로 반환합니다.
+	 */
+	public String getTail() {
+		return tail;
+	}
+
+	public void setTail(String tail) {
+		this.tail = tail;
+	}
+
+	/**
+	 * 전체 시간 범위를 나눌 하위 쿼리 갯수를 반환합니다. 시간 범위가 초 단위로 충분히 길지 않으면 더 적은 갯수로 나뉩니다.
+	 */
+	public int getSplitCount() {
+		return splitCount;
+	}
+
+	public void setSplitCount(int splitCount) {
+		if (splitCount <= 0)
+			throw new IllegalArgumentException("split count should be positive");
+		this.splitCount = splitCount;
+	}
+
+	/**
+	 * 동시에 실행할 최대 하위 쿼리 갯수를 반환합니다.
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	public void setConcurrency(int concurrency) {
+		if (concurrency <= 0)
+			throw new IllegalArgumentException("concurrency should be positive");
+		this.concurrency = concurrency;
+	}
+
+	public MergeMode getMergeMode() {
+		return mergeMode;
+	}
+
+	public void setMergeMode(MergeMode mergeMode) {
+		if (mergeMode == null)
+			throw new IllegalArgumentException("merge mode should be not null");
+		this.mergeMode = mergeMode;
+	}
+
+	/**
+	 * 하위 쿼리의 from, to 옵션 문자열을 만들 때 사용할 시간대를 반환합니다. 서버는 from, to 옵션을 서버의 시간대로
+	 * 해석하므로, 클라이언트와 서버의 시간대가 다른 경우 서버의 시간대를 지정해야 합니다. 기본값은 클라이언트의 기본 시간대입니다.
+	 */
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	public void setTimeZone(TimeZone timeZone) {
+		if (timeZone == null)
+			throw new IllegalArgumentException("time zone should be not null");
+		this.timeZone = timeZone;
+	}
+
+	@Override
+	public String toString() {
+		return "tables=" + tableNames + ", from=" + from + ", to=" + to + ", tail=" + tail + ", split=" + splitCount
+				+ ", concurrency=" + concurrency + ", merge=" + mergeMode + ", timezone=" + timeZone.getID();
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 종료된 쿼리의 결과 구간을 순회하며, 아직 순회하지 않은 구간을 오프셋 기준으로 분할할 수 있는 커서입니다. 분할된 커서는 서로
+ * 독립적으로 getResult() 페이지를 요청하므로, 각 커서를 서로 다른 스레드에서 순회하면 여러 코어와 연결로 결과 조회가 분산됩니다.
+ * 분할 방식은 java.util.Spliterator의 trySplit() 규약과 같으므로 자바 8 이상에서는 스트림으로 쉽게 감쌀 수 있습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public interface SplittableCursor extends Cursor {
+	/**
+	 * 아직 순회하지 않은 결과 행 갯수를 반환합니다.
+	 */
+	long estimateSize();
+
+	/**
+	 * 남은 구간의 앞쪽 절반을 새로운 커서로 분리합니다. 분리된 구간은 이 커서의 순회 대상에서 제외됩니다. 이미 순회를 시작했거나
+	 * 남은 구간이 너무 작으면 null을 반환합니다.
+	 * 
+	 * @return 앞쪽 구간을 순회하는 커서, 분할할 수 없으면 null
+	 */
+	SplittableCursor trySplit();
+}
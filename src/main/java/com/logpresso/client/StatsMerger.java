@@ -0,0 +1,237 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 시간 범위로 나누어 실행한 하위 쿼리들의 stats 집계 결과를 그룹 별로 합산합니다. count, sum, min, max 함수만 합산할 수
+ * 있으며, 그 외의 함수가 포함되어 있거나 stats 이전에 행 단위로 동작하지 않는 명령어가 있으면 파싱에 실패합니다.
+ *
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ *
+ */
+class StatsMerger {
+	// commands which cannot be evaluated per sub range before stats
+	private static final Set<String> NON_LOCAL_COMMANDS = new HashSet<String>(Arrays.asList("head", "tail", "limit", "sort",
+			"stats", "timechart", "dedup", "join", "union", "top", "rare", "eventstats", "streamstats", "pivot"));
+
+	private final List<String> keys;
+	private final Map<String, String> functions;
+	private final LinkedHashMap<List<Object>, Map<String, Object>> groups = new LinkedHashMap<List<Object>, Map<String, Object>>();
+
+	private StatsMerger(List<String> keys, Map<String, String> functions) {
+		this.keys = keys;
+		this.functions = functions;
+	}
+
+	/**
+	 * 후속 쿼리의 마지막 stats 명령어를 해석합니다. 합산할 수 없는 형태이면 IllegalArgumentException이 발생합니다.
+	 *
+	 * @param tail
+	 *            테이블 조회 뒤에 파이프로 연결되는 후속 쿼리
+	 */
+	public static StatsMerger parse(String tail) {
+		if (tail == null)
+			throw new IllegalArgumentException("stats command is required for aggregate merge");
+
+		List<String> commands = split(tail, '|');
+		String last = commands.get(commands.size() - 1).trim();
+		if (!commandName(last).equals("stats"))
+			throw new IllegalArgumentException("last command should be stats for aggregate merge: " + tail);
+
+		for (int i = 0; i < commands.size() - 1; i++) {
+			String name = commandName(commands.get(i).trim());
+			if (NON_LOCAL_COMMANDS.contains(name))
+				throw new IllegalArgumentException("cannot merge stats after [" + name + "] command: " + tail);
+		}
+
+		String args = last.substring("stats".length()).trim();
+		List<String> keys = new ArrayList<String>();
+		int by = indexOfBy(args);
+		if (by >= 0) {
+			for (String key : split(args.substring(by + 4), ','))
+				keys.add(key.trim());
+			args = args.substring(0, by);
+		}
+
+		Map<String, String> functions = new LinkedHashMap<String, String>();
+		for (String agg : split(args, ',')) {
+			agg = agg.trim();
+			if (agg.isEmpty())
+				throw new IllegalArgumentException("invalid stats command: " + last);
+
+			String func = agg;
+			String alias = null;
+			int as = agg.toLowerCase().lastIndexOf(" as ");
+			if (as > 0 && agg.indexOf(')', as) < 0) {
+				func = agg.substring(0, as).trim();
+				alias = agg.substring(as + 4).trim();
+			}
+
+			int p = func.indexOf('(');
+			String name = (p < 0 ? func : func.substring(0, p)).trim().toLowerCase();
+			if (name.equals("c"))
+				name = "count";
+
+			if (!name.equals("count") && !name.equals("sum") && !name.equals("min") && !name.equals("max"))
+				throw new IllegalArgumentException("cannot merge stats function [" + name + "]: " + last);
+
+			functions.put(alias != null ? alias : func, name);
+		}
+
+		return new StatsMerger(keys, functions);
+	}
+
+	/**
+	 * 후속 쿼리의 모든 명령어가 행 단위로 동작하는지 확인합니다. 행 순서를 바꾸거나 여러 행을 합치는 명령어가 포함되어 있으면 하위
+	 * 쿼리 결과를 _time 순서로 병합할 수 없으므로 IllegalArgumentException이 발생합니다.
+	 * 
+	 * @param tail
+	 *            테이블 조회 뒤에 파이프로 연결되는 후속 쿼리, null 허용
+	 */
+	public static void verifyRowLocal(String tail) {
+		if (tail == null || tail.trim().isEmpty())
+			return;
+
+		for (String command : split(tail, '|')) {
+			String name = commandName(command.trim());
+			if (NON_LOCAL_COMMANDS.contains(name))
+				throw new IllegalArgumentException("cannot merge by _time after [" + name + "] command: " + tail);
+		}
+	}
+
+	/**
+	 * 하위 쿼리의 집계 결과 행을 합산합니다. 그룹 별 합산 결과만 유지하므로 하위 쿼리 결과를 페이지 단위로 전달할 수 있습니다.
+	 */
+	public void add(Tuple row) {
+		List<Object> key = new ArrayList<Object>(keys.size());
+		for (String k : keys)
+			key.add(row.get(k));
+
+		Map<String, Object> merged = groups.get(key);
+		if (merged == null) {
+			groups.put(key, new HashMap<String, Object>(row.toMap()));
+			return;
+		}
+
+		for (Map.Entry<String, String> e : functions.entrySet()) {
+			String column = e.getKey();
+			merged.put(column, combine(e.getValue(), merged.get(column), row.get(column)));
+		}
+	}
+
+	/**
+	 * 합산된 그룹 별 집계 결과를 반환합니다. 그룹은 처음 나타난 순서대로 반환됩니다.
+	 */
+	public List<Tuple> getResult() {
+		List<Tuple> tuples = new ArrayList<Tuple>(groups.size());
+		for (Map<String, Object> m : groups.values())
+			tuples.add(new Tuple(m));
+		return tuples;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Object combine(String function, Object l, Object r) {
+		if (l == null)
+			return r;
+		if (r == null)
+			return l;
+
+		if (function.equals("count") || function.equals("sum")) {
+			if (isIntegral(l) && isIntegral(r))
+				return ((Number) l).longValue() + ((Number) r).longValue();
+			return ((Number) l).doubleValue() + ((Number) r).doubleValue();
+		}
+
+		int c;
+		if (l instanceof Number && r instanceof Number)
+			c = Double.compare(((Number) l).doubleValue(), ((Number) r).doubleValue());
+		else if (l instanceof Comparable && l.getClass() == r.getClass())
+			c = ((Comparable) l).compareTo(r);
+		else
+			c = l.toString().compareTo(r.toString());
+
+		if (function.equals("min"))
+			return c <= 0 ? l : r;
+		return c >= 0 ? l : r;
+	}
+
+	private static boolean isIntegral(Object o) {
+		return o instanceof Long || o instanceof Integer || o instanceof Short || o instanceof Byte;
+	}
+
+	private static String commandName(String command) {
+		int p = 0;
+		while (p < command.length() && !Character.isWhitespace(command.charAt(p)))
+			p++;
+		return command.substring(0, p).toLowerCase();
+	}
+
+	// returns position of whitespace before by clause outside of quotes and
+	// parentheses, or -1
+	static int indexOfBy(String args) {
+		int depth = 0;
+		boolean quoted = false;
+		String lower = args.toLowerCase();
+		for (int i = 0; i < args.length(); i++) {
+			char c = args.charAt(i);
+			if (c == '"' && (i == 0 || args.charAt(i - 1) != '\\'))
+				quoted = !quoted;
+			else if (quoted)
+				continue;
+			else if (c == '(')
+				depth++;
+			else if (c == ')')
+				depth--;
+			else if (depth == 0 && Character.isWhitespace(c) && lower.startsWith("by", i + 1) && i + 3 < args.length()
+					&& Character.isWhitespace(args.charAt(i + 3)))
+				return i;
+		}
+		return -1;
+	}
+
+	// split by delimiter outside of quotes and parentheses
+	private static List<String> split(String s, char delimiter) {
+		List<String> tokens = new ArrayList<String>();
+		int depth = 0;
+		boolean quoted = false;
+		int begin = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' && (i == 0 || s.charAt(i - 1) != '\\'))
+				quoted = !quoted;
+			else if (!quoted && c == '(')
+				depth++;
+			else if (!quoted && c == ')')
+				depth--;
+			else if (!quoted && depth == 0 && c == delimiter) {
+				tokens.add(s.substring(begin, i));
+				begin = i + 1;
+			}
+		}
+		tokens.add(s.substring(begin));
+		return tokens;
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+/**
+ * 트랩 디스패처의 작업 스레드와 대기열 통계를 표현합니다. 트랩 디스패처를 사용하지 않으면 모든 값이 0입니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class TrapDispatchStats {
+	private int threadCount;
+	private int queueSize;
+	private int queuedCount;
+	private long dispatchCount;
+	private long overflowCount;
+	private long overflowWaitMillis;
+
+	/**
+	 * 트랩 리스너를 실행하는 작업 스레드 갯수를 반환합니다.
+	 */
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	public void setThreadCount(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * 작업 스레드 당 최대 대기열 크기를 반환합니다.
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * 현재 처리를 기다리는 트랩 갯수를 반환합니다.
+	 */
+	public int getQueuedCount() {
+		return queuedCount;
+	}
+
+	public void setQueuedCount(int queuedCount) {
+		this.queuedCount = queuedCount;
+	}
+
+	/**
+	 * 수신한 트랩 갯수를 반환합니다.
+	 */
+	public long getDispatchCount() {
+		return dispatchCount;
+	}
+
+	public void setDispatchCount(long dispatchCount) {
+		this.dispatchCount = dispatchCount;
+	}
+
+	/**
+	 * 대기열이 가득 차서 수신 스레드가 대기한 횟수를 반환합니다.
+	 */
+	public long getOverflowCount() {
+		return overflowCount;
+	}
+
+	public void setOverflowCount(long overflowCount) {
+		this.overflowCount = overflowCount;
+	}
+
+	/**
+	 * 대기열이 가득 차서 수신 스레드가 대기한 시간의 합계를 밀리초 단위로 반환합니다.
+	 */
+	public long getOverflowWaitMillis() {
+		return overflowWaitMillis;
+	}
+
+	public void setOverflowWaitMillis(long overflowWaitMillis) {
+		this.overflowWaitMillis = overflowWaitMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "threads=" + threadCount + ", queue size=" + queueSize + ", queued=" + queuedCount + ", dispatched="
+				+ dispatchCount + ", overflow=" + overflowCount + ", overflow wait=" + overflowWaitMillis + "ms";
+	}
+}
@@ -19,13 +19,19 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * 테이블의 단위 데이터 항목을 표현합니다.
+ * 테이블의 단위 데이터 항목을 표현합니다. 쿼리 결과를 디코딩할 때는 필드 값을 공유 스키마로 색인되는 배열에 보관하며, 스키마에 없는
+ * 필드를 할당하거나 toMap()을 호출하면 그 때 맵으로 변환합니다.
  * 
  * @author xeraph@eediom.com
  * 
  */
 public class Tuple {
-	private final Map<String, Object> map;
+	// null if array-backed
+	private Map<String, Object> map;
+
+	// null if map-backed
+	private TupleSchema schema;
+	private Object[] values;
 
 	public Tuple() {
 		this(new HashMap<String, Object>());
@@ -35,6 +41,23 @@ public class Tuple {
 		this.map = map;
 	}
 
+	/**
+	 * 공유 스키마와 필드 값 배열을 이용하여 튜플을 생성합니다. 값 배열은 복사하지 않으며, null 값은 필드가 없는 것으로 간주합니다.
+	 * 
+	 * @param schema
+	 *            필드 이름 목록
+	 * @param values
+	 *            스키마 순서에 따른 필드 값 배열
+	 * @since 1.2.0
+	 */
+	public Tuple(TupleSchema schema, Object[] values) {
+		if (schema.size() != values.length)
+			throw new IllegalArgumentException("schema has " + schema.size() + " fields but " + values.length + " values");
+
+		this.schema = schema;
+		this.values = values;
+	}
+
 	/**
 	 * 지정한 필드의 값을 반환합니다.
 	 * 
@@ -43,7 +66,11 @@ public class Tuple {
 	 * @return 필드 값
 	 */
 	public Object get(String key) {
-		return map.get(key);
+		if (map != null)
+			return map.get(key);
+
+		int index = schema.indexOf(key);
+		return index < 0 ? null : values[index];
 	}
 
 	/**
@@ -55,6 +82,17 @@ public class Tuple {
 	 *            필드 값
 	 */
 	public void put(String key, Object value) {
+		if (map == null) {
+			int index = schema.indexOf(key);
+			if (index >= 0 && value != null) {
+				values[index] = value;
+				return;
+			}
+
+			// schema changed, or null needs explicit key
+			inflate();
+		}
+
 		map.put(key, value);
 	}
 
@@ -66,7 +104,16 @@ public class Tuple {
 	 * @return 필드 삭제 여부
 	 */
 	public Object remove(String key) {
-		return map.remove(key);
+		if (map != null)
+			return map.remove(key);
+
+		int index = schema.indexOf(key);
+		if (index < 0)
+			return null;
+
+		Object old = values[index];
+		values[index] = null;
+		return old;
 	}
 
 	/**
@@ -77,20 +124,73 @@ public class Tuple {
 	 * @return 필드 포함 여부
 	 */
 	public boolean containsKey(String key) {
-		return map.containsKey(key);
+		if (map != null)
+			return map.containsKey(key);
+
+		int index = schema.indexOf(key);
+		return index >= 0 && values[index] != null;
+	}
+
+	/**
+	 * 배열 기반 튜플인 경우 공유 스키마를 반환합니다.
+	 * 
+	 * @return 공유 스키마, 맵으로 변환된 튜플인 경우 null
+	 * @since 1.2.0
+	 */
+	public TupleSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * 배열 기반 튜플에서 스키마의 지정한 위치에 해당하는 필드 값을 반환합니다.
+	 * 
+	 * @param index
+	 *            스키마 상의 필드 위치
+	 * @return 필드 값
+	 * @since 1.2.0
+	 */
+	public Object getValue(int index) {
+		if (values == null)
+			throw new IllegalStateException("tuple is not array-backed");
+		return values[index];
 	}
 
 	/**
-	 * 전체 필드 키/값 쌍을 반환합니다.
+	 * 전체 필드 키/값 쌍을 반환합니다. 배열 기반 튜플은 이 때 맵으로 변환되며, 이후에는 반환된 맵에 대한 변경이 튜플에 반영됩니다.
 	 * 
 	 * @return 필드 키/값 쌍
 	 */
 	public Map<String, Object> toMap() {
+		if (map == null)
+			inflate();
 		return map;
 	}
 
+	private void inflate() {
+		Map<String, Object> m = new HashMap<String, Object>(values.length * 2);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null)
+				m.put(schema.getName(i), values[i]);
+		}
+
+		this.map = m;
+		this.schema = null;
+		this.values = null;
+	}
+
 	@Override
 	public String toString() {
-		return map.toString();
+		if (map != null)
+			return map.toString();
+
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == null)
+				continue;
+			if (sb.length() > 1)
+				sb.append(", ");
+			sb.append(schema.getName(i)).append('=').append(values[i]);
+		}
+		return sb.append('}').toString();
 	}
 }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 배열 기반 튜플들이 공유하는 필드 이름 목록과 필드 위치를 표현합니다. 같은 결과 묶음에 속한 튜플들은 하나의 스키마를 공유하므로 행마다
+ * 해시 테이블과 필드 이름을 반복하여 보관하지 않습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public final class TupleSchema {
+	private final String[] names;
+	private final Map<String, Integer> indexes;
+
+	public TupleSchema(Collection<String> names) {
+		this(names.toArray(new String[0]));
+	}
+
+	public TupleSchema(String[] names) {
+		this.names = Arrays.copyOf(names, names.length);
+		this.indexes = new HashMap<String, Integer>(names.length * 2);
+		for (int i = 0; i < names.length; i++) {
+			if (indexes.put(names[i], i) != null)
+				throw new IllegalArgumentException("duplicated field name: " + names[i]);
+		}
+	}
+
+	/**
+	 * 필드 갯수를 반환합니다.
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * 지정한 위치의 필드 이름을 반환합니다.
+	 */
+	public String getName(int index) {
+		return names[index];
+	}
+
+	/**
+	 * 필드 위치를 반환합니다.
+	 * 
+	 * @param name
+	 *            필드 이름
+	 * @return 필드 위치, 스키마에 없는 필드인 경우 -1
+	 */
+	public int indexOf(String name) {
+		Integer index = indexes.get(name);
+		return index != null ? index : -1;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(names);
+	}
+}
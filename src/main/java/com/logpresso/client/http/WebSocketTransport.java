@@ -16,9 +16,12 @@
 package com.logpresso.client.http;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.logpresso.client.Session;
 import com.logpresso.client.Transport;
+import com.logpresso.client.http.impl.PooledSession;
 import com.logpresso.client.http.impl.WebSocketSession;
 
 /**
@@ -31,6 +34,10 @@ import com.logpresso.client.http.impl.WebSocketSession;
 public class WebSocketTransport implements Transport {
 	private boolean skipCertCheck;
 	private boolean secure;
+	private int poolSize = 1;
+	private int trapDispatchThreads;
+	private int trapQueueSize = 1024;
+	private int asyncRpcTimeout = 60000;
 	private String host;
 	private int port;
 
@@ -67,25 +74,155 @@ public class WebSocketTransport implements Transport {
 		this.skipCertCheck = skipCertCheck;
 	}
 
+	/**
+	 * 세션 당 웹소켓 연결 갯수를 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * 이후 생성되는 세션의 웹소켓 연결 갯수를 설정합니다. 기본값은 1입니다. 2 이상인 경우 같은 계정으로 인증된 여러 개의 웹소켓
+	 * 연결을 하나의 세션처럼 사용하며, RPC 요청은 첫 번째 연결을 제외한 연결 중 응답 대기 중인 요청이 가장 적은 연결로 분산됩니다.
+	 * 쿼리는 생성된 연결에 속하므로 해당 쿼리의 요청과 트랩은 쿼리를 생성한 연결로 처리되며, 그 외의 트랩은 첫 번째 연결로 수신합니다.
+	 * 연결 중 하나라도 끊어지면 세션 전체가 닫힙니다. 강제 로그인은 첫 번째 연결에만 적용되므로, 서버의 동시 접속 수 제한을 고려하여
+	 * 설정하십시오.
+	 * 
+	 * @param poolSize
+	 *            세션 당 웹소켓 연결 갯수
+	 * @since 1.2.0
+	 */
+	public void setPoolSize(int poolSize) {
+		if (poolSize < 1)
+			throw new IllegalArgumentException("pool size should be positive");
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * 트랩 리스너를 실행하는 작업 스레드 갯수를 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getTrapDispatchThreads() {
+		return trapDispatchThreads;
+	}
+
+	/**
+	 * 이후 생성되는 세션의 트랩 리스너 작업 스레드 갯수를 설정합니다. 기본값은 0이며, 이 경우 트랩 리스너는 웹소켓 수신 스레드에서
+	 * 실행됩니다. 1 이상인 경우 트랩은 쿼리 ID 별로 작업 스레드에 배정되어 같은 쿼리의 트랩은 수신 순서대로, 서로 다른 쿼리의
+	 * 트랩은 병렬로 처리되므로 느린 스트리밍 결과 콜백이 RPC 응답과 다른 쿼리를 지연시키지 않습니다.
+	 * 
+	 * @param threads
+	 *            트랩 리스너 작업 스레드 갯수
+	 * @since 1.2.0
+	 */
+	public void setTrapDispatchThreads(int threads) {
+		if (threads < 0)
+			throw new IllegalArgumentException("trap dispatch threads should not be negative");
+		this.trapDispatchThreads = threads;
+	}
+
+	/**
+	 * 트랩 리스너 작업 스레드 당 최대 대기열 크기를 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getTrapQueueSize() {
+		return trapQueueSize;
+	}
+
+	/**
+	 * 이후 생성되는 세션의 트랩 리스너 작업 스레드 당 최대 대기열 크기를 설정합니다. 기본값은 1024입니다. 대기열이 가득 차면 웹소켓
+	 * 수신 스레드가 빈 자리가 생길 때까지 대기합니다.
+	 * 
+	 * @param size
+	 *            작업 스레드 당 최대 대기열 크기
+	 * @since 1.2.0
+	 */
+	public void setTrapQueueSize(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException("trap queue size should be positive");
+		this.trapQueueSize = size;
+	}
+
+	/**
+	 * 비동기 RPC 응답 대기 시간을 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getAsyncRpcTimeout() {
+		return asyncRpcTimeout;
+	}
+
+	/**
+	 * 이후 생성되는 세션의 비동기 RPC 응답 대기 시간을 설정합니다. 기본값은 60초이며, 0이면 무한히 대기합니다.
+	 * 
+	 * @param timeout
+	 *            밀리초 단위 응답 대기 시간
+	 * @since 1.2.0
+	 */
+	public void setAsyncRpcTimeout(int timeout) {
+		if (timeout < 0)
+			throw new IllegalArgumentException("async rpc timeout should not be negative");
+		this.asyncRpcTimeout = timeout;
+	}
+
 	@Override
 	public Session newSession(String host, int port) throws IOException {
-		this.host = host;
-		this.port = port;
-		return new WebSocketSession(host, port, secure, skipCertCheck);
+		return newSession(host, port, 0);
 	}
 
 	@Override
 	public Session newSession(String host, int port, int connectTimeout) throws IOException {
-		this.host = host;
-		this.port = port;
-		return new WebSocketSession(host, port, secure, skipCertCheck, connectTimeout);
+		return newSession(host, port, connectTimeout, null);
 	}
 
 	@Override
 	public Session newSession(String host, int port, int connectTimeout, int readTimeout) throws IOException {
+		return newSession(host, port, connectTimeout, (Integer) readTimeout);
+	}
+
+	private Session newSession(String host, int port, int connectTimeout, Integer readTimeout) throws IOException {
 		this.host = host;
 		this.port = port;
-		return new WebSocketSession(host, port, secure, skipCertCheck, connectTimeout, readTimeout);
+		if (poolSize == 1)
+			return newWebSocketSession(host, port, connectTimeout, readTimeout);
+
+		List<WebSocketSession> sessions = new ArrayList<WebSocketSession>();
+		try {
+			for (int i = 0; i < poolSize; i++)
+				sessions.add(newWebSocketSession(host, port, connectTimeout, readTimeout));
+		} catch (IOException e) {
+			closeAll(sessions);
+			throw e;
+		}
+
+		return new PooledSession(sessions);
+	}
+
+	private WebSocketSession newWebSocketSession(String host, int port, int connectTimeout, Integer readTimeout)
+			throws IOException {
+		WebSocketSession session = null;
+		if (readTimeout == null)
+			session = new WebSocketSession(host, port, secure, skipCertCheck, connectTimeout);
+		else
+			session = new WebSocketSession(host, port, secure, skipCertCheck, connectTimeout, readTimeout);
+
+		session.setAsyncRpcTimeout(asyncRpcTimeout);
+		if (trapDispatchThreads > 0)
+			session.setTrapDispatch(trapDispatchThreads, trapQueueSize);
+		return session;
+	}
+
+	private void closeAll(List<WebSocketSession> sessions) {
+		for (WebSocketSession session : sessions) {
+			try {
+				session.close();
+			} catch (IOException e) {
+			}
+		}
 	}
 
 	@Override
@@ -0,0 +1,153 @@
+package com.logpresso.client.http.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 2의 거듭제곱 크기 단위로 바이트 버퍼를 재사용합니다. 최소 단위보다 작은 요청은 최소 단위 버퍼를, 최대 단위보다 큰 요청은 풀을
+ * 거치지 않은 새 버퍼를 반환합니다. 풀에 보관되는 버퍼는 크기 단위 별 갯수와 전체 바이트 크기로 제한됩니다.
+ * 
+ * @author xeraph@eediom.com
+ * 
+ */
+public class ByteBufferPool {
+	// 4KB
+	private static final int MIN_SHIFT = 12;
+
+	// 16MB
+	private static final int MAX_SHIFT = 24;
+
+	// 64MB
+	private static final long DEFAULT_MAX_POOLED_BYTES = 64L * 1024 * 1024;
+
+	private final int maxPooledPerClass;
+	private final long maxPooledBytes;
+	private final List<ConcurrentLinkedQueue<ByteBuffer>> classes = new ArrayList<ConcurrentLinkedQueue<ByteBuffer>>();
+	private final List<AtomicInteger> pooledCounts = new ArrayList<AtomicInteger>();
+
+	// stats
+	private final AtomicLong acquireCount = new AtomicLong();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong releaseCount = new AtomicLong();
+	private final AtomicLong discardCount = new AtomicLong();
+	private final AtomicLong pooledBytes = new AtomicLong();
+
+	public ByteBufferPool(int maxPooledPerClass) {
+		this(maxPooledPerClass, DEFAULT_MAX_POOLED_BYTES);
+	}
+
+	/**
+	 * 크기 단위 별 최대 보관 갯수와 전체 최대 보관 바이트 크기를 지정하여 풀을 생성합니다. 한도를 넘는 반납 버퍼는 보관하지 않고
+	 * 버립니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public ByteBufferPool(int maxPooledPerClass, long maxPooledBytes) {
+		this.maxPooledPerClass = maxPooledPerClass;
+		this.maxPooledBytes = maxPooledBytes;
+		for (int shift = MIN_SHIFT; shift <= MAX_SHIFT; shift++) {
+			classes.add(new ConcurrentLinkedQueue<ByteBuffer>());
+			pooledCounts.add(new AtomicInteger());
+		}
+	}
+
+	/**
+	 * 최소 지정된 용량을 가진 버퍼를 반환합니다. 반환된 버퍼의 position은 0, limit은 capacity입니다.
+	 */
+	public ByteBuffer acquire(int capacity) {
+		acquireCount.incrementAndGet();
+		int index = classIndex(capacity);
+		if (index < 0)
+			return ByteBuffer.allocate(capacity);
+
+		ByteBuffer bb = classes.get(index).poll();
+		if (bb == null)
+			return ByteBuffer.allocate(1 << (index + MIN_SHIFT));
+
+		hitCount.incrementAndGet();
+		pooledCounts.get(index).decrementAndGet();
+		pooledBytes.addAndGet(-bb.capacity());
+		bb.clear();
+		return bb;
+	}
+
+	/**
+	 * 사용이 끝난 버퍼를 풀에 반납합니다. 풀에서 할당되지 않은 크기의 버퍼는 무시됩니다.
+	 */
+	public void release(ByteBuffer bb) {
+		if (bb == null || !bb.hasArray())
+			return;
+
+		releaseCount.incrementAndGet();
+		int capacity = bb.capacity();
+		int index = classIndex(capacity);
+		if (index < 0 || capacity != 1 << (index + MIN_SHIFT)) {
+			discardCount.incrementAndGet();
+			return;
+		}
+
+		AtomicInteger count = pooledCounts.get(index);
+		if (count.incrementAndGet() > maxPooledPerClass) {
+			count.decrementAndGet();
+			discardCount.incrementAndGet();
+			return;
+		}
+
+		// bursts of large buffers should not stay in heap
+		if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+			pooledBytes.addAndGet(-capacity);
+			count.decrementAndGet();
+			discardCount.incrementAndGet();
+			return;
+		}
+
+		classes.get(index).offer(bb);
+	}
+
+	/**
+	 * 버퍼 요청 횟수를 반환합니다.
+	 */
+	public long getAcquireCount() {
+		return acquireCount.get();
+	}
+
+	/**
+	 * 풀에 보관된 버퍼를 재사용한 횟수를 반환합니다.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * 버퍼 반납 횟수를 반환합니다.
+	 */
+	public long getReleaseCount() {
+		return releaseCount.get();
+	}
+
+	/**
+	 * 풀이 가득 찼거나 크기 단위가 맞지 않아 보관하지 않은 반납 버퍼 갯수를 반환합니다.
+	 */
+	public long getDiscardCount() {
+		return discardCount.get();
+	}
+
+	/**
+	 * 현재 풀에 보관 중인 버퍼의 총 바이트 크기를 반환합니다.
+	 */
+	public long getPooledBytes() {
+		return pooledBytes.get();
+	}
+
+	private int classIndex(int capacity) {
+		int shift = 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1);
+		if (shift > MAX_SHIFT)
+			return -1;
+
+		return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+	}
+}
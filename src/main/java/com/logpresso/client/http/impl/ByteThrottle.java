@@ -0,0 +1,63 @@
+package com.logpresso.client.http.impl;
+
+/**
+ * 바이트 단위로 메모리 사용량을 제한합니다. 사용량이 한도를 넘으면 획득을 대기시키며, 사용 중인 용량이 없으면 한도보다 큰 요청도
+ * 허용하여 교착 상태를 방지합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class ByteThrottle {
+	private long limit;
+	private long used;
+
+	public ByteThrottle(long limit) {
+		if (limit <= 0)
+			throw new IllegalArgumentException("limit should be positive");
+		this.limit = limit;
+	}
+
+	public synchronized boolean tryAcquire(long bytes) {
+		if (!hasRoom(bytes))
+			return false;
+
+		used += bytes;
+		return true;
+	}
+
+	public synchronized void acquire(long bytes) throws InterruptedException {
+		while (!hasRoom(bytes))
+			wait();
+
+		used += bytes;
+	}
+
+	public synchronized void release(long bytes) {
+		used -= bytes;
+		notifyAll();
+	}
+
+	/**
+	 * 지정된 용량을 대기 없이 획득할 수 있는지 확인합니다.
+	 */
+	public synchronized boolean hasRoom(long bytes) {
+		return used == 0 || used + bytes <= limit;
+	}
+
+	public synchronized long getUsed() {
+		return used;
+	}
+
+	public synchronized long getLimit() {
+		return limit;
+	}
+
+	public synchronized void setLimit(long limit) {
+		if (limit <= 0)
+			throw new IllegalArgumentException("limit should be positive");
+
+		this.limit = limit;
+		notifyAll();
+	}
+}
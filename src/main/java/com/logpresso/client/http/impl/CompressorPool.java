@@ -0,0 +1,140 @@
+package com.logpresso.client.http.impl;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 네이티브 zlib 상태를 가진 Deflater와 Inflater를 재사용합니다. 반납된 개체는 reset() 후 풀에 보관되며, 풀이 가득 찬
+ * 경우에는 즉시 end()를 호출하여 네이티브 메모리를 해제합니다.
+ * 
+ * @author xeraph@eediom.com
+ * 
+ */
+public class CompressorPool {
+	private final int maxPooled;
+	private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+	private final ConcurrentLinkedQueue<Inflater> inflaters = new ConcurrentLinkedQueue<Inflater>();
+	private final AtomicInteger pooledDeflaters = new AtomicInteger();
+	private final AtomicInteger pooledInflaters = new AtomicInteger();
+
+	// stats
+	private final AtomicLong acquireCount = new AtomicLong();
+	private final AtomicLong createCount = new AtomicLong();
+
+	private volatile boolean closed;
+
+	public CompressorPool(int maxPooled) {
+		this.maxPooled = maxPooled;
+	}
+
+	public Deflater acquireDeflater() {
+		acquireCount.incrementAndGet();
+		Deflater d = deflaters.poll();
+		if (d != null) {
+			pooledDeflaters.decrementAndGet();
+			return d;
+		}
+
+		createCount.incrementAndGet();
+		return new Deflater();
+	}
+
+	public void releaseDeflater(Deflater d) {
+		if (closed) {
+			d.end();
+			return;
+		}
+
+		if (pooledDeflaters.incrementAndGet() > maxPooled) {
+			pooledDeflaters.decrementAndGet();
+			d.end();
+			return;
+		}
+
+		d.reset();
+		deflaters.offer(d);
+
+		// close() may have drained pool before offer
+		if (closed && deflaters.remove(d)) {
+			pooledDeflaters.decrementAndGet();
+			d.end();
+		}
+	}
+
+	public Inflater acquireInflater() {
+		acquireCount.incrementAndGet();
+		Inflater i = inflaters.poll();
+		if (i != null) {
+			pooledInflaters.decrementAndGet();
+			return i;
+		}
+
+		createCount.incrementAndGet();
+		return new Inflater();
+	}
+
+	public void releaseInflater(Inflater i) {
+		if (closed) {
+			i.end();
+			return;
+		}
+
+		if (pooledInflaters.incrementAndGet() > maxPooled) {
+			pooledInflaters.decrementAndGet();
+			i.end();
+			return;
+		}
+
+		i.reset();
+		inflaters.offer(i);
+
+		// close() may have drained pool before offer
+		if (closed && inflaters.remove(i)) {
+			pooledInflaters.decrementAndGet();
+			i.end();
+		}
+	}
+
+	/**
+	 * 압축기 요청 횟수를 반환합니다.
+	 */
+	public long getAcquireCount() {
+		return acquireCount.get();
+	}
+
+	/**
+	 * 풀에 재사용 가능한 개체가 없어서 새로 생성한 압축기 갯수를 반환합니다.
+	 */
+	public long getCreateCount() {
+		return createCount.get();
+	}
+
+	/**
+	 * 현재 풀에 보관 중인 압축기 갯수를 반환합니다.
+	 */
+	public int getPooledCount() {
+		return pooledDeflaters.get() + pooledInflaters.get();
+	}
+
+	/**
+	 * 보관 중인 모든 압축기의 네이티브 메모리를 해제합니다. 이후 반납되는 압축기는 즉시 해제됩니다.
+	 */
+	public void close() {
+		closed = true;
+
+		Deflater d = null;
+		while ((d = deflaters.poll()) != null) {
+			pooledDeflaters.decrementAndGet();
+			d.end();
+		}
+
+		Inflater i = null;
+		while ((i = inflaters.poll()) != null) {
+			pooledInflaters.decrementAndGet();
+			i.end();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.logpresso.client.http.impl;
+
+import com.logpresso.client.InsertTuning;
+
+/**
+ * 테이블 하나의 insertBatch 인코딩 시간, 응답 시간, 대기열 길이를 관찰하여 배치 크기와 전송 대기 시간을 조정합니다. 최대 배치
+ * 크기와 최대 대기 시간은 호출할 때마다 전달되므로 설정 변경이 즉시 반영됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class InsertBatchController {
+	private static final int MIN_ROWS = 50;
+
+	// weight of new sample in moving average
+	private static final double ALPHA = 0.2;
+
+	private int batchRows = Integer.MAX_VALUE;
+	private long lingerMillis = -1;
+
+	// moving average of encode + round trip time per batch
+	private double avgMillis = -1;
+
+	// hill climbing state for throughput goal
+	private double lastThroughput;
+	private boolean growing = true;
+
+	/**
+	 * 현재 배치 크기를 반환합니다.
+	 */
+	public synchronized int getBatchRows(int maxRows) {
+		return Math.max(1, Math.min(batchRows, maxRows));
+	}
+
+	/**
+	 * 대기열의 첫 행이 전송되기까지 기다릴 수 있는 시간을 반환합니다.
+	 */
+	public synchronized long getLingerMillis(InsertTuning tuning, long latencyTarget, long maxLinger) {
+		if (tuning == InsertTuning.THROUGHPUT)
+			return maxLinger;
+
+		// no sample yet, split latency budget in half
+		if (lingerMillis < 0)
+			return Math.min(maxLinger, latencyTarget / 2);
+
+		return Math.min(maxLinger, lingerMillis);
+	}
+
+	/**
+	 * 전송이 완료된 배치의 관찰 결과를 반영합니다.
+	 * 
+	 * @param rows
+	 *            배치 행 갯수
+	 * @param encodeNanos
+	 *            배치 인코딩 시간
+	 * @param rttNanos
+	 *            insertBatch 요청 전송부터 응답 수신까지의 시간
+	 * @param backlog
+	 *            관찰 시점에 대기열에 남아 있는 행 갯수
+	 */
+	public synchronized void observe(InsertTuning tuning, int rows, long encodeNanos, long rttNanos, int backlog, int maxRows,
+			long latencyTarget) {
+		if (rows <= 0 || tuning == InsertTuning.STATIC)
+			return;
+
+		if (batchRows > maxRows)
+			batchRows = maxRows;
+
+		double millis = (encodeNanos + rttNanos) / 1000000.0;
+		avgMillis = avgMillis < 0 ? millis : avgMillis * (1 - ALPHA) + millis * ALPHA;
+
+		if (tuning == InsertTuning.LATENCY)
+			tuneLatency(rows, backlog, maxRows, latencyTarget);
+		else
+			tuneThroughput(rows, millis, maxRows);
+	}
+
+	private void tuneLatency(int rows, int backlog, int maxRows, long latencyTarget) {
+		if (avgMillis > latencyTarget) {
+			// sending itself is too slow, send smaller batches without waiting
+			lingerMillis = 0;
+			batchRows = Math.max(MIN_ROWS, batchRows * 3 / 4);
+			return;
+		}
+
+		// spend remaining budget on waiting for more rows
+		lingerMillis = (long) ((latencyTarget - avgMillis) / 2);
+
+		// queue is growing while latency is well below target, fewer and larger batches
+		if (backlog > batchRows && avgMillis < latencyTarget / 2.0)
+			batchRows = (int) Math.min(maxRows, batchRows * 5L / 4 + 1);
+	}
+
+	private void tuneThroughput(int rows, double millis, int maxRows) {
+		// batch was cut by linger, its size tells nothing about throughput
+		if (rows < batchRows / 2)
+			return;
+
+		double throughput = rows / Math.max(0.001, millis);
+		if (throughput < lastThroughput * 0.98)
+			growing = !growing;
+
+		lastThroughput = throughput;
+
+		if (growing)
+			batchRows = (int) Math.min(maxRows, batchRows * 5L / 4 + 1);
+		else
+			batchRows = Math.max(MIN_ROWS, batchRows * 4 / 5);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "batch rows=" + batchRows + ", linger=" + lingerMillis + "ms, avg=" + avgMillis + "ms";
+	}
+}
@@ -0,0 +1,103 @@
+package com.logpresso.client.http.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.logpresso.client.Tuple;
+import com.logpresso.client.TupleSchema;
+
+/**
+ * 입력 행을 받는 즉시 컬럼 배열에 추가합니다. insert()를 호출한 스레드에서 행-컬럼 변환을 수행하므로 플러셔는 완성된 컬럼 배열을
+ * 인코딩하고 압축하기만 하면 됩니다. 스레드 안전하지 않으므로 호출자가 동기화해야 합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class InsertColumnBuilder {
+	private final Map<String, Object[]> columns = new HashMap<String, Object[]>();
+	private int capacity;
+	private int size;
+
+	// column arrays of last seen schema, avoid lookup per field
+	private TupleSchema lastSchema;
+	private Object[][] schemaColumns;
+
+	public InsertColumnBuilder(int capacity) {
+		this.capacity = Math.max(16, capacity);
+	}
+
+	public void add(Tuple row) {
+		if (size == capacity)
+			grow();
+
+		TupleSchema schema = row.getSchema();
+		if (schema != null) {
+			if (schema != lastSchema) {
+				lastSchema = schema;
+				schemaColumns = new Object[schema.size()][];
+			}
+
+			for (int i = 0; i < schemaColumns.length; i++) {
+				Object value = row.getValue(i);
+				if (value == null)
+					continue;
+
+				Object[] items = schemaColumns[i];
+				if (items == null) {
+					items = column(schema.getName(i));
+					schemaColumns[i] = items;
+				}
+
+				items[size] = value;
+			}
+		} else {
+			for (Entry<String, Object> e : row.toMap().entrySet())
+				column(e.getKey())[size] = e.getValue();
+		}
+
+		size++;
+	}
+
+	/**
+	 * 추가된 행 갯수를 반환합니다.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 행 갯수에 맞게 잘라낸 컬럼 배열들을 반환합니다. 반환 후에는 더 이상 행을 추가할 수 없습니다.
+	 */
+	public Map<String, Object[]> finish() {
+		for (Entry<String, Object[]> e : columns.entrySet()) {
+			if (e.getValue().length != size)
+				e.setValue(Arrays.copyOf(e.getValue(), size));
+		}
+
+		lastSchema = null;
+		schemaColumns = null;
+		return columns;
+	}
+
+	private Object[] column(String name) {
+		Object[] items = columns.get(name);
+		if (items == null) {
+			items = new Object[capacity];
+			columns.put(name, items);
+		}
+		return items;
+	}
+
+	private void grow() {
+		capacity *= 2;
+		for (Entry<String, Object[]> e : columns.entrySet())
+			e.setValue(Arrays.copyOf(e.getValue(), capacity));
+
+		// cached arrays are replaced
+		lastSchema = null;
+		schemaColumns = null;
+	}
+}
@@ -0,0 +1,461 @@
+package com.logpresso.client.http.impl;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.araqne.codec.EncodingRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.logpresso.client.InsertSpillConfig;
+import com.logpresso.client.InsertSpillConfig.FsyncPolicy;
+
+/**
+ * 입력 대기열을 넘친 행들을 메모리 매핑된 세그먼트 파일에 순서대로 기록하고, 재전송이 확인된 기록을 제거합니다. 각 기록의 구조는 아래와
+ * 같습니다.
+ * 
+ * <pre>
+ * length(4) crc32(4) state(1) payload(length)
+ * </pre>
+ * 
+ * 재전송이 확인되면 state가 1로 바뀌며, 모든 기록이 확인된 세그먼트 파일은 삭제됩니다. 재시작 시에는 CRC가 일치하는 기록까지만
+ * 복구하고, 확인되지 않은 기록을 다시 전송합니다. 전송 중 장애가 발생하면 같은 기록이 중복 전송될 수 있습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class InsertSpillLog {
+	private static final int HEADER_SIZE = 9;
+	private static final byte PENDING = 0;
+	private static final byte ACKED = 1;
+	private static final String PREFIX = "spill-";
+	private static final String SUFFIX = ".seg";
+	private static final String LOCK_FILE = "spill.lock";
+
+	private final Logger slog = LoggerFactory.getLogger(InsertSpillLog.class);
+	private final File dir;
+	private final long maxBytes;
+	private final int segmentSize;
+	private final FsyncPolicy fsyncPolicy;
+
+	// exclusive lock of spill directory, released on close
+	private RandomAccessFile lockFile;
+	private FileLock lock;
+
+	// guarded by this
+	private final List<Segment> segments = new ArrayList<Segment>();
+	private Segment active;
+	private long nextSeq;
+	private long usedBytes;
+	private boolean closed;
+
+	// updated in synchronized block, read without lock
+	private volatile long pendingCount;
+
+	public InsertSpillLog(InsertSpillConfig config) throws IOException {
+		if (config.getDir() == null)
+			throw new IllegalArgumentException("spill directory should be not null");
+
+		this.dir = config.getDir();
+		this.maxBytes = config.getMaxBytes();
+		this.segmentSize = config.getSegmentSize();
+		this.fsyncPolicy = config.getFsyncPolicy();
+
+		dir.mkdirs();
+		if (!dir.isDirectory())
+			throw new IOException("cannot create spill directory: " + dir.getAbsolutePath());
+
+		lockDirectory();
+		try {
+			recover();
+		} catch (IOException e) {
+			unlockDirectory();
+			throw e;
+		}
+	}
+
+	// other clients or processes sharing same directory would corrupt or
+	// replay same segments twice
+	private void lockDirectory() throws IOException {
+		lockFile = new RandomAccessFile(new File(dir, LOCK_FILE), "rw");
+		try {
+			lock = lockFile.getChannel().tryLock();
+		} catch (OverlappingFileLockException e) {
+			lock = null;
+		} catch (IOException e) {
+			lockFile.close();
+			throw e;
+		}
+
+		if (lock == null) {
+			lockFile.close();
+			throw new IOException("spill directory is used by another client: " + dir.getAbsolutePath());
+		}
+	}
+
+	private void unlockDirectory() {
+		try {
+			if (lock != null)
+				lock.release();
+		} catch (IOException e) {
+			slog.warn("logpresso: cannot release spill directory lock", e);
+		}
+
+		try {
+			if (lockFile != null)
+				lockFile.close();
+		} catch (IOException e) {
+		}
+
+		lock = null;
+		lockFile = null;
+	}
+
+	private synchronized void recover() throws IOException {
+		File[] files = dir.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+			}
+		});
+
+		if (files == null)
+			return;
+
+		// zero padded sequence, lexical order is append order
+		Arrays.sort(files);
+
+		long pending = 0;
+		for (File f : files) {
+			String name = f.getName();
+			long seq = 0;
+			try {
+				seq = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+			} catch (NumberFormatException e) {
+				slog.warn("logpresso: ignore unknown spill file [{}]", f.getAbsolutePath());
+				continue;
+			}
+
+			nextSeq = Math.max(nextSeq, seq + 1);
+
+			Segment seg = new Segment(f, (int) f.length());
+			seg.recover();
+			seg.sealed = true;
+
+			if (seg.pending == 0) {
+				seg.delete();
+				continue;
+			}
+
+			segments.add(seg);
+			usedBytes += seg.capacity;
+			pending += seg.pending;
+		}
+
+		pendingCount = pending;
+		if (pending > 0)
+			slog.info("logpresso: recovered [{}] spilled insert records from [{}]", pending, dir.getAbsolutePath());
+	}
+
+	/**
+	 * 행 목록을 스필 로그에 추가합니다.
+	 * 
+	 * @return 디스크 용량 한도를 초과하거나 이미 닫힌 경우 false
+	 */
+	public boolean append(String tableName, List<Map<String, Object>> rows) throws IOException {
+		Map<String, Object> m = new HashMap<String, Object>();
+		m.put("table", tableName);
+		m.put("rows", rows);
+
+		int length = EncodingRule.length(m);
+		ByteBuffer payload = ByteBuffer.allocate(length);
+		EncodingRule.encode(payload, m);
+
+		CRC32 crc = new CRC32();
+		crc.update(payload.array(), 0, length);
+
+		synchronized (this) {
+			if (closed)
+				return false;
+
+			int required = HEADER_SIZE + length;
+			if (active == null || active.capacity - active.writePos < required) {
+				int capacity = Math.max(segmentSize, required);
+				if (usedBytes + capacity > maxBytes)
+					return false;
+
+				if (active != null)
+					seal(active);
+
+				active = createSegment(capacity);
+			}
+
+			active.write(payload.array(), length, (int) crc.getValue());
+			pendingCount++;
+
+			if (fsyncPolicy == FsyncPolicy.EVERY_RECORD)
+				active.buf.force();
+
+			return true;
+		}
+	}
+
+	/**
+	 * 아직 읽지 않은 다음 기록을 반환합니다. 반환된 기록은 ack()를 호출하기 전까지 디스크에 남아 있습니다.
+	 * 
+	 * @return 읽을 기록이 없으면 null
+	 */
+	public synchronized Record next() {
+		if (closed)
+			return null;
+
+		for (Segment seg : segments) {
+			while (seg.readPos < seg.writePos) {
+				int offset = seg.readPos;
+				int length = seg.buf.getInt(offset);
+				seg.readPos += HEADER_SIZE + length;
+
+				if (seg.buf.get(offset + 8) == ACKED)
+					continue;
+
+				try {
+					return seg.read(offset, length);
+				} catch (Throwable t) {
+					slog.error("logpresso: cannot decode spilled insert record, dropped", t);
+					markAcked(seg, offset);
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 재전송이 확인된 기록을 완료 처리합니다. 세그먼트의 모든 기록이 완료되면 세그먼트 파일을 삭제합니다.
+	 */
+	public synchronized void ack(Record record) {
+		if (closed)
+			return;
+
+		markAcked(record.segment, record.offset);
+		purge();
+	}
+
+	/**
+	 * 읽기 위치를 처음으로 되돌립니다. 완료되지 않은 기록들을 다시 읽을 수 있습니다.
+	 */
+	public synchronized void rewind() {
+		for (Segment seg : segments)
+			seg.readPos = 0;
+	}
+
+	/**
+	 * 완료되지 않은 기록이 없으면 true를 반환합니다.
+	 */
+	public boolean isEmpty() {
+		return pendingCount == 0;
+	}
+
+	/**
+	 * 완료되지 않은 기록 갯수를 반환합니다.
+	 */
+	public long getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * 세그먼트 파일들이 차지하는 디스크 용량을 반환합니다.
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	public synchronized void close() {
+		if (closed)
+			return;
+
+		closed = true;
+		for (Segment seg : segments) {
+			if (fsyncPolicy != FsyncPolicy.NONE)
+				seg.buf.force();
+		}
+
+		segments.clear();
+		active = null;
+		unlockDirectory();
+	}
+
+	private void markAcked(Segment seg, int offset) {
+		if (seg.buf.get(offset + 8) == ACKED)
+			return;
+
+		seg.buf.put(offset + 8, ACKED);
+		seg.pending--;
+		pendingCount--;
+	}
+
+	private void seal(Segment seg) {
+		if (fsyncPolicy != FsyncPolicy.NONE)
+			seg.buf.force();
+
+		seg.sealed = true;
+		purge();
+	}
+
+	private void purge() {
+		Iterator<Segment> it = segments.iterator();
+		while (it.hasNext()) {
+			Segment seg = it.next();
+			if (!seg.sealed || seg.pending > 0)
+				continue;
+
+			it.remove();
+			usedBytes -= seg.capacity;
+			if (!seg.delete())
+				slog.warn("logpresso: cannot delete spill segment [{}]", seg.file.getAbsolutePath());
+		}
+	}
+
+	private Segment createSegment(int capacity) throws IOException {
+		File f = new File(dir, String.format("%s%020d%s", PREFIX, nextSeq++, SUFFIX));
+		Segment seg = new Segment(f, capacity);
+		segments.add(seg);
+		usedBytes += capacity;
+		return seg;
+	}
+
+	/**
+	 * 스필 로그에서 읽은 기록을 표현합니다.
+	 */
+	public static class Record {
+		private final Segment segment;
+		private final int offset;
+		private final String tableName;
+		private final List<Map<String, Object>> rows;
+
+		private Record(Segment segment, int offset, String tableName, List<Map<String, Object>> rows) {
+			this.segment = segment;
+			this.offset = offset;
+			this.tableName = tableName;
+			this.rows = rows;
+		}
+
+		public String getTableName() {
+			return tableName;
+		}
+
+		public List<Map<String, Object>> getRows() {
+			return rows;
+		}
+	}
+
+	private static class Segment {
+		private final File file;
+		private final int capacity;
+		private MappedByteBuffer buf;
+		private int writePos;
+		private int readPos;
+		private int pending;
+		private boolean sealed;
+
+		public Segment(File file, int capacity) throws IOException {
+			this.file = file;
+			this.capacity = capacity;
+
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				if (raf.length() < capacity)
+					raf.setLength(capacity);
+
+				// mapping remains valid after channel is closed
+				this.buf = raf.getChannel().map(MapMode.READ_WRITE, 0, capacity);
+			} finally {
+				raf.close();
+			}
+		}
+
+		// scan until zero length, truncated or corrupted record
+		public void recover() {
+			int pos = 0;
+			while (pos + HEADER_SIZE <= capacity) {
+				int length = buf.getInt(pos);
+				if (length <= 0 || pos + HEADER_SIZE + length > capacity)
+					break;
+
+				byte[] b = new byte[length];
+				ByteBuffer d = buf.duplicate();
+				d.position(pos + HEADER_SIZE);
+				d.get(b);
+
+				CRC32 crc = new CRC32();
+				crc.update(b);
+				if ((int) crc.getValue() != buf.getInt(pos + 4))
+					break;
+
+				if (buf.get(pos + 8) == PENDING)
+					pending++;
+
+				pos += HEADER_SIZE + length;
+			}
+
+			writePos = pos;
+		}
+
+		// length is written last, torn record is detected by crc on recovery
+		public void write(byte[] payload, int length, int crc) {
+			int pos = writePos;
+			buf.putInt(pos + 4, crc);
+			buf.put(pos + 8, PENDING);
+
+			ByteBuffer d = buf.duplicate();
+			d.position(pos + HEADER_SIZE);
+			d.put(payload, 0, length);
+
+			buf.putInt(pos, length);
+			writePos = pos + HEADER_SIZE + length;
+			pending++;
+		}
+
+		@SuppressWarnings("unchecked")
+		public Record read(int offset, int length) {
+			ByteBuffer d = buf.duplicate();
+			d.position(offset + HEADER_SIZE);
+			d.limit(offset + HEADER_SIZE + length);
+
+			Map<String, Object> m = EncodingRule.decodeMap(d.slice());
+			String tableName = (String) m.get("table");
+
+			List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+			Object o = m.get("rows");
+			if (o instanceof Object[]) {
+				for (Object row : (Object[]) o)
+					rows.add((Map<String, Object>) row);
+			} else if (o instanceof List) {
+				for (Object row : (List<Object>) o)
+					rows.add((Map<String, Object>) row);
+			}
+
+			return new Record(this, offset, tableName, rows);
+		}
+
+		public boolean delete() {
+			buf = null;
+			return file.delete();
+		}
+	}
+}
@@ -42,10 +42,38 @@ import com.logpresso.client.Message;
  * 
  */
 public class MessageCodec {
+	// use single pass json reader/writer instead of org.json tree
+	private static volatile boolean streaming = "streaming".equals(System.getProperty("logpresso.msgbus.codec"));
+
 	private MessageCodec() {
 	}
 
+	/**
+	 * 스트리밍 JSON 코덱 사용 여부를 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public static boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * 스트리밍 JSON 코덱 사용 여부를 설정합니다. 스트리밍 코덱은 org.json 트리를 만들지 않고 전문을 한 번에 읽어 최종 매개변수
+	 * 개체를 생성하며, 인코딩 시 매개변수를 복사하지 않습니다. logpresso.msgbus.codec 시스템 속성을 streaming으로 지정하여
+	 * 기본값을 바꿀 수 있습니다.
+	 * 
+	 * @param streaming
+	 *            스트리밍 코덱을 사용하려면 true
+	 * @since 1.2.0
+	 */
+	public static void setStreaming(boolean streaming) {
+		MessageCodec.streaming = streaming;
+	}
+
 	public static Message decode(String text) {
+		if (streaming)
+			return StreamingMessageCodec.decode(text);
+
 		try {
 			JSONTokener tokenizer = new JSONTokener(new StringReader(text));
 			JSONArray container = (JSONArray) tokenizer.nextValue();
@@ -77,6 +105,13 @@ public class MessageCodec {
 	}
 
 	public static String encode(Message msg) {
+		return encode(msg, msg.getParameters());
+	}
+
+	private static String encode(Message msg, Map<String, Object> params) {
+		if (streaming)
+			return StreamingMessageCodec.encode(msg, params);
+
 		Map<String, Object> headers = new HashMap<String, Object>();
 		headers.put("guid", msg.getGuid());
 		if (msg.getRequestId() != null)
@@ -93,7 +128,7 @@ public class MessageCodec {
 			headers.put("errorMessage", msg.getErrorMessage());
 		}
 
-		return jsonize(headers, msg.getParameters());
+		return jsonize(headers, params);
 	}
 
 	private static Map<String, Object> parse(JSONObject obj) {
@@ -0,0 +1,178 @@
+package com.logpresso.client.http.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 테이블, 파서, 로그 수집기, 인덱스 조회 RPC의 응답 매개변수를 보관합니다. 항목은 만료 시간이 지나면 다시 조회되고, 최대 항목 수를
+ * 넘으면 가장 오래 사용되지 않은 항목부터 제거됩니다. 캐시된 응답은 조회할 때마다 복사하여 반환하므로 호출자가 수정해도 캐시에 영향이
+ * 없습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class MetadataCache {
+	private final int maxEntries;
+	private final long ttlMillis;
+
+	// access ordered, guarded by this
+	private final LinkedHashMap<String, CachedItem> items;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	// incremented by every invalidation, guarded by this
+	private long generation;
+
+	public MetadataCache(int maxEntries, long ttlMillis) {
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlMillis;
+		this.items = new LinkedHashMap<String, CachedItem>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Entry<String, CachedItem> eldest) {
+				if (size() <= MetadataCache.this.maxEntries)
+					return false;
+
+				evictionCount.incrementAndGet();
+				return true;
+			}
+		};
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	/**
+	 * 만료되지 않은 응답 매개변수의 복사본을 반환합니다. 없으면 null을 반환합니다.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Object> get(String key) {
+		CachedItem item;
+		synchronized (this) {
+			item = items.get(key);
+			if (item != null && System.currentTimeMillis() >= item.expireAt) {
+				items.remove(key);
+				evictionCount.incrementAndGet();
+				item = null;
+			}
+		}
+
+		if (item == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+
+		hitCount.incrementAndGet();
+		return (Map<String, Object>) copy(item.value);
+	}
+
+	/**
+	 * 현재 무효화 세대를 반환합니다. 조회 RPC를 호출하기 전에 세대를 얻고 put()에 전달하면, 조회 중에 발생한 무효화로 인해 오래된
+	 * 응답이 캐시되는 것을 방지할 수 있습니다.
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * 응답 매개변수를 캐시합니다. 주어진 세대 이후에 무효화가 발생했으면 캐시하지 않습니다.
+	 */
+	@SuppressWarnings("unchecked")
+	public void put(String key, Map<String, Object> value, long generation) {
+		CachedItem item = new CachedItem((Map<String, Object>) copy(value), System.currentTimeMillis() + ttlMillis);
+		synchronized (this) {
+			if (this.generation == generation)
+				items.put(key, item);
+		}
+	}
+
+	public synchronized void invalidate(String key) {
+		generation++;
+		if (items.remove(key) != null)
+			invalidationCount.incrementAndGet();
+	}
+
+	/**
+	 * 주어진 접두어로 시작하는 모든 항목을 제거합니다.
+	 */
+	public synchronized void invalidatePrefix(String prefix) {
+		generation++;
+		Iterator<String> it = items.keySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().startsWith(prefix)) {
+				it.remove();
+				invalidationCount.incrementAndGet();
+			}
+		}
+	}
+
+	public synchronized void clear() {
+		generation++;
+		invalidationCount.addAndGet(items.size());
+		items.clear();
+	}
+
+	public synchronized int size() {
+		return items.size();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	public long getInvalidationCount() {
+		return invalidationCount.get();
+	}
+
+	// rpc response consists of maps, lists and immutable scalars
+	private static Object copy(Object value) {
+		if (value instanceof Map) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet())
+				m.put((String) e.getKey(), copy(e.getValue()));
+			return m;
+		} else if (value instanceof List) {
+			List<?> src = (List<?>) value;
+			List<Object> l = new ArrayList<Object>(src.size());
+			for (Object o : src)
+				l.add(copy(o));
+			return l;
+		}
+
+		return value;
+	}
+
+	private static class CachedItem {
+		private final Map<String, Object> value;
+		private final long expireAt;
+
+		public CachedItem(Map<String, Object> value, long expireAt) {
+			this.value = value;
+			this.expireAt = expireAt;
+		}
+	}
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.http.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.logpresso.client.AbstractSession;
+import com.logpresso.client.AsyncSession;
+import com.logpresso.client.Message;
+import com.logpresso.client.RpcCallback;
+import com.logpresso.client.RpcFuture;
+import com.logpresso.client.TrapDispatchStats;
+
+/**
+ * 같은 호스트에 연결된 여러 개의 세션을 하나의 세션처럼 사용합니다. RPC 요청은 첫 번째 세션을 제외한 열린 세션 중 응답 대기
+ * 중인 요청이 가장 적은 세션으로 전송되므로, 대량 입력이나 쿼리 결과 조회가 다른 쿼리의 상태 조회나 중지와 같은 제어 요청을
+ * 지연시키지 않습니다. 첫 번째 세션은 다른 세션이 모두 닫힌 경우에만 RPC 요청에 사용됩니다.
+ * <p>
+ * 로그 쿼리는 서버 세션에 속하므로, 쿼리를 생성한 세션이 해당 쿼리의 시작, 중지, 결과 조회, 삭제 요청과 쿼리 트랩 구독을 모두
+ * 처리합니다. 쿼리 목록 조회는 모든 세션에 전송하여 결과를 합칩니다. 쿼리와 관계 없는 트랩은 첫 번째 세션에서 구독합니다.
+ * <p>
+ * 어느 한 세션이라도 닫히면 풀 전체가 닫힌 것으로 간주하며, 트랩 리스너에는 한 번만 종료가 통지되고 나머지 세션도 닫힙니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class PooledSession extends AbstractSession {
+	private static final String QUERY_PLUGIN = "org.araqne.logdb.msgbus.LogQueryPlugin.";
+	private static final String QUERY_TRAP = "logdb-query-";
+
+	private final Logger logger = LoggerFactory.getLogger(PooledSession.class);
+	private final Member[] members;
+
+	// non-query traps are pinned to primary session
+	private final AsyncSession primary;
+
+	// server side query belongs to the session which created it
+	private final ConcurrentMap<Integer, Member> owners = new ConcurrentHashMap<Integer, Member>();
+
+	private final AtomicBoolean closeNotified = new AtomicBoolean();
+
+	public PooledSession(List<? extends AsyncSession> sessions) {
+		if (sessions.isEmpty())
+			throw new IllegalArgumentException("empty session pool");
+
+		this.members = new Member[sessions.size()];
+		for (int i = 0; i < members.length; i++)
+			members[i] = new Member(sessions.get(i));
+
+		this.primary = sessions.get(0);
+
+		TrapListener fanIn = new FanInListener();
+		for (Member m : members)
+			m.session.addListener(fanIn);
+	}
+
+	/**
+	 * 풀에 포함된 세션 갯수를 반환합니다.
+	 */
+	public int getPoolSize() {
+		return members.length;
+	}
+
+	/**
+	 * 풀에 포함된 세션 중 하나라도 닫혀 있으면 true를 반환합니다.
+	 */
+	@Override
+	public boolean isClosed() {
+		for (Member m : members)
+			if (m.session.isClosed())
+				return true;
+		return false;
+	}
+
+	/**
+	 * 모든 세션의 트랩 디스패처 통계를 합산하여 반환합니다. 대기열 크기는 작업 스레드 당 크기입니다.
+	 */
+	@Override
+	public TrapDispatchStats getTrapDispatchStats() {
+		TrapDispatchStats sum = new TrapDispatchStats();
+		for (Member m : members) {
+			TrapDispatchStats stats = m.session.getTrapDispatchStats();
+			sum.setThreadCount(sum.getThreadCount() + stats.getThreadCount());
+			sum.setQueueSize(Math.max(sum.getQueueSize(), stats.getQueueSize()));
+			sum.setQueuedCount(sum.getQueuedCount() + stats.getQueuedCount());
+			sum.setDispatchCount(sum.getDispatchCount() + stats.getDispatchCount());
+			sum.setOverflowCount(sum.getOverflowCount() + stats.getOverflowCount());
+			sum.setOverflowWaitMillis(sum.getOverflowWaitMillis() + stats.getOverflowWaitMillis());
+		}
+		return sum;
+	}
+
+	/**
+	 * 모든 세션에 로그인합니다. 다른 세션의 접속을 끊지 않도록 강제 로그인은 첫 번째 세션에만 적용됩니다.
+	 */
+	@Override
+	public void login(String loginName, String password, boolean force, int timeout) throws IOException {
+		for (int i = 0; i < members.length; i++)
+			members[i].session.login(loginName, password, i == 0 ? force : false, timeout);
+		isLogin = true;
+	}
+
+	@Override
+	public void logout() throws IOException {
+		for (Member m : members) {
+			if (!m.session.isClosed())
+				m.session.logout();
+		}
+	}
+
+	@Override
+	public Message rpc(Message req, int timeout) throws IOException, TimeoutException {
+		if (isQueryList(req))
+			return listQueries(req, timeout);
+
+		Member m = route(req);
+		m.inflight.incrementAndGet();
+		try {
+			Message resp = m.session.rpc(req, timeout);
+			track(req, resp, m);
+			return resp;
+		} finally {
+			m.inflight.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void rpc(final Message req, final RpcCallback callback) throws IOException {
+		if (isQueryList(req)) {
+			listQueries(req, callback);
+			return;
+		}
+
+		final Member m = route(req);
+		m.inflight.incrementAndGet();
+		try {
+			m.session.rpc(req, new RpcCallback() {
+				@Override
+				public void onResponse(Message resp) {
+					m.inflight.decrementAndGet();
+					track(req, resp, m);
+					callback.onResponse(resp);
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					m.inflight.decrementAndGet();
+					callback.onFailure(t);
+				}
+			});
+		} catch (IOException e) {
+			m.inflight.decrementAndGet();
+			throw e;
+		}
+	}
+
+	// query requests go to owner session, others to least in-flight session
+	private Member route(Message req) {
+		String method = req.getMethod();
+		if (method == null || !method.startsWith(QUERY_PLUGIN) || method.equals(QUERY_PLUGIN + "createQuery"))
+			return select();
+
+		Object id = req.getParameters() != null ? req.getParameters().get("id") : null;
+		if (!(id instanceof Integer))
+			return select();
+
+		return owner((Integer) id);
+	}
+
+	// unknown query is assumed to belong to primary session
+	private Member owner(int queryId) {
+		Member m = owners.get(queryId);
+		return m != null ? m : members[0];
+	}
+
+	private void track(Message req, Message resp, Member m) {
+		if (resp.getErrorCode() != null)
+			return;
+
+		String method = req.getMethod();
+		if (method.equals(QUERY_PLUGIN + "createQuery")) {
+			owners.put(resp.getInt("id"), m);
+		} else if (method.equals(QUERY_PLUGIN + "removeQuery")) {
+			Object id = req.getParameters().get("id");
+			if (id instanceof Integer)
+				owners.remove(id);
+		}
+	}
+
+	// least in-flight open session, primary is used only if others are closed
+	private Member select() {
+		Member selected = null;
+		int min = Integer.MAX_VALUE;
+		for (int i = 1; i < members.length; i++) {
+			Member m = members[i];
+			if (m.session.isClosed())
+				continue;
+
+			int inflight = m.inflight.get();
+			if (inflight < min) {
+				selected = m;
+				min = inflight;
+				if (min == 0)
+					break;
+			}
+		}
+
+		return selected != null ? selected : members[0];
+	}
+
+	private boolean isQueryList(Message req) {
+		return members.length > 1 && (QUERY_PLUGIN + "queries").equals(req.getMethod());
+	}
+
+	private Message listQueries(Message req, int timeout) throws IOException, TimeoutException {
+		List<Message> responses = new ArrayList<Message>();
+		List<Member> sources = new ArrayList<Member>();
+		for (Member m : openMembers()) {
+			responses.add(m.session.rpc(copy(req), timeout));
+			sources.add(m);
+		}
+
+		return mergeQueries(responses, sources);
+	}
+
+	private void listQueries(Message req, final RpcCallback callback) throws IOException {
+		final List<Member> sources = openMembers();
+		final Message[] responses = new Message[sources.size()];
+		final AtomicInteger remaining = new AtomicInteger(sources.size());
+		final AtomicBoolean failed = new AtomicBoolean();
+
+		for (int i = 0; i < sources.size(); i++) {
+			final int index = i;
+			sources.get(i).session.rpc(copy(req), new RpcCallback() {
+				@Override
+				public void onResponse(Message resp) {
+					responses[index] = resp;
+					if (remaining.decrementAndGet() == 0 && !failed.get())
+						callback.onResponse(mergeQueries(Arrays.asList(responses), sources));
+				}
+
+				@Override
+				public void onFailure(Throwable t) {
+					if (failed.compareAndSet(false, true))
+						callback.onFailure(t);
+				}
+			});
+		}
+	}
+
+	private List<Member> openMembers() {
+		List<Member> l = new ArrayList<Member>();
+		for (Member m : members)
+			if (!m.session.isClosed())
+				l.add(m);
+
+		if (l.isEmpty())
+			l.add(members[0]);
+		return l;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Message mergeQueries(List<Message> responses, List<Member> sources) {
+		List<Object> merged = new ArrayList<Object>();
+		Set<Object> ids = new HashSet<Object>();
+		for (int i = 0; i < responses.size(); i++) {
+			List<Object> l = (List<Object>) responses.get(i).getParameters().get("queries");
+			if (l == null)
+				continue;
+
+			for (Object o : l) {
+				Object id = ((Map<String, Object>) o).get("id");
+				if (!ids.add(id))
+					continue;
+
+				merged.add(o);
+				if (id instanceof Integer && !owners.containsKey(id))
+					owners.putIfAbsent((Integer) id, sources.get(i));
+			}
+		}
+
+		Message resp = responses.get(0);
+		Map<String, Object> params = new HashMap<String, Object>(resp.getParameters());
+		params.put("queries", merged);
+		resp.setParameters(params);
+		return resp;
+	}
+
+	private static Message copy(Message req) {
+		Message m = new Message();
+		m.setMethod(req.getMethod());
+		m.setParameters(req.getParameters());
+		return m;
+	}
+
+	// query traps are subscribed on owner session
+	private AsyncSession trapSession(String callbackName) {
+		if (!callbackName.startsWith(QUERY_TRAP))
+			return primary;
+
+		int i = callbackName.length();
+		while (i > 0 && Character.isDigit(callbackName.charAt(i - 1)))
+			i--;
+
+		if (i == callbackName.length() || callbackName.length() - i > 9)
+			return primary;
+
+		return owner(Integer.parseInt(callbackName.substring(i))).session;
+	}
+
+	@Override
+	public void registerTrap(String callbackName) throws IOException {
+		trapSession(callbackName).registerTrap(callbackName);
+	}
+
+	@Override
+	public RpcFuture<Message> registerTrapAsync(String callbackName) {
+		return trapSession(callbackName).registerTrapAsync(callbackName);
+	}
+
+	@Override
+	public void unregisterTrap(String callbackName) throws IOException {
+		trapSession(callbackName).unregisterTrap(callbackName);
+	}
+
+	@Override
+	public RpcFuture<Message> unregisterTrapAsync(String callbackName) {
+		return trapSession(callbackName).unregisterTrapAsync(callbackName);
+	}
+
+	@Override
+	public void close() throws IOException {
+		super.close();
+		closeMembers();
+	}
+
+	private void closeMembers() {
+		for (Member m : members) {
+			try {
+				m.session.close();
+			} catch (Throwable t) {
+				logger.error("logpresso: cannot close pooled session " + m.session, t);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PooledSession [primary=" + primary + ", size=" + members.length + "]";
+	}
+
+	private static class Member {
+		private final AsyncSession session;
+		private final AtomicInteger inflight = new AtomicInteger();
+
+		public Member(AsyncSession session) {
+			this.session = session;
+		}
+	}
+
+	// forwards traps of all sessions, notifies close only once
+	private class FanInListener implements TrapListener {
+		@Override
+		public void onTrap(Message msg) {
+			for (TrapListener listener : listeners) {
+				try {
+					listener.onTrap(msg);
+				} catch (Throwable t) {
+					logger.error("logpresso: trap listener should not throw any exception", t);
+				}
+			}
+		}
+
+		@Override
+		public void onClose(Throwable t) {
+			if (!closeNotified.compareAndSet(false, true))
+				return;
+
+			for (TrapListener listener : listeners) {
+				try {
+					listener.onClose(t);
+				} catch (Throwable t2) {
+					logger.error("logpresso: trap listener should not throw any exception", t2);
+				}
+			}
+
+			// pool cannot serve queries of closed session
+			isClosed = true;
+			closeMembers();
+		}
+	}
+}
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.http.impl;
+
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.logpresso.client.Message;
+
+/**
+ * 메시지버스 JSON 전문을 중간 트리 없이 한 번에 읽고 씁니다. 디코딩 시에는 문자열을 직접 스캔하여 최종 매개변수 Map과 List를
+ * 바로 생성하고, 인코딩 시에는 매개변수를 복사하지 않고 날짜 값을 변환하면서 출력합니다. 출력 형식은 MessageCodec의 기본
+ * 코덱과 호환됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class StreamingMessageCodec {
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private StreamingMessageCodec() {
+	}
+
+	@SuppressWarnings("unchecked")
+	public static Message decode(String text) {
+		try {
+			Parser parser = new Parser(text);
+			List<Object> container = (List<Object>) parser.parse();
+			Map<String, Object> header = (Map<String, Object>) container.get(0);
+			Map<String, Object> body = (Map<String, Object>) container.get(1);
+
+			Message msg = new Message();
+			msg.setGuid(((String) header.get("guid")).trim());
+			msg.setType(Message.Type.valueOf(((String) header.get("type")).trim()));
+			msg.setSource((String) header.get("source"));
+			msg.setTarget((String) header.get("target"));
+			msg.setMethod(((String) header.get("method")).trim());
+
+			if (header.get("requestId") != null)
+				msg.setRequestId(((String) header.get("requestId")).trim());
+
+			if (header.containsKey("errorCode")) {
+				msg.setErrorCode((String) header.get("errorCode"));
+				msg.setErrorMessage((String) header.get("errorMessage"));
+			}
+
+			msg.setParameters(body);
+			return msg;
+		} catch (Throwable t) {
+			throw new IllegalStateException("json parse error: " + text, t);
+		}
+	}
+
+	public static String encode(Message msg, Map<String, Object> params) {
+		StringBuilder sb = new StringBuilder(1024);
+		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ssZ");
+
+		sb.append("[{");
+		writeField(sb, "guid", msg.getGuid(), true);
+		if (msg.getRequestId() != null)
+			writeField(sb, "requestId", msg.getRequestId(), false);
+
+		writeField(sb, "type", msg.getType().toString(), false);
+		writeField(sb, "method", msg.getMethod(), false);
+		writeField(sb, "session", msg.getSession(), false);
+		writeField(sb, "source", msg.getSource(), false);
+		writeField(sb, "target", msg.getTarget(), false);
+
+		if (msg.getErrorCode() != null) {
+			writeField(sb, "errorCode", msg.getErrorCode(), false);
+			writeField(sb, "errorMessage", msg.getErrorMessage(), false);
+		}
+
+		sb.append("},");
+		if (params == null)
+			sb.append("{}");
+		else
+			writeValue(sb, params, dateFormat);
+		sb.append(']');
+
+		return sb.toString();
+	}
+
+	private static void writeField(StringBuilder sb, String key, String value, boolean first) {
+		if (!first)
+			sb.append(',');
+		writeString(sb, key);
+		sb.append(':');
+		if (value == null)
+			sb.append("null");
+		else
+			writeString(sb, value);
+	}
+
+	private static void writeValue(StringBuilder sb, Object value, SimpleDateFormat dateFormat) {
+		if (value == null) {
+			sb.append("null");
+		} else if (value instanceof String) {
+			writeString(sb, (String) value);
+		} else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			sb.append(value.toString());
+		} else if (value instanceof Number) {
+			writeNumber(sb, (Number) value);
+		} else if (value instanceof Boolean) {
+			sb.append(value.toString());
+		} else if (value instanceof Date) {
+			writeString(sb, dateFormat.format((Date) value));
+		} else if (value instanceof Map) {
+			sb.append('{');
+			boolean first = true;
+			for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+				if (!first)
+					sb.append(',');
+				first = false;
+				writeString(sb, String.valueOf(e.getKey()));
+				sb.append(':');
+				writeValue(sb, e.getValue(), dateFormat);
+			}
+			sb.append('}');
+		} else if (value instanceof Collection) {
+			sb.append('[');
+			boolean first = true;
+			for (Object o : (Collection<?>) value) {
+				if (!first)
+					sb.append(',');
+				first = false;
+				writeValue(sb, o, dateFormat);
+			}
+			sb.append(']');
+		} else if (value.getClass().isArray()) {
+			sb.append('[');
+			int len = Array.getLength(value);
+			for (int i = 0; i < len; i++) {
+				if (i > 0)
+					sb.append(',');
+				writeValue(sb, Array.get(value, i), dateFormat);
+			}
+			sb.append(']');
+		} else {
+			writeString(sb, value.toString());
+		}
+	}
+
+	private static void writeNumber(StringBuilder sb, Number n) {
+		double d = n.doubleValue();
+		if (Double.isInfinite(d) || Double.isNaN(d))
+			throw new IllegalStateException("cannot encode json, non-finite number: " + n);
+
+		// strip trailing zeros like org.json does
+		String s = n.toString();
+		if (s.indexOf('.') > 0 && s.indexOf('e') < 0 && s.indexOf('E') < 0) {
+			int end = s.length();
+			while (s.charAt(end - 1) == '0')
+				end--;
+			if (s.charAt(end - 1) == '.')
+				end--;
+			s = s.substring(0, end);
+		}
+		sb.append(s);
+	}
+
+	private static void writeString(StringBuilder sb, String s) {
+		sb.append('"');
+		int len = s.length();
+		int start = 0;
+		for (int i = 0; i < len; i++) {
+			char c = s.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029)
+				continue;
+
+			sb.append(s, start, i);
+			start = i + 1;
+
+			switch (c) {
+			case '"':
+				sb.append("\\\"");
+				break;
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\b':
+				sb.append("\\b");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			case '\f':
+				sb.append("\\f");
+				break;
+			case '\r':
+				sb.append("\\r");
+				break;
+			default:
+				sb.append("\\u").append(HEX[(c >> 12) & 0xf]).append(HEX[(c >> 8) & 0xf]).append(HEX[(c >> 4) & 0xf])
+						.append(HEX[c & 0xf]);
+			}
+		}
+		sb.append(s, start, len);
+		sb.append('"');
+	}
+
+	private static class Parser {
+		private final String s;
+		private final int len;
+		private int pos;
+
+		public Parser(String s) {
+			this.s = s;
+			this.len = s.length();
+		}
+
+		public Object parse() {
+			Object value = readValue();
+			skipWhitespace();
+			if (pos != len)
+				throw new IllegalStateException("unexpected trailing character at " + pos);
+			return value;
+		}
+
+		private Object readValue() {
+			skipWhitespace();
+			if (pos >= len)
+				throw new IllegalStateException("unexpected end of json");
+
+			char c = s.charAt(pos);
+			switch (c) {
+			case '{':
+				return readObject();
+			case '[':
+				return readArray();
+			case '"':
+				return readString();
+			case 't':
+				expect("true");
+				return Boolean.TRUE;
+			case 'f':
+				expect("false");
+				return Boolean.FALSE;
+			case 'n':
+				expect("null");
+				return null;
+			default:
+				return readNumber();
+			}
+		}
+
+		private Map<String, Object> readObject() {
+			Map<String, Object> m = new HashMap<String, Object>();
+			pos++;
+			skipWhitespace();
+			if (peek() == '}') {
+				pos++;
+				return m;
+			}
+
+			while (true) {
+				skipWhitespace();
+				if (peek() != '"')
+					throw new IllegalStateException("expected key at " + pos);
+
+				String key = readString();
+				skipWhitespace();
+				if (s.charAt(pos++) != ':')
+					throw new IllegalStateException("expected ':' at " + (pos - 1));
+
+				m.put(key, readValue());
+
+				skipWhitespace();
+				char c = s.charAt(pos++);
+				if (c == '}')
+					return m;
+				if (c != ',')
+					throw new IllegalStateException("expected ',' or '}' at " + (pos - 1));
+			}
+		}
+
+		private List<Object> readArray() {
+			List<Object> l = new ArrayList<Object>();
+			pos++;
+			skipWhitespace();
+			if (peek() == ']') {
+				pos++;
+				return l;
+			}
+
+			while (true) {
+				l.add(readValue());
+
+				skipWhitespace();
+				char c = s.charAt(pos++);
+				if (c == ']')
+					return l;
+				if (c != ',')
+					throw new IllegalStateException("expected ',' or ']' at " + (pos - 1));
+			}
+		}
+
+		private String readString() {
+			int start = ++pos;
+
+			// fast path without escape sequence
+			while (pos < len) {
+				char c = s.charAt(pos);
+				if (c == '"') {
+					return s.substring(start, pos++);
+				} else if (c == '\\') {
+					break;
+				}
+				pos++;
+			}
+
+			StringBuilder sb = new StringBuilder(pos - start + 16);
+			sb.append(s, start, pos);
+			while (true) {
+				char c = s.charAt(pos++);
+				if (c == '"')
+					return sb.toString();
+
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+
+				c = s.charAt(pos++);
+				switch (c) {
+				case 'b':
+					sb.append('\b');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 'u':
+					sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+					pos += 4;
+					break;
+				default:
+					sb.append(c);
+				}
+			}
+		}
+
+		// same number conversion rule with org.json
+		private Object readNumber() {
+			int start = pos;
+			boolean decimal = false;
+			while (pos < len) {
+				char c = s.charAt(pos);
+				if (c == '.' || c == 'e' || c == 'E')
+					decimal = true;
+				else if ((c < '0' || c > '9') && c != '-' && c != '+')
+					break;
+				pos++;
+			}
+
+			if (start == pos)
+				throw new IllegalStateException("unexpected character at " + pos);
+
+			String n = s.substring(start, pos);
+
+			// org.json keeps negative zero as double
+			if (decimal || n.equals("-0"))
+				return Double.valueOf(n);
+
+			try {
+				long l = Long.parseLong(n);
+				if (l == (int) l)
+					return (int) l;
+				return l;
+			} catch (NumberFormatException e) {
+				// out of long range
+				try {
+					return new BigInteger(n);
+				} catch (NumberFormatException e2) {
+					throw new IllegalStateException("invalid number at " + start);
+				}
+			}
+		}
+
+		private void expect(String token) {
+			if (!s.startsWith(token, pos))
+				throw new IllegalStateException("unexpected token at " + pos);
+			pos += token.length();
+		}
+
+		private char peek() {
+			return s.charAt(pos);
+		}
+
+		private void skipWhitespace() {
+			while (pos < len) {
+				char c = s.charAt(pos);
+				if (c != ' ' && c != '\t' && c != '\n' && c != '\r')
+					break;
+				pos++;
+			}
+		}
+	}
+}
@@ -22,6 +22,10 @@ import org.araqne.codec.EncodingRule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.logpresso.client.ColumnBatch;
+import com.logpresso.client.Tuple;
+import com.logpresso.client.TupleSchema;
+
 /**
  * 쿼리 결과를 스트리밍 받을 때 병렬적으로 압축을 해제하고 아라크네 코덱으로 인코딩된 쿼리 결과 바이너리를 디코딩합니다.
  * 
@@ -32,7 +36,24 @@ public class StreamingResultDecoder {
 	private final Logger slog = LoggerFactory.getLogger(StreamingResultDecoder.class);
 	private ThreadPoolExecutor executor;
 
+	// uncompressed output buffers and inflaters reused across chunks
+	private ByteBufferPool bufferPool;
+	private CompressorPool compressorPool;
+	private boolean ownPools;
+
 	public StreamingResultDecoder(String name, int poolSize) {
+		this(name, poolSize, new ByteBufferPool(poolSize * 2), new CompressorPool(poolSize * 2));
+		this.ownPools = true;
+	}
+
+	/**
+	 * 주어진 버퍼 풀과 압축기 풀을 공유하는 디코더를 생성합니다. 공유된 풀은 디코더를 닫아도 해제되지 않습니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public StreamingResultDecoder(String name, int poolSize, ByteBufferPool bufferPool, CompressorPool compressorPool) {
+		this.bufferPool = bufferPool;
+		this.compressorPool = compressorPool;
 		executor = new ThreadPoolExecutor(poolSize, poolSize, 10, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(poolSize),
 				new NamedThreadFactory(name), new CallerRunsPolicy());
 	}
@@ -61,8 +82,96 @@ public class StreamingResultDecoder {
 		return result;
 	}
 
+	/**
+	 * 압축된 쿼리 결과 청크들을 배열 기반 튜플 목록으로 디코딩합니다. 같은 청크에 속한 튜플들은 하나의 스키마를 공유합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public List<Tuple> decodeTuples(List<Map<String, Object>> chunks) throws ExecutionException {
+		List<Future<List<Tuple>>> futures = new ArrayList<Future<List<Tuple>>>();
+		for (Map<String, Object> chunk : chunks) {
+			Future<List<Tuple>> f = executor.submit(new TupleDecoder(chunk));
+			futures.add(f);
+		}
+
+		List<Tuple> result = new ArrayList<Tuple>();
+
+		for (Future<List<Tuple>> f : futures) {
+			do {
+				try {
+					result.addAll(f.get());
+				} catch (InterruptedException e) {
+				} catch (ExecutionException e) {
+					throw e;
+				}
+			} while (!f.isDone());
+		}
+
+		return result;
+	}
+
+	/**
+	 * 디코딩 작업을 디코더 스레드풀에서 실행합니다. 대기열이 가득 찬 경우 호출한 스레드에서 실행됩니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public void execute(Runnable task) {
+		executor.execute(task);
+	}
+
 	public void close() {
 		executor.shutdown();
+		if (ownPools)
+			compressorPool.close();
+	}
+
+	/**
+	 * 압축된 쿼리 결과 청크들을 행 단위로 변환하지 않고 컬럼 묶음 목록으로 디코딩합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public List<ColumnBatch> decodeColumns(List<Map<String, Object>> chunks) throws ExecutionException {
+		List<Future<ColumnBatch>> futures = new ArrayList<Future<ColumnBatch>>();
+		for (Map<String, Object> chunk : chunks) {
+			Future<ColumnBatch> f = executor.submit(new ColumnDecoder(chunk));
+			futures.add(f);
+		}
+
+		List<ColumnBatch> result = new ArrayList<ColumnBatch>();
+
+		for (Future<ColumnBatch> f : futures) {
+			do {
+				try {
+					result.add(f.get());
+				} catch (InterruptedException e) {
+				} catch (ExecutionException e) {
+					throw e;
+				}
+			} while (!f.isDone());
+		}
+
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> decodeChunk(Map<String, Object> chunk) {
+		int originalSize = (Integer) chunk.get("size");
+		byte[] buf = Base64.decode((String) chunk.get("bin"));
+
+		// decoded values never refer the scratch buffer
+		ByteBuffer output = bufferPool.acquire(originalSize);
+		Inflater inflater = compressorPool.acquireInflater();
+		try {
+			inflater.setInput(buf, 0, buf.length);
+
+			inflater.inflate(output.array(), 0, originalSize);
+			return (Map<String, Object>) EncodingRule.decode(ByteBuffer.wrap(output.array(), 0, originalSize));
+		} catch (DataFormatException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			compressorPool.releaseInflater(inflater);
+			bufferPool.release(output);
+		}
 	}
 
 	private class Decoder extends FunctorBase<List<Object>> {
@@ -76,23 +185,7 @@ public class StreamingResultDecoder {
 		@SuppressWarnings("unchecked")
 		@Override
 		protected List<Object> callSafely() throws Exception {
-			int originalSize = (Integer) chunk.get("size");
-			byte[] buf = Base64.decode((String) chunk.get("bin"));
-
-			byte[] output = new byte[originalSize];
-
-			Inflater inflater = new Inflater();
-			inflater.setInput(buf, 0, buf.length);
-			try {
-				inflater.inflate(output);
-				inflater.reset();
-			} catch (DataFormatException e) {
-				throw new IllegalStateException(e);
-			} finally {
-				inflater.end();
-			}
-
-			Map<String, Object> m = (Map<String, Object>) EncodingRule.decode(ByteBuffer.wrap(output));
+			Map<String, Object> m = decodeChunk(chunk);
 
 			if (m.isEmpty())
 				return Arrays.asList();
@@ -122,6 +215,65 @@ public class StreamingResultDecoder {
 		}
 	}
 
+	private class TupleDecoder extends FunctorBase<List<Tuple>> {
+		private Map<String, Object> chunk;
+
+		public TupleDecoder(Map<String, Object> chunk) {
+			super(slog);
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected List<Tuple> callSafely() throws Exception {
+			Map<String, Object> m = decodeChunk(chunk);
+
+			if (m.isEmpty())
+				return new ArrayList<Tuple>();
+
+			TupleSchema schema = new TupleSchema(m.keySet());
+			int width = schema.size();
+			Object[][] columns = new Object[width][];
+			for (int i = 0; i < width; i++)
+				columns[i] = (Object[]) m.get(schema.getName(i));
+
+			int count = columns[0].length;
+			List<Tuple> tuples = new ArrayList<Tuple>(count);
+			for (int row = 0; row < count; row++) {
+				Object[] values = new Object[width];
+				for (int i = 0; i < width; i++)
+					values[i] = columns[i][row];
+
+				tuples.add(new Tuple(schema, values));
+			}
+
+			return tuples;
+		}
+	}
+
+	private class ColumnDecoder extends FunctorBase<ColumnBatch> {
+		private Map<String, Object> chunk;
+
+		public ColumnDecoder(Map<String, Object> chunk) {
+			super(slog);
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected ColumnBatch callSafely() throws Exception {
+			Map<String, Object> m = decodeChunk(chunk);
+
+			ColumnBatch batch = null;
+			for (String key : m.keySet()) {
+				Object[] o = (Object[]) m.get(key);
+				if (batch == null)
+					batch = new ColumnBatch(o.length);
+				batch.put(key, o);
+			}
+
+			return batch != null ? batch : new ColumnBatch(0);
+		}
+	}
+
 	public static class NamedThreadFactory implements ThreadFactory {
 		private final String prefix;
 
@@ -24,22 +24,47 @@ import org.araqne.codec.FastEncodingRule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.logpresso.client.Column;
+import com.logpresso.client.ColumnBatch;
+import com.logpresso.client.Tuple;
+import com.logpresso.client.TupleSchema;
+
 public class StreamingResultEncoder {
 	private final Logger slog = LoggerFactory.getLogger(StreamingResultEncoder.class);
 	private ThreadPoolExecutor executor;
 	private int poolSize;
 
+	// compressed output buffers and deflaters reused across batches
+	private ByteBufferPool bufferPool;
+	private CompressorPool compressorPool;
+	private boolean ownPools;
+
 	public StreamingResultEncoder(String name, int poolSize) {
+		this(name, poolSize, new ByteBufferPool(poolSize * 2), new CompressorPool(poolSize * 2));
+		this.ownPools = true;
+	}
+
+	/**
+	 * 주어진 버퍼 풀과 압축기 풀을 공유하는 인코더를 생성합니다. 공유된 풀은 인코더를 닫아도 해제되지 않습니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public StreamingResultEncoder(String name, int poolSize, ByteBufferPool bufferPool, CompressorPool compressorPool) {
 		if (poolSize < 1)
 			throw new IllegalArgumentException("pool size should be positive");
 
 		this.poolSize = poolSize;
+		this.bufferPool = bufferPool;
+		this.compressorPool = compressorPool;
 		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 10, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(
 				poolSize), new NamedThreadFactory(name), new CallerRunsPolicy());
 
 		slog.debug("logpresso: created encoder thread pool [{}]", poolSize);
 	}
 
+	/**
+	 * 행 목록을 컬럼 단위로 인코딩하고 압축합니다. 각 행은 맵 또는 튜플이며, 배열 기반 튜플은 맵으로 변환하지 않고 인코딩합니다.
+	 */
 	public List<Map<String, Object>> encode(List<Object> rows, boolean useGzip) throws InterruptedException, ExecutionException {
 		int flushSize = (rows.size() + poolSize) / poolSize;
 		List<Map<String, Object>> chunks = new ArrayList<Map<String, Object>>();
@@ -74,8 +99,73 @@ public class StreamingResultEncoder {
 		return chunks;
 	}
 
+	/**
+	 * 컬럼 묶음을 행 단위로 변환하지 않고 인코딩하고 압축합니다. 기본 타입 배열 컬럼은 그대로 코덱에 전달되며, epoch 밀리초로 저장된
+	 * 날짜 컬럼만 날짜 개체 배열로 변환됩니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public List<Map<String, Object>> encodeColumns(ColumnBatch batch) throws InterruptedException, ExecutionException {
+		int total = batch.getRowCount();
+		int flushSize = (total + poolSize) / poolSize;
+		List<Map<String, Object>> chunks = new ArrayList<Map<String, Object>>();
+		List<Future<Map<String, Object>>> futures = new ArrayList<Future<Map<String, Object>>>();
+
+		if (total <= flushSize) {
+			futures.add(executor.submit(new ColumnEncoder(batch)));
+		} else {
+			for (int from = 0; from < total; from += flushSize) {
+				ColumnBatch slice = batch.slice(from, Math.min(total, from + flushSize));
+				futures.add(executor.submit(new ColumnEncoder(slice)));
+			}
+		}
+
+		for (Future<Map<String, Object>> f : futures) {
+			do {
+				Map<String, Object> chunk = f.get();
+				if (chunk != null) {
+					chunks.add(chunk);
+				}
+			} while (!f.isDone());
+		}
+
+		return chunks;
+	}
+
+	/**
+	 * 이미 인코딩된 컬럼 묶음들을 병렬로 압축합니다. 입력 시점에 컬럼 변환과 인코딩을 마친 배치를 전송할 때 사용합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public List<Map<String, Object>> compressEncoded(List<ByteBuffer> encoded) throws InterruptedException, ExecutionException {
+		List<Map<String, Object>> chunks = new ArrayList<Map<String, Object>>();
+		List<Future<Map<String, Object>>> futures = new ArrayList<Future<Map<String, Object>>>();
+
+		for (final ByteBuffer bb : encoded) {
+			futures.add(executor.submit(new FunctorBase<Map<String, Object>>(slog) {
+				@Override
+				protected Map<String, Object> callSafely() throws Exception {
+					return compress(bb, false);
+				}
+			}));
+		}
+
+		for (Future<Map<String, Object>> f : futures) {
+			do {
+				Map<String, Object> chunk = f.get();
+				if (chunk != null) {
+					chunks.add(chunk);
+				}
+			} while (!f.isDone());
+		}
+
+		return chunks;
+	}
+
 	public void close() {
 		executor.shutdown();
+		if (ownPools)
+			compressorPool.close();
 		slog.debug("logpresso: closed encoder thread pool [{}]", poolSize);
 	}
 
@@ -96,66 +186,139 @@ public class StreamingResultEncoder {
 			int len = rows.size();
 			Map<String, Object[]> columns = new HashMap<String, Object[]>();
 
+			// column arrays of last seen schema, avoid lookup per field
+			TupleSchema lastSchema = null;
+			Object[][] schemaColumns = null;
+
 			int i = 0;
 			for (Object o : rows) {
-				Map<String, Object> rows = (Map<String, Object>) o;
-				for (Entry<String, Object> e : rows.entrySet()) {
-					String key = e.getKey();
-					Object[] items = columns.get(key);
-					if (items == null) {
-						items = new Object[len];
-						columns.put(key, items);
+				if (o instanceof Tuple && ((Tuple) o).getSchema() != null) {
+					Tuple t = (Tuple) o;
+					TupleSchema schema = t.getSchema();
+					if (schema != lastSchema) {
+						lastSchema = schema;
+						schemaColumns = new Object[schema.size()][];
 					}
 
-					items[i] = e.getValue();
+					for (int index = 0; index < schemaColumns.length; index++) {
+						Object value = t.getValue(index);
+						if (value == null)
+							continue;
+
+						Object[] items = schemaColumns[index];
+						if (items == null) {
+							String key = schema.getName(index);
+							items = columns.get(key);
+							if (items == null) {
+								items = new Object[len];
+								columns.put(key, items);
+							}
+							schemaColumns[index] = items;
+						}
+
+						items[i] = value;
+					}
+				} else {
+					Map<String, Object> m = o instanceof Tuple ? ((Tuple) o).toMap() : (Map<String, Object>) o;
+					for (Entry<String, Object> e : m.entrySet()) {
+						String key = e.getKey();
+						Object[] items = columns.get(key);
+						if (items == null) {
+							items = new Object[len];
+							columns.put(key, items);
+						}
+
+						items[i] = e.getValue();
+					}
 				}
 
 				i++;
 			}
 
-			// encode and compress
-			Map<String, Object> msg = new HashMap<String, Object>();
+			return compress(columns, useGzip);
+		}
+	}
+
+	private class ColumnEncoder extends FunctorBase<Map<String, Object>> {
+		private ColumnBatch batch;
 
-			FastEncodingRule enc = new FastEncodingRule();
-			ByteBuffer bb = enc.encode(columns);
+		public ColumnEncoder(ColumnBatch batch) {
+			super(slog);
+			this.batch = batch;
+		}
 
-			ByteBuffer compressed = null;
-			int compressedSize = 0;
+		@Override
+		protected Map<String, Object> callSafely() throws Exception {
+			Map<String, Object> columns = new HashMap<String, Object>();
+			for (String name : batch.getColumnNames()) {
+				Column c = batch.getColumn(name);
+
+				// codec has no primitive date array
+				if (c.isTime())
+					columns.put(name, c.getValues());
+				else
+					columns.put(name, c.getArray());
+			}
 
-			if (useGzip) {
-				ByteArrayOutputStream bos = new ByteArrayOutputStream();
-				GZIPOutputStream zos = null;
+			return compress(columns, false);
+		}
+	}
 
-				try {
-					zos = new GZIPOutputStream(bos);
-					zos.write(bb.array());
-					zos.finish();
+	private Map<String, Object> compress(Map<String, ?> columns, boolean useGzip) throws Exception {
+		// encode and compress
+		FastEncodingRule enc = new FastEncodingRule();
+		ByteBuffer bb = enc.encode(columns);
+		return compress(bb, useGzip);
+	}
 
-					byte[] out = bos.toByteArray();
-					compressed = ByteBuffer.wrap(out);
-					compressedSize = out.length;
-				} finally {
-					if (zos != null)
-						zos.close();
-				}
-			} else {
-				Deflater c = new Deflater();
-				try {
-					c.setInput(bb.array(), 0, bb.array().length);
-					c.finish();
-
-					compressed = ByteBuffer.allocate(bb.array().length * 2);
-					compressedSize = c.deflate(compressed.array());
-					compressed = ByteBuffer.wrap(Arrays.copyOf(compressed.array(), compressedSize));
-				} finally {
-					c.end();
+	private Map<String, Object> compress(ByteBuffer bb, boolean useGzip) throws Exception {
+		Map<String, Object> msg = new HashMap<String, Object>();
+		ByteBuffer compressed = null;
+		int compressedSize = 0;
+
+		if (useGzip) {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			GZIPOutputStream zos = null;
+
+			try {
+				zos = new GZIPOutputStream(bos);
+				zos.write(bb.array());
+				zos.finish();
+
+				byte[] out = bos.toByteArray();
+				compressed = ByteBuffer.wrap(out);
+				compressedSize = out.length;
+			} finally {
+				if (zos != null)
+					zos.close();
+			}
+		} else {
+			Deflater c = compressorPool.acquireDeflater();
+			try {
+				int encodedSize = bb.array().length;
+				c.setInput(bb.array(), 0, encodedSize);
+				c.finish();
+
+				// deflate never expands input more than a few bytes per 16KB block
+				compressed = bufferPool.acquire(encodedSize + (encodedSize >> 3) + 64);
+				compressedSize = c.deflate(compressed.array(), 0, compressed.capacity());
+				if (!c.finished()) {
+					bufferPool.release(compressed);
+					throw new IllegalStateException("insufficient deflate buffer for " + encodedSize + " bytes");
 				}
+			} finally {
+				compressorPool.releaseDeflater(c);
 			}
 
-			msg.put("size", bb.array().length);
-			msg.put("bin", new String(Base64.encode(compressed.array())));
-			return msg;
+			// base64 needs exact sized array, return scratch buffer
+			ByteBuffer scratch = compressed;
+			compressed = ByteBuffer.wrap(Arrays.copyOf(scratch.array(), compressedSize));
+			bufferPool.release(scratch);
 		}
+
+		msg.put("size", bb.array().length);
+		msg.put("bin", new String(Base64.encode(compressed.array())));
+		return msg;
 	}
 
 	private class NamedThreadFactory implements ThreadFactory {
@@ -0,0 +1,200 @@
+package com.logpresso.client.http.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.araqne.codec.EncodingRule;
+
+/**
+ * 스트리밍 쿼리 결과 트랩을 결과 콜백에 전달하기 전까지 보관하는 순서 보장 대기열입니다. 메모리에 보관된 트랩의 추정 크기가 한도를
+ * 넘으면 이후 트랩은 스필 파일에 기록되며, 스필 파일이 모두 소비된 후에 다시 메모리에 보관합니다. 스필 디렉터리가 지정되지 않은
+ * 경우에는 메모리에 빈 자리가 생길 때까지 트랩을 추가하는 스레드가 대기합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class StreamingResultQueue {
+	private final long memoryLimit;
+	private final File spillDir;
+
+	// guarded by this
+	private final LinkedList<Item> items = new LinkedList<Item>();
+	private long memoryBytes;
+	private File spillFile;
+	private RandomAccessFile spill;
+	private long writePos;
+	private long readPos;
+	private int spilledCount;
+	private long spilledBytes;
+	private boolean closed;
+
+	public StreamingResultQueue(long memoryLimit, File spillDir) {
+		this.memoryLimit = memoryLimit;
+		this.spillDir = spillDir;
+	}
+
+	/**
+	 * 트랩 매개변수를 대기열에 추가합니다. 대기열이 닫힌 경우 무시합니다.
+	 * 
+	 * @param params
+	 *            트랩 매개변수
+	 * @param size
+	 *            추정 메모리 크기
+	 * @param force
+	 *            메모리 한도를 무시하고 추가하려면 true
+	 */
+	public synchronized void offer(Map<String, Object> params, long size, boolean force) throws InterruptedException,
+			IOException {
+		while (!closed) {
+			// spilled items are older, keep order
+			if (spilledCount == 0 && (force || items.isEmpty() || memoryBytes + size <= memoryLimit)) {
+				items.add(new Item(params, size));
+				memoryBytes += size;
+				notifyAll();
+				return;
+			}
+
+			if (spillDir != null) {
+				writeSpill(params);
+				notifyAll();
+				return;
+			}
+
+			wait();
+		}
+	}
+
+	/**
+	 * 가장 오래된 트랩 매개변수를 꺼냅니다. 대기열이 비어 있거나 닫힌 경우 대기하지 않고 null을 반환합니다.
+	 */
+	public synchronized Map<String, Object> poll() throws IOException {
+		if (!items.isEmpty()) {
+			Item item = items.poll();
+			memoryBytes -= item.size;
+			notifyAll();
+			return item.params;
+		}
+
+		if (spilledCount > 0)
+			return readSpill();
+
+		return null;
+	}
+
+	/**
+	 * 메모리와 스필 파일에 꺼낼 트랩이 없는지 확인합니다.
+	 */
+	public synchronized boolean isEmpty() {
+		return items.isEmpty() && spilledCount == 0;
+	}
+
+	/**
+	 * 대기열을 닫고 스필 파일을 삭제합니다. 아직 꺼내지 않은 트랩은 버려집니다.
+	 */
+	public synchronized void close() {
+		closed = true;
+		items.clear();
+		memoryBytes = 0;
+		spilledCount = 0;
+		notifyAll();
+
+		if (spill != null) {
+			try {
+				spill.close();
+			} catch (IOException e) {
+			}
+			spillFile.delete();
+			spill = null;
+		}
+	}
+
+	public synchronized long getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	/**
+	 * 스필 파일에 기록된 누적 바이트 크기를 반환합니다.
+	 */
+	public synchronized long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	private void writeSpill(Map<String, Object> params) throws IOException {
+		if (spill == null) {
+			spillDir.mkdirs();
+			spillFile = File.createTempFile("logpresso-result-", ".spill", spillDir);
+			spillFile.deleteOnExit();
+			spill = new RandomAccessFile(spillFile, "rw");
+		}
+
+		int length = EncodingRule.length(params);
+		ByteBuffer bb = ByteBuffer.allocate(4 + length);
+		bb.putInt(length);
+		EncodingRule.encode(bb, params);
+
+		spill.seek(writePos);
+		spill.write(bb.array(), 0, bb.position());
+		writePos += bb.position();
+		spilledBytes += bb.position();
+		spilledCount++;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> readSpill() throws IOException {
+		spill.seek(readPos);
+		int length = spill.readInt();
+		byte[] b = new byte[length];
+		spill.readFully(b);
+		readPos += 4 + length;
+
+		// reuse file from beginning after all spilled items are consumed
+		if (--spilledCount == 0) {
+			readPos = 0;
+			writePos = 0;
+			spill.setLength(0);
+		}
+
+		return (Map<String, Object>) fromSpillable(EncodingRule.decodeMap(ByteBuffer.wrap(b)));
+	}
+
+	// restore lists which codec decodes as object array
+	private static Object fromSpillable(Object value) {
+		if (value instanceof Map) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			for (Entry<?, ?> e : ((Map<?, ?>) value).entrySet())
+				m.put((String) e.getKey(), fromSpillable(e.getValue()));
+			return m;
+		} else if (value instanceof List) {
+			List<Object> l = new ArrayList<Object>();
+			for (Object o : (List<?>) value)
+				l.add(fromSpillable(o));
+			return l;
+		} else if (value instanceof Object[]) {
+			// codec decodes list as object array
+			List<Object> l = new ArrayList<Object>();
+			for (Object o : (Object[]) value)
+				l.add(fromSpillable(o));
+			return l;
+		}
+		return value;
+	}
+
+	private static class Item {
+		private final Map<String, Object> params;
+		private final long size;
+
+		public Item(Map<String, Object> params, long size) {
+			this.params = params;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.logpresso.client.http.impl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * 입력 배치를 _time 순서로 정렬하기 위한 행 순서를 계산하고 컬럼 배열에 적용합니다. 같은 시각의 행은 입력 순서를 유지하며, 시각이
+ * 없는 행은 맨 앞에 배치됩니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class TimeOrder {
+	private TimeOrder() {
+	}
+
+	/**
+	 * 날짜 배열이나 long 배열의 정렬 순서를 반환합니다. 이미 정렬되어 있으면 null을 반환합니다.
+	 */
+	public static int[] sort(Object times) {
+		final long[] keys = toKeys(times);
+		if (isSorted(keys))
+			return null;
+
+		Integer[] boxed = new Integer[keys.length];
+		for (int i = 0; i < boxed.length; i++)
+			boxed[i] = i;
+
+		// object sort is stable
+		Arrays.sort(boxed, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				long l = keys[o1];
+				long r = keys[o2];
+				return l < r ? -1 : (l == r ? 0 : 1);
+			}
+		});
+
+		int[] order = new int[boxed.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = boxed[i];
+		return order;
+	}
+
+	/**
+	 * 주어진 순서로 재배열한 새 배열을 반환합니다. Object, long, double, int, boolean 배열을 지원합니다.
+	 */
+	public static Object permute(Object array, int[] order) {
+		if (array instanceof Object[]) {
+			Object[] src = (Object[]) array;
+			Object[] dst = new Object[order.length];
+			for (int i = 0; i < order.length; i++)
+				dst[i] = src[order[i]];
+			return dst;
+		} else if (array instanceof long[]) {
+			long[] src = (long[]) array;
+			long[] dst = new long[order.length];
+			for (int i = 0; i < order.length; i++)
+				dst[i] = src[order[i]];
+			return dst;
+		} else if (array instanceof double[]) {
+			double[] src = (double[]) array;
+			double[] dst = new double[order.length];
+			for (int i = 0; i < order.length; i++)
+				dst[i] = src[order[i]];
+			return dst;
+		} else if (array instanceof int[]) {
+			int[] src = (int[]) array;
+			int[] dst = new int[order.length];
+			for (int i = 0; i < order.length; i++)
+				dst[i] = src[order[i]];
+			return dst;
+		} else if (array instanceof boolean[]) {
+			boolean[] src = (boolean[]) array;
+			boolean[] dst = new boolean[order.length];
+			for (int i = 0; i < order.length; i++)
+				dst[i] = src[order[i]];
+			return dst;
+		}
+
+		throw new IllegalArgumentException("unsupported array type: " + array.getClass().getName());
+	}
+
+	private static long[] toKeys(Object times) {
+		if (times instanceof long[])
+			return (long[]) times;
+
+		Object[] values = (Object[]) times;
+		long[] keys = new long[values.length];
+		for (int i = 0; i < keys.length; i++) {
+			Object o = values[i];
+			if (o instanceof Date)
+				keys[i] = ((Date) o).getTime();
+			else
+				keys[i] = Long.MIN_VALUE;
+		}
+		return keys;
+	}
+
+	private static boolean isSorted(long[] keys) {
+		for (int i = 1; i < keys.length; i++)
+			if (keys[i - 1] > keys[i])
+				return false;
+		return true;
+	}
+}
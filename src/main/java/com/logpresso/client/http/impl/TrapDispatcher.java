@@ -0,0 +1,306 @@
+package com.logpresso.client.http.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.logpresso.client.Message;
+
+/**
+ * 트랩 리스너 호출을 소켓 수신 스레드에서 분리하여 작업 스레드에서 실행합니다. 트랩은 메소드 이름 끝의 쿼리 ID로 작업 스레드에
+ * 배정되므로 같은 쿼리의 트랩은 수신 순서대로 처리되고, 서로 다른 쿼리의 트랩은 병렬로 처리됩니다. 작업 스레드마다 대기열 크기가
+ * 제한되며, 대기열이 가득 차면 수신 스레드가 빈 자리가 생길 때까지 대기합니다. 단, 작업 스레드가 RPC 응답을 기다리고 있으면 그
+ * 응답은 수신 스레드만 전달할 수 있으므로, 수신 스레드는 대기하지 않고 대기열 크기를 넘어서 트랩을 추가합니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class TrapDispatcher {
+	private final Logger logger = LoggerFactory.getLogger(TrapDispatcher.class);
+
+	private final Stripe[] stripes;
+	private final int queueSize;
+	private volatile boolean closed;
+
+	// traps of this dispatcher are delivered after previous dispatcher terminates
+	private volatile TrapDispatcher previous;
+
+	private final AtomicLong dispatchCount = new AtomicLong();
+	private final AtomicLong overflowCount = new AtomicLong();
+	private final AtomicLong overflowWaitNanos = new AtomicLong();
+
+	public TrapDispatcher(String name, int threads, int queueSize) {
+		this(name, threads, queueSize, null);
+	}
+
+	/**
+	 * 이전 디스패처를 대체하는 디스패처를 생성합니다. 작업 스레드는 이전 디스패처의 대기열이 모두 처리된 후에 트랩을 처리하기
+	 * 시작하므로, 디스패처를 교체하는 중에도 같은 쿼리의 트랩 순서가 유지됩니다.
+	 * 
+	 * @param previous
+	 *            교체되는 디스패처, null 허용
+	 */
+	public TrapDispatcher(String name, int threads, int queueSize, TrapDispatcher previous) {
+		if (threads < 1)
+			throw new IllegalArgumentException("trap dispatch threads should be positive");
+		if (queueSize < 1)
+			throw new IllegalArgumentException("trap queue size should be positive");
+
+		this.queueSize = queueSize;
+		this.previous = previous;
+		this.stripes = new Stripe[threads];
+		for (int i = 0; i < threads; i++) {
+			stripes[i] = new Stripe(name + " #" + i);
+			stripes[i].start();
+		}
+	}
+
+	/**
+	 * 트랩을 작업 스레드의 대기열에 추가합니다. 리스너 목록은 트랩을 처리하는 시점에 순회합니다. 대기열이 가득 찬 경우 빈 자리가
+	 * 생길 때까지 대기하지만, 작업 스레드가 RPC 응답을 기다리는 중이거나 대기 중 인터럽트된 경우에는 대기열 크기를 넘어서 추가합니다.
+	 * 
+	 * @return 디스패처가 닫혀서 트랩을 추가하지 못한 경우 false, 호출한 쪽에서 다음 디스패처로 전달해야 합니다.
+	 */
+	public boolean dispatch(Message msg, Collection<TrapListener> listeners) {
+		Stripe stripe = stripes[(stripeKey(msg.getMethod()) & 0x7fffffff) % stripes.length];
+		Task task = new Task(msg, listeners);
+
+		synchronized (stripe) {
+			if (closed)
+				return false;
+
+			if (stripe.isFull()) {
+				overflowCount.incrementAndGet();
+				long begin = System.nanoTime();
+				try {
+					while (!closed && stripe.isFull())
+						stripe.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					overflowWaitNanos.addAndGet(System.nanoTime() - begin);
+				}
+
+				if (closed)
+					return false;
+			}
+
+			dispatchCount.incrementAndGet();
+			stripe.queue.add(task);
+			stripe.notifyAll();
+			return true;
+		}
+	}
+
+	/**
+	 * 새로운 트랩을 더 이상 받지 않고, 대기 중인 트랩을 모두 처리한 후 작업 스레드를 종료합니다. 작업 스레드를 인터럽트하지
+	 * 않으므로 제한 시간 내에 종료되지 않더라도 대기 중인 트랩은 유실되지 않고 계속 처리됩니다. 작업 스레드에서 호출한 경우 해당
+	 * 스레드는 기다리지 않습니다.
+	 * 
+	 * @param timeout
+	 *            작업 스레드 종료를 기다리는 최대 시간 (밀리초)
+	 */
+	public void close(long timeout) {
+		closed = true;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.notifyAll();
+			}
+		}
+
+		long deadline = System.currentTimeMillis() + timeout;
+		for (Stripe stripe : stripes) {
+			if (stripe == Thread.currentThread())
+				continue;
+
+			try {
+				stripe.join(Math.max(1, deadline - System.currentTimeMillis()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+
+		int queued = getQueuedCount();
+		if (queued > 0)
+			logger.warn("logpresso: trap dispatcher is still delivering {} queued traps after close timeout", queued);
+	}
+
+	/**
+	 * 작업 스레드가 모두 종료될 때까지 대기합니다.
+	 */
+	public void awaitTermination() throws InterruptedException {
+		for (Stripe stripe : stripes)
+			if (stripe != Thread.currentThread())
+				stripe.join();
+	}
+
+	/**
+	 * 현재 스레드가 작업 스레드이면 RPC 응답 대기를 시작했음을 표시합니다. 응답 대기 중에는 수신 스레드가 해당 작업 스레드의
+	 * 대기열을 기다리지 않습니다. 반드시 endBlockingCall()과 짝을 이루어 호출해야 합니다.
+	 */
+	public static void beginBlockingCall() {
+		Thread t = Thread.currentThread();
+		if (t instanceof Stripe)
+			((Stripe) t).addBlockingCall(1);
+	}
+
+	/**
+	 * 현재 스레드가 작업 스레드이면 RPC 응답 대기가 끝났음을 표시합니다.
+	 */
+	public static void endBlockingCall() {
+		Thread t = Thread.currentThread();
+		if (t instanceof Stripe)
+			((Stripe) t).addBlockingCall(-1);
+	}
+
+	public int getThreadCount() {
+		return stripes.length;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * 대기열에서 처리를 기다리는 트랩 갯수를 반환합니다.
+	 */
+	public int getQueuedCount() {
+		int count = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				count += stripe.queue.size();
+			}
+		}
+		return count;
+	}
+
+	public long getDispatchCount() {
+		return dispatchCount.get();
+	}
+
+	/**
+	 * 대기열이 가득 차서 수신 스레드가 대기한 횟수를 반환합니다.
+	 */
+	public long getOverflowCount() {
+		return overflowCount.get();
+	}
+
+	/**
+	 * 대기열이 가득 차서 수신 스레드가 대기한 시간의 합계를 밀리초 단위로 반환합니다.
+	 */
+	public long getOverflowWaitMillis() {
+		return overflowWaitNanos.get() / 1000000L;
+	}
+
+	// trailing query id of logdb-query-*, otherwise method name
+	private static int stripeKey(String method) {
+		if (method == null)
+			return 0;
+
+		int key = 0;
+		int i = method.length() - 1;
+		for (; i >= 0; i--) {
+			char c = method.charAt(i);
+			if (c < '0' || c > '9')
+				break;
+		}
+
+		if (i == method.length() - 1 || i < 0 || method.charAt(i) != '-')
+			return method.hashCode();
+
+		for (int j = i + 1; j < method.length(); j++)
+			key = key * 10 + (method.charAt(j) - '0');
+		return key;
+	}
+
+	private void invoke(Task task) {
+		for (TrapListener listener : task.listeners) {
+			try {
+				listener.onTrap(task.msg);
+			} catch (Throwable t) {
+				logger.error("logpresso: trap listener should not throw any exception", t);
+			}
+		}
+	}
+
+	private static class Task {
+		private final Message msg;
+		private final Collection<TrapListener> listeners;
+
+		public Task(Message msg, Collection<TrapListener> listeners) {
+			this.msg = msg;
+			this.listeners = listeners;
+		}
+	}
+
+	// queue and blocking call count are guarded by stripe monitor
+	private class Stripe extends Thread {
+		private final ArrayDeque<Task> queue = new ArrayDeque<Task>();
+		private int blockingCalls;
+
+		public Stripe(String name) {
+			super(name);
+			setDaemon(true);
+		}
+
+		// receiver thread should not wait for worker which waits for receiver
+		private boolean isFull() {
+			return queue.size() >= queueSize && blockingCalls == 0;
+		}
+
+		private synchronized void addBlockingCall(int delta) {
+			blockingCalls += delta;
+			notifyAll();
+		}
+
+		@Override
+		public void run() {
+			awaitPrevious();
+
+			while (true) {
+				Task task;
+				synchronized (this) {
+					while (queue.isEmpty() && !closed) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							// queued traps should not be lost, drain until closed
+							logger.debug("logpresso: trap dispatcher [{}] ignored interrupt", getName());
+						}
+					}
+
+					// closed and drained
+					task = queue.poll();
+					if (task == null)
+						break;
+
+					notifyAll();
+				}
+
+				invoke(task);
+			}
+		}
+
+		private void awaitPrevious() {
+			TrapDispatcher p = previous;
+			if (p == null)
+				return;
+
+			// queued traps may grow while waiting, same as blocking call
+			addBlockingCall(1);
+			try {
+				p.awaitTermination();
+			} catch (InterruptedException e) {
+				logger.debug("logpresso: trap dispatcher [{}] interrupted while waiting previous dispatcher", getName());
+			} finally {
+				addBlockingCall(-1);
+			}
+			previous = null;
+		}
+	}
+}
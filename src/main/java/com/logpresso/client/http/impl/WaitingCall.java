@@ -20,6 +20,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import com.logpresso.client.Message;
+import com.logpresso.client.RpcCallback;
 
 /**
  * 현재 응답 수신을 대기하는 중인 메시지버스 RPC 호출을 표현합니다.
@@ -34,8 +35,16 @@ class WaitingCall {
 	private Date date = new Date();
 	private CountDownLatch done = new CountDownLatch(1);
 
+	// not null for asynchronous call
+	private RpcCallback callback;
+
 	public WaitingCall(String guid) {
+		this(guid, null);
+	}
+
+	public WaitingCall(String guid, RpcCallback callback) {
 		this.guid = guid;
+		this.callback = callback;
 	}
 
 	public String getGuid() {
@@ -46,6 +55,10 @@ class WaitingCall {
 		return result;
 	}
 
+	public RpcCallback getCallback() {
+		return callback;
+	}
+
 	public Date getDate() {
 		return date;
 	}
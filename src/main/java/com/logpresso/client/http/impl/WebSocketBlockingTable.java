@@ -15,6 +15,7 @@
  */
 package com.logpresso.client.http.impl;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -24,6 +25,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.logpresso.client.Message;
+import com.logpresso.client.MessageException;
+import com.logpresso.client.RpcCallback;
 
 /**
  * 현재 블록킹 호출 중인 모든 RPC 호출의 목록을 관리합니다.
@@ -38,6 +41,9 @@ public class WebSocketBlockingTable {
 	private ConcurrentMap<String, WaitingCall> lockMap = new ConcurrentHashMap<String, WaitingCall>();
 	private WebSocketSession session;
 
+	// calls registered after close are cancelled immediately
+	private volatile boolean closed;
+
 	public WebSocketBlockingTable(WebSocketSession webSocketSession) {
 		this.session = webSocketSession;
 	}
@@ -45,19 +51,44 @@ public class WebSocketBlockingTable {
 	public WaitingCall set(String guid) {
 		WaitingCall item = new WaitingCall(guid);
 		lockMap.put(guid, item);
+		if (closed)
+			cancel(guid);
+		return item;
+	}
+
+	public WaitingCall set(String guid, RpcCallback callback) {
+		WaitingCall item = new WaitingCall(guid, callback);
+		lockMap.put(guid, item);
+		if (closed)
+			cancel(guid);
 		return item;
 	}
 
+	public void remove(String guid) {
+		lockMap.remove(guid);
+	}
+
 	public void signal(String guid, Message response) {
 		if (logger.isDebugEnabled())
 			logger.debug("logpresso: signal call response {}", guid);
 
-		WaitingCall item = lockMap.get(guid);
+		// whoever removes the call owns its completion
+		WaitingCall item = lockMap.remove(guid);
 		if (item == null) {
 			logger.warn("logpresso: no waiting item {}, maybe timeout", guid);
 			return;
 		}
 
+		RpcCallback callback = item.getCallback();
+		if (callback != null) {
+			if (response.getErrorCode() != null)
+				invokeFailure(callback, new MessageException(response.getErrorCode(), response.getErrorMessage(),
+						response.getParameters()));
+			else
+				invokeResponse(callback, response);
+			return;
+		}
+
 		synchronized (item) {
 			item.done(response);
 			item.notifyAll();
@@ -117,20 +148,63 @@ public class WebSocketBlockingTable {
 		}
 	}
 
+	/**
+	 * 지정된 시간 이상 응답을 받지 못한 비동기 호출을 TimeoutException으로 실패 처리합니다. 블록킹 호출은 호출한 스레드가
+	 * 직접 타임아웃을 처리합니다.
+	 * 
+	 * @param timeout
+	 *            밀리초 단위 응답 대기 시간
+	 * @since 1.2.0
+	 */
+	public void sweep(long timeout) {
+		long deadline = new Date().getTime() - timeout;
+		for (WaitingCall item : lockMap.values()) {
+			if (item.getCallback() == null || item.getDate().getTime() > deadline)
+				continue;
+
+			if (lockMap.remove(item.getGuid(), item))
+				invokeFailure(item.getCallback(), new TimeoutException("rpc response timeout: " + item.getGuid()));
+		}
+	}
+
 	public void close() {
 		logger.debug("interrupting all blocking calls: " + session.toString());
+		closed = true;
+
 		// cancel all blocking calls
-		for (String guid : lockMap.keySet()) {
-			WaitingCall item = lockMap.get(guid);
-			if (item == null)
-				continue;
+		for (String guid : lockMap.keySet())
+			cancel(guid);
+	}
 
-			synchronized (item) {
-				item.done(interruptSignal);
-				item.notifyAll();
-			}
+	private void cancel(String guid) {
+		WaitingCall item = lockMap.remove(guid);
+		if (item == null)
+			return;
+
+		if (item.getCallback() != null) {
+			invokeFailure(item.getCallback(), new IOException("call cancelled: " + guid));
+			return;
 		}
 
-		lockMap.clear();
+		synchronized (item) {
+			item.done(interruptSignal);
+			item.notifyAll();
+		}
+	}
+
+	private void invokeResponse(RpcCallback callback, Message response) {
+		try {
+			callback.onResponse(response);
+		} catch (Throwable t) {
+			logger.error("logpresso: rpc callback should not throw any exception", t);
+		}
+	}
+
+	private void invokeFailure(RpcCallback callback, Throwable cause) {
+		try {
+			callback.onFailure(cause);
+		} catch (Throwable t) {
+			logger.error("logpresso: rpc callback should not throw any exception", t);
+		}
 	}
 }
@@ -33,6 +33,8 @@ import org.slf4j.LoggerFactory;
 import com.logpresso.client.AbstractSession;
 import com.logpresso.client.Message;
 import com.logpresso.client.MessageException;
+import com.logpresso.client.RpcCallback;
+import com.logpresso.client.TrapDispatchStats;
 import com.logpresso.client.Message.Type;
 
 /**
@@ -44,12 +46,24 @@ import com.logpresso.client.Message.Type;
  */
 public class WebSocketSession extends AbstractSession implements WebSocketListener {
 	private static final int DEFAULT_READ_TIMEOUT = 10000;
+	private static final int DEFAULT_ASYNC_RPC_TIMEOUT = 60000;
 	private final Logger logger = LoggerFactory.getLogger(WebSocketSession.class);
 	private final Logger recvLog = LoggerFactory.getLogger(WebSocketSession.class.getName()+"-recv");
 	private final Logger sendLog = LoggerFactory.getLogger(WebSocketSession.class.getName()+"-send");
 	private Object sendLock = new Object();
 	private WebSocket websocket;
 	private WebSocketBlockingTable table = new WebSocketBlockingTable(this);
+
+	// fail asynchronous calls without response after this (milliseconds)
+	private volatile int asyncRpcTimeout = DEFAULT_ASYNC_RPC_TIMEOUT;
+
+	// runs trap listeners off the socket reader thread if not null
+	private volatile TrapDispatcher dispatcher;
+
+	// held only while swapping dispatcher, never while dispatching
+	private final Object dispatchLock = new Object();
+	private final String dispatcherName;
+
 	@Override
 	public String toString() {
 		return "WebSocketSession [" + websocket + "]";
@@ -83,6 +97,7 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 		}
 
 		int localPort = websocket.getLocalPort();
+		this.dispatcherName = String.format("Trap Dispatcher [:%d<->%s]", localPort, uri);
 		this.timer = new Timer(
 				String.format("WebSocket Ping Timer [:%d<->%s]", localPort, uri), true);
 		timer.scheduleAtFixedRate(new PingTask(), new Date(), 2000);
@@ -93,20 +108,100 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 		return websocket.isClosed();
 	}
 
+	/**
+	 * 비동기 RPC 응답 대기 시간을 반환합니다.
+	 * 
+	 * @since 1.2.0
+	 */
+	public int getAsyncRpcTimeout() {
+		return asyncRpcTimeout;
+	}
+
+	/**
+	 * 비동기 RPC 응답 대기 시간을 설정합니다. 기본값은 60초입니다. 대기 시간 내에 응답을 받지 못한 비동기 호출은 핑 타이머에서
+	 * TimeoutException으로 실패 처리되므로, 응답이 유실되더라도 입력 전송 창이나 대기 중인 퓨처가 영원히 점유되지 않습니다.
+	 * 
+	 * @param timeout
+	 *            밀리초 단위 응답 대기 시간, 0이면 무한히 대기합니다.
+	 * @since 1.2.0
+	 */
+	public void setAsyncRpcTimeout(int timeout) {
+		if (timeout < 0)
+			throw new IllegalArgumentException("async rpc timeout should not be negative");
+		this.asyncRpcTimeout = timeout;
+	}
+
+	/**
+	 * 트랩 리스너를 실행하는 작업 스레드를 설정합니다. 기본적으로 트랩 리스너는 웹소켓 수신 스레드에서 실행되므로, 스트리밍 쿼리 결과
+	 * 콜백이 느리면 모든 RPC 응답과 다른 쿼리의 트랩 수신이 지연됩니다. 작업 스레드를 설정하면 트랩은 쿼리 ID 별로 작업 스레드에
+	 * 배정되어 같은 쿼리의 트랩은 수신 순서대로, 서로 다른 쿼리의 트랩은 병렬로 처리됩니다. 작업 스레드의 대기열이 가득 차면 수신
+	 * 스레드가 대기하며, 대기 횟수와 시간은 getTrapDispatchStats()로 확인할 수 있습니다.
+	 * 
+	 * @param threads
+	 *            작업 스레드 갯수, 0이면 수신 스레드에서 트랩 리스너를 실행합니다.
+	 * @param queueSize
+	 *            작업 스레드 당 최대 대기열 크기
+	 * @since 1.2.0
+	 */
+	public void setTrapDispatch(int threads, int queueSize) {
+		if (threads < 0)
+			throw new IllegalArgumentException("trap dispatch threads should not be negative");
+
+		TrapDispatcher old;
+		synchronized (dispatchLock) {
+			old = dispatcher;
+			dispatcher = threads > 0 ? new TrapDispatcher(dispatcherName, threads, queueSize, old) : null;
+		}
+
+		closeDispatcher(old);
+	}
+
+	// next dispatcher waits for queued traps of previous one, so only the swap
+	// is locked. traps delivered inline after switching to 0 threads may run
+	// before traps still queued on the previous dispatcher.
+	private TrapDispatcher detachDispatcher() {
+		synchronized (dispatchLock) {
+			TrapDispatcher old = dispatcher;
+			dispatcher = null;
+			return old;
+		}
+	}
+
+	private void closeDispatcher(TrapDispatcher old) {
+		if (old != null)
+			old.close(10000);
+	}
+
+	@Override
+	public TrapDispatchStats getTrapDispatchStats() {
+		TrapDispatchStats stats = new TrapDispatchStats();
+		TrapDispatcher d = dispatcher;
+		if (d == null)
+			return stats;
+
+		stats.setThreadCount(d.getThreadCount());
+		stats.setQueueSize(d.getQueueSize());
+		stats.setQueuedCount(d.getQueuedCount());
+		stats.setDispatchCount(d.getDispatchCount());
+		stats.setOverflowCount(d.getOverflowCount());
+		stats.setOverflowWaitMillis(d.getOverflowWaitMillis());
+		return stats;
+	}
+
 	@Override
 	public Message rpc(Message req, int timeout) throws IOException, TimeoutException {
 		WaitingCall call = table.set(req.getGuid());
 
-		String json = MessageCodec.encode(req);
-
-		synchronized (sendLock) {
-			if (sendLog.isDebugEnabled())
-				sendLog.debug("logpresso: send rpc [{}]", json);
-			websocket.send(json);
+		try {
+			send(req, "rpc");
+		} catch (IOException e) {
+			table.remove(req.getGuid());
+			throw e;
 		}
 
 		// wait response infinitely
 		Message m;
+		TrapDispatcher.beginBlockingCall();
 		try {
 			if (timeout == 0)
 				m = table.await(call);
@@ -114,6 +209,8 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 				m = table.await(call, timeout);
 		} catch (InterruptedException e) {
 			throw new RuntimeException("interrupted: " + e.getMessage());
+		} finally {
+			TrapDispatcher.endBlockingCall();
 		}
 
 		if (m.getErrorCode() != null)
@@ -122,6 +219,26 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 		return m;
 	}
 
+	@Override
+	public void rpc(Message req, RpcCallback callback) throws IOException {
+		table.set(req.getGuid(), callback);
+		try {
+			send(req, "async rpc");
+		} catch (IOException e) {
+			table.remove(req.getGuid());
+			throw e;
+		}
+	}
+
+	private void send(Message req, String type) throws IOException {
+		String json = MessageCodec.encode(req);
+		synchronized (sendLock) {
+			if (sendLog.isDebugEnabled())
+				sendLog.debug("logpresso: send {} [{}]", type, json);
+			websocket.send(json);
+		}
+	}
+
 	@Override
 	public void onMessage(WebSocketMessage msg) {
 		String json = (String) msg.getData();
@@ -136,6 +253,13 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 			table.signal(m.getRequestId(), m);
 
 		else if (m.getType() == Type.Trap) {
+			// closed dispatcher is already detached, retry with next one
+			TrapDispatcher d;
+			while ((d = dispatcher) != null) {
+				if (d.dispatch(m, listeners))
+					return;
+			}
+
 			for (TrapListener listener : listeners) {
 				try {
 					listener.onTrap(m);
@@ -152,6 +276,13 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 
 	@Override
 	public void onClose(Throwable t) {
+		// fail pending calls first, listeners draining queued traps may wait for them
+		TrapDispatcher old = detachDispatcher();
+		table.close();
+
+		// deliver queued traps before close notification
+		closeDispatcher(old);
+
 		for (TrapListener listener : listeners) {
 			try {
 				listener.onClose(t);
@@ -178,7 +309,11 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 	private void releaseResources() throws IOException {
 		super.close();
 		timer.cancel();
+
+		TrapDispatcher old = detachDispatcher();
 		table.close();
+		closeDispatcher(old);
+
 		websocket.close();
 	}
 
@@ -186,6 +321,10 @@ public class WebSocketSession extends AbstractSession implements WebSocketListen
 
 		@Override
 		public void run() {
+			int timeout = asyncRpcTimeout;
+			if (timeout > 0)
+				table.sweep(timeout);
+
 			if (websocket.isClosed())
 				return;
 
@@ -0,0 +1,120 @@
+package com.logpresso.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logpresso.client.bench.StandInServer;
+
+public class InsertPipelineTest {
+	private StandInServer server;
+	private Logpresso client;
+
+	@Before
+	public void setup() throws Exception {
+		server = new StandInServer(new ArrayList<Object>());
+		server.setRecordInserts(true);
+		client = new Logpresso();
+	}
+
+	@After
+	public void teardown() throws Exception {
+		client.close();
+		server.close();
+	}
+
+	@Test(timeout = 30000)
+	public void testOrderPerTable() throws Exception {
+		client.setInsertFlusherCount(2);
+		client.setInserFetchSize(100);
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+
+		// interleaved single and multi row inserts to tables on different flushers
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int seq = 0; seq < 1000; seq += 10) {
+			for (int t = 0; t < 4; t++) {
+				if (seq % 20 == 0) {
+					for (int i = 0; i < 10; i++)
+						futures.add(client.insert("t" + t, row(seq + i)));
+				} else {
+					futures.add(client.insert("t" + t, rows(seq, 10)));
+				}
+			}
+		}
+
+		int inserted = 0;
+		for (Future<Integer> f : futures)
+			inserted += f.get();
+
+		assertEquals(4000, inserted);
+		for (int t = 0; t < 4; t++)
+			assertSequence(server.getInsertedRows("t" + t), 1000);
+	}
+
+	@Test(timeout = 30000)
+	public void testConcurrentProducers() throws Exception {
+		client.setInsertFlusherCount(1);
+		client.setInserFetchSize(50);
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		List<Thread> producers = new ArrayList<Thread>();
+		for (int t = 0; t < 4; t++) {
+			final String tableName = "t" + t;
+			Thread producer = new Thread() {
+				@Override
+				public void run() {
+					try {
+						Future<Integer> last = null;
+						for (int seq = 0; seq < 2000; seq++)
+							last = client.insert(tableName, row(seq));
+						last.get();
+					} catch (Throwable t) {
+						synchronized (failures) {
+							failures.add(t);
+						}
+					}
+				}
+			};
+			producers.add(producer);
+			producer.start();
+		}
+
+		for (Thread producer : producers)
+			producer.join();
+
+		client.flush();
+		assertEquals(new ArrayList<Throwable>(), failures);
+		for (int t = 0; t < 4; t++)
+			assertSequence(server.getInsertedRows("t" + t), 2000);
+	}
+
+	static void assertSequence(List<Object> rows, int count) {
+		assertEquals(count, rows.size());
+		for (int i = 0; i < count; i++) {
+			@SuppressWarnings("unchecked")
+			Map<String, Object> m = (Map<String, Object>) rows.get(i);
+			assertEquals(i, ((Number) m.get("seq")).intValue());
+		}
+	}
+
+	static Tuple row(int seq) {
+		Tuple t = new Tuple();
+		t.put("seq", seq);
+		return t;
+	}
+
+	static List<Tuple> rows(int begin, int count) {
+		List<Tuple> l = new ArrayList<Tuple>();
+		for (int i = 0; i < count; i++)
+			l.add(row(begin + i));
+		return l;
+	}
+}
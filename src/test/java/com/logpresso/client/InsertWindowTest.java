@@ -0,0 +1,99 @@
+package com.logpresso.client;
+
+import static com.logpresso.client.InsertPipelineTest.assertSequence;
+import static com.logpresso.client.InsertPipelineTest.rows;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logpresso.client.bench.StandInServer;
+
+public class InsertWindowTest {
+	private StandInServer server;
+	private Logpresso client;
+
+	@Before
+	public void setup() throws Exception {
+		server = new StandInServer(new ArrayList<Object>());
+		server.setRecordInserts(true);
+		server.setInsertDelay(20);
+		client = new Logpresso();
+		client.setInsertFlusherCount(1);
+		client.setInserFetchSize(10);
+	}
+
+	@After
+	public void teardown() throws Exception {
+		client.close();
+		server.close();
+	}
+
+	@Test(timeout = 30000)
+	public void testWindowBound() throws Exception {
+		client.setInsertWindowSize(4);
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+
+		insert(1, 300);
+		int max = server.getMaxInsertInflight();
+		assertTrue("max in-flight " + max, max > 1 && max <= 4);
+		assertSequence(server.getInsertedRows("t0"), 300);
+	}
+
+	@Test(timeout = 30000)
+	public void testOrderedKeepsOtherTablesFlowing() throws Exception {
+		client.setInsertWindowSize(4);
+		client.setInsertOrdered(true);
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+
+		// all tables share one flusher, waiting table should not stop others
+		insert(3, 200);
+		assertEquals(1, server.getMaxTableInsertInflight());
+		assertEquals(3, server.getMaxInsertInflight());
+		for (int t = 0; t < 3; t++)
+			assertSequence(server.getInsertedRows("t" + t), 200);
+	}
+
+	@Test(timeout = 30000)
+	public void testSynchronousInsert() throws Exception {
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+
+		insert(2, 50);
+		assertEquals(1, server.getMaxInsertInflight());
+		for (int t = 0; t < 2; t++)
+			assertSequence(server.getInsertedRows("t" + t), 50);
+	}
+
+	@Test(timeout = 30000)
+	public void testCloseSendsDeferredBatches() throws Exception {
+		client.setInsertWindowSize(4);
+		client.setInsertOrdered(true);
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int seq = 0; seq < 100; seq += 10)
+			futures.add(client.insert("t0", rows(seq, 10)));
+
+		// ordered batches wait for responses while closing
+		client.close();
+		for (Future<Integer> f : futures)
+			assertEquals(10, (int) f.get());
+		assertSequence(server.getInsertedRows("t0"), 100);
+	}
+
+	private void insert(int tables, int count) throws Exception {
+		List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+		for (int seq = 0; seq < count; seq += 10)
+			for (int t = 0; t < tables; t++)
+				futures.add(client.insert("t" + t, rows(seq, 10)));
+
+		for (Future<Integer> f : futures)
+			assertEquals(10, (int) f.get());
+	}
+}
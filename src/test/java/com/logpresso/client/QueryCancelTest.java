@@ -0,0 +1,103 @@
+package com.logpresso.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logpresso.client.bench.StandInServer;
+
+public class QueryCancelTest {
+	private StandInServer server;
+	private Logpresso client;
+
+	@Before
+	public void setup() throws Exception {
+		List<Object> rows = new ArrayList<Object>();
+		for (int i = 0; i < 25; i++) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("seq", i);
+			rows.add(m);
+		}
+
+		server = new StandInServer(rows);
+		server.setQueryCancel("FAILURE", 1001, "disk full");
+		client = new Logpresso();
+		client.setFetchSize(10);
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+	}
+
+	@After
+	public void teardown() throws Exception {
+		client.close();
+		server.close();
+	}
+
+	@Test(timeout = 30000)
+	public void testQuery() throws Exception {
+		try {
+			client.query("table t");
+			fail("cancelled query should fail");
+		} catch (IllegalStateException e) {
+			assertCancelled(e);
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void testPipelinedCursor() throws Exception {
+		Cursor cursor = client.query("table t", true);
+		try {
+			// loaded rows are returned before failure
+			for (int i = 0; i < 25; i++) {
+				assertTrue(cursor.hasNext());
+				assertEquals(i, ((Number) cursor.next().get("seq")).intValue());
+			}
+
+			try {
+				cursor.hasNext();
+				fail("truncated result should not end normally");
+			} catch (IllegalStateException e) {
+				assertCancelled(e);
+			}
+
+			try {
+				cursor.next();
+				fail("truncated result should not end normally");
+			} catch (IllegalStateException e) {
+				assertCancelled(e);
+			}
+		} finally {
+			cursor.close();
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void testPartialFetchIsNotCancel() throws Exception {
+		server.setQueryCancel("PARTIAL_FETCH", null, null);
+		Cursor cursor = client.query("table t", true);
+		try {
+			int count = 0;
+			while (cursor.hasNext()) {
+				cursor.next();
+				count++;
+			}
+			assertEquals(25, count);
+		} finally {
+			cursor.close();
+		}
+	}
+
+	private static void assertCancelled(IllegalStateException e) {
+		assertTrue(e.getMessage(), e.getMessage().startsWith("query cancelled"));
+		assertTrue(e.getMessage(), e.getMessage().contains("query string [table t]"));
+		assertTrue(e.getMessage(), e.getMessage().contains("LOGPRESSO-01001 [disk full]"));
+	}
+}
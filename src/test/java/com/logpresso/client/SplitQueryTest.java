@@ -0,0 +1,155 @@
+package com.logpresso.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.logpresso.client.bench.StandInServer;
+
+public class SplitQueryTest {
+	private static final Date FROM = new Date(1700000000000L);
+	private static final Date TO = new Date(FROM.getTime() + 3600 * 1000L);
+
+	private StandInServer server;
+	private Logpresso client;
+
+	@After
+	public void teardown() throws Exception {
+		if (client != null)
+			client.close();
+		if (server != null)
+			server.close();
+	}
+
+	@Test(timeout = 30000)
+	public void testUnordered() throws Exception {
+		connect(timeRows(5, true));
+
+		List<Tuple> result = readAll(client.querySplit(spec(null, SplitQuerySpec.MergeMode.UNORDERED)));
+		assertEquals(20, result.size());
+		assertEquals(4, server.getCreatedQueryCount());
+		assertEquals(4, server.getRemovedQueryCount());
+	}
+
+	@Test(timeout = 30000)
+	public void testTimeDescending() throws Exception {
+		connect(timeRows(5, true));
+
+		List<Tuple> result = readAll(client.querySplit(spec("eval y = n", SplitQuerySpec.MergeMode.TIME_DESC)));
+		assertEquals(20, result.size());
+		for (int i = 0; i < result.size(); i++)
+			assertEquals(i / 4, result.get(i).get("n"));
+		assertEquals(4, server.getRemovedQueryCount());
+	}
+
+	@Test(timeout = 30000)
+	public void testTimeAscending() throws Exception {
+		connect(timeRows(5, false));
+
+		List<Tuple> result = readAll(client.querySplit(spec(null, SplitQuerySpec.MergeMode.TIME_ASC)));
+		assertEquals(20, result.size());
+		for (int i = 1; i < result.size(); i++) {
+			Date prev = (Date) result.get(i - 1).get("_time");
+			Date curr = (Date) result.get(i).get("_time");
+			assertFalse(prev.after(curr));
+		}
+	}
+
+	@Test(timeout = 30000)
+	public void testAggregate() throws Exception {
+		List<Object> rows = new ArrayList<Object>();
+		rows.add(statsRow("x", 2L, 10L));
+		rows.add(statsRow("y", 1L, 3L));
+		connect(rows);
+
+		// fetch size below group count, merged page by page
+		client.setFetchSize(1);
+		SplitQuerySpec spec = spec("search x > 0 | stats count, sum(x) as s by a", SplitQuerySpec.MergeMode.AGGREGATE);
+		spec.setConcurrency(2);
+
+		List<Tuple> result = readAll(client.querySplit(spec));
+		assertEquals(2, result.size());
+		assertEquals("x", result.get(0).get("a"));
+		assertEquals(8L, result.get(0).get("count"));
+		assertEquals(40L, result.get(0).get("s"));
+		assertEquals("y", result.get(1).get("a"));
+		assertEquals(4L, result.get(1).get("count"));
+		assertEquals(12L, result.get(1).get("s"));
+
+		// merged sub queries are removed
+		assertEquals(4, server.getRemovedQueryCount());
+	}
+
+	@Test(timeout = 30000)
+	public void testRejectNonMergeableTail() throws Exception {
+		connect(timeRows(5, true));
+
+		assertRejected(spec("stats avg(x) by a", SplitQuerySpec.MergeMode.AGGREGATE));
+		assertRejected(spec("sort n", SplitQuerySpec.MergeMode.TIME_DESC));
+		assertRejected(spec("head 10", SplitQuerySpec.MergeMode.TIME_ASC));
+		assertEquals(0, server.getCreatedQueryCount());
+	}
+
+	private void assertRejected(SplitQuerySpec spec) throws Exception {
+		try {
+			client.querySplit(spec);
+			fail("should reject [" + spec.getTail() + "]");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains(spec.getTail()));
+		}
+	}
+
+	private void connect(List<Object> rows) throws Exception {
+		server = new StandInServer(rows);
+		client = new Logpresso();
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+	}
+
+	private static SplitQuerySpec spec(String tail, SplitQuerySpec.MergeMode mode) {
+		SplitQuerySpec spec = new SplitQuerySpec("t", FROM, TO, tail);
+		spec.setSplitCount(4);
+		spec.setMergeMode(mode);
+		return spec;
+	}
+
+	private static List<Tuple> readAll(Cursor cursor) throws Exception {
+		List<Tuple> l = new ArrayList<Tuple>();
+		try {
+			while (cursor.hasNext())
+				l.add(cursor.next());
+		} finally {
+			cursor.close();
+		}
+		return l;
+	}
+
+	// every sub query returns same rows
+	private static List<Object> timeRows(int count, boolean descending) {
+		List<Object> rows = new ArrayList<Object>();
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("n", i);
+			m.put("_time", new Date(FROM.getTime() + (descending ? count - i : i) * 1000L));
+			rows.add(m);
+		}
+		return rows;
+	}
+
+	private static Map<String, Object> statsRow(String a, long count, long sum) {
+		Map<String, Object> m = new HashMap<String, Object>();
+		m.put("a", a);
+		m.put("count", count);
+		m.put("s", sum);
+		return m;
+	}
+}
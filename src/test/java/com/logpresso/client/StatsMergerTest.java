@@ -0,0 +1,111 @@
+package com.logpresso.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class StatsMergerTest {
+
+	@Test
+	public void testMergeByKeys() {
+		StatsMerger merger = StatsMerger.parse("search x > 0 | stats count, sum(x) as s by a, b");
+
+		// first sub query
+		merger.add(row("a", "x", "b", 1, "count", 2L, "s", 10L));
+		merger.add(row("a", "y", "b", 1, "count", 1L, "s", 3L));
+
+		// second sub query
+		merger.add(row("a", "y", "b", 1, "count", 4L, "s", 7L));
+		merger.add(row("a", "x", "b", 2, "count", 1L, "s", 5L));
+		merger.add(row("a", "x", "b", 1, "count", 3L, "s", 1L));
+
+		List<Tuple> result = merger.getResult();
+		assertEquals(3, result.size());
+		assertGroup(result.get(0), "x", 1, 5L, 11L);
+		assertGroup(result.get(1), "y", 1, 5L, 10L);
+		assertGroup(result.get(2), "x", 2, 1L, 5L);
+	}
+
+	@Test
+	public void testMergeWithoutKeys() {
+		StatsMerger merger = StatsMerger.parse("stats c, min(x) as lo, max(x) as hi");
+		merger.add(row("c", 3L, "lo", 2, "hi", 8));
+		merger.add(row("c", 2L, "lo", 1.5, "hi", 9L));
+
+		List<Tuple> result = merger.getResult();
+		assertEquals(1, result.size());
+		assertEquals(5L, result.get(0).get("c"));
+		assertEquals(1.5, result.get(0).get("lo"));
+		assertEquals(9L, result.get(0).get("hi"));
+	}
+
+	@Test
+	public void testQuotedPipe() {
+		// pipe and command name in string literal are not commands
+		StatsMerger merger = StatsMerger.parse("eval t = \"a | sort\" | stats count by t");
+		merger.add(row("t", "a | sort", "count", 1L));
+		merger.add(row("t", "a | sort", "count", 2L));
+		assertEquals(3L, merger.getResult().get(0).get("count"));
+	}
+
+	@Test
+	public void testRejectNonMergeable() {
+		assertRejected(null);
+		assertRejected("eval x = 1");
+		assertRejected("stats avg(x) by a");
+		assertRejected("sort x | stats count");
+		assertRejected("head 10 | stats count by a");
+		assertRejected("stats count, ");
+	}
+
+	@Test
+	public void testIndexOfBy() {
+		assertEquals(8, StatsMerger.indexOfBy("count(x) by a"));
+		assertEquals(5, StatsMerger.indexOfBy("count BY a, b"));
+		assertEquals(-1, StatsMerger.indexOfBy("count"));
+		assertEquals(-1, StatsMerger.indexOfBy("bytes"));
+		assertEquals(-1, StatsMerger.indexOfBy("max(f(a by b))"));
+		assertEquals(-1, StatsMerger.indexOfBy("count as \"n by m\""));
+	}
+
+	@Test
+	public void testCombineMixedNumbers() {
+		assertEquals(3L, StatsMerger.combine("count", 1, 2L));
+		assertEquals(3L, StatsMerger.combine("sum", (short) 1, 2));
+		assertEquals(3.5, StatsMerger.combine("sum", 1, 2.5));
+		assertEquals(3.5, StatsMerger.combine("sum", 1.5, 2L));
+		assertEquals(5, StatsMerger.combine("sum", null, 5));
+		assertEquals(5L, StatsMerger.combine("sum", 5L, null));
+
+		assertEquals(2.5, StatsMerger.combine("min", 3, 2.5));
+		assertEquals(3L, StatsMerger.combine("max", 3L, 2.5));
+		assertEquals(2, StatsMerger.combine("min", 2, 2L));
+		assertEquals("a", StatsMerger.combine("min", "b", "a"));
+		assertEquals("b", StatsMerger.combine("max", "b", "a"));
+	}
+
+	private static void assertRejected(String tail) {
+		try {
+			StatsMerger.parse(tail);
+			fail("should reject [" + tail + "]");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	private static void assertGroup(Tuple t, String a, int b, long count, long sum) {
+		assertEquals(a, t.get("a"));
+		assertEquals(b, t.get("b"));
+		assertEquals(count, t.get("count"));
+		assertEquals(sum, t.get("s"));
+	}
+
+	private static Tuple row(Object... pairs) {
+		Tuple t = new Tuple();
+		for (int i = 0; i < pairs.length; i += 2)
+			t.put((String) pairs[i], pairs[i + 1]);
+		return t;
+	}
+}
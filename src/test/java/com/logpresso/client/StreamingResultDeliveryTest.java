@@ -0,0 +1,154 @@
+package com.logpresso.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.logpresso.client.bench.StandInServer;
+
+public class StreamingResultDeliveryTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private StandInServer server;
+	private Logpresso client;
+
+	@After
+	public void teardown() throws Exception {
+		if (client != null)
+			client.close();
+		if (server != null)
+			server.close();
+	}
+
+	@Test(timeout = 30000)
+	public void testInlineDelivery() throws Exception {
+		connect(500);
+		Recorder recorder = new Recorder(null);
+		run(recorder);
+		recorder.assertComplete(500);
+	}
+
+	@Test(timeout = 30000)
+	public void testBlockedReceiverKeepsOrder() throws Exception {
+		connect(500);
+
+		// every trap is larger than limit, receiver waits for each delivery
+		client.setStreamingResultBuffer(1000, null);
+		Recorder recorder = new Recorder(null) {
+			@Override
+			public void onRows(Query query, List<Tuple> rows, boolean last) {
+				sleep(1);
+				super.onRows(query, rows, last);
+			}
+		};
+
+		run(recorder);
+		recorder.assertComplete(500);
+	}
+
+	@Test(timeout = 30000)
+	public void testSpillWhileCallbackBlocked() throws Exception {
+		connect(500);
+		File spillDir = folder.newFolder();
+		client.setStreamingResultBuffer(1000, spillDir);
+
+		CountDownLatch release = new CountDownLatch(1);
+		Recorder recorder = new Recorder(release);
+		int id = run(recorder);
+
+		// receiver is not blocked, traps behind stuck callback go to disk
+		long deadline = System.currentTimeMillis() + 5000;
+		while (spillDir.list().length == 0 && System.currentTimeMillis() < deadline)
+			sleep(10);
+		assertEquals(1, spillDir.list().length);
+
+		release.countDown();
+		recorder.assertComplete(500);
+
+		client.removeQuery(id);
+		assertEquals(0, spillDir.list().length);
+	}
+
+	private void connect(int count) throws Exception {
+		List<Object> rows = new ArrayList<Object>();
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("seq", i);
+			rows.add(m);
+		}
+
+		server = new StandInServer(rows);
+		server.setStreamPageSize(10);
+		client = new Logpresso();
+		client.connect("127.0.0.1", server.getPort(), "test", "test");
+	}
+
+	private int run(Recorder recorder) throws Exception {
+		int id = client.createQuery("table t", recorder);
+		client.startQuery(id);
+		return id;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class Recorder implements StreamingResultSet {
+		private final CountDownLatch release;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private final List<Integer> received = new ArrayList<Integer>();
+		private int lastCalls;
+
+		public Recorder(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void onRows(Query query, List<Tuple> rows, boolean last) {
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			synchronized (this) {
+				for (Tuple row : rows)
+					received.add(((Number) row.get("seq")).intValue());
+				if (last)
+					lastCalls++;
+			}
+
+			if (last)
+				done.countDown();
+		}
+
+		public void assertComplete(int count) throws InterruptedException {
+			assertTrue(done.await(20, TimeUnit.SECONDS));
+			synchronized (this) {
+				assertEquals(1, lastCalls);
+				assertEquals(count, received.size());
+				for (int i = 0; i < count; i++)
+					assertEquals(i, (int) received.get(i));
+			}
+		}
+	}
+}
@@ -0,0 +1,577 @@
+/*
+ * Copyright 2013 Eediom Inc.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.logpresso.client.bench;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import org.araqne.codec.Base64;
+import org.araqne.codec.FastEncodingRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.logpresso.client.Message;
+import com.logpresso.client.Message.Type;
+import com.logpresso.client.http.impl.MessageCodec;
+import com.logpresso.client.http.impl.StreamingResultDecoder;
+
+/**
+ * 단위 테스트와 벤치마크용 인프로세스 메시지버스 웹소켓 서버입니다. 로그인, 트랩 구독, 쿼리 생성/시작/결과 조회, insertBatch 요청에 응답하며,
+ * 모든 쿼리는 생성 시 주어진 행 목록을 결과로 반환합니다. 처리 시간을 최소화하여 클라이언트 측 처리량만 측정할 수 있도록 합니다.
+ * 테스트에서는 insertBatch 응답을 지연시켜 동시에 처리 중인 요청 갯수를 관찰하거나, 입력된 행을 테이블 별로 기록할 수 있습니다.
+ * 
+ * @since 1.2.0
+ * @author xeraph@eediom.com
+ * 
+ */
+public class StandInServer implements Closeable {
+	private static final Charset UTF8 = Charset.forName("utf-8");
+	private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+	private final Logger logger = LoggerFactory.getLogger(StandInServer.class);
+
+	private final ServerSocket server;
+	private final Thread acceptor;
+	private final List<Object> rows;
+	private final List<Connection> connections = new CopyOnWriteArrayList<Connection>();
+	private final AtomicInteger queryIdGen = new AtomicInteger();
+	private final AtomicInteger removedQueryCount = new AtomicInteger();
+	private volatile int streamPageSize = 100;
+
+	// cancel reason and error of eof trap, null if query ends normally
+	private volatile String cancelReason;
+	private volatile Integer errorCode;
+	private volatile String errorDetail;
+
+	// query status traps are ordered by stamp
+	private final AtomicLong stampGen = new AtomicLong();
+	private final AtomicLong insertBatchCount = new AtomicLong();
+	private volatile boolean closed;
+
+	// insertBatch response delay and observed in-flight requests
+	private volatile long insertDelay;
+	private final ScheduledExecutorService responder;
+	private final AtomicInteger insertInflight = new AtomicInteger();
+	private final AtomicInteger maxInsertInflight = new AtomicInteger();
+	private final ConcurrentMap<String, AtomicInteger> tableInflights = new ConcurrentHashMap<String, AtomicInteger>();
+	private final AtomicInteger maxTableInsertInflight = new AtomicInteger();
+
+	// decoded insert rows by table, guarded by itself
+	private volatile boolean recordInserts;
+	private final Map<String, List<Object>> insertedRows = new HashMap<String, List<Object>>();
+	private final StreamingResultDecoder decoder = new StreamingResultDecoder("Stand-in Insert Decoder", 1);
+
+	/**
+	 * 
+	 * @param rows
+	 *            모든 쿼리의 결과로 반환할 행 목록
+	 */
+	public StandInServer(List<Object> rows) throws IOException {
+		this.rows = rows;
+		this.server = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+		this.acceptor = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				acceptLoop();
+			}
+		}, "Stand-in Msgbus Acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+
+		this.responder = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "Stand-in Msgbus Responder");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * 생성된 쿼리 갯수를 반환합니다.
+	 */
+	public int getCreatedQueryCount() {
+		return queryIdGen.get();
+	}
+
+	/**
+	 * 스트리밍 쿼리 결과 트랩 하나에 담을 행 갯수를 설정합니다. 기본값은 100입니다.
+	 */
+	public void setStreamPageSize(int streamPageSize) {
+		this.streamPageSize = streamPageSize;
+	}
+
+	/**
+	 * 이후 시작되는 쿼리가 주어진 사유로 취소되도록 설정합니다. 쿼리는 모든 결과를 적재한 후 취소 상태로 종료됩니다.
+	 * 
+	 * @param cancelReason
+	 *            취소 사유, null이면 정상 종료
+	 * @param errorCode
+	 *            오류 코드 (NULL 허용)
+	 * @param errorDetail
+	 *            오류 상세 (NULL 허용)
+	 */
+	public void setQueryCancel(String cancelReason, Integer errorCode, String errorDetail) {
+		this.errorCode = errorCode;
+		this.errorDetail = errorDetail;
+		this.cancelReason = cancelReason;
+	}
+
+	/**
+	 * 수신한 removeQuery 요청 갯수를 반환합니다.
+	 */
+	public int getRemovedQueryCount() {
+		return removedQueryCount.get();
+	}
+
+	/**
+	 * 수신한 insertBatch 요청 갯수를 반환합니다.
+	 */
+	public long getInsertBatchCount() {
+		return insertBatchCount.get();
+	}
+
+	/**
+	 * insertBatch 응답 지연 시간을 설정합니다. 0보다 크면 요청을 받은 순서대로 지연 시간 후에 응답합니다.
+	 * 
+	 * @param millis
+	 *            밀리초 단위 지연 시간
+	 */
+	public void setInsertDelay(long millis) {
+		this.insertDelay = millis;
+	}
+
+	/**
+	 * 응답을 보내지 않은 insertBatch 요청의 최대 동시 갯수를 반환합니다.
+	 */
+	public int getMaxInsertInflight() {
+		return maxInsertInflight.get();
+	}
+
+	/**
+	 * 테이블 하나에 대해 응답을 보내지 않은 insertBatch 요청의 최대 동시 갯수를 반환합니다.
+	 */
+	public int getMaxTableInsertInflight() {
+		return maxTableInsertInflight.get();
+	}
+
+	/**
+	 * insertBatch로 입력된 행을 디코딩하여 테이블 별로 기록할지 설정합니다.
+	 */
+	public void setRecordInserts(boolean recordInserts) {
+		this.recordInserts = recordInserts;
+	}
+
+	/**
+	 * 기록된 입력 행을 수신 순서대로 반환합니다.
+	 * 
+	 * @param tableName
+	 *            테이블 이름
+	 */
+	public List<Object> getInsertedRows(String tableName) {
+		synchronized (insertedRows) {
+			List<Object> rows = insertedRows.get(tableName);
+			return rows == null ? new ArrayList<Object>() : new ArrayList<Object>(rows);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		server.close();
+		responder.shutdownNow();
+		decoder.close();
+		for (Connection c : connections)
+			c.close();
+	}
+
+	private static void updateMax(AtomicInteger max, int value) {
+		while (true) {
+			int old = max.get();
+			if (value <= old || max.compareAndSet(old, value))
+				return;
+		}
+	}
+
+	private void acceptLoop() {
+		while (!closed) {
+			try {
+				Socket socket = server.accept();
+				socket.setTcpNoDelay(true);
+				Connection c = new Connection(socket);
+				connections.add(c);
+
+				Thread t = new Thread(c, "Stand-in Msgbus Connection " + socket.getRemoteSocketAddress());
+				t.setDaemon(true);
+				t.start();
+			} catch (IOException e) {
+				if (!closed)
+					logger.error("logpresso: stand-in server cannot accept connection", e);
+			}
+		}
+	}
+
+	private class Connection implements Runnable {
+		private final Socket socket;
+		private final DataInputStream is;
+		private final OutputStream os;
+
+		public Connection(Socket socket) throws IOException {
+			this.socket = socket;
+			this.is = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 65536));
+			this.os = socket.getOutputStream();
+		}
+
+		@Override
+		public void run() {
+			try {
+				handshake();
+
+				ByteArrayOutputStream payload = new ByteArrayOutputStream();
+				int messageOpcode = 0;
+				while (!closed) {
+					int b0 = is.readUnsignedByte();
+					int b1 = is.readUnsignedByte();
+					boolean fin = (b0 & 0x80) != 0;
+					int opcode = b0 & 0x0f;
+
+					long len = b1 & 0x7f;
+					if (len == 126)
+						len = is.readUnsignedShort();
+					else if (len == 127)
+						len = is.readLong();
+
+					byte[] mask = new byte[4];
+					if ((b1 & 0x80) != 0)
+						is.readFully(mask);
+
+					byte[] data = new byte[(int) len];
+					is.readFully(data);
+					for (int i = 0; i < data.length; i++)
+						data[i] ^= mask[i & 3];
+
+					if (opcode == 8) {
+						writeFrame(8, new byte[0]);
+						break;
+					} else if (opcode == 9) {
+						writeFrame(10, data);
+						continue;
+					} else if (opcode == 10) {
+						continue;
+					}
+
+					if (opcode != 0)
+						messageOpcode = opcode;
+					payload.write(data);
+					if (!fin)
+						continue;
+
+					byte[] message = payload.toByteArray();
+					payload.reset();
+					dispatch(messageOpcode, message);
+				}
+			} catch (IOException e) {
+				// connection closed
+			} finally {
+				connections.remove(this);
+				close();
+			}
+		}
+
+		private void handshake() throws IOException {
+			String key = null;
+			while (true) {
+				String line = readLine(is);
+				if (line.isEmpty())
+					break;
+
+				int p = line.indexOf(':');
+				if (p > 0 && line.substring(0, p).trim().equalsIgnoreCase("Sec-WebSocket-Key"))
+					key = line.substring(p + 1).trim();
+			}
+
+			if (key == null)
+				throw new IOException("not a websocket handshake");
+
+			String accept = null;
+			try {
+				MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+				accept = new String(Base64.encode(sha1.digest((key + WEBSOCKET_GUID).getBytes(UTF8))));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+
+			String resp = "HTTP/1.1 101 Switching Protocols\r\n" + "Upgrade: websocket\r\n" + "Connection: Upgrade\r\n"
+					+ "Sec-WebSocket-Accept: " + accept + "\r\n\r\n";
+			synchronized (os) {
+				os.write(resp.getBytes(UTF8));
+				os.flush();
+			}
+		}
+
+		private void dispatch(int opcode, byte[] payload) throws IOException {
+			// msgbus uses text frames only
+			if (opcode != 1)
+				return;
+
+			String text = new String(payload, UTF8);
+			if (text.equals("ping"))
+				return;
+
+			Message req = MessageCodec.decode(text);
+
+			String method = req.getMethod();
+			Map<String, Object> params = new HashMap<String, Object>();
+			List<Message> traps = new ArrayList<Message>();
+
+			if (method.endsWith("LogQueryPlugin.createQuery")) {
+				params.put("id", queryIdGen.incrementAndGet());
+			} else if (method.endsWith("LogQueryPlugin.startQuery")) {
+				// query is completed as soon as it starts
+				int id = (Integer) req.get("id");
+				if (Boolean.TRUE.equals(req.get("streaming")))
+					streamResult(id, traps);
+
+				Map<String, Object> eof = new HashMap<String, Object>();
+				eof.put("id", id);
+				eof.put("type", "eof");
+				eof.put("total_count", rows.size());
+				eof.put("stamp", stampGen.incrementAndGet());
+				if (cancelReason != null) {
+					eof.put("cancel_reason", cancelReason);
+					eof.put("error_code", errorCode);
+					eof.put("error_detail", errorDetail);
+				}
+				traps.add(trap("logdb-query-" + id, eof));
+			} else if (method.endsWith("LogQueryPlugin.getResult")) {
+				long offset = ((Number) req.get("offset")).longValue();
+				int limit = ((Number) req.get("limit")).intValue();
+				params = encodeResult(offset, limit);
+			} else if (method.endsWith("LogQueryPlugin.removeQuery")) {
+				removedQueryCount.incrementAndGet();
+			} else if (method.endsWith("LogQueryPlugin.insertBatch")) {
+				insertBatchCount.incrementAndGet();
+				if (recordInserts)
+					record(req);
+
+				if (insertDelay > 0) {
+					respondLater(req, params);
+					return;
+				}
+			}
+
+			Message resp = new Message();
+			resp.setType(Type.Response);
+			resp.setRequestId(req.getGuid());
+			resp.setMethod(method);
+			resp.setParameters(params);
+			writeFrame(1, MessageCodec.encode(resp).getBytes(UTF8));
+
+			for (Message trap : traps)
+				writeFrame(1, MessageCodec.encode(trap).getBytes(UTF8));
+		}
+
+		// plain row result traps of streaming query, last one is empty
+		private void streamResult(int id, List<Message> traps) {
+			int pageSize = streamPageSize;
+			for (int offset = 0; offset < rows.size(); offset += pageSize) {
+				List<Object> page = new ArrayList<Object>(rows.subList(offset, Math.min(offset + pageSize, rows.size())));
+				traps.add(trap("logdb-query-result-" + id, resultPage(page, false)));
+			}
+			traps.add(trap("logdb-query-result-" + id, resultPage(new ArrayList<Object>(), true)));
+		}
+
+		private Map<String, Object> resultPage(List<Object> page, boolean last) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("rows", page);
+			m.put("last", last);
+			return m;
+		}
+
+		private Message trap(String method, Map<String, Object> params) {
+			Message trap = new Message();
+			trap.setType(Type.Trap);
+			trap.setMethod(method);
+			trap.setParameters(params);
+			return trap;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void record(Message req) throws IOException {
+			String tableName = (String) req.get("table");
+			List<Object> rows = null;
+			try {
+				rows = decoder.decode((List<Map<String, Object>>) req.get("bins"));
+			} catch (ExecutionException e) {
+				throw new IOException(e);
+			}
+
+			synchronized (insertedRows) {
+				List<Object> l = insertedRows.get(tableName);
+				if (l == null) {
+					l = new ArrayList<Object>();
+					insertedRows.put(tableName, l);
+				}
+				l.addAll(rows);
+			}
+		}
+
+		private void respondLater(Message req, Map<String, Object> params) {
+			final AtomicInteger tableInflight = tableInflight((String) req.get("table"));
+			updateMax(maxInsertInflight, insertInflight.incrementAndGet());
+			updateMax(maxTableInsertInflight, tableInflight.incrementAndGet());
+
+			final Message resp = new Message();
+			resp.setType(Type.Response);
+			resp.setRequestId(req.getGuid());
+			resp.setMethod(req.getMethod());
+			resp.setParameters(params);
+
+			responder.schedule(new Runnable() {
+				@Override
+				public void run() {
+					// count down before client sees the response
+					insertInflight.decrementAndGet();
+					tableInflight.decrementAndGet();
+					try {
+						writeFrame(1, MessageCodec.encode(resp).getBytes(UTF8));
+					} catch (IOException e) {
+						// connection closed
+					}
+				}
+			}, insertDelay, TimeUnit.MILLISECONDS);
+		}
+
+		private AtomicInteger tableInflight(String tableName) {
+			AtomicInteger counter = tableInflights.get(tableName);
+			if (counter == null) {
+				counter = new AtomicInteger();
+				AtomicInteger old = tableInflights.putIfAbsent(tableName, counter);
+				if (old != null)
+					counter = old;
+			}
+			return counter;
+		}
+
+		// same layout with logdb msgbus binary result encoding
+		private Map<String, Object> encodeResult(long offset, int limit) {
+			int from = (int) Math.min(offset, rows.size());
+			int to = (int) Math.min(offset + limit, rows.size());
+
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("result", new ArrayList<Object>(rows.subList(from, to)).toArray());
+			m.put("count", rows.size());
+
+			ByteBuffer bb = new FastEncodingRule().encode(m);
+			byte[] encoded = bb.array();
+
+			Deflater c = new Deflater();
+			byte[] compressed = null;
+			int compressedSize = 0;
+			try {
+				c.setInput(encoded, 0, encoded.length);
+				c.finish();
+				compressed = new byte[encoded.length + (encoded.length >> 3) + 64];
+				compressedSize = c.deflate(compressed);
+			} finally {
+				c.end();
+			}
+
+			byte[] b = new byte[compressedSize];
+			System.arraycopy(compressed, 0, b, 0, compressedSize);
+
+			Map<String, Object> params = new HashMap<String, Object>();
+			params.put("uncompressed_size", encoded.length);
+			params.put("binary", new String(Base64.encode(b)));
+			return params;
+		}
+
+		private void writeFrame(int opcode, byte[] payload) throws IOException {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream(payload.length + 10);
+			bos.write(0x80 | opcode);
+			if (payload.length < 126) {
+				bos.write(payload.length);
+			} else if (payload.length < 65536) {
+				bos.write(126);
+				bos.write(payload.length >> 8);
+				bos.write(payload.length);
+			} else {
+				bos.write(127);
+				long len = payload.length;
+				for (int i = 7; i >= 0; i--)
+					bos.write((int) (len >> (i * 8)));
+			}
+			bos.write(payload);
+
+			synchronized (os) {
+				bos.writeTo(os);
+				os.flush();
+			}
+		}
+
+		public void close() {
+			try {
+				socket.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	private static String readLine(InputStream is) throws IOException {
+		StringBuilder sb = new StringBuilder();
+		while (true) {
+			int c = is.read();
+			if (c < 0)
+				throw new IOException("unexpected end of stream");
+			if (c == '\n')
+				break;
+			if (c != '\r')
+				sb.append((char) c);
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,98 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.logpresso.client.InsertTuning;
+
+public class InsertBatchControllerTest {
+	private static final long MS = 1000000L;
+
+	@Test
+	public void testInitialState() {
+		InsertBatchController c = new InsertBatchController();
+		assertEquals(2000, c.getBatchRows(2000));
+		assertEquals(1, c.getBatchRows(0));
+
+		// no sample yet
+		assertEquals(50, c.getLingerMillis(InsertTuning.LATENCY, 100, 1000));
+		assertEquals(30, c.getLingerMillis(InsertTuning.LATENCY, 100, 30));
+		assertEquals(1000, c.getLingerMillis(InsertTuning.THROUGHPUT, 100, 1000));
+	}
+
+	@Test
+	public void testStaticIgnoresSamples() {
+		InsertBatchController c = new InsertBatchController();
+		c.observe(InsertTuning.STATIC, 2000, 0, 500 * MS, 100000, 2000, 100);
+		assertEquals(2000, c.getBatchRows(2000));
+		assertEquals(50, c.getLingerMillis(InsertTuning.LATENCY, 100, 1000));
+	}
+
+	@Test
+	public void testLatencyShrinksSlowBatches() {
+		InsertBatchController c = new InsertBatchController();
+		c.observe(InsertTuning.LATENCY, 2000, 10 * MS, 190 * MS, 0, 2000, 100);
+		assertEquals(1500, c.getBatchRows(2000));
+		assertEquals(0, c.getLingerMillis(InsertTuning.LATENCY, 100, 1000));
+
+		for (int i = 0; i < 100; i++)
+			c.observe(InsertTuning.LATENCY, 1000, 0, 200 * MS, 0, 2000, 100);
+		assertEquals(50, c.getBatchRows(2000));
+	}
+
+	@Test
+	public void testLatencyGrowsWithBacklog() {
+		InsertBatchController c = new InsertBatchController();
+		for (int i = 0; i < 100; i++)
+			c.observe(InsertTuning.LATENCY, 1000, 0, 200 * MS, 0, 2000, 100);
+		assertEquals(50, c.getBatchRows(2000));
+
+		// fast responses, linger takes half of remaining budget
+		for (int i = 0; i < 50; i++)
+			c.observe(InsertTuning.LATENCY, 50, 0, 20 * MS, 0, 2000, 100);
+		assertEquals(50, c.getBatchRows(2000));
+		long linger = c.getLingerMillis(InsertTuning.LATENCY, 100, 1000);
+		assertTrue("linger " + linger, linger >= 39 && linger <= 40);
+
+		// queue is growing, larger batches up to max rows
+		for (int i = 0; i < 100; i++)
+			c.observe(InsertTuning.LATENCY, 50, 0, 20 * MS, 100000, 2000, 100);
+		assertEquals(2000, c.getBatchRows(5000));
+	}
+
+	@Test
+	public void testThroughputHillClimbing() {
+		InsertBatchController c = new InsertBatchController();
+		c.observe(InsertTuning.THROUGHPUT, 1000, 0, 100 * MS, 0, 1000, 100);
+		assertEquals(1000, c.getBatchRows(1000));
+
+		// throughput drops, direction reverses and batch shrinks
+		c.observe(InsertTuning.THROUGHPUT, 1000, 0, 200 * MS, 0, 1000, 100);
+		assertEquals(800, c.getBatchRows(1000));
+
+		// throughput improves, keeps shrinking
+		c.observe(InsertTuning.THROUGHPUT, 800, 0, 50 * MS, 0, 1000, 100);
+		assertEquals(640, c.getBatchRows(1000));
+
+		// batch cut by linger tells nothing about throughput
+		c.observe(InsertTuning.THROUGHPUT, 100, 0, 1000 * MS, 0, 1000, 100);
+		assertEquals(640, c.getBatchRows(1000));
+
+		// throughput drops again, grows
+		c.observe(InsertTuning.THROUGHPUT, 640, 0, 100 * MS, 0, 1000, 100);
+		assertEquals(801, c.getBatchRows(1000));
+	}
+
+	@Test
+	public void testMaxRowsChange() {
+		InsertBatchController c = new InsertBatchController();
+		c.observe(InsertTuning.THROUGHPUT, 1000, 0, 100 * MS, 0, 1000, 100);
+		assertEquals(500, c.getBatchRows(500));
+
+		// lowered max rows bounds later tuning
+		c.observe(InsertTuning.THROUGHPUT, 500, 0, 10 * MS, 0, 500, 100);
+		assertEquals(500, c.getBatchRows(1000));
+	}
+}
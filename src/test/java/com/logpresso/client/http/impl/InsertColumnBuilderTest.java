@@ -0,0 +1,79 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.logpresso.client.Tuple;
+import com.logpresso.client.TupleSchema;
+
+public class InsertColumnBuilderTest {
+
+	@Test
+	public void testMapRows() {
+		InsertColumnBuilder builder = new InsertColumnBuilder(16);
+		builder.add(row("a", 1, "b", "x"));
+		builder.add(row("a", 2));
+		builder.add(row("b", "y", "c", 3L));
+
+		assertEquals(3, builder.size());
+		Map<String, Object[]> columns = builder.finish();
+		assertEquals(3, columns.size());
+		assertArrayEquals(new Object[] { 1, 2, null }, columns.get("a"));
+		assertArrayEquals(new Object[] { "x", null, "y" }, columns.get("b"));
+		assertArrayEquals(new Object[] { null, null, 3L }, columns.get("c"));
+	}
+
+	@Test
+	public void testSchemaRows() {
+		TupleSchema schema = new TupleSchema(new String[] { "a", "b" });
+		InsertColumnBuilder builder = new InsertColumnBuilder(16);
+		builder.add(new Tuple(schema, new Object[] { 1, "x" }));
+
+		// null value is missing field
+		builder.add(new Tuple(schema, new Object[] { 2, null }));
+
+		// schema change and map row between schema rows
+		builder.add(new Tuple(new TupleSchema(new String[] { "b", "c" }), new Object[] { "y", 3 }));
+		builder.add(row("a", 4));
+		builder.add(new Tuple(schema, new Object[] { 5, "z" }));
+
+		Map<String, Object[]> columns = builder.finish();
+		assertArrayEquals(new Object[] { 1, 2, null, 4, 5 }, columns.get("a"));
+		assertArrayEquals(new Object[] { "x", null, "y", null, "z" }, columns.get("b"));
+		assertArrayEquals(new Object[] { null, null, 3, null, null }, columns.get("c"));
+	}
+
+	@Test
+	public void testGrow() {
+		TupleSchema schema = new TupleSchema(new String[] { "seq", "even" });
+		InsertColumnBuilder builder = new InsertColumnBuilder(1);
+		for (int i = 0; i < 100; i++) {
+			if (i % 2 == 0)
+				builder.add(new Tuple(schema, new Object[] { i, true }));
+			else
+				builder.add(row("seq", i));
+		}
+
+		assertEquals(100, builder.size());
+		Map<String, Object[]> columns = builder.finish();
+		Object[] seq = columns.get("seq");
+		Object[] even = columns.get("even");
+		assertEquals(100, seq.length);
+		assertEquals(100, even.length);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, seq[i]);
+			assertEquals(i % 2 == 0 ? Boolean.TRUE : null, even[i]);
+		}
+	}
+
+	private static Tuple row(Object... pairs) {
+		Tuple t = new Tuple();
+		for (int i = 0; i < pairs.length; i += 2)
+			t.put((String) pairs[i], pairs[i + 1]);
+		return t;
+	}
+}
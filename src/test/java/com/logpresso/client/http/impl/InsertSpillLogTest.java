@@ -0,0 +1,199 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.logpresso.client.InsertSpillConfig;
+
+public class InsertSpillLogTest {
+	private File dir;
+
+	@Before
+	public void setup() throws IOException {
+		dir = File.createTempFile("spill", "");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void teardown() {
+		File[] files = dir.listFiles();
+		if (files != null) {
+			for (File f : files)
+				f.delete();
+		}
+		dir.delete();
+	}
+
+	@Test
+	public void testRecoverAfterTruncate() throws IOException {
+		InsertSpillLog log = open();
+		log.append("t1", rows("first", 10));
+		log.append("t2", rows("second", 10));
+		log.close();
+
+		// cut second record in the middle of its payload
+		File seg = segments()[0];
+		int first = recordLength(seg, 0);
+		truncate(seg, first + 9 + 3);
+
+		log = open();
+		try {
+			assertEquals(1, log.getPendingCount());
+
+			InsertSpillLog.Record r = log.next();
+			assertNotNull(r);
+			assertEquals("t1", r.getTableName());
+			assertEquals(10, r.getRows().size());
+			assertEquals("first", r.getRows().get(0).get("line"));
+			assertNull(log.next());
+		} finally {
+			log.close();
+		}
+	}
+
+	@Test
+	public void testTornRecordIsDropped() throws IOException {
+		InsertSpillLog log = open();
+		log.append("t1", rows("first", 1));
+		log.append("t2", rows("second", 1));
+		log.close();
+
+		// corrupt last payload byte of second record
+		File seg = segments()[0];
+		int first = recordLength(seg, 0);
+		int second = recordLength(seg, first);
+		RandomAccessFile raf = new RandomAccessFile(seg, "rw");
+		try {
+			long pos = first + second - 1;
+			raf.seek(pos);
+			int b = raf.read();
+			raf.seek(pos);
+			raf.write(b ^ 0xff);
+		} finally {
+			raf.close();
+		}
+
+		log = open();
+		try {
+			assertEquals(1, log.getPendingCount());
+			assertEquals("t1", log.next().getTableName());
+			assertNull(log.next());
+		} finally {
+			log.close();
+		}
+	}
+
+	@Test
+	public void testAckPurgesSealedSegment() throws IOException {
+		InsertSpillLog log = open();
+		try {
+			// each record fills most of a segment, second one rolls a new segment
+			log.append("t1", rows(pad(3000), 1));
+			log.append("t2", rows(pad(3000), 1));
+			assertEquals(2, segments().length);
+			assertEquals(2, log.getPendingCount());
+
+			InsertSpillLog.Record r = log.next();
+			assertEquals("t1", r.getTableName());
+			log.ack(r);
+
+			assertEquals(1, segments().length);
+			assertEquals(1, log.getPendingCount());
+			assertEquals("t2", log.next().getTableName());
+		} finally {
+			log.close();
+		}
+
+		// acked record is not replayed after restart
+		log = open();
+		try {
+			assertEquals(1, log.getPendingCount());
+			assertEquals("t2", log.next().getTableName());
+		} finally {
+			log.close();
+		}
+	}
+
+	@Test
+	public void testDirectoryLock() throws IOException {
+		InsertSpillLog log = open();
+		try {
+			open();
+			fail("spill directory should be locked");
+		} catch (IOException e) {
+		} finally {
+			log.close();
+		}
+
+		// lock is released on close
+		open().close();
+	}
+
+	private InsertSpillLog open() throws IOException {
+		InsertSpillConfig config = new InsertSpillConfig(dir);
+		config.setSegmentSize(4096);
+		return new InsertSpillLog(config);
+	}
+
+	private File[] segments() {
+		return dir.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(".seg");
+			}
+		});
+	}
+
+	// returns header and payload length of record at given offset
+	private int recordLength(File f, int offset) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(f, "r");
+		try {
+			raf.seek(offset);
+			return 9 + raf.readInt();
+		} finally {
+			raf.close();
+		}
+	}
+
+	private void truncate(File f, long length) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(f, "rw");
+		try {
+			raf.setLength(length);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private List<Map<String, Object>> rows(String line, int count) {
+		List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < count; i++) {
+			Map<String, Object> m = new HashMap<String, Object>();
+			m.put("line", line);
+			rows.add(m);
+		}
+		return rows;
+	}
+
+	private String pad(int length) {
+		StringBuilder sb = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			sb.append('x');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,141 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.logpresso.client.AbstractSession;
+import com.logpresso.client.Message;
+
+public class PooledSessionTest {
+	private static final String PLUGIN = "org.araqne.logdb.msgbus.LogQueryPlugin.";
+
+	@Test
+	public void testQueryPinnedToCreator() throws Exception {
+		FakeSession primary = new FakeSession(0);
+		FakeSession a = new FakeSession(1);
+		FakeSession b = new FakeSession(2);
+		PooledSession pool = new PooledSession(Arrays.asList(primary, a, b));
+
+		int id = pool.rpc(request("createQuery", null), 0).getInt("id");
+		FakeSession owner = id == 1 ? a : b;
+
+		pool.registerTrap("logdb-query-" + id);
+		pool.registerTrap("logdb-query-result-" + id);
+		pool.registerTrap("logdb-metadata");
+		pool.rpc(request("startQuery", id), 0);
+		pool.rpc(request("getResult", id), 0);
+		pool.rpc(request("removeQuery", id), 0);
+
+		assertEquals(Arrays.asList("createQuery", "subscribe:logdb-query-" + id, "subscribe:logdb-query-result-" + id,
+				"startQuery", "getResult", "removeQuery"), owner.calls);
+		assertEquals(Arrays.asList("subscribe:logdb-metadata"), primary.calls);
+
+		// removed query is unknown, falls back to primary
+		pool.rpc(request("getResult", id), 0);
+		assertEquals("getResult", primary.calls.get(primary.calls.size() - 1));
+	}
+
+	@Test
+	public void testQueryListMerged() throws Exception {
+		FakeSession primary = new FakeSession(0);
+		FakeSession a = new FakeSession(1);
+		PooledSession pool = new PooledSession(Arrays.asList(primary, a));
+
+		Message resp = pool.rpc(request("queries", null), 0);
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> l = (List<Map<String, Object>>) resp.get("queries");
+		assertEquals(2, l.size());
+
+		// listed query is routed to the session which reported it
+		pool.rpc(request("stopQuery", 101), 0);
+		assertEquals("stopQuery", a.calls.get(a.calls.size() - 1));
+	}
+
+	@Test
+	public void testCloseNotifiedOnce() throws Exception {
+		FakeSession primary = new FakeSession(0);
+		FakeSession a = new FakeSession(1);
+		PooledSession pool = new PooledSession(Arrays.asList(primary, a));
+
+		final List<Throwable> closes = new ArrayList<Throwable>();
+		pool.addListener(new TrapListener() {
+			@Override
+			public void onTrap(Message msg) {
+			}
+
+			@Override
+			public void onClose(Throwable t) {
+				closes.add(t);
+			}
+		});
+
+		assertFalse(pool.isClosed());
+		a.disconnect();
+		assertTrue(pool.isClosed());
+		assertTrue(primary.isClosed());
+		assertEquals(1, closes.size());
+	}
+
+	private static Message request(String method, Integer id) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		if (id != null)
+			params.put("id", id);
+
+		Message m = new Message();
+		m.setMethod(PLUGIN + method);
+		m.setParameters(params);
+		return m;
+	}
+
+	private static class FakeSession extends AbstractSession {
+		private final int index;
+		private final List<String> calls = new ArrayList<String>();
+
+		public FakeSession(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public Message rpc(Message req, int timeout) throws IOException, TimeoutException {
+			String method = req.getMethod();
+			Map<String, Object> params = new HashMap<String, Object>();
+			if (method.startsWith(PLUGIN)) {
+				method = method.substring(PLUGIN.length());
+				if (method.equals("createQuery"))
+					params.put("id", index);
+
+				if (method.equals("queries")) {
+					Map<String, Object> q = new HashMap<String, Object>();
+					q.put("id", 100 + index);
+					params.put("queries", new ArrayList<Object>(Arrays.asList(q)));
+				}
+			} else {
+				method = "subscribe:" + req.get("callback");
+			}
+
+			calls.add(method);
+
+			Message resp = new Message();
+			resp.setType(Message.Type.Response);
+			resp.setParameters(params);
+			return resp;
+		}
+
+		public void disconnect() throws IOException {
+			close();
+			for (TrapListener listener : listeners)
+				listener.onClose(null);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.logpresso.client.Message;
+
+public class StreamingMessageCodecTest {
+	private static final String HEADER = "{\"guid\":\"g\",\"type\":\"Response\",\"source\":\"0\",\"target\":\"0\",\"method\":\"m\"}";
+
+	@After
+	public void teardown() {
+		MessageCodec.setStreaming(false);
+	}
+
+	@Test
+	public void testNumberParity() {
+		String[] numbers = { "0", "1", "-1", "2147483647", "-2147483648", "2147483648", "-2147483649", "9223372036854775807",
+				"-9223372036854775808", "0.5", "-0.5", "1.0", "1e3", "1E-3", "-2.5e+10", "123456789.125" };
+
+		for (String n : numbers) {
+			Object tree = decodeValue(false, n);
+			Object streaming = decodeValue(true, n);
+			assertEquals(n, tree, streaming);
+			assertEquals(n, tree.getClass(), streaming.getClass());
+		}
+	}
+
+	@Test
+	public void testNegativeZero() {
+		assertEquals(Double.valueOf(-0.0), decodeValue(true, "-0"));
+		assertEquals(Double.valueOf(-0.0), decodeValue(true, "-0.0"));
+		assertEquals(Integer.valueOf(0), decodeValue(true, "0"));
+	}
+
+	@Test
+	public void testOutOfLongRange() {
+		assertEquals(new BigInteger("9223372036854775808"), decodeValue(true, "9223372036854775808"));
+		assertEquals(new BigInteger("-9223372036854775809"), decodeValue(true, "-9223372036854775809"));
+		assertEquals(new BigInteger("123456789012345678901234567890"), decodeValue(true, "123456789012345678901234567890"));
+	}
+
+	@Test
+	public void testNestedParity() {
+		String body = "{\"s\":\"a\\\"b\\\\c\\n\\u00e9\\u2028\",\"n\":null,\"t\":true,\"f\":false,\"e\":[],\"o\":{},"
+				+ "\"l\":[1,2.5,\"x\",null,[3],{\"k\":-4}],\"m\":{\"a\":{\"b\":[10000000000]}}}";
+
+		Map<String, Object> tree = decode(false, body).getParameters();
+		Map<String, Object> streaming = decode(true, body).getParameters();
+		assertEquals(tree, streaming);
+		assertNull(streaming.get("n"));
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Map<String, Object> nested = new HashMap<String, Object>();
+		nested.put("big", new BigInteger("99999999999999999999"));
+		nested.put("zero", -0.0);
+
+		List<Object> list = new ArrayList<Object>();
+		list.add(1);
+		list.add(3000000000L);
+		list.add(0.25);
+		list.add(null);
+		list.add("\u0001\t\"");
+
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("nested", nested);
+		params.put("list", list);
+		params.put("array", new int[] { 1, 2 });
+
+		Message msg = new Message();
+		msg.setMethod("m");
+		msg.setParameters(params);
+
+		MessageCodec.setStreaming(true);
+		Message decoded = MessageCodec.decode(MessageCodec.encode(msg));
+
+		Map<String, Object> expected = new HashMap<String, Object>(params);
+		expected.put("array", Arrays.<Object> asList(1, 2));
+		assertEquals(expected, decoded.getParameters());
+	}
+
+	private Object decodeValue(boolean streaming, String number) {
+		return decode(streaming, "{\"v\":" + number + "}").get("v");
+	}
+
+	private Message decode(boolean streaming, String body) {
+		MessageCodec.setStreaming(streaming);
+		return MessageCodec.decode("[" + HEADER + "," + body + "]");
+	}
+}
@@ -0,0 +1,144 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StreamingResultQueueTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMemoryOrder() throws Exception {
+		StreamingResultQueue queue = new StreamingResultQueue(100, null);
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+
+		// first item is accepted even if larger than limit
+		queue.offer(params(0), 150, false);
+		queue.offer(params(1), 10, true);
+		assertEquals(160, queue.getMemoryBytes());
+
+		assertEquals(0, seq(queue.poll()));
+		assertEquals(1, seq(queue.poll()));
+		assertEquals(0, queue.getMemoryBytes());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test(timeout = 10000)
+	public void testBlockUntilPolled() throws Exception {
+		final StreamingResultQueue queue = new StreamingResultQueue(100, null);
+		queue.offer(params(0), 60, false);
+
+		final CountDownLatch offered = new CountDownLatch(1);
+		Thread receiver = offerAsync(queue, params(1), 60, offered, new AtomicReference<Throwable>());
+		assertFalse(offered.await(200, TimeUnit.MILLISECONDS));
+
+		// forced item does not wait
+		queue.offer(params(2), 60, true);
+		assertEquals(0, seq(queue.poll()));
+		assertFalse(offered.await(200, TimeUnit.MILLISECONDS));
+
+		assertEquals(2, seq(queue.poll()));
+		assertTrue(offered.await(5, TimeUnit.SECONDS));
+		receiver.join();
+		assertEquals(1, seq(queue.poll()));
+		assertNull(queue.poll());
+	}
+
+	@Test(timeout = 10000)
+	public void testCloseReleasesBlockedOffer() throws Exception {
+		StreamingResultQueue queue = new StreamingResultQueue(100, null);
+		queue.offer(params(0), 100, false);
+
+		CountDownLatch offered = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread receiver = offerAsync(queue, params(1), 100, offered, failure);
+		assertFalse(offered.await(200, TimeUnit.MILLISECONDS));
+
+		queue.close();
+		assertTrue(offered.await(5, TimeUnit.SECONDS));
+		receiver.join();
+		assertNull(failure.get());
+
+		// closed queue discards items
+		queue.offer(params(2), 10, false);
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void testSpillKeepsOrder() throws Exception {
+		StreamingResultQueue queue = new StreamingResultQueue(100, folder.getRoot());
+		queue.offer(params(0), 60, false);
+		queue.offer(params(1), 60, false);
+		assertEquals(60, queue.getMemoryBytes());
+		assertTrue(queue.getSpilledBytes() > 0);
+
+		// memory is free, but spilled item is older
+		assertEquals(0, seq(queue.poll()));
+		queue.offer(params(2), 10, false);
+		assertEquals(0, queue.getMemoryBytes());
+
+		Map<String, Object> spilled = queue.poll();
+		assertEquals(1, seq(spilled));
+		assertEquals(Arrays.asList("a", "b"), spilled.get("rows"));
+		assertEquals(2, seq(queue.poll()));
+		assertTrue(queue.isEmpty());
+
+		// spill file is reused from beginning
+		queue.offer(params(3), 10, false);
+		assertEquals(10, queue.getMemoryBytes());
+		assertEquals(3, seq(queue.poll()));
+
+		queue.close();
+		assertEquals(0, folder.getRoot().list().length);
+	}
+
+	private static Thread offerAsync(final StreamingResultQueue queue, final Map<String, Object> params, final long size,
+			final CountDownLatch offered, final AtomicReference<Throwable> failure) {
+		Thread t = new Thread() {
+			@Override
+			public void run() {
+				try {
+					queue.offer(params, size, false);
+				} catch (Throwable t) {
+					failure.set(t);
+				} finally {
+					offered.countDown();
+				}
+			}
+		};
+		t.start();
+		return t;
+	}
+
+	private static Map<String, Object> params(int seq) {
+		List<Object> rows = new ArrayList<Object>();
+		rows.add("a");
+		rows.add("b");
+
+		Map<String, Object> m = new HashMap<String, Object>();
+		m.put("seq", seq);
+		m.put("rows", rows);
+		return m;
+	}
+
+	private static int seq(Map<String, Object> params) {
+		return (Integer) params.get("seq");
+	}
+}
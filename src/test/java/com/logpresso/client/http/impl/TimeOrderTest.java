@@ -0,0 +1,49 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class TimeOrderTest {
+
+	@Test
+	public void testSorted() {
+		assertNull(TimeOrder.sort(new long[0]));
+		assertNull(TimeOrder.sort(new long[] { 1, 2, 2, 3 }));
+		assertNull(TimeOrder.sort(new Object[] { null, new Date(1), new Date(1), new Date(5) }));
+	}
+
+	@Test
+	public void testStableOrder() {
+		int[] order = TimeOrder.sort(new long[] { 30, 10, 20, 10, 30 });
+		assertArrayEquals(new int[] { 1, 3, 2, 0, 4 }, order);
+	}
+
+	@Test
+	public void testMissingTimeFirst() {
+		Object[] times = new Object[] { new Date(20), null, new Date(10), "20", null };
+		int[] order = TimeOrder.sort(times);
+		assertArrayEquals(new int[] { 1, 3, 4, 2, 0 }, order);
+	}
+
+	@Test
+	public void testPermute() {
+		int[] order = new int[] { 2, 0, 1 };
+		assertArrayEquals(new Object[] { "c", "a", "b" }, (Object[]) TimeOrder.permute(new Object[] { "a", "b", "c" }, order));
+		assertArrayEquals(new long[] { 3, 1, 2 }, (long[]) TimeOrder.permute(new long[] { 1, 2, 3 }, order));
+		assertArrayEquals(new double[] { 3, 1, 2 }, (double[]) TimeOrder.permute(new double[] { 1, 2, 3 }, order), 0);
+		assertArrayEquals(new int[] { 3, 1, 2 }, (int[]) TimeOrder.permute(new int[] { 1, 2, 3 }, order));
+
+		boolean[] flags = (boolean[]) TimeOrder.permute(new boolean[] { true, false, false }, order);
+		assertTrue(!flags[0] && flags[1] && !flags[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPermuteUnsupported() {
+		TimeOrder.permute(new float[] { 1, 2 }, new int[] { 1, 0 });
+	}
+}
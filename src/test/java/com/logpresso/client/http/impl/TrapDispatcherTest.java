@@ -0,0 +1,225 @@
+package com.logpresso.client.http.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.logpresso.client.Message;
+
+public class TrapDispatcherTest {
+
+	@Test(timeout = 10000)
+	public void testOrderPerQuery() throws InterruptedException {
+		Recorder recorder = new Recorder();
+		TrapDispatcher dispatcher = new TrapDispatcher("test", 3, 4);
+		for (int seq = 0; seq < 200; seq++)
+			for (int query = 1; query <= 5; query++)
+				assertTrue(dispatcher.dispatch(trap("logdb-query-" + query, seq), listeners(recorder)));
+
+		dispatcher.close(5000);
+		dispatcher.awaitTermination();
+
+		assertEquals(1000, dispatcher.getDispatchCount());
+		for (int query = 1; query <= 5; query++)
+			assertEquals(sequence(0, 200), recorder.get("logdb-query-" + query));
+	}
+
+	@Test(timeout = 10000)
+	public void testCloseDrainsQueuedTraps() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		Recorder recorder = new Recorder() {
+			@Override
+			public void onTrap(Message msg) {
+				await(release);
+				super.onTrap(msg);
+			}
+		};
+
+		TrapDispatcher dispatcher = new TrapDispatcher("test", 1, 100);
+		for (int seq = 0; seq < 50; seq++)
+			dispatcher.dispatch(trap("logdb-query-1", seq), listeners(recorder));
+
+		// worker is stuck, close gives up waiting but should not drop anything
+		dispatcher.close(100);
+		assertFalse(dispatcher.dispatch(trap("logdb-query-1", 50), listeners(recorder)));
+
+		release.countDown();
+		dispatcher.awaitTermination();
+		assertEquals(sequence(0, 50), recorder.get("logdb-query-1"));
+	}
+
+	@Test(timeout = 10000)
+	public void testReceiverDoesNotWaitForBlockedWorker() throws InterruptedException {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch reply = new CountDownLatch(1);
+		Recorder recorder = new Recorder() {
+			@Override
+			public void onTrap(Message msg) {
+				if (seq(msg) == 0) {
+					// simulates blocking rpc which needs receiver thread for reply
+					TrapDispatcher.beginBlockingCall();
+					try {
+						blocked.countDown();
+						await(reply);
+					} finally {
+						TrapDispatcher.endBlockingCall();
+					}
+				}
+				super.onTrap(msg);
+			}
+		};
+
+		TrapDispatcher dispatcher = new TrapDispatcher("test", 1, 1);
+		dispatcher.dispatch(trap("logdb-query-1", 0), listeners(recorder));
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+		// queue is full, but worker waits for receiver
+		for (int seq = 1; seq < 10; seq++)
+			assertTrue(dispatcher.dispatch(trap("logdb-query-1", seq), listeners(recorder)));
+		assertEquals(9, dispatcher.getQueuedCount());
+
+		reply.countDown();
+		dispatcher.close(5000);
+		dispatcher.awaitTermination();
+		assertEquals(sequence(0, 10), recorder.get("logdb-query-1"));
+	}
+
+	@Test(timeout = 10000)
+	public void testCloseFromListener() throws InterruptedException {
+		final TrapDispatcher[] holder = new TrapDispatcher[1];
+		Recorder recorder = new Recorder() {
+			@Override
+			public void onTrap(Message msg) {
+				if (seq(msg) == 0)
+					holder[0].close(10000);
+				super.onTrap(msg);
+			}
+		};
+
+		final CountDownLatch closing = new CountDownLatch(1);
+		TrapDispatcher dispatcher = new TrapDispatcher("test", 1, 1) {
+			@Override
+			public void close(long timeout) {
+				super.close(timeout);
+				closing.countDown();
+			}
+		};
+		holder[0] = dispatcher;
+
+		int accepted = 0;
+		for (int seq = 0; seq < 5; seq++)
+			if (dispatcher.dispatch(trap("logdb-query-1", seq), listeners(recorder)))
+				accepted++;
+
+		assertTrue(closing.await(5, TimeUnit.SECONDS));
+		dispatcher.awaitTermination();
+		assertEquals(sequence(0, accepted), recorder.get("logdb-query-1"));
+	}
+
+	@Test(timeout = 10000)
+	public void testReplaceKeepsOrder() throws InterruptedException {
+		final CountDownLatch release = new CountDownLatch(1);
+		Recorder recorder = new Recorder() {
+			@Override
+			public void onTrap(Message msg) {
+				if (seq(msg) == 0)
+					await(release);
+				super.onTrap(msg);
+			}
+		};
+
+		final TrapDispatcher old = new TrapDispatcher("old", 2, 10);
+		for (int seq = 0; seq < 5; seq++)
+			old.dispatch(trap("logdb-query-1", seq), listeners(recorder));
+
+		TrapDispatcher next = new TrapDispatcher("next", 2, 10, old);
+		Thread closer = new Thread() {
+			@Override
+			public void run() {
+				old.close(10000);
+			}
+		};
+		closer.start();
+
+		for (int seq = 5; seq < 10; seq++)
+			assertTrue(next.dispatch(trap("logdb-query-1", seq), listeners(recorder)));
+
+		release.countDown();
+		closer.join();
+		next.close(5000);
+		next.awaitTermination();
+		assertEquals(sequence(0, 10), recorder.get("logdb-query-1"));
+	}
+
+	private static Message trap(String method, int seq) {
+		Map<String, Object> params = new HashMap<String, Object>();
+		params.put("seq", seq);
+
+		Message msg = new Message();
+		msg.setType(Message.Type.Trap);
+		msg.setMethod(method);
+		msg.setParameters(params);
+		return msg;
+	}
+
+	private static int seq(Message msg) {
+		return (Integer) msg.getParameters().get("seq");
+	}
+
+	private static Collection<TrapListener> listeners(TrapListener listener) {
+		return Collections.singletonList(listener);
+	}
+
+	private static List<Integer> sequence(int begin, int end) {
+		List<Integer> l = new ArrayList<Integer>();
+		for (int i = begin; i < end; i++)
+			l.add(i);
+		return l;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class Recorder implements TrapListener {
+		private final Map<String, List<Integer>> received = new HashMap<String, List<Integer>>();
+
+		@Override
+		public void onTrap(Message msg) {
+			synchronized (received) {
+				List<Integer> l = received.get(msg.getMethod());
+				if (l == null) {
+					l = new ArrayList<Integer>();
+					received.put(msg.getMethod(), l);
+				}
+				l.add(seq(msg));
+			}
+		}
+
+		@Override
+		public void onClose(Throwable t) {
+		}
+
+		public List<Integer> get(String method) {
+			synchronized (received) {
+				List<Integer> l = received.get(method);
+				return l == null ? new ArrayList<Integer>() : new ArrayList<Integer>(l);
+			}
+		}
+	}
+}